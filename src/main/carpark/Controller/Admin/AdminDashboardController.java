@@ -2,6 +2,7 @@ package Controller.Admin;
 
 import Model.Entity.User;
 import Service.Admin.AdminService;
+import Utilities.SceneManager;
 import Utilities.SessionManager;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -17,12 +18,28 @@ import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.List;
 
 public class AdminDashboardController {
 
+    private static final String BRANCHES_PAGE = "/fxml/admin/branch_management_page.fxml";
+    private static final String REPORTS_PAGE = "/fxml/admin/reports_page.fxml";
+    private static final String OCCUPANCY_PAGE = "/fxml/admin/occupancy_heatmap_page.fxml";
+    private static final String SLOT_MIX_PAGE = "/fxml/admin/slot_config_page.fxml";
+    private static final String USERS_PAGE = "/fxml/admin/user_management_page.fxml";
+    private static final String SEARCH_PAGE = "/fxml/admin/search_page.fxml";
+
+    /**
+     * Pages preloaded at login, most likely first.
+     */
+    public static final List<String> PAGES = List.of(REPORTS_PAGE, SEARCH_PAGE, BRANCHES_PAGE, USERS_PAGE, OCCUPANCY_PAGE, SLOT_MIX_PAGE);
+
     @FXML private Button branchesButton;
     @FXML private Button reportsButton;
+    @FXML private Button occupancyButton;
+    @FXML private Button slotMixButton;
     @FXML private Button usersButton;
+    @FXML private Button searchButton;
     @FXML private MenuButton accountButton;
     @FXML private MenuItem logoutMenuItem;
 
@@ -48,19 +65,37 @@ public class AdminDashboardController {
     @FXML
     private void handleBranchesClick(ActionEvent event) {
         System.out.println("Manage Branches clicked.");
-        loadPage("/fxml/admin/branch_management_page.fxml");
+        loadPage(BRANCHES_PAGE);
     }
 
     @FXML
     private void handleReportsClick(ActionEvent event) {
         System.out.println("View Reports clicked.");
-        loadPage("/fxml/admin/reports_page.fxml");
+        loadPage(REPORTS_PAGE);
+    }
+
+    @FXML
+    private void handleOccupancyClick(ActionEvent event) {
+        System.out.println("Occupancy Heatmap clicked.");
+        loadPage(OCCUPANCY_PAGE);
+    }
+
+    @FXML
+    private void handleSlotMixClick(ActionEvent event) {
+        System.out.println("Slot Mix clicked.");
+        loadPage(SLOT_MIX_PAGE);
     }
 
     @FXML
     private void handleUsersClick(ActionEvent event) {
         System.out.println("Manage Users clicked.");
-        loadPage("/fxml/admin/user_management_page.fxml");
+        loadPage(USERS_PAGE);
+    }
+
+    @FXML
+    private void handleSearchClick(ActionEvent event) {
+        System.out.println("Search clicked.");
+        loadPage(SEARCH_PAGE);
     }
 
     @FXML
@@ -94,14 +129,7 @@ public class AdminDashboardController {
         }
 
         try {
-            URL fxmlUrl = getClass().getResource(fxmlPath);
-            if (fxmlUrl == null) {
-                mainContentArea.getChildren().setAll(new Label("Error: Page not found (" + fxmlPath + ")"));
-                System.err.println("Cannot find FXML file: " + fxmlPath);
-                return;
-            }
-
-            Parent page = FXMLLoader.load(fxmlUrl);
+            Parent page = SceneManager.show(fxmlPath).getRoot();
 
             mainContentArea.getChildren().setAll(page);
 
@@ -111,6 +139,7 @@ public class AdminDashboardController {
             AnchorPane.setRightAnchor(page, 0.0);
 
         } catch (IOException e) {
+            mainContentArea.getChildren().setAll(new Label("Error: Page not found (" + fxmlPath + ")"));
             System.err.println("Error loading page: " + fxmlPath);
             e.printStackTrace();
         }
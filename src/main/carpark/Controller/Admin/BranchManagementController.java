@@ -6,6 +6,7 @@ import Model.Entity.Pricing;
 import Model.Entity.SlotType;
 import Model.Entity.User;
 import Service.Admin.BranchManagementService;
+import Utilities.SceneManager;
 import Utilities.SessionManager;
 import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
@@ -19,7 +20,7 @@ import java.math.BigDecimal;
 import java.time.LocalTime;
 import java.util.List;
 
-public class BranchManagementController {
+public class BranchManagementController implements SceneManager.Resettable {
 
     @FXML private TextField branchNameField;
     @FXML private TextField maxSlotsField;
@@ -28,6 +29,8 @@ public class BranchManagementController {
     @FXML private TextField branchLocationField;
     @FXML private TextField openingTimeField;
     @FXML private TextField closingTimeField;
+    @FXML private TextField latitudeField;
+    @FXML private TextField longitudeField;
     @FXML private Label branchStatusLabel;
 
     @FXML private ComboBox<Branch> pricingBranchComboBox;
@@ -55,6 +58,17 @@ public class BranchManagementController {
         loadBranchAndSlotData();
     }
 
+    /**
+     * Reloads the branches, which another admin may have changed, and clears old status messages.
+     */
+    @Override
+    public void reset() {
+        branchStatusLabel.setText("");
+        pricingStatusLabel.setText("");
+        configStatusLabel.setText("");
+        loadBranchAndSlotData();
+    }
+
     /**
      * Loads branches and slot types into all necessary ComboBoxes.
      */
@@ -89,6 +103,18 @@ public class BranchManagementController {
             LocalTime close = LocalTime.parse(closingTimeField.getText());
 
             Branch newBranch = new Branch(name, contact, email, maxSlots, location, open, close);
+            // Coordinates are optional; without them the branch is never suggested as a nearby alternative
+            if (!latitudeField.getText().isBlank() && !longitudeField.getText().isBlank()) {
+                double latitude = Double.parseDouble(latitudeField.getText().trim());
+                double longitude = Double.parseDouble(longitudeField.getText().trim());
+                if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+                    branchStatusLabel.setText("Error: Coordinates are out of range.");
+                    branchStatusLabel.setStyle("-fx-text-fill: red;");
+                    return;
+                }
+                newBranch.setLatitude(latitude);
+                newBranch.setLongitude(longitude);
+            }
 
             int newId = managementService.createNewBranch(adminUser, newBranch);
 
@@ -102,7 +128,7 @@ public class BranchManagementController {
             }
 
         } catch (NumberFormatException e) {
-            branchStatusLabel.setText("Error: Max Slots must be a number.");
+            branchStatusLabel.setText("Error: Max Slots and coordinates must be numbers.");
             branchStatusLabel.setStyle("-fx-text-fill: red;");
         } catch (SecurityException e) {
             branchStatusLabel.setText("ERROR: Authorization failed.");
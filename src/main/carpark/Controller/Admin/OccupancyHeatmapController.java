@@ -0,0 +1,175 @@
+package Controller.Admin;
+
+import DAO.ParkingDAO;
+import Model.DTO.OccupancyHeatmapDTO;
+import Model.Entity.Branch;
+import Model.Entity.SlotType;
+import Model.Entity.User;
+import Service.Admin.ReportService;
+import Utilities.SessionManager;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Region;
+import javafx.util.StringConverter;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.TextStyle;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static Model.DTO.OccupancyHeatmapDTO.BUCKETS_PER_DAY;
+import static Model.DTO.OccupancyHeatmapDTO.BUCKET_MINUTES;
+
+public class OccupancyHeatmapController {
+    @FXML private ComboBox<Branch> branchComboBox;
+    @FXML private ComboBox<SlotType> slotTypeComboBox;
+    @FXML private DatePicker fromDatePicker;
+    @FXML private DatePicker toDatePicker;
+    @FXML private GridPane heatmapGrid;
+    @FXML private Label statusLabel;
+
+    private static final ExecutorService HEATMAP_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "heatmap-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final int DEFAULT_WEEKS = 4;
+    private static final double CELL_WIDTH = 9.0;
+    private static final double CELL_HEIGHT = 32.0;
+
+    private ReportService reportService;
+    private ParkingDAO parkingDAO;
+    private User adminUser;
+
+    // Incremented per request so a slow earlier heatmap does not overwrite a newer one
+    private int heatmapGeneration;
+
+    @FXML
+    public void initialize() {
+        this.reportService = new ReportService();
+        this.parkingDAO = new ParkingDAO();
+        this.adminUser = SessionManager.getCurrentUser();
+
+        setupFilters();
+    }
+
+    private void setupFilters() {
+        List<Branch> allBranches = parkingDAO.getAllBranches();
+        branchComboBox.setItems(FXCollections.observableArrayList(allBranches));
+        branchComboBox.setConverter(new StringConverter<>() {
+            @Override public String toString(Branch b) { return b == null ? null : b.getName(); }
+            @Override public Branch fromString(String s) { return null; }
+        });
+
+        // null stands for the whole branch
+        slotTypeComboBox.setItems(FXCollections.observableArrayList(SlotType.values()));
+        slotTypeComboBox.getItems().add(0, null);
+        slotTypeComboBox.setConverter(new StringConverter<>() {
+            @Override public String toString(SlotType t) { return t == null ? "All Types" : t.name(); }
+            @Override public SlotType fromString(String s) { return null; }
+        });
+        slotTypeComboBox.getSelectionModel().select(0);
+
+        toDatePicker.setValue(LocalDate.now());
+        fromDatePicker.setValue(LocalDate.now().minusWeeks(DEFAULT_WEEKS).plusDays(1));
+
+        if (!allBranches.isEmpty()) {
+            branchComboBox.getSelectionModel().select(0);
+            handleGenerateHeatmap(null);
+        }
+    }
+
+    @FXML
+    private void handleGenerateHeatmap(ActionEvent event) {
+        Branch branch = branchComboBox.getValue();
+        SlotType slotType = slotTypeComboBox.getValue();
+        LocalDate from = fromDatePicker.getValue();
+        LocalDate to = toDatePicker.getValue();
+
+        if (branch == null || from == null || to == null) {
+            showStatus("Please select a branch and a date range.", javafx.scene.paint.Color.RED);
+            return;
+        }
+        if (to.isBefore(from)) {
+            showStatus("The end date must not be before the start date.", javafx.scene.paint.Color.RED);
+            return;
+        }
+
+        int generation = ++heatmapGeneration;
+        showStatus("Building heatmap for " + branch.getName() + "...", javafx.scene.paint.Color.GRAY);
+
+        CompletableFuture.supplyAsync(
+                () -> reportService.generateOccupancyHeatmap(adminUser, branch.getBranch_ID(), slotType, from, to),
+                HEATMAP_EXECUTOR
+        ).whenComplete((heatmap, error) -> Platform.runLater(() -> {
+            if (generation != heatmapGeneration) return;
+            if (error != null || heatmap.isEmpty()) {
+                if (error != null) System.err.println("OccupancyHeatmapController: heatmap failed: " + error);
+                heatmapGrid.getChildren().clear();
+                showStatus("ERROR: Occupancy data could not be retrieved from the database.", javafx.scene.paint.Color.RED);
+                return;
+            }
+            renderHeatmap(heatmap.get());
+            showStatus("Heatmap generated for " + branch.getName() + ", " + from + " to " + to
+                    + " (" + heatmap.get().getCapacity() + " slots).", javafx.scene.paint.Color.GREEN);
+        }));
+    }
+
+    private void renderHeatmap(OccupancyHeatmapDTO heatmap) {
+        heatmapGrid.getChildren().clear();
+
+        // Header: one label per hour, spanning its four 15-minute columns
+        int bucketsPerHour = 60 / BUCKET_MINUTES;
+        for (int hour = 0; hour < 24; hour++) {
+            Label label = new Label(String.format("%02d", hour));
+            label.setStyle("-fx-font-size: 10;");
+            heatmapGrid.add(label, 1 + hour * bucketsPerHour, 0, bucketsPerHour, 1);
+        }
+
+        for (DayOfWeek day : DayOfWeek.values()) {
+            int row = day.getValue();
+            Label dayLabel = new Label(day.getDisplayName(TextStyle.SHORT, Locale.getDefault()));
+            dayLabel.setMinWidth(40.0);
+            heatmapGrid.add(dayLabel, 0, row);
+
+            for (int bucket = 0; bucket < BUCKETS_PER_DAY; bucket++) {
+                heatmapGrid.add(createCell(heatmap, day, bucket), 1 + bucket, row);
+            }
+        }
+    }
+
+    private Region createCell(OccupancyHeatmapDTO heatmap, DayOfWeek day, int bucket) {
+        double utilization = Math.min(1.0, heatmap.getUtilization(day, bucket));
+
+        Region cell = new Region();
+        cell.setPrefSize(CELL_WIDTH, CELL_HEIGHT);
+        cell.setMinSize(CELL_WIDTH, CELL_HEIGHT);
+        // Hue 120 (green) for an empty branch down to 0 (red) when it is full
+        cell.setStyle(String.format(Locale.ROOT, "-fx-background-color: hsb(%.0f, 70%%, 85%%);", 120 * (1 - utilization)));
+
+        LocalTime start = LocalTime.MIDNIGHT.plusMinutes((long) bucket * BUCKET_MINUTES);
+        Tooltip tooltip = new Tooltip(String.format("%s %s-%s%nAverage parked: %.1f of %d (%.0f%%)%nPeak parked: %d",
+                day.getDisplayName(TextStyle.FULL, Locale.getDefault()), start, start.plusMinutes(BUCKET_MINUTES),
+                heatmap.getAverageOccupied(day, bucket), heatmap.getCapacity(), utilization * 100,
+                heatmap.getPeakOccupied(day, bucket)));
+        Tooltip.install(cell, tooltip);
+        return cell;
+    }
+
+    private void showStatus(String message, javafx.scene.paint.Color color) {
+        statusLabel.setText(message);
+        statusLabel.setTextFill(color);
+    }
+}
@@ -1,13 +1,17 @@
 package Controller.Admin;
 
+import Model.DTO.DurationDistributionDTO;
 import Model.DTO.DurationReportDTO;
 import Model.DTO.OccupancyReportDTO;
+import Model.DTO.PaymentDistributionDTO;
 import Model.DTO.RevenueReportDTO;
 import Model.DTO.SlotUtilizationDTO;
 import Model.Entity.User;
 import Service.Admin.ReportService;
 import Service.UserService;
+import Utilities.SceneManager;
 import Utilities.SessionManager;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -19,10 +23,15 @@ import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.time.YearMonth;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-public class ReportController {
+public class ReportController implements SceneManager.Resettable {
     @FXML private ComboBox<String> monthComboBox;
     @FXML private ComboBox<Integer> yearComboBox;
     @FXML private Label statusLabel;
@@ -31,6 +40,8 @@ public class ReportController {
     @FXML private TableView<RevenueReportDTO> revenueTable;
     @FXML private TableView<DurationReportDTO> durationTable;
     @FXML private TableView<SlotUtilizationDTO> utilizationTable;
+    @FXML private TableView<DurationDistributionDTO> durationDistributionTable;
+    @FXML private TableView<PaymentDistributionDTO> paymentDistributionTable;
 
     @FXML private TableColumn<OccupancyReportDTO, String> branchOccColumn;
     @FXML private TableColumn<OccupancyReportDTO, Integer> maxSlotsColumn;
@@ -47,11 +58,38 @@ public class ReportController {
     @FXML private TableColumn<SlotUtilizationDTO, String> slotTypeUtilColumn;
     @FXML private TableColumn<SlotUtilizationDTO, Integer> reservationCountColumn;
 
+    @FXML private TableColumn<DurationDistributionDTO, String> branchDistColumn;
+    @FXML private TableColumn<DurationDistributionDTO, String> slotTypeDistColumn;
+    @FXML private TableColumn<DurationDistributionDTO, Long> stayCountColumn;
+    @FXML private TableColumn<DurationDistributionDTO, Double> medianDurationColumn;
+    @FXML private TableColumn<DurationDistributionDTO, Double> p90DurationColumn;
+    @FXML private TableColumn<DurationDistributionDTO, Double> p99DurationColumn;
+    @FXML private TableColumn<DurationDistributionDTO, Double> longestDurationColumn;
+
+    @FXML private TableColumn<PaymentDistributionDTO, String> branchPayDistColumn;
+    @FXML private TableColumn<PaymentDistributionDTO, String> slotTypePayDistColumn;
+    @FXML private TableColumn<PaymentDistributionDTO, Long> paymentCountColumn;
+    @FXML private TableColumn<PaymentDistributionDTO, String> medianPaymentColumn;
+    @FXML private TableColumn<PaymentDistributionDTO, String> p90PaymentColumn;
+    @FXML private TableColumn<PaymentDistributionDTO, String> p99PaymentColumn;
+    @FXML private TableColumn<PaymentDistributionDTO, String> paymentHistogramColumn;
+
+
+    // Enough threads for the six reports of one request; shared by every report page
+    private static final ExecutorService REPORT_EXECUTOR = Executors.newFixedThreadPool(6, runnable -> {
+        Thread thread = new Thread(runnable, "report-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final long REPORT_TIMEOUT_SECONDS = 20;
 
     private ReportService reportService;
     private User adminUser;
     private UserService userService;
 
+    // Incremented per request so late results from an earlier month/year are ignored
+    private int reportGeneration;
+
     @FXML
     public void initialize() {
         this.reportService = new ReportService();
@@ -65,6 +103,14 @@ public class ReportController {
         handleGenerateReport(null);
     }
 
+    /**
+     * Regenerates the reports for the selected month, for when the cached page is shown again.
+     */
+    @Override
+    public void reset() {
+        handleGenerateReport(null);
+    }
+
     private void setupFilters() {
         List<String> months = List.of("January", "February", "March", "April", "May", "June", "July", "August", "September", "October", "November", "December");
         monthComboBox.setItems(FXCollections.observableArrayList(months));
@@ -101,6 +147,30 @@ public class ReportController {
         // Utilization Table
         slotTypeUtilColumn.setCellValueFactory(new PropertyValueFactory<>("slotType"));
         reservationCountColumn.setCellValueFactory(new PropertyValueFactory<>("reservationCount"));
+
+        // Duration Percentiles Table
+        branchDistColumn.setCellValueFactory(new PropertyValueFactory<>("branchName"));
+        slotTypeDistColumn.setCellValueFactory(new PropertyValueFactory<>("slotType"));
+        stayCountColumn.setCellValueFactory(new PropertyValueFactory<>("stayCount"));
+        medianDurationColumn.setCellValueFactory(new PropertyValueFactory<>("medianHours"));
+        p90DurationColumn.setCellValueFactory(new PropertyValueFactory<>("p90Hours"));
+        p99DurationColumn.setCellValueFactory(new PropertyValueFactory<>("p99Hours"));
+        longestDurationColumn.setCellValueFactory(new PropertyValueFactory<>("longestHours"));
+
+        // Payment Distribution Table
+        branchPayDistColumn.setCellValueFactory(new PropertyValueFactory<>("branchName"));
+        slotTypePayDistColumn.setCellValueFactory(new PropertyValueFactory<>("slotType"));
+        paymentCountColumn.setCellValueFactory(new PropertyValueFactory<>("paymentCount"));
+        medianPaymentColumn.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(
+                "₱" + String.format("%,.2f", cellData.getValue().getMedianPayment())
+        ));
+        p90PaymentColumn.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(
+                "₱" + String.format("%,.2f", cellData.getValue().getP90Payment())
+        ));
+        p99PaymentColumn.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(
+                "₱" + String.format("%,.2f", cellData.getValue().getP99Payment())
+        ));
+        paymentHistogramColumn.setCellValueFactory(new PropertyValueFactory<>("histogram"));
     }
 
     @FXML
@@ -118,38 +188,62 @@ public class ReportController {
 
         int month = monthComboBox.getSelectionModel().getSelectedIndex() + 1;
 
-        try {
-            // Check authorization once
-            if (!userService.isAdmin(adminUser)) {
-                throw new SecurityException("You do not have permission to run reports.");
-            }
-
-            // --- 1. Occupancy Report ---
-            List<OccupancyReportDTO> occData = reportService.generateOccupancyReport(adminUser, month, year);
-            occupancyTable.setItems(FXCollections.observableArrayList(occData));
-
-            // --- 2. Revenue Report ---
-            List<RevenueReportDTO> revData = reportService.generateRevenueReport(adminUser, month, year);
-            revenueTable.setItems(FXCollections.observableArrayList(revData));
-
-            // --- 3. Duration Report ---
-            List<DurationReportDTO> durData = reportService.generateDurationReport(adminUser, month, year);
-            durationTable.setItems(FXCollections.observableArrayList(durData));
-
-            // --- 4. Utilization Report ---
-            List<SlotUtilizationDTO> utilData = reportService.generateSlotUtilization(adminUser, month, year);
-            utilizationTable.setItems(FXCollections.observableArrayList(utilData));
-
-            statusLabel.setText("Reports generated successfully for " + monthString + ", " + year + ".");
-            statusLabel.setTextFill(javafx.scene.paint.Color.GREEN);
-
-        } catch (SecurityException e) {
+        // Check authorization once, before anything is queued
+        if (!userService.isAdmin(adminUser)) {
             statusLabel.setText("ERROR: Authorization Failed.");
             statusLabel.setTextFill(javafx.scene.paint.Color.RED);
-        } catch (Exception e) {
-            statusLabel.setText("ERROR: Data could not be retrieved from the database.");
-            e.printStackTrace();
-            statusLabel.setTextFill(javafx.scene.paint.Color.RED);
+            return;
         }
+
+        int generation = ++reportGeneration;
+        statusLabel.setText("Generating reports for " + monthString + ", " + year + "...");
+        statusLabel.setTextFill(javafx.scene.paint.Color.GRAY);
+
+        // The reports run side by side, so the page waits only for the slowest query
+        List<CompletableFuture<Boolean>> reports = List.of(
+                loadReport("Occupancy", () -> reportService.generateOccupancyReport(adminUser, month, year), occupancyTable, generation),
+                loadReport("Revenue", () -> reportService.generateRevenueReport(adminUser, month, year), revenueTable, generation),
+                loadReport("Duration", () -> reportService.generateDurationReport(adminUser, month, year), durationTable, generation),
+                loadReport("Utilization", () -> reportService.generateSlotUtilization(adminUser, month, year), utilizationTable, generation),
+                loadReport("Duration Percentiles", () -> reportService.generateDurationDistribution(adminUser, month, year), durationDistributionTable, generation),
+                loadReport("Payment Distribution", () -> reportService.generatePaymentDistribution(adminUser, month, year), paymentDistributionTable, generation)
+        );
+
+        CompletableFuture.allOf(reports.toArray(new CompletableFuture<?>[0])).thenRun(() -> Platform.runLater(() -> {
+            if (generation != reportGeneration) return;
+
+            long failed = reports.stream().filter(report -> !report.join()).count();
+            if (failed == 0) {
+                statusLabel.setText("Reports generated successfully for " + monthString + ", " + year + ".");
+                statusLabel.setTextFill(javafx.scene.paint.Color.GREEN);
+            } else {
+                statusLabel.setText("ERROR: " + failed + " of " + reports.size() + " reports could not be retrieved from the database.");
+                statusLabel.setTextFill(javafx.scene.paint.Color.RED);
+            }
+        }));
+    }
+
+    /**
+     * Runs one report on the report executor and fills its table as soon as it finishes.
+     * Results from an older request (the admin picked another month meanwhile) are dropped.
+     *
+     * @return A future that completes with true if the report loaded, false if it failed or timed out
+     */
+    private <T> CompletableFuture<Boolean> loadReport(String name, Supplier<List<T>> query, TableView<T> table, int generation) {
+        return CompletableFuture.supplyAsync(query, REPORT_EXECUTOR)
+                .orTimeout(REPORT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .handle((rows, error) -> {
+                    if (error != null) {
+                        System.err.println("ReportController: " + name + " report failed: " + error);
+                        Platform.runLater(() -> {
+                            if (generation == reportGeneration) table.getItems().clear();
+                        });
+                        return false;
+                    }
+                    Platform.runLater(() -> {
+                        if (generation == reportGeneration) table.setItems(FXCollections.observableArrayList(rows));
+                    });
+                    return true;
+                });
     }
 }
@@ -0,0 +1,95 @@
+package Controller.Admin;
+
+import Model.DTO.SearchResultDTO;
+import Model.DTO.SearchResultDTO.Kind;
+import Service.Admin.AdminSearchService;
+import Utilities.SceneManager;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.cell.PropertyValueFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Finds customers, vehicles and reservations as the admin types. Searches run against the
+ * in-memory index on the JavaFX thread; only loading the index happens in the background.
+ */
+public class SearchController implements SceneManager.Resettable {
+    @FXML private TextField searchField;
+    @FXML private TableView<SearchResultDTO> resultsTable;
+    @FXML private TableColumn<SearchResultDTO, Kind> kindColumn;
+    @FXML private TableColumn<SearchResultDTO, Integer> idColumn;
+    @FXML private TableColumn<SearchResultDTO, String> titleColumn;
+    @FXML private TableColumn<SearchResultDTO, String> detailColumn;
+    @FXML private TableColumn<SearchResultDTO, String> matchedColumn;
+    @FXML private Label statusLabel;
+
+    private static final ExecutorService SEARCH_INDEX_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Null until the index has loaded; only touched on the JavaFX thread
+    private AdminSearchService searchService;
+
+    @FXML
+    public void initialize() {
+        kindColumn.setCellValueFactory(new PropertyValueFactory<>("kind"));
+        idColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
+        titleColumn.setCellValueFactory(new PropertyValueFactory<>("title"));
+        detailColumn.setCellValueFactory(new PropertyValueFactory<>("detail"));
+        matchedColumn.setCellValueFactory(new PropertyValueFactory<>("matchedField"));
+        resultsTable.setPlaceholder(new Label("Type to search."));
+
+        searchField.textProperty().addListener((observable, previous, text) -> runSearch());
+
+        statusLabel.setText("Loading search index...");
+        CompletableFuture.supplyAsync(AdminSearchService::getInstance, SEARCH_INDEX_EXECUTOR)
+                .whenComplete((service, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        System.err.println("SearchController: search index failed to load: " + error);
+                        statusLabel.setText("ERROR: The search index could not be loaded.");
+                        return;
+                    }
+                    searchService = service;
+                    statusLabel.setText("");
+                    runSearch();
+                }));
+    }
+
+    @Override
+    public void reset() {
+        searchField.clear();
+        searchField.requestFocus();
+    }
+
+    private void runSearch() {
+        if (searchService == null) {
+            return;
+        }
+        String query = searchField.getText();
+        if (query == null || query.isBlank()) {
+            resultsTable.getItems().clear();
+            statusLabel.setText("");
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<SearchResultDTO> results = searchService.search(query);
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        resultsTable.setItems(FXCollections.observableArrayList(results));
+        statusLabel.setText(results.isEmpty()
+                ? "No matches."
+                : String.format("%d result%s in %.1f ms", results.size(), results.size() == 1 ? "" : "s", millis));
+    }
+}
@@ -1,4 +1,133 @@
 package Controller.Admin;
 
+import DAO.ParkingDAO;
+import Model.DTO.SlotConversionDTO;
+import Model.Entity.Branch;
+import Model.Entity.SlotType;
+import Model.Entity.User;
+import Service.Admin.BranchManagementService;
+import Utilities.SessionManager;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.paint.Color;
+import javafx.util.StringConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class SlotConfigController {
+    @FXML private ComboBox<Branch> branchComboBox;
+    @FXML private TableView<SlotConversionDTO> conversionTable;
+    @FXML private TableColumn<SlotConversionDTO, String> spotIdColumn;
+    @FXML private TableColumn<SlotConversionDTO, Integer> floorColumn;
+    @FXML private TableColumn<SlotConversionDTO, SlotType> fromTypeColumn;
+    @FXML private TableColumn<SlotConversionDTO, SlotType> toTypeColumn;
+    @FXML private TableColumn<SlotConversionDTO, Double> hoursGainedColumn;
+    @FXML private Button applyButton;
+    @FXML private Label statusLabel;
+
+    private static final ExecutorService SLOT_MIX_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "slot-mix-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private BranchManagementService managementService;
+    private ParkingDAO parkingDAO;
+    private User adminUser;
+
+    @FXML
+    public void initialize() {
+        this.managementService = new BranchManagementService();
+        this.parkingDAO = new ParkingDAO();
+        this.adminUser = SessionManager.getCurrentUser();
+
+        branchComboBox.setItems(FXCollections.observableArrayList(parkingDAO.getAllBranches()));
+        branchComboBox.setConverter(new StringConverter<>() {
+            @Override public String toString(Branch b) { return b == null ? null : b.getName(); }
+            @Override public Branch fromString(String s) { return null; }
+        });
+
+        spotIdColumn.setCellValueFactory(new PropertyValueFactory<>("spotID"));
+        floorColumn.setCellValueFactory(new PropertyValueFactory<>("floorLevel"));
+        fromTypeColumn.setCellValueFactory(new PropertyValueFactory<>("fromType"));
+        toTypeColumn.setCellValueFactory(new PropertyValueFactory<>("toType"));
+        hoursGainedColumn.setCellValueFactory(new PropertyValueFactory<>("weeklyHoursGained"));
+        conversionTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        applyButton.setDisable(true);
+    }
+
+    @FXML
+    private void handleRecommend(ActionEvent event) {
+        Branch branch = branchComboBox.getValue();
+        if (branch == null) {
+            showStatus("Please select a branch.", Color.RED);
+            return;
+        }
+
+        applyButton.setDisable(true);
+        conversionTable.getItems().clear();
+        showStatus("Analysing occupancy for " + branch.getName() + "...", Color.GRAY);
+
+        CompletableFuture.supplyAsync(
+                () -> managementService.recommendSlotMix(adminUser, branch.getBranch_ID()),
+                SLOT_MIX_EXECUTOR
+        ).whenComplete((recommendation, error) -> Platform.runLater(() -> {
+            if (error != null || recommendation.isEmpty()) {
+                if (error != null) System.err.println("SlotConfigController: recommendation failed: " + error);
+                showStatus("ERROR: Occupancy data could not be retrieved from the database.", Color.RED);
+                return;
+            }
+            List<SlotConversionDTO> conversions = recommendation.get();
+            if (conversions.isEmpty()) {
+                showStatus("The current slot mix of " + branch.getName() + " already fits its demand.", Color.GREEN);
+                return;
+            }
+            conversionTable.setItems(FXCollections.observableArrayList(conversions));
+            conversionTable.getSelectionModel().selectAll();
+            applyButton.setDisable(false);
+            showStatus(conversions.size() + " conversions recommended. Deselect any you do not approve, then apply.", Color.GREEN);
+        }));
+    }
+
+    @FXML
+    private void handleApplySelected(ActionEvent event) {
+        List<SlotConversionDTO> approved = new ArrayList<>(conversionTable.getSelectionModel().getSelectedItems());
+        if (approved.isEmpty()) {
+            showStatus("Select the conversions to apply.", Color.RED);
+            return;
+        }
+
+        applyButton.setDisable(true);
+        CompletableFuture.supplyAsync(
+                () -> managementService.applySlotConversions(adminUser, approved),
+                SLOT_MIX_EXECUTOR
+        ).whenComplete((applied, error) -> Platform.runLater(() -> {
+            if (error != null || !applied) {
+                if (error != null) System.err.println("SlotConfigController: apply failed: " + error);
+                applyButton.setDisable(false);
+                showStatus("ERROR: No slots were changed. A slot may have been taken since the recommendation; recommend again.", Color.RED);
+                return;
+            }
+            conversionTable.getItems().removeAll(approved);
+            showStatus("Converted " + approved.size() + " slots.", Color.GREEN);
+        }));
+    }
+
+    private void showStatus(String message, Color color) {
+        statusLabel.setText(message);
+        statusLabel.setTextFill(color);
+    }
 }
@@ -1,8 +1,14 @@
 package Controller.Admin;
 
 import DAO.UserDAO;
+import DAO.UserDAO.UserCursor;
+import DAO.UserDAO.UserFilter;
+import DAO.UserDAO.UserSort;
 import Model.Entity.User;
+import Model.Entity.UserRole;
+import Utilities.SceneManager;
 import Utilities.SessionManager;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -15,9 +21,33 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
-
-public class UserManagementController {
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Lists system users a page at a time. Filtering and sorting happen in the database, and only
+ * the page being shown is fetched, without password hashes.
+ *
+ * Pages are fetched with keyset pagination: once a page has been seen, the next one starts after
+ * its last row, so paging forward costs the same at any depth. Jumping ahead to a page whose
+ * start is not known yet falls back to an offset.
+ */
+public class UserManagementController implements SceneManager.Resettable {
+
+    private static final int PAGE_SIZE = 50;
+    private static final String ALL_ROLES = "All roles";
+    private static final Map<String, UserSort> SORTS = Map.of(
+            "User ID", UserSort.ID, "Email", UserSort.EMAIL, "Join Date", UserSort.JOIN_DATE);
+
+    private static final ExecutorService USER_PAGE_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-page-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @FXML private TableView<User> usersTable;
     @FXML private TableColumn<User, Integer> idColumn;
@@ -26,15 +56,38 @@ public class UserManagementController {
     @FXML private TableColumn<User, String> joinDateColumn;
     @FXML private Label statusLabel;
     @FXML private Button newAdminButton;
+    @FXML private Pagination pagination;
+    @FXML private ComboBox<String> roleFilter;
+    @FXML private TextField emailPrefixField;
+    @FXML private ComboBox<String> sortChoice;
+    @FXML private CheckBox descendingCheck;
 
     private UserDAO userDAO;
     private ObservableList<User> userList = FXCollections.observableArrayList();
 
+    // All on the JavaFX thread. pageStarts maps a page index to the row it starts after,
+    // and holds only cursors taken under the current filter.
+    private UserFilter filter = new UserFilter(null, null, UserSort.ID, false);
+    private final Map<Integer, UserCursor> pageStarts = new HashMap<>();
+    private int requestedPage = -1;
+    // Bumped by every fetch, so only the latest one updates the table
+    private long generation;
+
     @FXML
     public void initialize() {
         this.userDAO = new UserDAO();
 
         setupTableColumns();
+        setupFilters();
+        pagination.setPageFactory(index -> {
+            if (index != requestedPage) loadPage(index);
+            return usersTable;
+        });
+        loadUserData();
+    }
+
+    @Override
+    public void reset() {
         loadUserData();
     }
 
@@ -45,21 +98,79 @@ public class UserManagementController {
         joinDateColumn.setCellValueFactory(new PropertyValueFactory<>("join_date"));
 
         usersTable.setItems(userList);
+        usersTable.setPlaceholder(new Label("No users found."));
+    }
+
+    private void setupFilters() {
+        roleFilter.setItems(FXCollections.observableArrayList(ALL_ROLES, "Admin", "Customer"));
+        roleFilter.setValue(ALL_ROLES);
+        sortChoice.setItems(FXCollections.observableArrayList("User ID", "Email", "Join Date"));
+        sortChoice.setValue("User ID");
+    }
+
+    @FXML
+    private void handleSearch(ActionEvent event) {
+        UserRole role = ALL_ROLES.equals(roleFilter.getValue()) ? null : UserRole.fromString(roleFilter.getValue());
+        filter = new UserFilter(role, emailPrefixField.getText(),
+                SORTS.getOrDefault(sortChoice.getValue(), UserSort.ID), descendingCheck.isSelected());
+        statusLabel.setText("");
+        requestedPage = 0;
+        pagination.setCurrentPageIndex(0);
+        loadUserData();
     }
 
     /**
-     * Fetches all user data from the database and updates the table view.
+     * Counts the users matching the filter and reloads the page being shown, e.g. after a user
+     * was added or deleted.
      */
     public void loadUserData() {
-        try {
-            List<User> allUsers = userDAO.findAllUsers();
-            userList.setAll(allUsers);
-            statusLabel.setText("");
-        } catch (Exception e) {
-            statusLabel.setText("Error loading user data: " + e.getMessage());
-            statusLabel.setStyle("-fx-text-fill: red;");
-            e.printStackTrace();
-        }
+        // Rows may have moved between pages, so the known page starts are stale
+        pageStarts.clear();
+        // The current page is fetched once the count is known
+        requestedPage = pagination.getCurrentPageIndex();
+        long countGeneration = ++generation;
+        UserFilter countFilter = filter;
+        CompletableFuture.supplyAsync(() -> userDAO.countUsers(countFilter), USER_PAGE_EXECUTOR)
+                .whenComplete((count, error) -> Platform.runLater(() -> {
+                    if (countGeneration != generation) return;
+                    if (error != null || count < 0) {
+                        if (error != null) System.err.println("UserManagementController: count failed: " + error);
+                        showError("Error loading user data from the database.");
+                        return;
+                    }
+                    pagination.setPageCount(Math.max(1, (count + PAGE_SIZE - 1) / PAGE_SIZE));
+                    loadPage(pagination.getCurrentPageIndex());
+                }));
+    }
+
+    /**
+     * Fetches one page in the background and shows it if no newer fetch was started meanwhile.
+     */
+    private void loadPage(int index) {
+        requestedPage = index;
+        long pageGeneration = ++generation;
+        UserFilter pageFilter = filter;
+        UserCursor after = index == 0 ? null : pageStarts.get(index);
+        CompletableFuture.supplyAsync(
+                () -> userDAO.findUsersPage(pageFilter, after, index * PAGE_SIZE, PAGE_SIZE),
+                USER_PAGE_EXECUTOR
+        ).whenComplete((users, error) -> Platform.runLater(() -> {
+            if (pageGeneration != generation) return;
+            if (error != null) {
+                System.err.println("UserManagementController: page " + index + " failed: " + error);
+                showError("Error loading user data from the database.");
+                return;
+            }
+            userList.setAll(users);
+            if (users.size() == PAGE_SIZE) {
+                pageStarts.put(index + 1, UserCursor.after(users.get(users.size() - 1), pageFilter.sort()));
+            }
+        }));
+    }
+
+    private void showError(String message) {
+        statusLabel.setText(message);
+        statusLabel.setStyle("-fx-text-fill: red;");
     }
 
     @FXML
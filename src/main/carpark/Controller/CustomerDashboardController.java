@@ -1,26 +1,49 @@
 package Controller;
 
 import Model.Entity.Reservation;
+import Model.Entity.WaitlistEntry;
+import Model.Entity.WaitlistEntry.WaitlistStatus;
+import Service.ReservationService;
+import Service.WaitlistService;
+import Utilities.SceneManager;
 import Utilities.SessionManager;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
 import javafx.scene.control.MenuButton;
 import javafx.scene.control.MenuItem;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 
 public class CustomerDashboardController {
 
+    private static final String HOME_PAGE = "/fxml/home_page.fxml";
+    private static final String RESERVATION_PAGE = "/fxml/reservation_page.fxml";
+    private static final String PROFILE_PAGE = "/fxml/profile_page.fxml";
+    private static final String PAYMENT_PAGE = "/fxml/payment.fxml";
+
+    /**
+     * Pages preloaded at login, most likely first.
+     */
+    public static final List<String> PAGES = List.of(HOME_PAGE, RESERVATION_PAGE, PROFILE_PAGE, PAYMENT_PAGE);
+
     @FXML
     private Button homeButton;
 
@@ -39,6 +62,9 @@ public class CustomerDashboardController {
     @FXML
     private AnchorPane mainContentArea;
 
+    private static final Duration NOTIFICATION_POLL = Duration.minutes(1);
+    private Timeline notificationPoller;
+
     /**
      * Initializes the controller class. This method is automatically called
      * after the FXML file has been loaded.
@@ -46,28 +72,66 @@ public class CustomerDashboardController {
     @FXML
     public void initialize() {
         handleHomeClick(null);
+
+        // Waitlist outcomes reach the customer while the dashboard is open
+        notificationPoller = new Timeline(new KeyFrame(NOTIFICATION_POLL, e -> showWaitlistNotifications()));
+        notificationPoller.setCycleCount(Timeline.INDEFINITE);
+        notificationPoller.play();
+        Platform.runLater(this::showWaitlistNotifications);
+    }
+
+    /**
+     * Tells the customer about waitlist entries that were booked or expired, offering to pay for booked ones.
+     */
+    private void showWaitlistNotifications() {
+        if (SessionManager.getCurrentUser() == null) return;
+        int userID = SessionManager.getCurrentUser().getUser_ID();
+
+        CompletableFuture.supplyAsync(() -> WaitlistService.getInstance().takeNotifications(userID))
+                .thenAccept(entries -> Platform.runLater(() -> {
+                    for (WaitlistEntry entry : entries) {
+                        if (entry.getStatus() == WaitlistStatus.ASSIGNED && entry.getReservationID() != null) {
+                            Alert alert = new Alert(Alert.AlertType.CONFIRMATION, null, ButtonType.YES, ButtonType.NO);
+                            alert.setTitle("Waitlist");
+                            alert.setHeaderText("A " + entry.getSlotType() + " slot freed up for you!");
+                            alert.setContentText("Reservation #" + entry.getReservationID() + " has been made for "
+                                    + entry.getWindowStart() + " to " + entry.getWindowEnd() + ". Pay for it now?");
+                            if (alert.showAndWait().orElse(ButtonType.NO) == ButtonType.YES) {
+                                new ReservationService().getReservation(entry.getReservationID()).ifPresent(this::loadPaymentPage);
+                            }
+                        } else {
+                            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                            alert.setTitle("Waitlist");
+                            alert.setHeaderText("No slot freed up in time.");
+                            alert.setContentText("Your waitlist request for " + entry.getWindowStart() + " to "
+                                    + entry.getWindowEnd() + " has expired.");
+                            alert.showAndWait();
+                        }
+                    }
+                }));
     }
 
     @FXML
     private void handleHomeClick(ActionEvent event) {
         System.out.println("Home clicked");
-        loadPageWithControllerInjection("/fxml/home_page.fxml");
+        loadPageWithControllerInjection(HOME_PAGE);
     }
 
     @FXML
     private void handleReservationClick(ActionEvent event) {
         System.out.println("Reservation clicked");
-        loadPageWithControllerInjection("/fxml/reservation_page.fxml");
+        loadPageWithControllerInjection(RESERVATION_PAGE);
     }
 
     @FXML
     private void handleProfileClick(ActionEvent event) {
         System.out.println("Profile clicked");
-        loadPageWithControllerInjection("/fxml/profile_page.fxml");
+        loadPageWithControllerInjection(PROFILE_PAGE);
     }
 
     @FXML
     private void handleLogoutClick(ActionEvent event) {
+        notificationPoller.stop();
         SessionManager.logout();
 
         Stage stage = (Stage) accountBUTTON.getScene().getWindow();
@@ -92,10 +156,10 @@ public class CustomerDashboardController {
 
     public void loadPaymentPage(Reservation reservation) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/payment.fxml"));
-            Parent page = loader.load();
+            SceneManager.Page loaded = SceneManager.show(PAYMENT_PAGE);
+            Parent page = loaded.getRoot();
 
-            PaymentPageController controller = loader.getController();
+            PaymentPageController controller = loaded.getController();
             if (controller != null) {
                 controller.setReservationData(reservation);
                 controller.setDashboardController(this);
@@ -114,24 +178,21 @@ public class CustomerDashboardController {
     }
 
     public void returnToHome() {
-        loadPageWithControllerInjection("/fxml/home_page.fxml");
+        loadPageWithControllerInjection(HOME_PAGE);
     }
 
     public void returnToReservationPage() {
-        loadPageWithControllerInjection("/fxml/reservation_page.fxml");
+        loadPageWithControllerInjection(RESERVATION_PAGE);
     }
 
     private void loadPageWithControllerInjection(String fxmlPath) {
         if (mainContentArea == null) return;
         try {
-            URL fxmlUrl = getClass().getResource(fxmlPath);
-            if (fxmlUrl == null) return;
-
-            FXMLLoader loader = new FXMLLoader(fxmlUrl);
-            Parent page = loader.load();
+            SceneManager.Page loaded = SceneManager.show(fxmlPath);
+            Parent page = loaded.getRoot();
 
             // Check if the loaded controller is the ReservationController
-            Object controller = loader.getController();
+            Object controller = loaded.getController();
             if (controller instanceof ReservationPageController) {
                 ((ReservationPageController) controller).setMainDashboardController(this);
             }
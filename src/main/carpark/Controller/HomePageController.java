@@ -1,11 +1,14 @@
 package Controller;
 
+import Model.DTO.CustomerDashboardDTO;
 import Model.Entity.User;
+import Service.CustomerDashboardService;
+import Utilities.SceneManager;
 import Utilities.SessionManager;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 
-public class HomePageController {
+public class HomePageController implements SceneManager.Resettable {
 
     @FXML
     private Label welcomeMessageLabel;
@@ -13,20 +16,47 @@ public class HomePageController {
     @FXML
     private Label emailLabel;
 
+    @FXML
+    private Label summaryLabel;
+
     @FXML
     public void initialize() {
+        refresh();
+    }
+
+    @Override
+    public void reset() {
+        refresh();
+    }
+
+    private void refresh() {
         // Get the currently logged-in user from the session
         User currentUser = SessionManager.getCurrentUser();
 
         if (currentUser != null) {
-            // In a real app, you'd call a CustomerDAO/Service to get the first name
-            // For now, the email is the most unique thing we have.
-            welcomeMessageLabel.setText("Welcome back to the Car Park System!");
+            CustomerDashboardDTO dashboard = CustomerDashboardService.getInstance().getDashboard(currentUser.getUser_ID());
+            welcomeMessageLabel.setText(dashboard.getProfile()
+                    .map(profile -> "Welcome back, " + profile.getFirstname() + "!")
+                    .orElse("Welcome back to the Car Park System!"));
             emailLabel.setText("Logged in as: " + currentUser.getEmail());
+            summaryLabel.setText(summarize(dashboard));
         } else {
             // This case should ideally not happen if session management is correct
             welcomeMessageLabel.setText("Welcome, Guest!");
             emailLabel.setText("Not logged in.");
+            summaryLabel.setText("");
         }
     }
+
+    private static String summarize(CustomerDashboardDTO dashboard) {
+        StringBuilder summary = new StringBuilder();
+        dashboard.getActiveReservation().ifPresentOrElse(
+                active -> summary.append("Upcoming: slot ").append(active.getResSlotColumn())
+                        .append(", ").append(active.getResTimeInColumn()).append(" to ").append(active.getResTimeOutColumn()),
+                () -> summary.append("No upcoming reservations"));
+        summary.append("\n").append(dashboard.getVehicles().size()).append(" vehicle(s), ")
+                .append(dashboard.getRecentStays().size()).append(" recent stay(s), ")
+                .append("total spent ₱").append(String.format("%,.2f", dashboard.getTotalSpent()));
+        return summary.toString();
+    }
 }
@@ -1,5 +1,6 @@
 package Controller;
 
+import Controller.Admin.AdminDashboardController;
 import javafx.event.ActionEvent;
 import javafx.event.Event;
 import javafx.fxml.FXML;
@@ -14,6 +15,7 @@ import javafx.scene.input.MouseEvent;
 import javafx.stage.Stage;
 import Model.Entity.User;
 import Service.UserService;
+import Utilities.SceneManager;
 import Utilities.SessionManager;
 
 import java.io.IOException;
@@ -103,13 +105,15 @@ public class LoginController {
     private void redirectToDashboard(User user, Event event) {
         String fxmlPath = "";
 
-        // 1. Check the user's role
+        // 1. Check the user's role, and start parsing its pages while the dashboard loads
         if (userService.isAdmin(user)) {
             // Admin Role (Task 4.4)
             fxmlPath = "/fxml/admin_dashboard.fxml"; // Path to Admin Dashboard
+            SceneManager.preload(AdminDashboardController.PAGES);
         } else {
             // Customer Role
             fxmlPath = "/fxml/customer_dashboard.fxml"; // Path to Customer Dashboard
+            SceneManager.preload(CustomerDashboardController.PAGES);
         }
 
         // 2. Load the new scene
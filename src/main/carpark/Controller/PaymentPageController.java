@@ -14,17 +14,19 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import Model.Entity.Payment.ModeOfPayment;
 import Service.PaymentService;
+import Utilities.SceneManager;
 
 import java.io.IOException;
 import java.time.format.DateTimeFormatter;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Controller for the payment.fxml file.
  * Handles payment processing and confirmation for parking reservations.
  * Task 4.3: Payment Processing
  */
-public class PaymentPageController {
+public class PaymentPageController implements SceneManager.Resettable {
 
     @FXML
     private Label reservationIdLabel;
@@ -81,6 +83,8 @@ public class PaymentPageController {
     private Reservation currentReservation;
     private float totalAmount;
     private int currentReservationId;
+    // One key per reservation shown, so a double tap or a retry can never pay twice
+    private UUID paymentRequestKey;
     private ToggleGroup paymentMethodGroup;
 
     private CustomerDashboardController dashboardController;
@@ -152,6 +156,21 @@ public class PaymentPageController {
         clearPaymentInputs();
     }
 
+    /**
+     * Clears the previous payment, for when the cached page is shown again.
+     * setReservationData is called right after with the new reservation.
+     */
+    @Override
+    public void reset() {
+        this.currentReservation = null;
+        this.paymentRequestKey = null;
+        clearPaymentInputs();
+        cashRadioButton.setSelected(true);
+        statusLabel.setText("");
+        setPaymentButtonsDisabled(false);
+        updateReservationDisplay("--", "--");
+    }
+
     /**
      * Clears all payment input fields
      */
@@ -203,25 +222,34 @@ public class PaymentPageController {
                              ", Method=" + modeOfPayment + ", AdminID=" + adminId);
 
             // Process payment with actual user input
+            setPaymentButtonsDisabled(true);
             Optional<Payment> payment = paymentService.processPayment(
-                currentReservationId, modeOfPayment, adminId
+                paymentRequestKey, currentReservationId, modeOfPayment, adminId
             );
 
             if (payment.isPresent()) {
                 System.out.println("Payment successful! Payment ID: " + payment.get().getPayment_ID());
+                // Leave the buttons disabled: the reservation is paid
                 showPaymentSuccess(payment.get());
             } else {
                 System.out.println("Payment failed - returned empty");
+                setPaymentButtonsDisabled(false);
                 showError("Payment failed. Please try again.");
             }
 
         } catch (Exception e) {
             System.out.println("Payment error: " + e.getMessage());
             e.printStackTrace();
+            setPaymentButtonsDisabled(false);
             showError("An unexpected error occurred. Please try again.");
         }
     }
 
+    private void setPaymentButtonsDisabled(boolean disabled) {
+        confirmPaymentButton.setDisable(disabled);
+        backButton.setDisable(disabled);
+    }
+
     /**
      * Validates payment details based on selected method
      */
@@ -310,6 +338,7 @@ public class PaymentPageController {
     public void setReservationData(Reservation reservation) {
         this.currentReservation = reservation;
         this.currentReservationId = reservation.getReservationID();
+        this.paymentRequestKey = UUID.randomUUID();
 
         String spotId = reservation.getSpotID();
         String branchName = "--";
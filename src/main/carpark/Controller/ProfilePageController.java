@@ -1,14 +1,15 @@
 package Controller;
 
 import DAO.CustomerDAO;
-import DAO.ReservationDAO;
-import DAO.VehicleDAO;
+import Model.DTO.CustomerDashboardDTO;
 import Model.DTO.ReservationSummaryDTO;
 import Model.Entity.Customer;
 import Model.Entity.User;
 import Model.Entity.Vehicle;
+import Service.CustomerDashboardService;
 import Service.CustomerService;
 import Service.ReservationService;
+import Utilities.SceneManager;
 import Utilities.SessionManager;
 import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
@@ -22,7 +23,7 @@ import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 
-public class ProfilePageController {
+public class ProfilePageController implements SceneManager.Resettable {
 
     // Profile Fields
     @FXML private TextField firstNameField;
@@ -52,10 +53,9 @@ public class ProfilePageController {
 
     // DAOs and Services
     private CustomerDAO customerDAO;
-    private VehicleDAO vehicleDAO;
-    private ReservationDAO reservationDAO;
     private ReservationService reservationService; // For cancellation logic
     private CustomerService customerService;
+    private CustomerDashboardService dashboardService;
 
     private User currentUser;
     private ObservableList<Vehicle> vehicleList = FXCollections.observableArrayList();
@@ -64,11 +64,10 @@ public class ProfilePageController {
     @FXML
     public void initialize() {
         this.customerDAO = new CustomerDAO();
-        this.vehicleDAO = new VehicleDAO();
-        this.reservationDAO = new ReservationDAO();
         this.reservationService = new ReservationService();
         this.currentUser = SessionManager.getCurrentUser();
         this.customerService = new CustomerService();
+        this.dashboardService = CustomerDashboardService.getInstance();
 
         // 1. Setup table columns
         setupTableColumns();
@@ -79,6 +78,24 @@ public class ProfilePageController {
         loadReservationData();
     }
 
+    /**
+     * Leaves edit mode and reloads everything, for when the cached page is shown again.
+     */
+    @Override
+    public void reset() {
+        this.currentUser = SessionManager.getCurrentUser();
+        firstNameField.setEditable(false);
+        lastNameField.setEditable(false);
+        saveProfileButton.setVisible(false);
+        editProfileButton.setVisible(true);
+        vehiclesTable.getSelectionModel().clearSelection();
+        reservationsTable.getSelectionModel().clearSelection();
+
+        loadProfileData();
+        loadVehicleData();
+        loadReservationData();
+    }
+
     private void setupTableColumns() {
         // Vehicle Table
         plateColumn.setCellValueFactory(cellData ->
@@ -111,7 +128,7 @@ public class ProfilePageController {
         emailLabel.setText(currentUser.getEmail());
         joinDateLabel.setText(currentUser.getJoin_date().toString());
 
-        Optional<Customer> profileOpt = customerDAO.findCustomerByUserID(currentUser.getUser_ID());
+        Optional<Customer> profileOpt = dashboard().getProfile();
         if (profileOpt.isPresent()) {
             Customer profile = profileOpt.get();
             firstNameField.setText(profile.getFirstname());
@@ -121,7 +138,7 @@ public class ProfilePageController {
 
     private void loadVehicleData() {
         vehicleList.clear();
-        List<Vehicle> vehicles = vehicleDAO.getVehicleByUserID(currentUser.getUser_ID());
+        List<Vehicle> vehicles = dashboard().getVehicles();
         vehicleList.addAll(vehicles);
         vehiclesTable.setItems(vehicleList);
     }
@@ -129,13 +146,19 @@ public class ProfilePageController {
     private void loadReservationData() {
         reservationList.clear();
 
-        List<ReservationSummaryDTO> reservations =
-                reservationDAO.findReservationSummariesByUserId(currentUser.getUser_ID());
+        List<ReservationSummaryDTO> reservations = dashboard().getReservations();
 
         reservationList.addAll(reservations);
         reservationsTable.setItems(reservationList);
     }
 
+    /**
+     * The user's profile, vehicles and reservations; cached, and refreshed by the service after any change to them.
+     */
+    private CustomerDashboardDTO dashboard() {
+        return dashboardService.getDashboard(currentUser.getUser_ID());
+    }
+
     @FXML
     private void handleEditProfile(ActionEvent event) {
         firstNameField.setEditable(true);
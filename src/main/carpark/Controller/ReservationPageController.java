@@ -2,8 +2,12 @@ package Controller;
 
 import DAO.ParkingDAO;
 import DAO.VehicleDAO;
+import Model.DTO.BranchOptionDTO;
 import Model.Entity.*;
+import Service.NearestBranchService;
 import Service.ReservationService;
+import Service.WaitlistService;
+import Utilities.SceneManager;
 import Utilities.SessionManager;
 import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
@@ -22,7 +26,9 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-public class ReservationPageController {
+public class ReservationPageController implements SceneManager.Resettable {
+
+    private static final int MAX_ALTERNATIVES = 3;
 
     @FXML private ComboBox<Vehicle> vehicleComboBox;
     @FXML private ComboBox<Branch> locationComboBox;
@@ -93,6 +99,27 @@ public class ReservationPageController {
         computePrice();
     }
 
+    /**
+     * Clears the form and reloads the user's vehicles and the branches, for when the cached page is shown again.
+     */
+    @Override
+    public void reset() {
+        int currentUserId = SessionManager.getCurrentUser().getUser_ID();
+        vehicleComboBox.setItems(FXCollections.observableArrayList(vehicleDAO.getVehicleByUserID(currentUserId)));
+        locationComboBox.setItems(FXCollections.observableArrayList(parkingDAO.getAllBranches()));
+        slotTypeComboBox.getSelectionModel().clearSelection();
+        entryTimeHour.getSelectionModel().clearSelection();
+        entryTimeMinute.getSelectionModel().clearSelection();
+        exitTimeHour.getSelectionModel().clearSelection();
+        exitTimeMinute.getSelectionModel().clearSelection();
+
+        entryDatePicker.setValue(LocalDate.now());
+        exitDatePicker.setValue(LocalDate.now().plusDays(1));
+
+        updateAvailableSpaces();
+        computePrice();
+    }
+
     public void setMainDashboardController(CustomerDashboardController controller) {
         this.mainDashboardController = controller;
     }
@@ -206,12 +233,62 @@ public class ReservationPageController {
                 alert.showAndWait();
             }
         } else {
-            // Show error (e.g., no slots left)
-            Alert alert = new Alert(Alert.AlertType.ERROR);
+            // No slot left: offer a nearby branch with room first, then the waitlist
+            Optional<Branch> alternative = chooseAlternativeBranch(branch, slotType, entry, exit);
+            if (alternative.isPresent()) {
+                locationComboBox.getItems().stream()
+                        .filter(b -> b.getBranch_ID() == alternative.get().getBranch_ID())
+                        .findFirst()
+                        .ifPresent(locationComboBox::setValue);
+                handleProceedToPaymentClick(event);
+                return;
+            }
+
+            Alert alert = new Alert(Alert.AlertType.CONFIRMATION, null, ButtonType.YES, ButtonType.NO);
             alert.setTitle("Reservation Failed");
             alert.setHeaderText("No available slots found.");
-            alert.setContentText("Could not find an available slot for the selected branch and type.");
-            alert.showAndWait();
+            alert.setContentText("Could not find an available slot for the selected branch and type.\n\n"
+                    + "Join the waitlist? You will be booked automatically if a slot frees up before " + exit + ".");
+            if (alert.showAndWait().orElse(ButtonType.NO) == ButtonType.YES) {
+                joinWaitlist(vehicle, branch, slotType, entry, exit);
+            }
+        }
+    }
+
+    private Optional<Branch> chooseAlternativeBranch(Branch branch, SlotType slotType, LocalDateTime entry, LocalDateTime exit) {
+        List<BranchOptionDTO> options = NearestBranchService.getInstance()
+                .findAlternatives(branch.getBranch_ID(), slotType, entry, exit, MAX_ALTERNATIVES);
+        if (options.isEmpty()) {
+            return Optional.empty();
+        }
+
+        ChoiceDialog<BranchOptionDTO> dialog = new ChoiceDialog<>(options.get(0), options);
+        dialog.setTitle("Branch Full");
+        dialog.setHeaderText(branch.getName() + " has no free " + slotType + " slot.");
+        dialog.setContentText("Book at a nearby branch instead:");
+        return dialog.showAndWait().map(BranchOptionDTO::getBranch);
+    }
+
+    private void joinWaitlist(Vehicle vehicle, Branch branch, SlotType slotType, LocalDateTime entry, LocalDateTime exit) {
+        Optional<WaitlistEntry> waitlisted = WaitlistService.getInstance().joinWaitlist(
+                SessionManager.getCurrentUser().getUser_ID(),
+                vehicle.getVehicle_id(),
+                branch.getBranch_ID(),
+                slotType,
+                entry,
+                exit
+        );
+
+        Alert alert = new Alert(waitlisted.isPresent() ? Alert.AlertType.INFORMATION : Alert.AlertType.ERROR);
+        alert.setTitle("Waitlist");
+        if (waitlisted.isPresent()) {
+            alert.setHeaderText("You are on the waitlist.");
+            alert.setContentText("We will reserve a " + slotType + " slot at " + branch.getName()
+                    + " as soon as one is free and notify you here.");
+        } else {
+            alert.setHeaderText("Could not join the waitlist.");
+            alert.setContentText("Please check that the exit time is in the future and try again.");
         }
+        alert.showAndWait();
     }
 }
\ No newline at end of file
@@ -0,0 +1,354 @@
+package DAO;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Small JDBC connection pool used by DBConnectionUtil.
+ *
+ * Connections handed out are proxies: close() returns the physical connection to the pool
+ * instead of closing it. Each physical connection also keeps an LRU cache of prepared
+ * statements keyed by SQL text, so the DAOs' pattern of prepareStatement(CONSTANT) ... close()
+ * reuses the same server-side prepared statement instead of re-parsing the SQL every call.
+ * A connection that sat idle longer than VALIDATE_AFTER is pinged before it is handed out,
+ * since the server (or a firewall) may have dropped it in the meantime.
+ */
+class ConnectionPool {
+
+    // SQLState for "unable to establish connection", so callers can tell a missing connection from a bad statement
+    private static final String NO_CONNECTION = "08001";
+    private static final long VALIDATE_AFTER_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int VALIDATE_TIMEOUT_SECONDS = 1;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final int statementCacheSize;
+    private final long timeoutMillis;
+
+    private final BlockingQueue<PhysicalConnection> idle;
+    private final AtomicInteger created = new AtomicInteger();
+
+    ConnectionPool(String url, String user, String password, int maxSize, int statementCacheSize, long timeoutMillis) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.statementCacheSize = statementCacheSize;
+        this.timeoutMillis = timeoutMillis;
+        this.idle = new ArrayBlockingQueue<>(maxSize);
+    }
+
+    /**
+     * Borrows a connection, opening a new one if the pool is not yet full,
+     * otherwise waiting up to the configured timeout for one to be returned.
+     */
+    Connection borrow() throws SQLException {
+        PhysicalConnection physical = idle.poll();
+        if (physical == null && created.incrementAndGet() <= maxSize) {
+            try {
+                physical = new PhysicalConnection(DriverManager.getConnection(url, user, password));
+            } catch (SQLException e) {
+                created.decrementAndGet();
+                throw e;
+            }
+        } else if (physical == null) {
+            created.decrementAndGet();
+            try {
+                physical = idle.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", NO_CONNECTION, e);
+            }
+            if (physical == null) {
+                throw new SQLTransientConnectionException("Timed out after " + timeoutMillis + " ms waiting for a database connection", NO_CONNECTION);
+            }
+        }
+
+        boolean validate = System.nanoTime() - physical.lastReturned > VALIDATE_AFTER_NANOS;
+        if (!physical.isUsable() || (validate && !physical.isValid())) {
+            physical.discard();
+            return borrow();
+        }
+        return physical.lease();
+    }
+
+    /**
+     * Opens connections in parallel until the pool holds at least count, so the first
+     * borrowers do not pay for the connect and login.
+     *
+     * @return The number of connections opened
+     */
+    int prefill(int count) {
+        int target = Math.min(count, maxSize);
+        return (int) IntStream.range(0, target).parallel().filter(i -> {
+            if (created.incrementAndGet() > target) {
+                created.decrementAndGet();
+                return false;
+            }
+            try {
+                PhysicalConnection physical = new PhysicalConnection(DriverManager.getConnection(url, user, password));
+                if (!idle.offer(physical)) {
+                    physical.discard();
+                    return false;
+                }
+                return true;
+            } catch (SQLException e) {
+                created.decrementAndGet();
+                System.err.println("ConnectionPool Error in prefill: " + e.getMessage());
+                return false;
+            }
+        }).count();
+    }
+
+    private void giveBack(PhysicalConnection physical) {
+        physical.lastReturned = System.nanoTime();
+        if (!physical.isUsable() || !idle.offer(physical)) {
+            physical.discard();
+        }
+    }
+
+    /**
+     * A real driver connection plus its statement cache.
+     */
+    private class PhysicalConnection {
+        final Connection connection;
+        final Map<String, CachedStatement> statements;
+        // System.nanoTime() when it was last put back in the pool (or opened)
+        volatile long lastReturned;
+
+        PhysicalConnection(Connection connection) {
+            this.connection = connection;
+            this.lastReturned = System.nanoTime();
+            // Access-ordered LinkedHashMap: the eldest entry is the least recently used statement
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() > statementCacheSize && !eldest.getValue().inUse) {
+                        eldest.getValue().closeQuietly();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeasedConnection(this));
+        }
+
+        boolean isUsable() {
+            try {
+                return !connection.isClosed();
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Asks the driver to ping the server; slower than isUsable, so only done after a long idle.
+         */
+        boolean isValid() {
+            try {
+                return connection.isValid(VALIDATE_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void discard() {
+            created.decrementAndGet();
+            statements.values().forEach(CachedStatement::closeQuietly);
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("ConnectionPool Error closing connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Proxy handler for a borrowed connection. close() resets transaction state and returns it to the pool.
+     */
+    private class LeasedConnection implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private boolean closed;
+
+        LeasedConnection(PhysicalConnection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close" -> {
+                    release();
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed || physical.connection.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled" + physical.connection;
+                }
+                default -> { }
+            }
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+            if (name.equals("prepareStatement") && isCacheable(args)) {
+                return prepareCached(args);
+            }
+            return forward(physical.connection, method, args);
+        }
+
+        /**
+         * Only prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys) are cached;
+         * the other overloads are rare enough to go straight to the driver.
+         */
+        private boolean isCacheable(Object[] args) {
+            return statementCacheSize > 0
+                    && (args.length == 1 || (args.length == 2 && args[1] instanceof Integer));
+        }
+
+        private PreparedStatement prepareCached(Object[] args) throws SQLException {
+            String sql = (String) args[0];
+            int keys = args.length == 2 ? (Integer) args[1] : -1;
+            String cacheKey = keys + ":" + sql;
+
+            CachedStatement cached = physical.statements.get(cacheKey);
+            if (cached != null && cached.inUse) {
+                // Same SQL open twice on one connection: hand out an uncached statement
+                return keys < 0 ? physical.connection.prepareStatement(sql) : physical.connection.prepareStatement(sql, keys);
+            }
+            if (cached == null) {
+                PreparedStatement statement = keys < 0 ? physical.connection.prepareStatement(sql) : physical.connection.prepareStatement(sql, keys);
+                cached = new CachedStatement(statement);
+                physical.statements.put(cacheKey, cached);
+            }
+            cached.inUse = true;
+            return cached.lease();
+        }
+
+        private void release() {
+            if (closed) return;
+            closed = true;
+            try {
+                if (!physical.connection.getAutoCommit()) {
+                    physical.connection.rollback();
+                    physical.connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                System.err.println("ConnectionPool Error resetting connection: " + e.getMessage());
+                physical.discard();
+                return;
+            }
+            for (CachedStatement statement : physical.statements.values()) {
+                statement.inUse = false;
+            }
+            giveBack(physical);
+        }
+    }
+
+    /**
+     * A prepared statement kept open in a connection's cache.
+     */
+    private static class CachedStatement {
+        final PreparedStatement statement;
+        boolean inUse;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        PreparedStatement lease() {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new LeasedStatement(this));
+        }
+
+        void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                System.err.println("ConnectionPool Error closing statement: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Proxy handler for a cached statement. close() clears it for the next caller instead of closing it.
+     */
+    private static class LeasedStatement implements InvocationHandler {
+        private final CachedStatement cached;
+        private boolean closed;
+
+        LeasedStatement(CachedStatement cached) {
+            this.cached = cached;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!closed) {
+                        closed = true;
+                        cached.statement.clearParameters();
+                        cached.statement.clearBatch();
+                        cached.inUse = false;
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed || cached.statement.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> { }
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            return forward(cached.statement, method, args);
+        }
+    }
+
+    private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
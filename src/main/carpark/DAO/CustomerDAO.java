@@ -1,6 +1,9 @@
 package DAO;
 
 import Model.Entity.Customer;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.Action;
+import Utilities.ChangeNotifier.Topic;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -116,6 +119,7 @@ public class CustomerDAO {
                         customer.getContact_number()
                 );
 
+                ChangeNotifier.publish(Topic.USER, Action.UPDATED, newCustomer.getUser_ID(), newCustomer);
                 return Optional.of(newCustomer);
             }
         } catch (SQLException e) {
@@ -148,6 +152,9 @@ public class CustomerDAO {
 
             int affectedRows = ps.executeUpdate();
 
+            if (affectedRows > 0) {
+                ChangeNotifier.publish(Topic.USER, Action.UPDATED, customer.getUser_ID(), customer);
+            }
             return affectedRows > 0;
         } catch (SQLException e) {
             System.err.println("CustomerDAO Error in updateCustomer: " + e.getMessage());
@@ -175,6 +182,10 @@ public class CustomerDAO {
             ps.setInt(1, customerID);
 
             int affectedRows = ps.executeUpdate();
+            if (affectedRows > 0) {
+                // Only the customer_ID is known here, not whose profile it was
+                ChangeNotifier.publish(Topic.USER, Action.UPDATED, ChangeNotifier.ALL);
+            }
             return affectedRows > 0;
         } catch (SQLException e) {
             System.err.println("CustomerDAO Error in deleteCustomer: " + e.getMessage());
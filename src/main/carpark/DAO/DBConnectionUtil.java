@@ -12,8 +12,16 @@ public class DBConnectionUtil {
     private static final String DB_USER_PROPERTY = "db.user";
     private static final String DB_PASSWORD_PROPERTY = "db.password";
     private static final String PROPERTIES_FILE = "db.properties";
+    private static final String POOL_SIZE_PROPERTY = "db.pool.size";
+    private static final String POOL_TIMEOUT_PROPERTY = "db.pool.timeoutMillis";
+    private static final String STATEMENT_CACHE_PROPERTY = "db.statementCache.size";
+    // Have MySQL parse each statement once on the server so cached statements skip re-parsing
+    private static final String SERVER_PREPARE_OPTION = "useServerPrepStmts=true";
+    // Makes setFetchSize(n) read through a server cursor n rows at a time; otherwise Connector/J buffers the whole result
+    private static final String CURSOR_FETCH_OPTION = "useCursorFetch=true";
 
     private static Properties properties = new Properties();
+    private static volatile ConnectionPool pool;
 
     static {
         try (InputStream input = DBConnectionUtil.class.getClassLoader().getResourceAsStream(PROPERTIES_FILE)) {
@@ -54,16 +62,72 @@ public class DBConnectionUtil {
         }
     }
 
+    /**
+     * Returns a pooled connection. Closing it hands it back to the pool, and prepared
+     * statements created from it are cached per physical connection.
+     * Set db.pool.size=0 to open a fresh, unpooled connection on every call instead.
+     */
     public static Connection getConnection() throws SQLException {
         String url = properties.getProperty(DB_URL_PROPERTY);
         String user = properties.getProperty(DB_USER_PROPERTY);
         String password = properties.getProperty(DB_PASSWORD_PROPERTY);
 
-        try {
+        int poolSize = Integer.parseInt(getProperty(POOL_SIZE_PROPERTY, "10"));
+        if (url == null) {
             return DriverManager.getConnection(url, user, password);
-        } catch (SQLException e) {
-            throw e;
         }
+        if (poolSize <= 0) {
+            return DriverManager.getConnection(withOption(url, CURSOR_FETCH_OPTION), user, password);
+        }
+
+        if (pool == null) {
+            synchronized (DBConnectionUtil.class) {
+                if (pool == null) {
+                    pool = new ConnectionPool(
+                            withOption(withOption(url, SERVER_PREPARE_OPTION), CURSOR_FETCH_OPTION), user, password, poolSize,
+                            Integer.parseInt(getProperty(STATEMENT_CACHE_PROPERTY, "64")),
+                            Long.parseLong(getProperty(POOL_TIMEOUT_PROPERTY, "5000"))
+                    );
+                }
+            }
+        }
+        return pool.borrow();
+    }
+
+    /**
+     * Opens up to count pooled connections ahead of use, e.g. while the app starts.
+     *
+     * @return The number of connections opened; 0 when pooling is off
+     */
+    public static int warmUp(int count) throws SQLException {
+        int poolSize = Integer.parseInt(getProperty(POOL_SIZE_PROPERTY, "10"));
+        if (poolSize <= 0 || properties.getProperty(DB_URL_PROPERTY) == null) {
+            return 0;
+        }
+        // Creates the pool and checks the database is reachable
+        closeConnection(getConnection());
+        return pool.prefill(count);
+    }
+
+    /**
+     * Appends a name=value driver option to the URL unless the URL already sets that option.
+     */
+    private static String withOption(String url, String option) {
+        if (url.contains(option.substring(0, option.indexOf('=')))) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?") + option;
+    }
+
+    /**
+     * Reads an optional setting from db.properties.
+     *
+     * @param name The property name
+     * @param defaultValue Returned when the property is missing or blank
+     */
+    public static String getProperty(String name, String defaultValue) {
+        String value = properties.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
     }
 
     public static void closeConnection(Connection connection, java.sql.PreparedStatement ps, java.sql.ResultSet rs) {
@@ -0,0 +1,170 @@
+package DAO;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for inserts: callers on many threads submit rows, a single writer thread
+ * collects whatever arrives within a few milliseconds and writes it as one JDBC batch in one
+ * transaction. One commit (and one log flush on the database) then covers the whole group.
+ *
+ * Each caller gets a future that completes with its own item once the group is committed;
+ * the BatchWriter is expected to set generated keys on the items. If the group fails, the
+ * items are retried one per transaction so a single bad row only fails its own caller.
+ *
+ * Reservation and payment inserts only use it when db.groupCommit=true in db.properties.
+ * Background writers can give it a capacity, so producers that outrun the database are told
+ * to back off instead of queueing without limit.
+ *
+ * @param <T> The entity being inserted
+ */
+public class GroupCommitter<T> {
+
+    private static final String ENABLED_PROPERTY = "db.groupCommit";
+    private static final String MAX_DELAY_PROPERTY = "db.groupCommit.maxDelayMillis";
+    private static final String MAX_BATCH_PROPERTY = "db.groupCommit.maxBatch";
+
+    /**
+     * Writes a group of items using the given transaction connection (not committed or closed here).
+     */
+    public interface BatchWriter<T> {
+        void write(List<T> items, Connection conn) throws SQLException;
+    }
+
+    private record Pending<T>(T item, CompletableFuture<T> future) {}
+
+    private final String name;
+    private final BatchWriter<T> writer;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Pending<T>> queue;
+
+    public GroupCommitter(String name, BatchWriter<T> writer) {
+        this(name, writer, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param capacity Most items that may wait at once; {@link #offer} fails while this many are queued
+     */
+    public GroupCommitter(String name, BatchWriter<T> writer, int capacity) {
+        this.name = name;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.writer = writer;
+        this.maxBatch = Integer.parseInt(DBConnectionUtil.getProperty(MAX_BATCH_PROPERTY, "100"));
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(DBConnectionUtil.getProperty(MAX_DELAY_PROPERTY, "5")));
+
+        Thread worker = new Thread(this::run, "group-commit-" + name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(DBConnectionUtil.getProperty(ENABLED_PROPERTY, "false"));
+    }
+
+    /**
+     * Queues an item for the next group.
+     *
+     * @return A future completed with the item after its group commits, or exceptionally if it could not be written
+     */
+    public CompletableFuture<T> submit(T item) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        queue.add(new Pending<>(item, future));
+        return future;
+    }
+
+    /**
+     * Queues an item for the next group, waiting up to the timeout for room in the queue.
+     *
+     * @return The item's future as in {@link #submit}, or empty if the queue stayed full
+     */
+    public Optional<CompletableFuture<T>> offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (!queue.offer(new Pending<>(item, future), timeout, unit)) {
+            return Optional.empty();
+        }
+        return Optional.of(future);
+    }
+
+    // === WORKER ===
+
+    private void run() {
+        List<Pending<T>> group = new ArrayList<>();
+        while (true) {
+            try {
+                group.add(queue.take());
+                // Give concurrent callers a short window to join this group
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (group.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    Pending<T> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    group.add(next);
+                }
+                queue.drainTo(group, maxBatch - group.size());
+
+                if (!commit(group) && group.size() > 1) {
+                    for (Pending<T> pending : group) {
+                        commit(List.of(pending));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("GroupCommitter[" + name + "] Error: " + e.getMessage());
+                group.forEach(pending -> pending.future().completeExceptionally(e));
+            }
+            group.clear();
+        }
+    }
+
+    /**
+     * Writes and commits one group. On failure the group is rolled back and, if it was a single item,
+     * its caller is failed; larger groups are left for the caller to retry item by item.
+     */
+    private boolean commit(List<Pending<T>> group) {
+        List<T> items = new ArrayList<>(group.size());
+        for (Pending<T> pending : group) {
+            items.add(pending.item());
+        }
+
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+            writer.write(items, conn);
+            conn.commit();
+            for (Pending<T> pending : group) {
+                pending.future().complete(pending.item());
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("GroupCommitter[" + name + "] Error committing " + group.size() + " items: " + e.getMessage());
+            if (conn != null) {
+                try { conn.rollback(); } catch (SQLException ex) { System.err.println("Rollback failed: " + ex.getMessage()); }
+            }
+            if (group.size() == 1) {
+                group.get(0).future().completeExceptionally(e);
+            }
+            return false;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    System.err.println("Error restoring connection state: " + e.getMessage());
+                }
+                DBConnectionUtil.closeConnection(conn);
+            }
+        }
+    }
+}
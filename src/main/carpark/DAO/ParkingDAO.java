@@ -1,15 +1,20 @@
     package DAO;
 
+    import Model.DTO.SlotConversionDTO;
     import Model.Entity.Branch;
     import Model.Entity.ParkingSlot;
     import Model.Entity.Pricing;
+    import Model.Entity.Reservation;
     import Model.Entity.SlotType;
 
     import java.math.BigDecimal;
     import java.sql.*;
     import java.time.LocalTime;
     import java.util.ArrayList;
+    import java.util.EnumMap;
+    import java.util.HashMap;
     import java.util.List;
+    import java.util.Map;
     import java.util.Optional;
 
     /**
@@ -21,28 +26,49 @@
         // === SQL QUERIES ===
         private static final String SELECT_AVAILABLE_SLOTS =
                 "SELECT * FROM parking_slots WHERE availability = TRUE AND branch_ID = ? AND slot_type = ?";
+        private static final String COUNT_AVAILABLE_SLOTS_BY_TYPE =
+                "SELECT slot_type, COUNT(*) AS free_count FROM parking_slots WHERE availability = TRUE AND branch_ID = ? GROUP BY slot_type";
+        private static final String COUNT_AVAILABLE_SLOTS_BY_BRANCH =
+                "SELECT branch_ID, COUNT(*) AS free_count FROM parking_slots WHERE availability = TRUE AND slot_type = ? GROUP BY branch_ID";
+        private static final String COUNT_SLOTS_BY_FLOOR =
+                "SELECT floor_level, COUNT(*) AS slot_count FROM parking_slots WHERE branch_ID = ? AND slot_type = ? GROUP BY floor_level";
+        // Guarded on the current value, so of two concurrent bookings only one claims the slot
         private static final String UPDATE_SLOT_AVAILABILITY =
-                "UPDATE parking_slots SET availability = ? WHERE spot_ID = ?";
+                "UPDATE parking_slots SET availability = ? WHERE spot_ID = ? AND availability = ?";
+        // Frees the slot a stay used, unless another reservation holds it now (e.g. re-booked after the expiry sweep freed it)
+        private static final String RELEASE_SLOT_AFTER_STAY =
+                "UPDATE parking_slots SET availability = TRUE WHERE spot_ID = ? AND availability = FALSE " +
+                "AND NOT EXISTS (SELECT 1 FROM reservations r WHERE r.spot_ID = ? AND r.status = 'Active' AND r.transact_ID <> ?)";
 
         // --- Pricing Rule ---
         private static final String SELECT_PRICING_RULE =
                 "SELECT pricing_ID, branch_ID, slot_type, hourly_rate, overtime_rate FROM pricing " +
                         "WHERE branch_ID = ? AND slot_type = ?";
+        private static final String SELECT_PRICING_RULE_FOR_SLOT =
+                "SELECT p.pricing_ID, p.branch_ID, p.slot_type, p.hourly_rate, p.overtime_rate FROM parking_slots s " +
+                        "JOIN pricing p ON p.branch_ID = s.branch_ID AND p.slot_type = s.slot_type WHERE s.spot_ID = ?";
+        private static final String SELECT_PRICING_RULES_BY_TYPE =
+                "SELECT pricing_ID, branch_ID, slot_type, hourly_rate, overtime_rate FROM pricing WHERE slot_type = ?";
 
         // --- Branch Queries ---
         private static final String SELECT_ALL_BRANCHES =
-                "SELECT branch_ID, name, contact_number, email, max_slots, location, opening_time, closing_time FROM branches";
+                "SELECT branch_ID, name, contact_number, email, max_slots, location, opening_time, closing_time, latitude, longitude FROM branches";
         private static final String INSERT_BRANCH =
-                "INSERT INTO branches (name, contact_number, email, max_slots, location, opening_time, closing_time) VALUES (?, ?, ?, ?, ?, ?, ?)";
+                "INSERT INTO branches (name, contact_number, email, max_slots, location, opening_time, closing_time, latitude, longitude) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
         private static final String INSERT_SLOT =
                 "INSERT INTO parking_slots (spot_ID, branch_ID, floor_level, slot_type, availability) VALUES (?, ?, ?, ?, ?)";
         private static final String UPSERT_PRICING =
                 "INSERT INTO pricing (branch_ID, slot_type, hourly_rate, overtime_rate) VALUES (?, ?, ?, ?)" +
                         "ON DUPLICATE KEY UPDATE hourly_rate = VALUES(hourly_rate), overtime_rate = VALUES(overtime_rate)";
+        private static final String SELECT_ALL_SLOTS =
+                "SELECT * FROM parking_slots";
         private static final String SELECT_SLOT_BY_ID =
                 "SELECT * FROM parking_slots WHERE spot_ID = ?";
         private static final String UPDATE_SLOT_TYPE =
-                "UPDATE parking_slots SET slot_type = ? WHERE slot_ID = ?";
+                "UPDATE parking_slots SET slot_type = ? WHERE spot_ID = ?";
+        // Only converts a slot that is still free and still of the type the change was planned from
+        private static final String CONVERT_FREE_SLOT_TYPE =
+                "UPDATE parking_slots SET slot_type = ? WHERE spot_ID = ? AND slot_type = ? AND availability = TRUE";
 
         private ParkingSlot mapRowToParkingSlot(ResultSet rs) throws SQLException {
             String spotId = rs.getString("spot_ID");
@@ -97,13 +123,81 @@
             return slots;
         }
 
+        /**
+         * Counts the free slots of every slot type in a branch with a single query.
+         * Used by the gate API to answer availability requests without loading every slot row.
+         *
+         * @param branchId The branch ID to count within.
+         * @return A map of slot type to free slot count; types with no free slots map to 0.
+         */
+        public Map<SlotType, Integer> countAvailableSlotsByType(int branchId) {
+            Map<SlotType, Integer> counts = new EnumMap<>(SlotType.class);
+            for (SlotType type : SlotType.values()) {
+                counts.put(type, 0);
+            }
+            Connection conn = null;
+            PreparedStatement ps = null;
+            ResultSet rs = null;
+
+            try {
+                conn = DBConnectionUtil.getConnection();
+                ps = conn.prepareStatement(COUNT_AVAILABLE_SLOTS_BY_TYPE);
+                ps.setInt(1, branchId);
+
+                rs = ps.executeQuery();
+                while (rs.next()) {
+                    SlotType type = SlotType.fromString(rs.getString("slot_type"));
+                    if (type != null) {
+                        counts.put(type, rs.getInt("free_count"));
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("parkingDAO Error in countAvailableSlotsByType: " + e.getMessage());
+            } finally {
+                DBConnectionUtil.closeConnection(conn, ps, rs);
+            }
+            return counts;
+        }
+
+        /**
+         * Counts every slot of one type on each floor of a branch, free or not.
+         *
+         * @param branchId The branch ID to count within.
+         * @param slotType The slot type to count.
+         * @return A map of floor level to slot count; floors without the type are absent.
+         */
+        public Map<Integer, Integer> countSlotsByFloor(int branchId, SlotType slotType) {
+            Map<Integer, Integer> counts = new HashMap<>();
+            Connection conn = null;
+            PreparedStatement ps = null;
+            ResultSet rs = null;
+
+            try {
+                conn = DBConnectionUtil.getConnection();
+                ps = conn.prepareStatement(COUNT_SLOTS_BY_FLOOR);
+                ps.setInt(1, branchId);
+                ps.setString(2, slotType.name());
+
+                rs = ps.executeQuery();
+                while (rs.next()) {
+                    counts.put(rs.getInt("floor_level"), rs.getInt("slot_count"));
+                }
+            } catch (SQLException e) {
+                System.err.println("parkingDAO Error in countSlotsByFloor: " + e.getMessage());
+            } finally {
+                DBConnectionUtil.closeConnection(conn, ps, rs);
+            }
+            return counts;
+        }
+
         /**
          * Updates the availability status of a specific parking slot.
          * This is used by the ReservationService (to reserve) and Admin Service (for maintenance).
+         * Only a slot that currently has the opposite status is changed.
          *
          * @param spotId The ID of the slot to update.
          * @param isAvailable The new availability status (true or false).
-         * @return true if the update was successful.
+         * @return true if the slot changed; false if it already had that status (e.g. another booking just took it).
          */
         public boolean updateSlotAvailability(String spotId, boolean isAvailable, Connection conn) throws SQLException {
             PreparedStatement ps = null;
@@ -112,6 +206,7 @@
                 ps = conn.prepareStatement(UPDATE_SLOT_AVAILABILITY);
                 ps.setBoolean(1, isAvailable);
                 ps.setString(2, spotId);
+                ps.setBoolean(3, !isAvailable);
 
                 return ps.executeUpdate() > 0;
 
@@ -123,6 +218,90 @@
             }
         }
 
+        /**
+         * Updates the availability of many slots in one JDBC batch.
+         * Used by the gate pipeline to release slots for a burst of departures.
+         *
+         * @param spotIds The IDs of the slots to update.
+         * @param isAvailable The new availability status (true or false).
+         * @param conn The shared transaction connection (not closed here).
+         * @return The per-row update counts; 0 for a slot that already had that status.
+         */
+        public int[] batchUpdateSlotAvailability(List<String> spotIds, boolean isAvailable, Connection conn) throws SQLException {
+            PreparedStatement ps = null;
+
+            try {
+                ps = conn.prepareStatement(UPDATE_SLOT_AVAILABILITY);
+                for (String spotId : spotIds) {
+                    ps.setBoolean(1, isAvailable);
+                    ps.setString(2, spotId);
+                    ps.setBoolean(3, !isAvailable);
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+
+            } catch (SQLException e) {
+                System.err.println("parkingDAO Error in batchUpdateSlotAvailability: " + e.getMessage());
+                throw e;
+            } finally {
+                if (ps != null) ps.close();
+            }
+        }
+
+        /**
+         * Frees the slot of a stay that just left, unless another Active reservation holds it.
+         *
+         * @param spotId The slot the stay used.
+         * @param reservationId The departing reservation.
+         * @param conn The shared transaction connection (not closed here).
+         * @return true if the slot was freed.
+         */
+        public boolean releaseSlotAfterStay(String spotId, int reservationId, Connection conn) throws SQLException {
+            PreparedStatement ps = null;
+
+            try {
+                ps = conn.prepareStatement(RELEASE_SLOT_AFTER_STAY);
+                ps.setString(1, spotId);
+                ps.setString(2, spotId);
+                ps.setInt(3, reservationId);
+                return ps.executeUpdate() > 0;
+
+            } catch (SQLException e) {
+                System.err.println("parkingDAO Error in releaseSlotAfterStay: " + e.getMessage());
+                throw e;
+            } finally {
+                if (ps != null) ps.close();
+            }
+        }
+
+        /**
+         * Frees the slots of stays that just left, skipping any slot another Active reservation holds.
+         *
+         * @param stays The departing reservations (spot and ID are used).
+         * @param conn The shared transaction connection (not closed here).
+         * @return The per-stay update counts; 0 where the slot was already free or belongs to another booking.
+         */
+        public int[] batchReleaseSlotsAfterStay(List<Reservation> stays, Connection conn) throws SQLException {
+            PreparedStatement ps = null;
+
+            try {
+                ps = conn.prepareStatement(RELEASE_SLOT_AFTER_STAY);
+                for (Reservation stay : stays) {
+                    ps.setString(1, stay.getSpotID());
+                    ps.setString(2, stay.getSpotID());
+                    ps.setInt(3, stay.getReservationID());
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+
+            } catch (SQLException e) {
+                System.err.println("parkingDAO Error in batchReleaseSlotsAfterStay: " + e.getMessage());
+                throw e;
+            } finally {
+                if (ps != null) ps.close();
+            }
+        }
+
         /**
          * Retrieves the pricing rule for a specific branch and slot type.
          * This is crucial for the PaymentService to calculate fees.
@@ -154,6 +333,120 @@
             return Optional.empty();
         }
 
+        /**
+         * Retrieves the pricing rule that applies to a slot, i.e. its branch's rule for its type, in one query.
+         *
+         * @param spotId The slot's ID.
+         * @return An Optional containing the rule, or empty if the slot or its rule does not exist.
+         */
+        public Optional<Pricing> getPricingRuleForSlot(String spotId) {
+            Connection conn = null;
+            PreparedStatement ps = null;
+            ResultSet rs = null;
+
+            try {
+                conn = DBConnectionUtil.getConnection();
+                ps = conn.prepareStatement(SELECT_PRICING_RULE_FOR_SLOT);
+                ps.setString(1, spotId);
+
+                rs = ps.executeQuery();
+                if (rs.next()) {
+                    return Optional.of(mapRowToPricingRule(rs));
+                }
+            } catch (SQLException e) {
+                System.err.println("parkingDAO Error in getPricingRuleForSlot: " + e.getMessage());
+            } finally {
+                DBConnectionUtil.closeConnection(conn, ps, rs);
+            }
+            return Optional.empty();
+        }
+
+        /**
+         * Retrieves the pricing rule of one slot type for every branch that has one.
+         *
+         * @param slotType The slot type.
+         * @return A map of branch ID to its pricing rule for the type.
+         */
+        public Map<Integer, Pricing> getPricingRulesByType(SlotType slotType) {
+            Map<Integer, Pricing> rules = new HashMap<>();
+            Connection conn = null;
+            PreparedStatement ps = null;
+            ResultSet rs = null;
+
+            try {
+                conn = DBConnectionUtil.getConnection();
+                ps = conn.prepareStatement(SELECT_PRICING_RULES_BY_TYPE);
+                ps.setString(1, slotType.name());
+
+                rs = ps.executeQuery();
+                while (rs.next()) {
+                    Pricing rule = mapRowToPricingRule(rs);
+                    rules.put(rule.getBranch_ID(), rule);
+                }
+            } catch (SQLException e) {
+                System.err.println("parkingDAO Error in getPricingRulesByType: " + e.getMessage());
+            } finally {
+                DBConnectionUtil.closeConnection(conn, ps, rs);
+            }
+            return rules;
+        }
+
+        /**
+         * Counts the free slots of one slot type in every branch with a single query.
+         *
+         * @param slotType The slot type to count.
+         * @return A map of branch ID to free slot count; branches with none are absent.
+         */
+        public Map<Integer, Integer> countAvailableSlotsByBranch(SlotType slotType) {
+            Map<Integer, Integer> counts = new HashMap<>();
+            Connection conn = null;
+            PreparedStatement ps = null;
+            ResultSet rs = null;
+
+            try {
+                conn = DBConnectionUtil.getConnection();
+                ps = conn.prepareStatement(COUNT_AVAILABLE_SLOTS_BY_BRANCH);
+                ps.setString(1, slotType.name());
+
+                rs = ps.executeQuery();
+                while (rs.next()) {
+                    counts.put(rs.getInt("branch_ID"), rs.getInt("free_count"));
+                }
+            } catch (SQLException e) {
+                System.err.println("parkingDAO Error in countAvailableSlotsByBranch: " + e.getMessage());
+            } finally {
+                DBConnectionUtil.closeConnection(conn, ps, rs);
+            }
+            return counts;
+        }
+
+        /**
+         * Retrieves every parking slot across all branches.
+         *
+         * @return A list of all ParkingSlot objects.
+         */
+        public List<ParkingSlot> getAllSlots() {
+            List<ParkingSlot> slots = new ArrayList<>();
+            Connection conn = null;
+            PreparedStatement ps = null;
+            ResultSet rs = null;
+
+            try {
+                conn = DBConnectionUtil.getConnection();
+                ps = conn.prepareStatement(SELECT_ALL_SLOTS);
+
+                rs = ps.executeQuery();
+                while (rs.next()) {
+                    slots.add(mapRowToParkingSlot(rs));
+                }
+            } catch (SQLException e) {
+                System.err.println("parkingDAO Error in getAllSlots: " + e.getMessage());
+            } finally {
+                DBConnectionUtil.closeConnection(conn, ps, rs);
+            }
+            return slots;
+        }
+
         /**
          * Retrieves all registered branches in the system.
          * Used for initial UI population (e.g., dropdowns) and administrative views.
@@ -182,7 +475,10 @@
                     LocalTime openingTime = rs.getObject("opening_time", LocalTime.class);
                     LocalTime closingTime = rs.getObject("closing_time", LocalTime.class);
 
-                    branches.add(new Branch(branchId, name, contactNumber, email, maxSlots, location, openingTime, closingTime));
+                    Branch branch = new Branch(branchId, name, contactNumber, email, maxSlots, location, openingTime, closingTime);
+                    branch.setLatitude(rs.getObject("latitude", Double.class));
+                    branch.setLongitude(rs.getObject("longitude", Double.class));
+                    branches.add(branch);
                 }
             } catch (SQLException e) {
                 System.err.println("parkingDAO Error in getAllBranches: " + e.getMessage());
@@ -232,6 +528,8 @@
                 ps.setString(5, branch.getLocation());
                 ps.setObject(6, branch.getOpening_time());
                 ps.setObject(7, branch.getClosing_time());
+                ps.setObject(8, branch.getLatitude());
+                ps.setObject(9, branch.getLongitude());
 
                 int affectedRows = ps.executeUpdate();
                 if (affectedRows > 0) {
@@ -308,5 +606,32 @@
             }
         }
 
+        /**
+         * Changes the type of many slots in one JDBC batch. A slot is skipped (update count 0) if it is
+         * occupied or no longer of the conversion's fromType.
+         *
+         * @param conversions The slots to change.
+         * @param conn The shared transaction connection (not closed here).
+         * @return The per-row update counts; 0 for a slot that already had that status.
+         */
+        public int[] batchConvertSlotTypes(List<SlotConversionDTO> conversions, Connection conn) throws SQLException {
+            PreparedStatement ps = null;
+
+            try {
+                ps = conn.prepareStatement(CONVERT_FREE_SLOT_TYPE);
+                for (SlotConversionDTO conversion : conversions) {
+                    ps.setString(1, conversion.getToType().name());
+                    ps.setString(2, conversion.getSpotID());
+                    ps.setString(3, conversion.getFromType().name());
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
 
+            } catch (SQLException e) {
+                System.err.println("parkingDAO Error in batchConvertSlotTypes: " + e.getMessage());
+                throw e;
+            } finally {
+                if (ps != null) ps.close();
+            }
+        }
     }
@@ -5,11 +5,15 @@ import Model.Entity.Payment.PaymentStatus;
 import Model.Entity.Payment.ModeOfPayment;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
 
 public class PaymentDAO {
 
@@ -50,6 +54,35 @@ public class PaymentDAO {
     private static final String UPDATE_PAYMENT_STATUS =
             "UPDATE payments SET payment_status = ? WHERE payment_ID = ?";
 
+    // Settling never overwrites a payment that is no longer pending, e.g. one settled by another process
+    private static final String SETTLE_PENDING_PAYMENT =
+            "UPDATE payments SET payment_status = 'Paid', amount_paid = amount_to_pay WHERE payment_ID = ? AND payment_status = 'Pending'";
+
+    // Same guard for refunds: a payment refunded or voided meanwhile is left alone
+    private static final String REFUND_PAID_PAYMENT =
+            "UPDATE payments SET payment_status = 'Refunded' WHERE payment_ID = ? AND payment_status = 'Paid'";
+
+    // Paid payments for stays at the branch (optionally one floor) that overlap the window
+    private static final String SELECT_REFUNDABLE_PAYMENTS =
+            "SELECT p.payment_ID, p.transact_ID, p.amount_to_pay, p.amount_paid, p.payment_date, " +
+                    "p.payment_status, p.mode_of_payment FROM payments p " +
+                    "JOIN reservations r ON p.transact_ID = r.transact_ID " +
+                    "JOIN parking_slots ps ON r.spot_ID = ps.spot_ID " +
+                    "WHERE ps.branch_ID = ? AND (? IS NULL OR ps.floor_level = ?) " +
+                    "AND r.check_in_time < ? AND r.time_Out > ? AND p.payment_status = 'Paid' " +
+                    "ORDER BY p.payment_ID";
+
+    private static final String INSERT_PAYMENT_REQUEST =
+            "INSERT INTO payment_requests (request_key, transact_ID, created_at) VALUES (?, ?, ?)";
+
+    private static final String UPDATE_PAYMENT_REQUEST =
+            "UPDATE payment_requests SET payment_ID = ? WHERE request_key = ?";
+
+    private static final String SELECT_PAYMENT_BY_REQUEST =
+            "SELECT r.transact_ID AS request_transact_ID, p.payment_ID, p.transact_ID, p.amount_to_pay, p.amount_paid, " +
+                    "p.payment_date, p.payment_status, p.mode_of_payment " +
+                    "FROM payment_requests r LEFT JOIN payments p ON p.payment_ID = r.payment_ID WHERE r.request_key = ?";
+
     // ask
     private static final String SELECT_PAYMENTS_BY_DATE_RANGE =
             "SELECT payment_ID, transact_ID, amount_to_pay, amount_paid, payment_date, " +
@@ -69,13 +102,38 @@ public class PaymentDAO {
         BigDecimal amountToPay = rs.getBigDecimal("amount_to_pay");
         BigDecimal amountPaid = rs.getBigDecimal("amount_paid");
         LocalDate paymentDate = rs.getDate("payment_date").toLocalDate();
-        PaymentStatus paymentStatus = PaymentStatus.valueOf(rs.getString("payment_status"));
-        ModeOfPayment modeOfPayment = ModeOfPayment.valueOf(rs.getString("mode_of_payment"));
+        // MySQL returns ENUM values as declared ('Paid', 'E-wallet'), not as the enum names written
+        PaymentStatus paymentStatus = PaymentStatus.valueOf(toEnumName(rs.getString("payment_status")));
+        ModeOfPayment modeOfPayment = ModeOfPayment.valueOf(toEnumName(rs.getString("mode_of_payment")));
 
         return new Payment(paymentID, transactID, amountToPay, amountPaid,
                 paymentDate, paymentStatus, modeOfPayment);
     }
 
+    private static String toEnumName(String value) {
+        return value.trim().toUpperCase().replace('-', '_').replace(' ', '_');
+    }
+
+    /**
+     * The mode_of_payment ENUM label for a mode; the reverse of toEnumName, since E_WALLET and
+     * CREDIT_CARD are not labels MySQL accepts.
+     */
+    private static String toModeLabel(ModeOfPayment mode) {
+        if (mode == null) return null;
+        return switch (mode) {
+            case CASH -> "Cash";
+            case E_WALLET -> "E-wallet";
+            case CREDIT_CARD -> "Credit Card";
+        };
+    }
+
+    private static byte[] toBytes(UUID key) {
+        return ByteBuffer.allocate(16)
+                .putLong(key.getMostSignificantBits())
+                .putLong(key.getLeastSignificantBits())
+                .array();
+    }
+
     /**
      * Inserts a new payment record into the database.
      * Used by the PaymentService when processing new payments.
@@ -84,6 +142,9 @@ public class PaymentDAO {
      * @return The generated payment_ID if successful, -1 otherwise.
      */
     public boolean insertPayment(Payment payment) {
+        if (GroupCommitter.isEnabled()) {
+            return insertPaymentGrouped(payment);
+        }
         Connection conn = null;
         PreparedStatement ps = null;
         ResultSet rs = null;
@@ -97,13 +158,14 @@ public class PaymentDAO {
             ps.setBigDecimal(3, payment.getAmount_paid());
             ps.setDate(4, Date.valueOf(payment.getPayment_date()));
             ps.setString(5, payment.getPayment_status().name());
-            ps.setString(6, payment.getMode_of_payment().name());
+            ps.setString(6, toModeLabel(payment.getMode_of_payment()));
 
             int affectedRows = ps.executeUpdate();
             if (affectedRows > 0) {
                 rs = ps.getGeneratedKeys();
                 if (rs.next()) {
                     generatedID = rs.getInt(1);
+                    payment.setPayment_ID(generatedID);
                 }
                 return true;
             }
@@ -115,6 +177,219 @@ public class PaymentDAO {
         return false;
     }
 
+    /**
+     * Inserts many payments in one JDBC batch and sets each one's generated ID.
+     * Used by group commit; the caller owns the transaction.
+     *
+     * @param payments The payments to insert
+     * @param conn The shared transaction connection (not closed here)
+     */
+    public void batchInsertPayments(List<Payment> payments, Connection conn) throws SQLException {
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            ps = conn.prepareStatement(INSERT_PAYMENT, Statement.RETURN_GENERATED_KEYS);
+            for (Payment payment : payments) {
+                ps.setInt(1, payment.getTransact_ID());
+                ps.setBigDecimal(2, payment.getAmount_To_Pay());
+                ps.setBigDecimal(3, payment.getAmount_paid());
+                ps.setDate(4, Date.valueOf(payment.getPayment_date()));
+                ps.setString(5, payment.getPayment_status().name());
+                ps.setString(6, toModeLabel(payment.getMode_of_payment()));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+
+            // Keys come back in the order the rows were added
+            rs = ps.getGeneratedKeys();
+            for (Payment payment : payments) {
+                if (!rs.next()) {
+                    throw new SQLException("Batch insert returned fewer keys than rows");
+                }
+                payment.setPayment_ID(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            System.err.println("PaymentDAO Error in batchInsertPayments: " + e.getMessage());
+            throw e;
+        } finally {
+            if (rs != null) rs.close();
+            if (ps != null) ps.close();
+        }
+    }
+
+    /**
+     * Inserts a payment inside the caller's transaction and sets its generated ID.
+     *
+     * @param conn The transaction connection (not closed here)
+     */
+    public void insertPayment(Payment payment, Connection conn) throws SQLException {
+        batchInsertPayments(List.of(payment), conn);
+    }
+
+    /**
+     * Moves many PENDING payments to PAID in one JDBC batch.
+     *
+     * @param paymentIDs The payments to settle
+     * @param conn The shared transaction connection (not closed here)
+     * @return The per-row update counts; 0 for a payment that was not pending
+     */
+    public int[] batchSettlePayments(List<Integer> paymentIDs, Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SETTLE_PENDING_PAYMENT)) {
+            for (int paymentID : paymentIDs) {
+                ps.setInt(1, paymentID);
+                ps.addBatch();
+            }
+            return ps.executeBatch();
+        } catch (SQLException e) {
+            System.err.println("PaymentDAO Error in batchSettlePayments: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Moves many PAID payments to REFUNDED in one JDBC batch.
+     *
+     * @param paymentIDs The payments to refund
+     * @param conn The shared transaction connection (not closed here)
+     * @return The per-row update counts; 0 for a payment that was no longer paid
+     */
+    public int[] batchRefundPayments(List<Integer> paymentIDs, Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(REFUND_PAID_PAYMENT)) {
+            for (int paymentID : paymentIDs) {
+                ps.setInt(1, paymentID);
+                ps.addBatch();
+            }
+            return ps.executeBatch();
+        } catch (SQLException e) {
+            System.err.println("PaymentDAO Error in batchRefundPayments: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieves the PAID payments for stays at a branch that overlap a time window,
+     * e.g. everyone affected by a closure.
+     *
+     * @param floorLevel Only stays on this floor, or null for the whole branch
+     * @return The payments in ID order; empty if none or on error
+     */
+    public List<Payment> getRefundablePayments(int branchID, Integer floorLevel, LocalDateTime from, LocalDateTime to) {
+        List<Payment> payments = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(SELECT_REFUNDABLE_PAYMENTS);
+            ps.setInt(1, branchID);
+            ps.setObject(2, floorLevel, Types.INTEGER);
+            ps.setObject(3, floorLevel, Types.INTEGER);
+            ps.setTimestamp(4, Timestamp.valueOf(to));
+            ps.setTimestamp(5, Timestamp.valueOf(from));
+
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                payments.add(mapRowToPayment(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("PaymentDAO Error in getRefundablePayments: " + e.getMessage());
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+        return payments;
+    }
+
+    // === IDEMPOTENCY KEYS ===
+
+    /**
+     * Records a payment request key inside the caller's transaction. If another transaction is
+     * still working on the same key, this waits for it to finish.
+     *
+     * @param conn The transaction connection (not closed here)
+     * @return false if the key was already used, in which case the transaction is unchanged
+     */
+    public boolean claimRequestKey(UUID requestKey, int transactID, Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_PAYMENT_REQUEST)) {
+            ps.setBytes(1, toBytes(requestKey));
+            ps.setInt(2, transactID);
+            ps.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            ps.executeUpdate();
+            return true;
+        } catch (SQLIntegrityConstraintViolationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Links a claimed request key to the payment it produced, inside the caller's transaction.
+     */
+    public void setRequestPayment(UUID requestKey, int paymentID, Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(UPDATE_PAYMENT_REQUEST)) {
+            ps.setInt(1, paymentID);
+            ps.setBytes(2, toBytes(requestKey));
+            if (ps.executeUpdate() == 0) {
+                throw new SQLException("Payment request key was not claimed: " + requestKey);
+            }
+        }
+    }
+
+    /**
+     * Looks up the payment an earlier request with this key produced.
+     *
+     * @param transactID The reservation the caller is paying for; a key used for another reservation matches nothing
+     * @return The payment, or empty if the key is unknown, belongs to another reservation or the lookup failed
+     */
+    public Optional<Payment> getPaymentByRequestKey(UUID requestKey, int transactID) {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(SELECT_PAYMENT_BY_REQUEST);
+            ps.setBytes(1, toBytes(requestKey));
+
+            rs = ps.executeQuery();
+            if (rs.next()) {
+                if (rs.getInt("request_transact_ID") != transactID) {
+                    System.err.println("PaymentDAO: Request key " + requestKey + " belongs to another reservation");
+                    return Optional.empty();
+                }
+                rs.getInt("payment_ID");
+                if (!rs.wasNull()) {
+                    return Optional.of(mapRowToPayment(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("PaymentDAO Error in getPaymentByRequestKey: " + e.getMessage());
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Lazily started so the writer thread only exists when group commit is switched on.
+     */
+    private static class PaymentCommitter {
+        static final GroupCommitter<Payment> INSTANCE =
+                new GroupCommitter<>("payments", (payments, conn) -> new PaymentDAO().batchInsertPayments(payments, conn));
+    }
+
+    /**
+     * Group-commit path of insertPayment: waits for the group containing this payment to commit.
+     */
+    private boolean insertPaymentGrouped(Payment payment) {
+        try {
+            PaymentCommitter.INSTANCE.submit(payment).join();
+            return true;
+        } catch (CompletionException e) {
+            System.err.println("PaymentDAO Error in insertPayment: " + e.getCause().getMessage());
+            return false;
+        }
+    }
+
     /**
      * Retrieves a payment by its ID.
      * Used by the PaymentService for payment lookup and verification.
@@ -285,7 +560,7 @@ public class PaymentDAO {
             ps.setBigDecimal(3, payment.getAmount_paid());
             ps.setDate(4, Date.valueOf(payment.getPayment_date()));
             ps.setString(5, payment.getPayment_status().name());
-            ps.setString(6, payment.getMode_of_payment().name());
+            ps.setString(6, toModeLabel(payment.getMode_of_payment()));
             ps.setInt(7, payment.getPayment_ID());
 
             int affectedRows = ps.executeUpdate();
@@ -4,14 +4,25 @@ import Model.DTO.DurationReportDTO;
 import Model.DTO.OccupancyReportDTO;
 import Model.DTO.RevenueReportDTO;
 import Model.DTO.SlotUtilizationDTO;
+import Model.Entity.Payment.PaymentStatus;
+import Model.Entity.ReservationStatus;
 import Model.Entity.SlotType;
 
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public class ReportDAO {
 
@@ -155,4 +166,480 @@ public class ReportDAO {
         }
         return report;
     }
+
+    /**
+     * Receives one raw row of a distribution report.
+     */
+    public interface SampleConsumer {
+        void accept(int id, int branchID, SlotType slotType, long value);
+    }
+
+    /**
+     * Streams every completed stay that ended in the month, as minutes parked, keyed by reservation ID.
+     *
+     * @return false if the query failed part way
+     */
+    public boolean streamDurationSamples(int month, int year, SampleConsumer consumer) {
+        String sql = "SELECT r.transact_ID, ps.branch_ID, ps.slot_type, TIMESTAMPDIFF(MINUTE, r.check_in_time, r.time_Out) AS minutes " +
+                "FROM reservations r " +
+                "JOIN parking_slots ps ON r.spot_ID = ps.spot_ID " +
+                "WHERE r.status = 'COMPLETED' " +
+                "  AND r.check_in_time IS NOT NULL AND r.time_Out IS NOT NULL " +
+                "  AND MONTH(r.time_Out) = ? AND YEAR(r.time_Out) = ?";
+        return streamSamples(sql, month, year, consumer, "streamDurationSamples");
+    }
+
+    /**
+     * Streams every paid payment made in the month, in centavos, keyed by payment ID.
+     *
+     * @return false if the query failed part way
+     */
+    public boolean streamPaymentSamples(int month, int year, SampleConsumer consumer) {
+        String sql = "SELECT p.payment_ID, ps.branch_ID, ps.slot_type, ROUND(p.amount_paid * 100) AS centavos " +
+                "FROM payments p " +
+                "JOIN reservations r ON p.transact_ID = r.transact_ID " +
+                "JOIN parking_slots ps ON r.spot_ID = ps.spot_ID " +
+                "WHERE p.payment_status = 'Paid' AND p.amount_paid IS NOT NULL " +
+                "  AND MONTH(p.payment_date) = ? AND YEAR(p.payment_date) = ?";
+        return streamSamples(sql, month, year, consumer, "streamPaymentSamples");
+    }
+
+    /**
+     * Streams every reservation (cancelled ones excluded) whose intended start falls in [from, to).
+     * The sample value is the start as whole hours since the epoch.
+     *
+     * @return false if the query failed part way
+     */
+    public boolean streamDemandSamples(LocalDateTime from, LocalDateTime to, SampleConsumer consumer) {
+        String sql = "SELECT r.transact_ID, ps.branch_ID, ps.slot_type, " +
+                "       COALESCE(r.expected_time_in, r.check_in_time, r.dateReserved) AS starts_at " +
+                "FROM reservations r " +
+                "JOIN parking_slots ps ON r.spot_ID = ps.spot_ID " +
+                "WHERE r.status <> 'Cancelled' " +
+                "  AND COALESCE(r.expected_time_in, r.check_in_time, r.dateReserved) >= ? " +
+                "  AND COALESCE(r.expected_time_in, r.check_in_time, r.dateReserved) < ?";
+
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(sql);
+            ps.setTimestamp(1, Timestamp.valueOf(from));
+            ps.setTimestamp(2, Timestamp.valueOf(to));
+            ps.setFetchSize(1000);
+            rs = ps.executeQuery();
+
+            while (rs.next()) {
+                LocalDateTime startsAt = rs.getTimestamp("starts_at").toLocalDateTime();
+                consumer.accept(
+                        rs.getInt("transact_ID"),
+                        rs.getInt("branch_ID"),
+                        SlotType.fromString(rs.getString("slot_type")),
+                        startsAt.toEpochSecond(ZoneOffset.UTC) / 3600
+                );
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("ReportDAO Error in streamDemandSamples: " + e.getMessage());
+            return false;
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+    }
+
+    private boolean streamSamples(String sql, int month, int year, SampleConsumer consumer, String method) {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(sql);
+            ps.setInt(1, month);
+            ps.setInt(2, year);
+            ps.setFetchSize(1000);
+            rs = ps.executeQuery();
+
+            while (rs.next()) {
+                consumer.accept(
+                        rs.getInt(1),
+                        rs.getInt(2),
+                        SlotType.fromString(rs.getString(3)),
+                        Math.max(0, rs.getLong(4))
+                );
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("ReportDAO Error in " + method + ": " + e.getMessage());
+            return false;
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+    }
+
+    /**
+     * Receives one stay of an occupancy query. checkOut is null while the vehicle is still parked.
+     */
+    public interface IntervalConsumer {
+        void accept(LocalDateTime checkIn, LocalDateTime checkOut);
+    }
+
+    /**
+     * Streams every stay at the branch that overlaps [from, to), optionally limited to one slot type.
+     *
+     * @param slotType The slot type, or null for all types
+     * @return false if the query failed part way
+     */
+    public boolean streamOccupancyIntervals(int branchID, SlotType slotType, LocalDateTime from, LocalDateTime to, IntervalConsumer consumer) {
+        // A checked-in reservation that is still ACTIVE has not left yet, whatever its scheduled time out
+        String sql = "SELECT r.check_in_time, CASE WHEN r.status = 'ACTIVE' THEN NULL ELSE r.time_Out END AS check_out " +
+                "FROM reservations r " +
+                "JOIN parking_slots ps ON r.spot_ID = ps.spot_ID " +
+                "WHERE ps.branch_ID = ? AND (? IS NULL OR ps.slot_type = ?) " +
+                "  AND (r.status = 'ACTIVE' OR r.status = 'COMPLETED') " +
+                "  AND r.check_in_time IS NOT NULL AND r.check_in_time < ? " +
+                "  AND (r.status = 'ACTIVE' OR r.time_Out > ?)";
+
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(sql);
+            String type = slotType == null ? null : slotType.name();
+            ps.setInt(1, branchID);
+            ps.setString(2, type);
+            ps.setString(3, type);
+            ps.setTimestamp(4, Timestamp.valueOf(to));
+            ps.setTimestamp(5, Timestamp.valueOf(from));
+            ps.setFetchSize(1000);
+            rs = ps.executeQuery();
+
+            while (rs.next()) {
+                Timestamp checkOut = rs.getTimestamp("check_out");
+                consumer.accept(
+                        rs.getTimestamp("check_in_time").toLocalDateTime(),
+                        checkOut == null ? null : checkOut.toLocalDateTime()
+                );
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("ReportDAO Error in streamOccupancyIntervals: " + e.getMessage());
+            return false;
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+    }
+
+    /**
+     * Minutes each slot of the branch was occupied within [from, to). Slots never used in the window are absent.
+     *
+     * @return The minutes per spot_ID, or empty if the query failed
+     */
+    public Optional<Map<String, Long>> getSlotUsageMinutes(int branchID, LocalDateTime from, LocalDateTime to) {
+        // Stays still in progress count up to the end of the window
+        String sql = "SELECT r.spot_ID, SUM(TIMESTAMPDIFF(MINUTE, GREATEST(r.check_in_time, ?), " +
+                "       LEAST(CASE WHEN r.status = 'ACTIVE' THEN ? ELSE r.time_Out END, ?))) AS minutes " +
+                "FROM reservations r " +
+                "JOIN parking_slots ps ON r.spot_ID = ps.spot_ID " +
+                "WHERE ps.branch_ID = ? " +
+                "  AND (r.status = 'ACTIVE' OR r.status = 'COMPLETED') " +
+                "  AND r.check_in_time IS NOT NULL AND r.check_in_time < ? " +
+                "  AND (r.status = 'ACTIVE' OR r.time_Out > ?) " +
+                "GROUP BY r.spot_ID";
+
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(sql);
+            ps.setTimestamp(1, Timestamp.valueOf(from));
+            ps.setTimestamp(2, Timestamp.valueOf(to));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            ps.setInt(4, branchID);
+            ps.setTimestamp(5, Timestamp.valueOf(to));
+            ps.setTimestamp(6, Timestamp.valueOf(from));
+            rs = ps.executeQuery();
+
+            Map<String, Long> usage = new HashMap<>();
+            while (rs.next()) {
+                usage.put(rs.getString("spot_ID"), Math.max(0, rs.getLong("minutes")));
+            }
+            return Optional.of(usage);
+        } catch (SQLException e) {
+            System.err.println("ReportDAO Error in getSlotUsageMinutes: " + e.getMessage());
+            return Optional.empty();
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+    }
+
+    /**
+     * One reservation with its slot, branch and payment, as read for the analytics store.
+     * Payment fields are null when the reservation has no payment row.
+     */
+    public record ReservationFact(int reservationID, int branchID, SlotType slotType,
+                                  LocalDateTime dateReserved, LocalDateTime checkIn, LocalDateTime timeOut,
+                                  ReservationStatus status, BigDecimal amountPaid, LocalDateTime paymentDate,
+                                  PaymentStatus paymentStatus) {}
+
+    public interface FactConsumer {
+        void accept(ReservationFact fact);
+    }
+
+    private static final String SELECT_RESERVATION_FACTS =
+            "SELECT r.transact_ID, ps.branch_ID, ps.slot_type, r.dateReserved, r.check_in_time, r.time_Out, r.status, " +
+            "       p.amount_paid, p.payment_date, p.payment_status " +
+            "FROM reservations r " +
+            "JOIN parking_slots ps ON r.spot_ID = ps.spot_ID " +
+            "LEFT JOIN payments p ON p.transact_ID = r.transact_ID ";
+
+    /**
+     * Streams up to limit reservations with an ID above afterID, in ID order.
+     *
+     * @return The number of rows read, or -1 if the query failed
+     */
+    public int streamReservationFacts(int afterID, int limit, FactConsumer consumer) {
+        String sql = SELECT_RESERVATION_FACTS + "WHERE r.transact_ID > ? ORDER BY r.transact_ID LIMIT ?";
+        return streamFacts(sql, List.of(afterID, limit), consumer);
+    }
+
+    /**
+     * Streams the given reservations, in ID order. Reservations that no longer exist are skipped.
+     *
+     * @return The number of rows read, or -1 if the query failed
+     */
+    public int streamReservationFacts(List<Integer> reservationIDs, FactConsumer consumer) {
+        if (reservationIDs.isEmpty()) return 0;
+        String placeholders = String.join(", ", Collections.nCopies(reservationIDs.size(), "?"));
+        String sql = SELECT_RESERVATION_FACTS + "WHERE r.transact_ID IN (" + placeholders + ") ORDER BY r.transact_ID";
+        return streamFacts(sql, reservationIDs, consumer);
+    }
+
+    private int streamFacts(String sql, List<Integer> parameters, FactConsumer consumer) {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        int rows = 0;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(sql);
+            for (int i = 0; i < parameters.size(); i++) {
+                ps.setInt(i + 1, parameters.get(i));
+            }
+            ps.setFetchSize(1000);
+            rs = ps.executeQuery();
+
+            while (rs.next()) {
+                String paymentStatus = rs.getString("payment_status");
+                consumer.accept(new ReservationFact(
+                        rs.getInt("transact_ID"),
+                        rs.getInt("branch_ID"),
+                        SlotType.fromString(rs.getString("slot_type")),
+                        toLocalDateTime(rs.getTimestamp("dateReserved")),
+                        toLocalDateTime(rs.getTimestamp("check_in_time")),
+                        toLocalDateTime(rs.getTimestamp("time_Out")),
+                        // The column holds 'No-Show', the enum NO_SHOW
+                        ReservationStatus.fromString(rs.getString("status").replace('-', '_')),
+                        rs.getBigDecimal("amount_paid"),
+                        toLocalDateTime(rs.getTimestamp("payment_date")),
+                        paymentStatus == null ? null : PaymentStatus.valueOf(paymentStatus.toUpperCase())
+                ));
+                rows++;
+            }
+            return rows;
+        } catch (SQLException e) {
+            System.err.println("ReportDAO Error in streamReservationFacts: " + e.getMessage());
+            return -1;
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+    }
+
+    /**
+     * One reservation with its payment and its branch's current pricing, as read for reconciliation.
+     * Payment fields are null when the reservation has no payment; rates are null when there is no pricing.
+     */
+    public record PaymentCheckRow(int reservationID, int branchID, SlotType slotType, LocalDateTime dateReserved,
+                                  LocalDateTime checkIn, LocalDateTime timeOut, ReservationStatus status,
+                                  Integer paymentID, BigDecimal amountToPay, BigDecimal amountPaid,
+                                  PaymentStatus paymentStatus, BigDecimal hourlyRate, BigDecimal overtimeRate) {}
+
+    public interface PaymentCheckConsumer {
+        void accept(PaymentCheckRow row) throws IOException;
+    }
+
+    /**
+     * Streams the branch's reservations settled in [from, to) with their payments and pricing, in ID order.
+     * A reservation is settled at its payment date, or at its time out when it has no payment date yet,
+     * so a nightly run checks each transaction once it is final rather than when it was booked.
+     *
+     * @return false if the query or the consumer failed part way
+     */
+    public boolean streamPaymentChecks(int branchID, LocalDateTime from, LocalDateTime to, PaymentCheckConsumer consumer) {
+        String sql = "SELECT r.transact_ID, ps.branch_ID, ps.slot_type, r.dateReserved, r.check_in_time, r.time_Out, r.status, " +
+                "       p.payment_ID, p.amount_to_pay, p.amount_paid, p.payment_status, pr.hourly_rate, pr.overtime_rate " +
+                "FROM reservations r " +
+                "JOIN parking_slots ps ON r.spot_ID = ps.spot_ID " +
+                "LEFT JOIN payments p ON p.transact_ID = r.transact_ID " +
+                "LEFT JOIN pricing pr ON pr.branch_ID = ps.branch_ID AND pr.slot_type = ps.slot_type " +
+                "WHERE ps.branch_ID = ? AND COALESCE(p.payment_date, r.time_Out) >= ? AND COALESCE(p.payment_date, r.time_Out) < ? " +
+                "ORDER BY r.transact_ID";
+
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(sql);
+            ps.setInt(1, branchID);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            ps.setFetchSize(1000);
+            rs = ps.executeQuery();
+
+            while (rs.next()) {
+                int paymentID = rs.getInt("payment_ID");
+                boolean paid = !rs.wasNull();
+                String paymentStatus = rs.getString("payment_status");
+                consumer.accept(new PaymentCheckRow(
+                        rs.getInt("transact_ID"),
+                        rs.getInt("branch_ID"),
+                        SlotType.fromString(rs.getString("slot_type")),
+                        toLocalDateTime(rs.getTimestamp("dateReserved")),
+                        toLocalDateTime(rs.getTimestamp("check_in_time")),
+                        toLocalDateTime(rs.getTimestamp("time_Out")),
+                        // The column holds 'No-Show', the enum NO_SHOW
+                        ReservationStatus.fromString(rs.getString("status").replace('-', '_')),
+                        paid ? paymentID : null,
+                        rs.getBigDecimal("amount_to_pay"),
+                        rs.getBigDecimal("amount_paid"),
+                        paymentStatus == null ? null : PaymentStatus.valueOf(paymentStatus.toUpperCase()),
+                        rs.getBigDecimal("hourly_rate"),
+                        rs.getBigDecimal("overtime_rate")
+                ));
+            }
+            return true;
+        } catch (SQLException | IOException e) {
+            System.err.println("ReportDAO Error in streamPaymentChecks: " + e.getMessage());
+            return false;
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+    }
+
+    /**
+     * The reservations whose payment was written at or after some time, and the latest write among them.
+     */
+    public record PaymentChanges(List<Integer> reservationIDs, LocalDateTime lastUpdated) {}
+
+    private static final String SELECT_LAST_PAYMENT_UPDATE =
+            "SELECT COALESCE(MAX(updated_at), '1970-01-01') AS last_updated FROM payments";
+    private static final String SELECT_PAYMENTS_UPDATED_SINCE =
+            "SELECT transact_ID, updated_at FROM payments WHERE updated_at >= ?";
+
+    /**
+     * @return The latest payments.updated_at (1970-01-01 when there are no payments), or empty if the query failed
+     */
+    public Optional<LocalDateTime> getLastPaymentUpdate() {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(SELECT_LAST_PAYMENT_UPDATE);
+            rs = ps.executeQuery();
+            return rs.next() ? Optional.of(rs.getTimestamp("last_updated").toLocalDateTime()) : Optional.empty();
+        } catch (SQLException e) {
+            System.err.println("ReportDAO Error in getLastPaymentUpdate: " + e.getMessage());
+            return Optional.empty();
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+    }
+
+    /**
+     * Finds the payments written at or after since, e.g. refunds and settlements of completed reservations.
+     *
+     * @return The changes (lastUpdated is since itself when there are none), or empty if the query failed
+     */
+    public Optional<PaymentChanges> getPaymentChangesSince(LocalDateTime since) {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(SELECT_PAYMENTS_UPDATED_SINCE);
+            ps.setTimestamp(1, Timestamp.valueOf(since));
+            rs = ps.executeQuery();
+
+            List<Integer> reservationIDs = new ArrayList<>();
+            LocalDateTime lastUpdated = since;
+            while (rs.next()) {
+                reservationIDs.add(rs.getInt("transact_ID"));
+                LocalDateTime updated = rs.getTimestamp("updated_at").toLocalDateTime();
+                if (updated.isAfter(lastUpdated)) lastUpdated = updated;
+            }
+            return Optional.of(new PaymentChanges(reservationIDs, lastUpdated));
+        } catch (SQLException e) {
+            System.err.println("ReportDAO Error in getPaymentChangesSince: " + e.getMessage());
+            return Optional.empty();
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+    }
+
+    /**
+     * How many rows a month's reports read and when the latest of them changed. The reports of a
+     * closed month only need to be re-run when this changes.
+     */
+    public record MonthVersion(long rows, LocalDateTime lastUpdated) {}
+
+    private static final String SELECT_PAYMENT_MONTH_VERSION =
+            "SELECT COUNT(*) AS row_count, MAX(updated_at) AS last_updated FROM payments " +
+            "WHERE payment_date >= ? AND payment_date < ?";
+    // A reservation counts toward the month it was booked and the month it ended
+    private static final String SELECT_RESERVATION_MONTH_VERSION =
+            "SELECT COUNT(*) AS row_count, MAX(updated_at) AS last_updated FROM reservations " +
+            "WHERE (dateReserved >= ? AND dateReserved < ?) OR (time_Out >= ? AND time_Out < ?)";
+
+    /**
+     * Reads the version of the payments (paymentBased) or reservations that fall in the month.
+     *
+     * @return The version, or empty if the query failed
+     */
+    public Optional<MonthVersion> getMonthVersion(boolean paymentBased, int month, int year) {
+        LocalDateTime from = LocalDateTime.of(year, month, 1, 0, 0);
+        Timestamp start = Timestamp.valueOf(from);
+        Timestamp end = Timestamp.valueOf(from.plusMonths(1));
+
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(paymentBased ? SELECT_PAYMENT_MONTH_VERSION : SELECT_RESERVATION_MONTH_VERSION);
+            ps.setTimestamp(1, start);
+            ps.setTimestamp(2, end);
+            if (!paymentBased) {
+                ps.setTimestamp(3, start);
+                ps.setTimestamp(4, end);
+            }
+            rs = ps.executeQuery();
+            if (rs.next()) {
+                return Optional.of(new MonthVersion(rs.getLong("row_count"), toLocalDateTime(rs.getTimestamp("last_updated"))));
+            }
+            return Optional.empty();
+        } catch (SQLException e) {
+            System.err.println("ReportDAO Error in getMonthVersion: " + e.getMessage());
+            return Optional.empty();
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
 }
@@ -2,9 +2,12 @@ package DAO;
 
 
 import java.sql.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import Model.DTO.ReservationSummaryDTO;
@@ -22,18 +25,42 @@ public class ReservationDAO {
     private static final String INSERT_RESERVATION       = "INSERT INTO reservations " +
                                             "(vehicle_ID, spot_ID, expected_time_in, check_in_time, time_Out, dateReserved, status) " +
                                             "VALUES (?, ?, ?, ?, ?, ?, ?)";
-    private static final String AUTO_COMPLETE_EXPIRED    = "UPDATE reservations SET status = 'Completed' " +
-                                                           "WHERE status = 'Active' AND time_Out < NOW()";
+    // Completing an expired reservation also releases its slot
+    private static final String SELECT_EXPIRED_IDS       = "SELECT transact_ID FROM reservations WHERE status = 'Active' AND time_Out < ?";
+    // Re-checks the status and time out, so a stay checked out since the select is left alone
+    private static final String AUTO_COMPLETE_EXPIRED    = "UPDATE reservations r JOIN parking_slots ps ON r.spot_ID = ps.spot_ID " +
+                                                           "SET r.status = 'Completed', ps.availability = TRUE " +
+                                                           "WHERE r.transact_ID = ? AND r.status = 'Active' AND r.time_Out < ?";
+    private static final String SELECT_ACTIVE_RESERVATIONS = "SELECT * FROM reservations WHERE status = 'Active' ";
+    private static final String SELECT_RESERVATION_VEHICLES = "SELECT transact_ID, vehicle_ID FROM reservations";
+    private static final String UPDATE_CHECK_IN          = "UPDATE reservations SET check_in_time = ? WHERE transact_ID = ? ";
+    private static final String UPDATE_CHECK_OUT         = "UPDATE reservations SET time_Out = ?, gate_exit_time = ?, status = ? WHERE transact_ID = ? ";
+
+    // Gate matching: the active booking at the branch whose expected arrival is closest to the entry event
+    private static final String SELECT_GATE_ENTRY_MATCH  = "SELECT r.* FROM reservations r " +
+                                                           "JOIN parking_slots ps ON r.spot_ID = ps.spot_ID " +
+                                                           "WHERE r.vehicle_ID = ? AND ps.branch_ID = ? AND r.status = 'Active' " +
+                                                           "ORDER BY ABS(TIMESTAMPDIFF(MINUTE, r.expected_time_in, ?)) LIMIT 1";
+    // Gate matching: the most recent stay at the branch that started before the exit event and has not
+    // left yet (prepaid stays are already Completed). Stays checked in more than MAX_GATE_STAY earlier are
+    // not matched, so a stray read cannot reopen an old stay that the sweep completed.
+    private static final String SELECT_GATE_EXIT_MATCH   = "SELECT r.* FROM reservations r " +
+                                                           "JOIN parking_slots ps ON r.spot_ID = ps.spot_ID " +
+                                                           "WHERE r.vehicle_ID = ? AND ps.branch_ID = ? " +
+                                                           "AND r.status IN ('Active', 'Completed') AND r.gate_exit_time IS NULL " +
+                                                           "AND r.check_in_time <= ? AND r.check_in_time >= ? " +
+                                                           "ORDER BY r.check_in_time DESC LIMIT 1";
+    private static final Duration MAX_GATE_STAY = Duration.ofDays(7);
 
-    Connection        conn = null;
-    PreparedStatement ps   = null;
-    ResultSet         rs   = null;
     /**
      * 
      * @param reservation_ID
      * @return
      */
     public Optional<Reservation> getReservationByID(int reservation_ID){
+        Connection        conn = null;
+        PreparedStatement ps   = null;
+        ResultSet         rs   = null;
         try{
             conn = DBConnectionUtil.getConnection();
             ps   = conn.prepareStatement(SELECT_RESERVATION_BY_ID);
@@ -52,24 +79,104 @@ public class ReservationDAO {
         return Optional.empty();
     }
 
+    /**
+     * Retrieves every reservation that is still active.
+     *
+     * @return The active reservations; empty if none are found or an error occurs
+     */
+    public List<Reservation> getActiveReservations() {
+        List<Reservation> reservations = new ArrayList<>();
+        Connection        conn = null;
+        PreparedStatement ps   = null;
+        ResultSet         rs   = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps   = conn.prepareStatement(SELECT_ACTIVE_RESERVATIONS);
+            rs   = ps.executeQuery();
+
+            while (rs.next()) {
+                reservations.add(mapRowToReservation(rs));
+            }
+        } catch (SQLException err) {
+            System.err.println("ReservationDAO Error in getActiveReservations: " + err.getMessage());
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+        return reservations;
+    }
+
+    /**
+     * Retrieves the vehicle of every reservation. Used to build the admin search index.
+     *
+     * @return transact_ID to vehicle_ID; empty if none are found or an error occurs
+     */
+    public Map<Integer, Integer> getVehicleIDsByReservation() {
+        Map<Integer, Integer> vehicles = new HashMap<>();
+        Connection        conn = null;
+        PreparedStatement ps   = null;
+        ResultSet         rs   = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps   = conn.prepareStatement(SELECT_RESERVATION_VEHICLES);
+            ps.setFetchSize(1000);
+            rs   = ps.executeQuery();
+
+            while (rs.next()) {
+                vehicles.put(rs.getInt("transact_ID"), rs.getInt("vehicle_ID"));
+            }
+        } catch (SQLException err) {
+            System.err.println("ReservationDAO Error in getVehicleIDsByReservation: " + err.getMessage());
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+        return vehicles;
+    }
+
     /**
      * This keeps the database status in sync with real time.
+     *
+     * @param cutoff Reservations whose time out is before this are completed and their slots released
+     * @return The IDs of the reservations this call completed; empty if none expired or on error
      */
-    public void updateExpiredReservations() {
+    public List<Integer> updateExpiredReservations(LocalDateTime cutoff) {
         Connection conn = null;
         PreparedStatement ps = null;
+        ResultSet rs = null;
+        List<Integer> completed = new ArrayList<>();
         try {
             conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(SELECT_EXPIRED_IDS);
+            ps.setTimestamp(1, Timestamp.valueOf(cutoff));
+            rs = ps.executeQuery();
+            List<Integer> expired = new ArrayList<>();
+            while (rs.next()) {
+                expired.add(rs.getInt("transact_ID"));
+            }
+            rs.close();
+            ps.close();
+            if (expired.isEmpty()) {
+                return completed;
+            }
+
             ps = conn.prepareStatement(AUTO_COMPLETE_EXPIRED);
-            int rows = ps.executeUpdate();
-            if (rows > 0) {
-                System.out.println("System: Auto-completed " + rows + " expired reservations.");
+            for (int reservationID : expired) {
+                ps.setInt(1, reservationID);
+                ps.setTimestamp(2, Timestamp.valueOf(cutoff));
+                ps.addBatch();
+            }
+            int[] rows = ps.executeBatch();
+            for (int i = 0; i < rows.length; i++) {
+                if (rows[i] > 0) completed.add(expired.get(i));
+            }
+            if (!completed.isEmpty()) {
+                System.out.println("System: Auto-completed " + completed.size() + " expired reservations.");
             }
         } catch (SQLException e) {
             System.err.println("ReservationDAO Error in updateExpiredReservations: " + e.getMessage());
         } finally {
-            DBConnectionUtil.closeConnection(conn, ps);
+            DBConnectionUtil.closeConnection(conn, ps, rs);
         }
+        return completed;
     }
 
     /**
@@ -79,9 +186,8 @@ public class ReservationDAO {
      * @return
      */
     public boolean updateReservationStatus(int reservation_ID, ReservationStatus newStatus, Connection conn){
-        try{
-            conn = DBConnectionUtil.getConnection();
-            ps   = conn.prepareStatement(UPDATE_RESERVATION);
+        // Runs on the caller's transaction connection, which the caller closes
+        try (PreparedStatement ps = conn.prepareStatement(UPDATE_RESERVATION)) {
             ps.setString(1, newStatus.name());
             ps.setInt(2, reservation_ID);
             int rowsAffected = ps.executeUpdate();
@@ -89,9 +195,83 @@ public class ReservationDAO {
         } catch(SQLException err) {
             System.err.println("ReservationDAO Error in updateReservationStatus: " + err.getMessage());
             return false; 
+        }
+    }
+
+    /**
+     * Sets the status of many reservations in one JDBC batch.
+     *
+     * @param reservationIDs The reservations to update
+     * @param newStatus      The status to set
+     * @param conn           The shared transaction connection (not closed here)
+     * @return The per-row update counts
+     */
+    public int[] batchUpdateStatus(List<Integer> reservationIDs, ReservationStatus newStatus, Connection conn) throws SQLException {
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(UPDATE_RESERVATION);
+            for (int reservationID : reservationIDs) {
+                ps.setString(1, newStatus.name());
+                ps.setInt(2, reservationID);
+                ps.addBatch();
+            }
+            return ps.executeBatch();
+        } catch (SQLException err) {
+            System.err.println("ReservationDAO Error in batchUpdateStatus: " + err.getMessage());
+            throw err;
         } finally {
-            DBConnectionUtil.closeConnection(conn, ps, rs);
-        }        
+            if (ps != null) ps.close();
+        }
+    }
+
+    /**
+     * Records the actual arrival time of a reservation, overwriting the
+     * check-in time that was entered on the booking form.
+     *
+     * @param reservation_ID The reservation to update
+     * @param checkInTime    The time the vehicle passed the entry gate
+     * @param conn           The shared transaction connection (not closed here)
+     * @return true if a row was updated
+     */
+    public boolean updateCheckInTime(int reservation_ID, LocalDateTime checkInTime, Connection conn) throws SQLException {
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(UPDATE_CHECK_IN);
+            ps.setTimestamp(1, dateChecker(checkInTime));
+            ps.setInt(2, reservation_ID);
+            return ps.executeUpdate() > 0;
+        } catch (SQLException err) {
+            System.err.println("ReservationDAO Error in updateCheckInTime: " + err.getMessage());
+            throw err;
+        } finally {
+            if (ps != null) ps.close();
+        }
+    }
+
+    /**
+     * Records the actual departure time of a reservation and moves it to its final status.
+     *
+     * @param reservation_ID The reservation to update
+     * @param timeOut        The time the vehicle passed the exit gate
+     * @param newStatus      The status to store alongside the departure time
+     * @param conn           The shared transaction connection (not closed here)
+     * @return true if a row was updated
+     */
+    public boolean updateCheckOut(int reservation_ID, LocalDateTime timeOut, ReservationStatus newStatus, Connection conn) throws SQLException {
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(UPDATE_CHECK_OUT);
+            ps.setTimestamp(1, dateChecker(timeOut));
+            ps.setTimestamp(2, dateChecker(timeOut));
+            ps.setString(3, newStatus.name());
+            ps.setInt(4, reservation_ID);
+            return ps.executeUpdate() > 0;
+        } catch (SQLException err) {
+            System.err.println("ReservationDAO Error in updateCheckOut: " + err.getMessage());
+            throw err;
+        } finally {
+            if (ps != null) ps.close();
+        }
     }
 
     public Optional<Reservation> insertReservation(Reservation newReservation, 
@@ -135,6 +315,136 @@ public class ReservationDAO {
             if (ps != null) try { ps.close(); } catch (SQLException e) {}
         }
     }
+
+    /**
+     * Inserts many reservations in one JDBC batch and sets each one's generated ID.
+     * Used by group commit; the caller owns the transaction.
+     *
+     * @param reservations The reservations to insert
+     * @param conn         The shared transaction connection (not closed here)
+     */
+    public void batchInsertReservations(List<Reservation> reservations, Connection conn) throws SQLException {
+        PreparedStatement ps = null;
+        ResultSet generatedKeys = null;
+        try {
+            ps = conn.prepareStatement(INSERT_RESERVATION, PreparedStatement.RETURN_GENERATED_KEYS);
+            for (Reservation reservation : reservations) {
+                ps.setInt(1, reservation.getVehicleID());
+                ps.setString(2, reservation.getSpotID());
+                ps.setTimestamp(3, dateChecker(reservation.getExpectedTimeIn()));
+                ps.setTimestamp(4, dateChecker(reservation.getCheckInTime()));
+                ps.setTimestamp(5, dateChecker(reservation.getTimeOut()));
+                ps.setTimestamp(6, dateChecker(reservation.getDateReserved()));
+                ps.setString(7, reservation.getStatus().name());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+
+            // Keys come back in the order the rows were added
+            generatedKeys = ps.getGeneratedKeys();
+            for (Reservation reservation : reservations) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("Batch insert returned fewer keys than rows");
+                }
+                reservation.setTransactID(generatedKeys.getInt(1));
+            }
+        } catch (SQLException err) {
+            System.err.println("ReservationDAO Error in batchInsertReservations: " + err.getMessage());
+            throw err;
+        } finally {
+            if (generatedKeys != null) try { generatedKeys.close(); } catch (SQLException e) {}
+            if (ps != null) ps.close();
+        }
+    }
+
+    /**
+     * Finds the reservation a gate event belongs to.
+     *
+     * @param vehicle_ID The vehicle whose plate was read at the gate
+     * @param branch_ID  The branch the gate belongs to
+     * @param eventTime  When the vehicle passed the gate
+     * @param exit       true for an exit gate, false for an entry gate
+     * @return The matching reservation, or empty if the vehicle has no open booking at the branch
+     */
+    public Optional<Reservation> findReservationForGateEvent(int vehicle_ID, int branch_ID, LocalDateTime eventTime, boolean exit) {
+        Connection        conn = null;
+        PreparedStatement ps   = null;
+        ResultSet         rs   = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps   = conn.prepareStatement(exit ? SELECT_GATE_EXIT_MATCH : SELECT_GATE_ENTRY_MATCH);
+            ps.setInt(1, vehicle_ID);
+            ps.setInt(2, branch_ID);
+            ps.setTimestamp(3, dateChecker(eventTime));
+            if (exit) {
+                ps.setTimestamp(4, dateChecker(eventTime.minus(MAX_GATE_STAY)));
+            }
+            rs   = ps.executeQuery();
+
+            if (rs.next()) {
+                return Optional.of(mapRowToReservation(rs));
+            }
+        } catch (SQLException err) {
+            System.err.println("ReservationDAO Error in findReservationForGateEvent: " + err.getMessage());
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Applies many gate arrivals in one JDBC batch. Each reservation must carry its new check-in time.
+     *
+     * @param reservations The reservations to update
+     * @param conn         The shared transaction connection (not closed here)
+     * @return The per-row update counts
+     */
+    public int[] batchUpdateCheckIns(List<Reservation> reservations, Connection conn) throws SQLException {
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(UPDATE_CHECK_IN);
+            for (Reservation reservation : reservations) {
+                ps.setTimestamp(1, dateChecker(reservation.getCheckInTime()));
+                ps.setInt(2, reservation.getReservationID());
+                ps.addBatch();
+            }
+            return ps.executeBatch();
+        } catch (SQLException err) {
+            System.err.println("ReservationDAO Error in batchUpdateCheckIns: " + err.getMessage());
+            throw err;
+        } finally {
+            if (ps != null) ps.close();
+        }
+    }
+
+    /**
+     * Applies many gate departures in one JDBC batch, completing each reservation.
+     * Each reservation must carry its new time out.
+     *
+     * @param reservations The reservations to update
+     * @param conn         The shared transaction connection (not closed here)
+     * @return The per-row update counts
+     */
+    public int[] batchUpdateCheckOuts(List<Reservation> reservations, Connection conn) throws SQLException {
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(UPDATE_CHECK_OUT);
+            for (Reservation reservation : reservations) {
+                ps.setTimestamp(1, dateChecker(reservation.getTimeOut()));
+                ps.setTimestamp(2, dateChecker(reservation.getTimeOut()));
+                ps.setString(3, ReservationStatus.COMPLETED.name());
+                ps.setInt(4, reservation.getReservationID());
+                ps.addBatch();
+            }
+            return ps.executeBatch();
+        } catch (SQLException err) {
+            System.err.println("ReservationDAO Error in batchUpdateCheckOuts: " + err.getMessage());
+            throw err;
+        } finally {
+            if (ps != null) ps.close();
+        }
+    }
+
     //helper functions
     private Reservation mapRowToReservation(ResultSet rs) throws SQLException {
         int transactID = rs.getInt("transact_ID");
@@ -168,7 +478,7 @@ public class ReservationDAO {
         SELECT 
             r.*, 
             v.plate_number, 
-            COALESCE(p.amount_paid, 0) AS totalPaid
+            CASE WHEN p.payment_status = 'Refunded' THEN 0 ELSE COALESCE(p.amount_paid, 0) END AS totalPaid
         FROM reservations r
         JOIN vehicles v ON r.vehicle_ID = v.vehicle_ID
         LEFT JOIN payments p ON p.transact_ID = r.transact_ID
@@ -194,7 +504,7 @@ public class ReservationDAO {
                         dateChecker(rs.getTimestamp("check_in_time")),
                         dateChecker(rs.getTimestamp("time_Out")),
                         dateChecker(rs.getTimestamp("dateReserved")),
-                        ReservationStatus.valueOf(rs.getString("status").trim().toUpperCase())
+                        ReservationStatus.fromString(rs.getString("status").trim().replace('-', '_'))
                 );
 
                 ReservationSummaryDTO dto = new ReservationSummaryDTO(
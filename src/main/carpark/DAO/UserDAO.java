@@ -2,6 +2,9 @@ package DAO;
 
 import Model.Entity.User;
 import Model.Entity.UserRole;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.Action;
+import Utilities.ChangeNotifier.Topic;
 
 import java.sql.*;
 import java.time.LocalDate;
@@ -18,8 +21,11 @@ public class UserDAO {
     // === SQL QUERIES ===
     private static final String SELECT_USER_BY_EMAIL = "SELECT * FROM users WHERE email = ?";
     private static final String INSERT_USER = "INSERT INTO users (email, password_hash, role, join_date) VALUES (?, ?, ?, ?)";
-    private static final String SELECT_ALL_USERS = "SELECT user_ID, email, password_hash, role, join_date FROM users";
     private static final String DELETE_USER = "DELETE FROM users WHERE user_ID = ?";
+    private static final String SELECT_USER_SEARCH_ROWS =
+            "SELECT u.user_ID, u.email, u.role, c.firstname, c.surname, c.contact_number " +
+            "FROM users u LEFT JOIN customers c ON c.user_ID = u.user_ID " +
+            "WHERE (? IS NULL OR u.user_ID = ?)";
 
     /**
      * Retrieves a User record from the database using their email address.
@@ -97,6 +103,7 @@ public class UserDAO {
                         user.getRole(),
                         user.getJoin_date()
                 );
+                ChangeNotifier.publish(Topic.USER, Action.CREATED, generatedID, newUser);
                 return Optional.of(newUser);
             }
 
@@ -108,35 +115,202 @@ public class UserDAO {
         return Optional.empty();
     }
 
-    private User mapResultSetToUser(ResultSet rs) throws SQLException {
-        int userId = rs.getInt("user_ID");
-        String email = rs.getString("email");
-        String passwordHash = rs.getString("password_hash");
-        UserRole role = UserRole.valueOf(rs.getString("role").toUpperCase());
-        LocalDate joinDate = rs.getDate("join_date").toLocalDate();
-        return new User(userId, email, passwordHash, role, joinDate);
+    // === PAGED LISTING ===
+
+    /**
+     * Orders for the user list. Each is unique together with user_ID, which breaks ties.
+     */
+    public enum UserSort {
+        ID("user_ID"),
+        EMAIL("email"),
+        JOIN_DATE("join_date");
+
+        private final String column;
+
+        UserSort(String column) {
+            this.column = column;
+        }
+    }
+
+    /**
+     * Which users to list and in what order.
+     *
+     * @param role        Only users with this role, or null for all
+     * @param emailPrefix Only emails starting with this, or null/blank for all
+     */
+    public record UserFilter(UserRole role, String emailPrefix, UserSort sort, boolean descending) {}
+
+    /**
+     * Position after a row in a listing: its sort value and user_ID.
+     */
+    public record UserCursor(Object sortValue, int userID) {
+        public static UserCursor after(User user, UserSort sort) {
+            Object value = switch (sort) {
+                case ID -> user.getUser_ID();
+                case EMAIL -> user.getEmail();
+                case JOIN_DATE -> user.getJoin_date();
+            };
+            return new UserCursor(value, user.getUser_ID());
+        }
     }
 
-    public List<User> findAllUsers() {
-        List<User> userList = new ArrayList<>();
+    /**
+     * Retrieves one page of users, without their password hashes.
+     *
+     * With a cursor, the page starts right after it (keyset pagination), which costs the same
+     * on every page. Without one it skips offset rows, for jumping to a page whose start is not
+     * known yet.
+     *
+     * @param after  Row the page starts after, or null to use offset
+     * @param offset Rows to skip when after is null
+     * @return The users in the filter's order; empty on error
+     */
+    public List<User> findUsersPage(UserFilter filter, UserCursor after, int offset, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT user_ID, email, role, join_date FROM users");
+        appendWhere(sql, params, filter);
+
+        String column = filter.sort().column;
+        String comparison = filter.descending() ? "<" : ">";
+        if (after != null) {
+            sql.append(params.isEmpty() ? " WHERE " : " AND ");
+            if (filter.sort() == UserSort.ID) {
+                sql.append("user_ID ").append(comparison).append(" ?");
+                params.add(after.userID());
+            } else {
+                sql.append("(").append(column).append(" ").append(comparison).append(" ? OR (")
+                        .append(column).append(" = ? AND user_ID ").append(comparison).append(" ?))");
+                params.add(after.sortValue());
+                params.add(after.sortValue());
+                params.add(after.userID());
+            }
+        }
+
+        String direction = filter.descending() ? " DESC" : " ASC";
+        sql.append(" ORDER BY ").append(column).append(direction);
+        if (filter.sort() != UserSort.ID) {
+            sql.append(", user_ID").append(direction);
+        }
+        sql.append(" LIMIT ?");
+        params.add(limit);
+        if (after == null && offset > 0) {
+            sql.append(" OFFSET ?");
+            params.add(offset);
+        }
+
+        List<User> users = new ArrayList<>();
         Connection conn = null;
         PreparedStatement ps = null;
         ResultSet rs = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(sql.toString());
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                users.add(new User(
+                        rs.getInt("user_ID"),
+                        rs.getString("email"),
+                        null,
+                        UserRole.fromString(rs.getString("role")),
+                        rs.getObject("join_date", LocalDate.class)
+                ));
+            }
+        } catch (SQLException e) {
+            System.err.println("UserDAO Error in findUsersPage: " + e.getMessage());
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+        return users;
+    }
 
+    /**
+     * Counts the users matching the filter, for the number of pages.
+     *
+     * @return The count, or -1 on error
+     */
+    public int countUsers(UserFilter filter) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM users");
+        appendWhere(sql, params, filter);
+
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
         try {
             conn = DBConnectionUtil.getConnection();
-            ps = conn.prepareStatement(SELECT_ALL_USERS);
+            ps = conn.prepareStatement(sql.toString());
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
             rs = ps.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            System.err.println("UserDAO Error in countUsers: " + e.getMessage());
+            return -1;
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+    }
+
+    private static void appendWhere(StringBuilder sql, List<Object> params, UserFilter filter) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.role() != null) {
+            conditions.add("role = ?");
+            params.add(filter.role().name());
+        }
+        if (filter.emailPrefix() != null && !filter.emailPrefix().isBlank()) {
+            // '!' escapes LIKE wildcards typed into the search box
+            conditions.add("email LIKE ? ESCAPE '!'");
+            params.add(filter.emailPrefix().trim().replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%");
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+    }
 
+    // === SEARCH ===
+
+    /**
+     * A user with their customer details, which are null for admins and customers without a profile.
+     */
+    public record UserSearchRow(int userID, String email, UserRole role, String firstname, String surname, String contactNumber) {}
+
+    /**
+     * Retrieves users with their customer details, without password hashes. Used to build the admin search index.
+     *
+     * @param userID Only this user, or null for every user
+     * @return The rows; empty if none are found or an error occurs
+     */
+    public List<UserSearchRow> findUserSearchRows(Integer userID) {
+        List<UserSearchRow> rows = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(SELECT_USER_SEARCH_ROWS);
+            ps.setObject(1, userID, Types.INTEGER);
+            ps.setObject(2, userID, Types.INTEGER);
+            rs = ps.executeQuery();
             while (rs.next()) {
-                userList.add(mapResultSetToUser(rs));
+                rows.add(new UserSearchRow(
+                        rs.getInt("user_ID"),
+                        rs.getString("email"),
+                        UserRole.fromString(rs.getString("role")),
+                        rs.getString("firstname"),
+                        rs.getString("surname"),
+                        rs.getString("contact_number")
+                ));
             }
         } catch (SQLException e) {
-            System.err.println("UserDAO Error in findAllUsers: " + e.getMessage());
+            System.err.println("UserDAO Error in findUserSearchRows: " + e.getMessage());
         } finally {
             DBConnectionUtil.closeConnection(conn, ps, rs);
         }
-        return userList;
+        return rows;
     }
 
     public void deleteUser(int userId) throws SQLException {
@@ -146,7 +320,10 @@ public class UserDAO {
             conn = DBConnectionUtil.getConnection();
             ps = conn.prepareStatement(DELETE_USER);
             ps.setInt(1, userId);
-            ps.executeUpdate();
+            if (ps.executeUpdate() > 0) {
+                // Their customer record, vehicles and reservations cascade with them
+                ChangeNotifier.publish(Topic.USER, Action.DELETED, userId);
+            }
         } catch (SQLException e) {
             System.err.println("UserDAO Error in deleteUser: " + e.getMessage());
             throw e; // Throw to allow service/controller to catch and report failure
@@ -1,6 +1,9 @@
 package DAO;
 
 import Model.Entity.Vehicle;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.Action;
+import Utilities.ChangeNotifier.Topic;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -15,8 +18,14 @@ public class VehicleDAO {
 
     // === SQL QUERIES ===
     private static final String SELECT_VEHICLE_BY_USERID = "SELECT * FROM vehicles WHERE user_ID = ?";
+    private static final String SELECT_ALL_VEHICLES =
+            "SELECT vehicle_ID, user_ID, plate_number, vehicle_Type, vehicle_Brand FROM vehicles";
     private static final String SELECT_VEHICLE_BY_ID =
             "SELECT vehicle_ID, user_ID, plate_number, vehicle_Type, vehicle_Brand FROM vehicles WHERE vehicle_ID = ?";
+    // Plates are compared without spaces/dashes so "ABC-123", "abc 123" and an OCR read of "ABC123" all match
+    private static final String SELECT_VEHICLE_BY_PLATE =
+            "SELECT vehicle_ID, user_ID, plate_number, vehicle_Type, vehicle_Brand FROM vehicles " +
+            "WHERE UPPER(REPLACE(REPLACE(plate_number, ' ', ''), '-', '')) = ?";
     private static final String INSERT_VEHICLE = "INSERT INTO vehicles (user_ID, plate_number, vehicle_Type, vehicle_Brand) VALUES (?, ?, ?, ?)";
     private static final String DELETE_VEHICLE = "DELETE FROM vehicles WHERE vehicle_ID = ?";
 
@@ -58,6 +67,34 @@ public class VehicleDAO {
         }
     }
 
+    /**
+     * Retrieves every registered vehicle. Used to build the in-memory plate index.
+     *
+     * @return A List of all Vehicle objects; empty if none are found or an error occurs.
+     */
+    public List<Vehicle> getAllVehicles() {
+        List<Vehicle> vehicleList = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(SELECT_ALL_VEHICLES);
+
+            rs = ps.executeQuery();
+
+            while (rs.next()) {
+                vehicleList.add(mapRowToVehicle(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("VehicleDAO Error in getAllVehicles: " + e.getMessage());
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+        return vehicleList;
+    }
+
     /**
      * Helper method to map a ResultSet row to a Vehicle object.
      */
@@ -104,6 +141,38 @@ public class VehicleDAO {
         }
     }
 
+    /**
+     * Retrieves a vehicle by its plate number, ignoring case, spaces and dashes.
+     * Used by the gate pipeline to match a plate read at the barrier to a vehicle.
+     *
+     * @param normalisedPlate The plate in normalised form (uppercase letters and digits only).
+     * @return An Optional containing the Vehicle object if found.
+     */
+    public Optional<Vehicle> findVehicleByPlate(String normalisedPlate) {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(SELECT_VEHICLE_BY_PLATE);
+            ps.setString(1, normalisedPlate);
+
+            rs = ps.executeQuery();
+
+            if (rs.next()) {
+                return Optional.of(mapRowToVehicle(rs));
+            }
+            return Optional.empty();
+
+        } catch (SQLException e) {
+            System.err.println("VehicleDAO Error in findVehicleByPlate: " + e.getMessage());
+            return Optional.empty();
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+    }
+
     /**
      * Inserts a new vehicle record into the database.
      *
@@ -142,6 +211,7 @@ public class VehicleDAO {
                         vehicle.getVehicle_type(),
                         vehicle.getVehicle_brand()
                 );
+                ChangeNotifier.publish(Topic.VEHICLE, Action.CREATED, generatedID, newVehicle);
                 return Optional.of(newVehicle);
             }
 
@@ -171,7 +241,11 @@ public class VehicleDAO {
             int affectedRows = ps.executeUpdate();
 
             // Note: Due to ON DELETE CASCADE, associated reservations are also removed.
-            return affectedRows > 0;
+            if (affectedRows > 0) {
+                ChangeNotifier.publish(Topic.VEHICLE, Action.DELETED, vehicleId);
+                return true;
+            }
+            return false;
 
         } catch (SQLException e) {
             System.err.println("VehicleDAO Error in deleteVehicle: " + e.getMessage());
@@ -0,0 +1,272 @@
+package DAO;
+
+import Model.Entity.SlotType;
+import Model.Entity.WaitlistEntry;
+import Model.Entity.WaitlistEntry.WaitlistStatus;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * WaitlistDAO manages data access for the 'waitlist' table.
+ * State changes are guarded by the current status, so when several processes serve the same
+ * waitlist only one of them can claim an entry.
+ */
+public class WaitlistDAO {
+
+    // === SQL QUERIES ===
+    private static final String INSERT_ENTRY =
+            "INSERT INTO waitlist (user_ID, vehicle_ID, branch_ID, slot_type, window_start, window_end, date_requested, status) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_WAITING_AFTER_ID =
+            "SELECT * FROM waitlist WHERE status = 'Waiting' AND branch_ID = ? AND slot_type = ? AND waitlist_ID > ? " +
+                    "ORDER BY waitlist_ID";
+    private static final String SELECT_WAITING_KEYS =
+            "SELECT DISTINCT branch_ID, slot_type FROM waitlist WHERE status = 'Waiting'";
+    private static final String UPDATE_STATUS_IF =
+            "UPDATE waitlist SET status = ? WHERE waitlist_ID = ? AND status = ?";
+    private static final String UPDATE_ASSIGNED_RESERVATION =
+            "UPDATE waitlist SET transact_ID = ? WHERE waitlist_ID = ? AND status = 'Assigned'";
+    private static final String EXPIRE_ENDED =
+            "UPDATE waitlist SET status = 'Expired' WHERE status = 'Waiting' AND window_end <= ?";
+    private static final String CANCEL_ENTRY =
+            "UPDATE waitlist SET status = 'Cancelled', notified = TRUE WHERE waitlist_ID = ? AND user_ID = ? AND status = 'Waiting'";
+    private static final String SELECT_UNNOTIFIED =
+            "SELECT * FROM waitlist WHERE user_ID = ? AND notified = FALSE AND status IN ('Assigned', 'Expired') " +
+                    "ORDER BY waitlist_ID";
+    private static final String MARK_NOTIFIED =
+            "UPDATE waitlist SET notified = TRUE WHERE waitlist_ID = ?";
+
+    /**
+     * A queue of the waitlist: one branch and slot type.
+     */
+    public record WaitlistKey(int branchID, SlotType slotType) {}
+
+    private WaitlistEntry mapRowToEntry(ResultSet rs) throws SQLException {
+        int reservationID = rs.getInt("transact_ID");
+        Integer transactID = rs.wasNull() ? null : reservationID;
+        return new WaitlistEntry(
+                rs.getInt("waitlist_ID"),
+                rs.getInt("user_ID"),
+                rs.getInt("vehicle_ID"),
+                rs.getInt("branch_ID"),
+                SlotType.fromString(rs.getString("slot_type")),
+                rs.getTimestamp("window_start").toLocalDateTime(),
+                rs.getTimestamp("window_end").toLocalDateTime(),
+                rs.getTimestamp("date_requested").toLocalDateTime(),
+                WaitlistStatus.fromString(rs.getString("status")),
+                transactID,
+                rs.getBoolean("notified")
+        );
+    }
+
+    /**
+     * Inserts a new WAITING entry and sets its generated ID.
+     *
+     * @return The entry with its ID, or empty if the insert failed
+     */
+    public Optional<WaitlistEntry> insertEntry(WaitlistEntry entry) {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet generatedKeys = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(INSERT_ENTRY, Statement.RETURN_GENERATED_KEYS);
+            ps.setInt(1, entry.getUserID());
+            ps.setInt(2, entry.getVehicleID());
+            ps.setInt(3, entry.getBranchID());
+            ps.setString(4, entry.getSlotType().name());
+            ps.setTimestamp(5, Timestamp.valueOf(entry.getWindowStart()));
+            ps.setTimestamp(6, Timestamp.valueOf(entry.getWindowEnd()));
+            ps.setTimestamp(7, Timestamp.valueOf(entry.getDateRequested()));
+            ps.setString(8, entry.getStatus().name());
+
+            if (ps.executeUpdate() == 0) {
+                return Optional.empty();
+            }
+            generatedKeys = ps.getGeneratedKeys();
+            if (generatedKeys.next()) {
+                entry.setWaitlistID(generatedKeys.getInt(1));
+                return Optional.of(entry);
+            }
+        } catch (SQLException e) {
+            System.err.println("WaitlistDAO Error in insertEntry: " + e.getMessage());
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, generatedKeys);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * WAITING entries for the branch and slot type with an ID above afterID, in ID order.
+     */
+    public List<WaitlistEntry> getWaitingEntries(int branchID, SlotType slotType, int afterID) {
+        List<WaitlistEntry> entries = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(SELECT_WAITING_AFTER_ID);
+            ps.setInt(1, branchID);
+            ps.setString(2, slotType.name());
+            ps.setInt(3, afterID);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                entries.add(mapRowToEntry(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("WaitlistDAO Error in getWaitingEntries: " + e.getMessage());
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+        return entries;
+    }
+
+    /**
+     * Every branch and slot type that has at least one WAITING entry.
+     */
+    public List<WaitlistKey> getWaitingKeys() {
+        List<WaitlistKey> keys = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(SELECT_WAITING_KEYS);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                keys.add(new WaitlistKey(rs.getInt("branch_ID"), SlotType.fromString(rs.getString("slot_type"))));
+            }
+        } catch (SQLException e) {
+            System.err.println("WaitlistDAO Error in getWaitingKeys: " + e.getMessage());
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+        return keys;
+    }
+
+    /**
+     * Moves an entry from one status to another, only if it is still in the expected status.
+     *
+     * @return true if this call made the change
+     */
+    public boolean updateStatusIf(int waitlistID, WaitlistStatus expected, WaitlistStatus newStatus) {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(UPDATE_STATUS_IF);
+            ps.setString(1, newStatus.name());
+            ps.setInt(2, waitlistID);
+            ps.setString(3, expected.name());
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("WaitlistDAO Error in updateStatusIf: " + e.getMessage());
+            return false;
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps);
+        }
+    }
+
+    public boolean setReservation(int waitlistID, int reservationID) {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(UPDATE_ASSIGNED_RESERVATION);
+            ps.setInt(1, reservationID);
+            ps.setInt(2, waitlistID);
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("WaitlistDAO Error in setReservation: " + e.getMessage());
+            return false;
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps);
+        }
+    }
+
+    /**
+     * Marks WAITING entries whose window has ended by the given time as EXPIRED.
+     *
+     * @return The number of entries expired
+     */
+    public int expireEnded(LocalDateTime now) {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(EXPIRE_ENDED);
+            ps.setTimestamp(1, Timestamp.valueOf(now));
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("WaitlistDAO Error in expireEnded: " + e.getMessage());
+            return 0;
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps);
+        }
+    }
+
+    /**
+     * Cancels a WAITING entry on behalf of the customer who made it.
+     */
+    public boolean cancelEntry(int waitlistID, int userID) {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(CANCEL_ENTRY);
+            ps.setInt(1, waitlistID);
+            ps.setInt(2, userID);
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("WaitlistDAO Error in cancelEntry: " + e.getMessage());
+            return false;
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps);
+        }
+    }
+
+    /**
+     * The customer's ASSIGNED and EXPIRED entries they have not been told about yet.
+     */
+    public List<WaitlistEntry> getUnnotifiedEntries(int userID) {
+        List<WaitlistEntry> entries = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(SELECT_UNNOTIFIED);
+            ps.setInt(1, userID);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                entries.add(mapRowToEntry(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("WaitlistDAO Error in getUnnotifiedEntries: " + e.getMessage());
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps, rs);
+        }
+        return entries;
+    }
+
+    public boolean markNotified(int waitlistID) {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            ps = conn.prepareStatement(MARK_NOTIFIED);
+            ps.setInt(1, waitlistID);
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("WaitlistDAO Error in markNotified: " + e.getMessage());
+            return false;
+        } finally {
+            DBConnectionUtil.closeConnection(conn, ps);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package Model.DTO;
+
+import Model.Entity.Branch;
+
+import java.math.BigDecimal;
+
+/**
+ * A nearby branch offered to the customer when the branch they picked has no free slot.
+ */
+public class BranchOptionDTO {
+    private Branch branch;
+    private double distanceKm;
+    private int freeSlots;
+    private BigDecimal estimatedPrice;
+
+    /**
+     * @param distanceKm     Straight-line distance from the branch the customer picked
+     * @param estimatedPrice The stay's price at this branch's hourly rate
+     */
+    public BranchOptionDTO(Branch branch, double distanceKm, int freeSlots, BigDecimal estimatedPrice) {
+        this.branch = branch;
+        this.distanceKm = Math.round(distanceKm * 10.0) / 10.0;
+        this.freeSlots = freeSlots;
+        this.estimatedPrice = estimatedPrice;
+    }
+
+    public Branch getBranch() {return branch;}
+    public double getDistanceKm() {return distanceKm;}
+    public int getFreeSlots() {return freeSlots;}
+    public BigDecimal getEstimatedPrice() {return estimatedPrice;}
+
+    @Override
+    public String toString() {
+        return branch.getName() + " - " + distanceKm + " km, " + freeSlots + " free, ₱" + estimatedPrice;
+    }
+}
@@ -0,0 +1,41 @@
+package Model.DTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where a bulk refund stands: reported after every chunk, and returned once it has finished.
+ */
+public class BulkRefundProgressDTO {
+    private int total;
+    private int processed;
+    private List<Integer> refundedPaymentIDs;
+    private List<Integer> skippedPaymentIDs;
+    private Map<Integer, String> failedPaymentIDs;
+    private BigDecimal amountRefunded;
+    private boolean finished;
+
+    public BulkRefundProgressDTO(int total, int processed, List<Integer> refundedPaymentIDs, List<Integer> skippedPaymentIDs,
+                                 Map<Integer, String> failedPaymentIDs, BigDecimal amountRefunded, boolean finished) {
+        this.total = total;
+        this.processed = processed;
+        this.refundedPaymentIDs = refundedPaymentIDs;
+        this.skippedPaymentIDs = skippedPaymentIDs;
+        this.failedPaymentIDs = failedPaymentIDs;
+        this.amountRefunded = amountRefunded;
+        this.finished = finished;
+    }
+
+    public int getTotal() {return total;}
+    public int getProcessed() {return processed;}
+    /** Payments that were still PAID and are now REFUNDED. */
+    public List<Integer> getRefundedPaymentIDs() {return refundedPaymentIDs;}
+    /** Payments refunded or changed by someone else after they were selected. */
+    public List<Integer> getSkippedPaymentIDs() {return skippedPaymentIDs;}
+    /** Payments that could not be refunded, with the database error; retrying the refund picks them up again. */
+    public Map<Integer, String> getFailedPaymentIDs() {return failedPaymentIDs;}
+    public BigDecimal getAmountRefunded() {return amountRefunded;}
+    public boolean isFinished() {return finished;}
+    public double getPercentDone() {return total == 0 ? 100.0 : Math.round(processed * 1000.0 / total) / 10.0;}
+}
@@ -0,0 +1,44 @@
+package Model.DTO;
+
+import Model.Entity.Customer;
+import Model.Entity.Vehicle;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Everything the customer pages show about one user, loaded together. Never modified once built.
+ */
+public class CustomerDashboardDTO {
+    private final int userID;
+    private final Customer profile;
+    private final List<Vehicle> vehicles;
+    private final List<ReservationSummaryDTO> reservations;
+    private final ReservationSummaryDTO activeReservation;
+    private final List<ReservationSummaryDTO> recentStays;
+    private final BigDecimal totalSpent;
+
+    public CustomerDashboardDTO(int userID, Customer profile, List<Vehicle> vehicles, List<ReservationSummaryDTO> reservations,
+                                ReservationSummaryDTO activeReservation, List<ReservationSummaryDTO> recentStays,
+                                BigDecimal totalSpent) {
+        this.userID = userID;
+        this.profile = profile;
+        this.vehicles = List.copyOf(vehicles);
+        this.reservations = List.copyOf(reservations);
+        this.activeReservation = activeReservation;
+        this.recentStays = List.copyOf(recentStays);
+        this.totalSpent = totalSpent;
+    }
+
+    public int getUserID() {return userID;}
+    public Optional<Customer> getProfile() {return Optional.ofNullable(profile);}
+    public List<Vehicle> getVehicles() {return vehicles;}
+    /** All of the user's reservations, most recently booked first. */
+    public List<ReservationSummaryDTO> getReservations() {return reservations;}
+    /** The user's next or current ACTIVE reservation. */
+    public Optional<ReservationSummaryDTO> getActiveReservation() {return Optional.ofNullable(activeReservation);}
+    /** The latest completed stays, most recent first. */
+    public List<ReservationSummaryDTO> getRecentStays() {return recentStays;}
+    public BigDecimal getTotalSpent() {return totalSpent;}
+}
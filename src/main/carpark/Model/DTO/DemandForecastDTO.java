@@ -0,0 +1,31 @@
+package Model.DTO;
+
+import Model.Entity.SlotType;
+
+import java.time.LocalDate;
+
+public class DemandForecastDTO {
+    private int branchID;
+    private SlotType slotType;
+    private LocalDate date;
+    private double expectedReservations;
+    private int peakHour;
+    private double peakHourReservations;
+
+    public DemandForecastDTO(int branchID, SlotType slotType, LocalDate date, double expectedReservations,
+                             int peakHour, double peakHourReservations) {
+        this.branchID = branchID;
+        this.slotType = slotType;
+        this.date = date;
+        this.expectedReservations = Math.round(expectedReservations * 10.0) / 10.0;
+        this.peakHour = peakHour;
+        this.peakHourReservations = Math.round(peakHourReservations * 10.0) / 10.0;
+    }
+
+    public int getBranchID() {return branchID;}
+    public SlotType getSlotType() {return slotType;}
+    public LocalDate getDate() {return date;}
+    public double getExpectedReservations() {return expectedReservations;}
+    public int getPeakHour() {return peakHour;}
+    public double getPeakHourReservations() {return peakHourReservations;}
+}
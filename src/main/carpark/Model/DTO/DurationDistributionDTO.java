@@ -0,0 +1,34 @@
+package Model.DTO;
+
+public class DurationDistributionDTO {
+    private String branchName;
+    private String slotType;
+    private long stayCount;
+    private double medianHours;
+    private double p90Hours;
+    private double p99Hours;
+    private double longestHours;
+
+    public DurationDistributionDTO(String branchName, String slotType, long stayCount,
+                                   long medianMinutes, long p90Minutes, long p99Minutes, long longestMinutes) {
+        this.branchName = branchName;
+        this.slotType = slotType;
+        this.stayCount = stayCount;
+        this.medianHours = toHours(medianMinutes);
+        this.p90Hours = toHours(p90Minutes);
+        this.p99Hours = toHours(p99Minutes);
+        this.longestHours = toHours(longestMinutes);
+    }
+
+    private static double toHours(long minutes) {
+        return Math.round((minutes / 60.0) * 100.0) / 100.0;
+    }
+
+    public String getBranchName() {return branchName;}
+    public String getSlotType() {return slotType;}
+    public long getStayCount() {return stayCount;}
+    public double getMedianHours() {return medianHours;}
+    public double getP90Hours() {return p90Hours;}
+    public double getP99Hours() {return p99Hours;}
+    public double getLongestHours() {return longestHours;}
+}
@@ -1,6 +1,10 @@
 package Model.DTO;
 
-public class DurationReportDTO {
+import java.io.Serializable;
+
+public class DurationReportDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String branchName;
     private double averageDurationHours;
 
@@ -0,0 +1,55 @@
+package Model.DTO;
+
+import Model.Entity.SlotType;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Concurrent occupancy of a branch by day of week and 15-minute time of day.
+ * Cells are stored row-major in flat arrays, one row per day starting Monday.
+ */
+public class OccupancyHeatmapDTO {
+    public static final int BUCKET_MINUTES = 15;
+    public static final int BUCKETS_PER_DAY = 24 * 60 / BUCKET_MINUTES;
+
+    private String branchName;
+    private SlotType slotType;
+    private LocalDate from;
+    private LocalDate to;
+    private int capacity;
+    private float[] averageOccupied;
+    private int[] peakOccupied;
+
+    public OccupancyHeatmapDTO(String branchName, SlotType slotType, LocalDate from, LocalDate to,
+                               int capacity, float[] averageOccupied, int[] peakOccupied) {
+        this.branchName = branchName;
+        this.slotType = slotType;
+        this.from = from;
+        this.to = to;
+        this.capacity = capacity;
+        this.averageOccupied = averageOccupied;
+        this.peakOccupied = peakOccupied;
+    }
+
+    public String getBranchName() {return branchName;}
+    public SlotType getSlotType() {return slotType;}
+    public LocalDate getFrom() {return from;}
+    public LocalDate getTo() {return to;}
+    public int getCapacity() {return capacity;}
+
+    /** Average over the range of the most vehicles parked at once during this slot of the week. */
+    public float getAverageOccupied(DayOfWeek day, int bucket) {return averageOccupied[cell(day, bucket)];}
+
+    /** The most vehicles parked at once during this slot of the week, over the whole range. */
+    public int getPeakOccupied(DayOfWeek day, int bucket) {return peakOccupied[cell(day, bucket)];}
+
+    /** Average occupancy as a fraction of capacity (0 when the branch has no matching slots). */
+    public double getUtilization(DayOfWeek day, int bucket) {
+        return capacity == 0 ? 0 : getAverageOccupied(day, bucket) / capacity;
+    }
+
+    private static int cell(DayOfWeek day, int bucket) {
+        return (day.getValue() - 1) * BUCKETS_PER_DAY + bucket;
+    }
+}
@@ -1,6 +1,10 @@
 package Model.DTO;
 
-public class OccupancyReportDTO {
+import java.io.Serializable;
+
+public class OccupancyReportDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String branchName;
     private int maxSlots;
     private int occupiedCount;
@@ -0,0 +1,32 @@
+package Model.DTO;
+
+import java.math.BigDecimal;
+
+public class PaymentDistributionDTO {
+    private String branchName;
+    private String slotType;
+    private long paymentCount;
+    private BigDecimal medianPayment;
+    private BigDecimal p90Payment;
+    private BigDecimal p99Payment;
+    private String histogram;
+
+    public PaymentDistributionDTO(String branchName, String slotType, long paymentCount,
+                                  BigDecimal medianPayment, BigDecimal p90Payment, BigDecimal p99Payment, String histogram) {
+        this.branchName = branchName;
+        this.slotType = slotType;
+        this.paymentCount = paymentCount;
+        this.medianPayment = medianPayment;
+        this.p90Payment = p90Payment;
+        this.p99Payment = p99Payment;
+        this.histogram = histogram;
+    }
+
+    public String getBranchName() {return branchName;}
+    public String getSlotType() {return slotType;}
+    public long getPaymentCount() {return paymentCount;}
+    public BigDecimal getMedianPayment() {return medianPayment;}
+    public BigDecimal getP90Payment() {return p90Payment;}
+    public BigDecimal getP99Payment() {return p99Payment;}
+    public String getHistogram() {return histogram;}
+}
@@ -0,0 +1,50 @@
+package Model.DTO;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+public class ReconciliationSummaryDTO {
+    private long rowsChecked;
+    private Map<String, Integer> discrepanciesByKind;
+    private BigDecimal totalDifference;
+    private int partitionsProcessed;
+    private int partitionsResumed;
+    private int partitionsFailed;
+    private Duration elapsed;
+    private String reportPath;
+
+    public ReconciliationSummaryDTO(long rowsChecked, Map<String, Integer> discrepanciesByKind, BigDecimal totalDifference,
+                                    int partitionsProcessed, int partitionsResumed, int partitionsFailed,
+                                    Duration elapsed, Path reportPath) {
+        this.rowsChecked = rowsChecked;
+        this.discrepanciesByKind = discrepanciesByKind;
+        this.totalDifference = totalDifference;
+        this.partitionsProcessed = partitionsProcessed;
+        this.partitionsResumed = partitionsResumed;
+        this.partitionsFailed = partitionsFailed;
+        this.elapsed = elapsed;
+        this.reportPath = reportPath.toString();
+    }
+
+    public long getRowsChecked() {return rowsChecked;}
+    public Map<String, Integer> getDiscrepanciesByKind() {return discrepanciesByKind;}
+    public int getDiscrepancyCount() {return discrepanciesByKind.values().stream().mapToInt(Integer::intValue).sum();}
+    public BigDecimal getTotalDifference() {return totalDifference;}
+    public int getPartitionsProcessed() {return partitionsProcessed;}
+    public int getPartitionsResumed() {return partitionsResumed;}
+    public int getPartitionsFailed() {return partitionsFailed;}
+    public boolean isComplete() {return partitionsFailed == 0;}
+    public Duration getElapsed() {return elapsed;}
+    public String getReportPath() {return reportPath;}
+
+    @Override
+    public String toString() {
+        return "Checked " + rowsChecked + " reservations in " + elapsed.toMillis() + " ms: "
+                + getDiscrepancyCount() + " discrepancies " + discrepanciesByKind
+                + ", total difference " + totalDifference
+                + " (partitions: " + partitionsProcessed + " run, " + partitionsResumed + " resumed, "
+                + partitionsFailed + " failed). Report: " + reportPath;
+    }
+}
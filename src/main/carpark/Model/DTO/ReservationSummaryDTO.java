@@ -18,6 +18,9 @@ public class ReservationSummaryDTO {
         this.totalPaid = totalPaid;
     }
 
+    public Reservation getReservation() { return reservation; }
+    public BigDecimal getTotalPaid() { return totalPaid; }
+
     // --- Getters for TableView Columns ---
 
     public int getTransactNo() { return reservation.getReservationID(); }
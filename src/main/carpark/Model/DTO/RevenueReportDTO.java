@@ -1,8 +1,11 @@
 package Model.DTO;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 
-public class RevenueReportDTO {
+public class RevenueReportDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String branchName;
     private BigDecimal totalRevenue;
     private BigDecimal averagePayment;
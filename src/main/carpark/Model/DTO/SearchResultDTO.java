@@ -0,0 +1,39 @@
+package Model.DTO;
+
+/**
+ * One hit of the admin search: a user, a vehicle or a reservation, with what matched.
+ */
+public class SearchResultDTO {
+
+    public enum Kind { USER, VEHICLE, RESERVATION }
+
+    private final Kind kind;
+    private final int id;
+    private final int userID;
+    private final String title;
+    private final String detail;
+    private final String matchedField;
+    private final int score;
+
+    public SearchResultDTO(Kind kind, int id, int userID, String title, String detail, String matchedField, int score) {
+        this.kind = kind;
+        this.id = id;
+        this.userID = userID;
+        this.title = title;
+        this.detail = detail;
+        this.matchedField = matchedField;
+        this.score = score;
+    }
+
+    public Kind getKind() {return kind;}
+    /** The user_ID, vehicle_ID or transact_ID, depending on the kind. */
+    public int getId() {return id;}
+    /** The user the hit belongs to (the vehicle's or reservation's owner). */
+    public int getUserID() {return userID;}
+    public String getTitle() {return title;}
+    public String getDetail() {return detail;}
+    /** Which field matched, e.g. "Plate" or "Email". */
+    public String getMatchedField() {return matchedField;}
+    /** Higher is better; only meaningful within one search. */
+    public int getScore() {return score;}
+}
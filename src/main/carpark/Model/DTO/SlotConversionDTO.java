@@ -0,0 +1,35 @@
+package Model.DTO;
+
+import Model.Entity.SlotType;
+
+/**
+ * A recommended change of one parking slot's type, as shown to the admin for approval.
+ */
+public class SlotConversionDTO {
+    private String spotID;
+    private int branchID;
+    private int floorLevel;
+    private SlotType fromType;
+    private SlotType toType;
+    private double weeklyHoursGained;
+
+    /**
+     * @param weeklyHoursGained Estimated extra slot-hours served per week once this conversion is applied
+     */
+    public SlotConversionDTO(String spotID, int branchID, int floorLevel, SlotType fromType, SlotType toType,
+                             double weeklyHoursGained) {
+        this.spotID = spotID;
+        this.branchID = branchID;
+        this.floorLevel = floorLevel;
+        this.fromType = fromType;
+        this.toType = toType;
+        this.weeklyHoursGained = Math.round(weeklyHoursGained * 10.0) / 10.0;
+    }
+
+    public String getSpotID() {return spotID;}
+    public int getBranchID() {return branchID;}
+    public int getFloorLevel() {return floorLevel;}
+    public SlotType getFromType() {return fromType;}
+    public SlotType getToType() {return toType;}
+    public double getWeeklyHoursGained() {return weeklyHoursGained;}
+}
@@ -2,7 +2,11 @@ package Model.DTO;
 
 import Model.Entity.SlotType;
 
-public class SlotUtilizationDTO {
+import java.io.Serializable;
+
+public class SlotUtilizationDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private SlotType slotType;
     private int reservationCount;
 
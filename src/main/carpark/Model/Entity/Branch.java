@@ -15,6 +15,9 @@ public class Branch {
     private String location;
     private LocalTime opening_time;
     private LocalTime closing_time;
+    // WGS84 degrees; null until the branch has been placed on the map
+    private Double latitude;
+    private Double longitude;
 
     // === CONSTRUCTORS ===
 
@@ -79,6 +82,8 @@ public class Branch {
     public String getLocation() {return location;}
     public LocalTime getOpening_time() {return opening_time;}
     public LocalTime getClosing_time() {return closing_time;}
+    public Double getLatitude() {return latitude;}
+    public Double getLongitude() {return longitude;}
 
     public void setBranch_ID(int branch_ID) {this.branch_ID = branch_ID;}
     public void setName(String name) {this.name = name;}
@@ -88,9 +93,18 @@ public class Branch {
     public void setLocation(String location) {this.location = location;}
     public void setOpening_time(LocalTime opening_time) {this.opening_time = opening_time;}
     public void setClosing_time(LocalTime closing_time) {this.closing_time = closing_time;}
+    public void setLatitude(Double latitude) {this.latitude = latitude;}
+    public void setLongitude(Double longitude) {this.longitude = longitude;}
 
     // === UTILITY METHOD ===
 
+    /**
+     * @return true if both coordinates are set.
+     */
+    public boolean hasCoordinates() {
+        return latitude != null && longitude != null;
+    }
+
     /**
      * Checks if the current time falls within the branch's operating hours.
      * @param currentTime The time to check against operating hours.
@@ -0,0 +1,93 @@
+package Model.Entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Maps to the 'waitlist' table in the database.
+ * A customer's request for a slot at a branch that was full, for a given time window.
+ */
+public class WaitlistEntry {
+
+    public enum WaitlistStatus {
+        WAITING,
+        ASSIGNED,
+        EXPIRED,
+        CANCELLED;
+
+        public static WaitlistStatus fromString(String text) {
+            if (text != null) {
+                for (WaitlistStatus status : WaitlistStatus.values()) {
+                    if (text.equalsIgnoreCase(status.name())) {
+                        return status;
+                    }
+                }
+            }
+            return WAITING;
+        }
+    }
+
+    private int waitlist_ID;
+    private int user_ID;
+    private int vehicle_ID;
+    private int branch_ID;
+    private SlotType slot_type;
+    private LocalDateTime window_start;
+    private LocalDateTime window_end;
+    private LocalDateTime date_requested;
+    private WaitlistStatus status;
+    private Integer transact_ID;
+    private boolean notified;
+
+    /**
+     * Constructor for a new entry before insertion.
+     */
+    public WaitlistEntry(int user_ID, int vehicle_ID, int branch_ID, SlotType slot_type,
+                         LocalDateTime window_start, LocalDateTime window_end) {
+        this.user_ID = user_ID;
+        this.vehicle_ID = vehicle_ID;
+        this.branch_ID = branch_ID;
+        this.slot_type = slot_type;
+        this.window_start = window_start;
+        this.window_end = window_end;
+        this.date_requested = LocalDateTime.now();
+        this.status = WaitlistStatus.WAITING;
+    }
+
+    /**
+     * Full Constructor for reading existing records from the database.
+     */
+    public WaitlistEntry(int waitlist_ID, int user_ID, int vehicle_ID, int branch_ID, SlotType slot_type,
+                         LocalDateTime window_start, LocalDateTime window_end, LocalDateTime date_requested,
+                         WaitlistStatus status, Integer transact_ID, boolean notified) {
+        this.waitlist_ID = waitlist_ID;
+        this.user_ID = user_ID;
+        this.vehicle_ID = vehicle_ID;
+        this.branch_ID = branch_ID;
+        this.slot_type = slot_type;
+        this.window_start = window_start;
+        this.window_end = window_end;
+        this.date_requested = date_requested;
+        this.status = status;
+        this.transact_ID = transact_ID;
+        this.notified = notified;
+    }
+
+    // === GETTERS and SETTERS ===
+
+    public int getWaitlistID() {return waitlist_ID;}
+    public int getUserID() {return user_ID;}
+    public int getVehicleID() {return vehicle_ID;}
+    public int getBranchID() {return branch_ID;}
+    public SlotType getSlotType() {return slot_type;}
+    public LocalDateTime getWindowStart() {return window_start;}
+    public LocalDateTime getWindowEnd() {return window_end;}
+    public LocalDateTime getDateRequested() {return date_requested;}
+    public WaitlistStatus getStatus() {return status;}
+    /** The reservation made for this entry, or null while it has none */
+    public Integer getReservationID() {return transact_ID;}
+    public boolean isNotified() {return notified;}
+
+    public void setWaitlistID(int waitlist_ID) {this.waitlist_ID = waitlist_ID;}
+    public void setStatus(WaitlistStatus status) {this.status = status;}
+    public void setReservationID(Integer transact_ID) {this.transact_ID = transact_ID;}
+}
@@ -0,0 +1,244 @@
+package Server;
+
+import DAO.DBConnectionUtil;
+import Model.Entity.Payment;
+import Model.Entity.Reservation;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalInt;
+
+/**
+ * Base class for the gate API endpoints.
+ * Takes care of authentication, method dispatch, request parsing and JSON responses so each
+ * handler only has to translate between HTTP parameters and the service layer.
+ *
+ * Every request must carry "Authorization: Bearer <api.token>" when api.token is set in
+ * db.properties; ApiServer refuses to listen beyond loopback without one. Admin-only endpoints
+ * also need "X-Admin-Token: <api.adminToken>" and act as the admin api.adminId.
+ */
+public abstract class ApiHandler implements HttpHandler {
+
+    protected static final int OK = 200;
+    protected static final int CREATED = 201;
+    protected static final int ACCEPTED = 202;
+    protected static final int BAD_REQUEST = 400;
+    protected static final int UNAUTHORIZED = 401;
+    protected static final int NOT_FOUND = 404;
+    protected static final int METHOD_NOT_ALLOWED = 405;
+    protected static final int CONFLICT = 409;
+    protected static final int SERVER_ERROR = 500;
+
+    /**
+     * Response produced by a handler: an HTTP status and a JSON body.
+     */
+    protected record ApiResponse(int status, String body) {}
+
+    private static final String BEARER = "Bearer ";
+    private static final String API_TOKEN = DBConnectionUtil.getProperty("api.token", null);
+    private static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
+    private static final String ADMIN_TOKEN = DBConnectionUtil.getProperty("api.adminToken", null);
+    private static final OptionalInt ADMIN_ID = parseAdminId(DBConnectionUtil.getProperty("api.adminId", null));
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!hasToken(exchange, API_TOKEN)) {
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+            send(exchange, error(UNAUTHORIZED, "Missing or invalid API token"));
+            return;
+        }
+        ApiResponse response;
+        try {
+            response = switch (exchange.getRequestMethod()) {
+                case "GET" -> handleGet(exchange);
+                case "POST" -> handlePost(exchange, JsonUtil.parseObject(readBody(exchange)));
+                default -> new ApiResponse(METHOD_NOT_ALLOWED, JsonUtil.error("Method not allowed"));
+            };
+        } catch (IllegalArgumentException e) {
+            response = new ApiResponse(BAD_REQUEST, JsonUtil.error(e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("ApiHandler Error in " + exchange.getRequestURI() + ": " + e.getMessage());
+            response = new ApiResponse(SERVER_ERROR, JsonUtil.error("Internal server error"));
+        }
+        send(exchange, response);
+    }
+
+    protected ApiResponse handleGet(HttpExchange exchange) throws Exception {
+        return new ApiResponse(METHOD_NOT_ALLOWED, JsonUtil.error("Method not allowed"));
+    }
+
+    protected ApiResponse handlePost(HttpExchange exchange, Map<String, String> body) throws Exception {
+        return new ApiResponse(METHOD_NOT_ALLOWED, JsonUtil.error("Method not allowed"));
+    }
+
+    // === HELPER METHODS ===
+
+    static boolean isTokenRequired() {
+        return API_TOKEN != null;
+    }
+
+    /**
+     * True if the request's bearer token equals the expected one, or no token is configured.
+     */
+    protected static boolean hasToken(HttpExchange exchange, String expected) {
+        if (expected == null) {
+            return true;
+        }
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith(BEARER)) {
+            return false;
+        }
+        return tokenEquals(header.substring(BEARER.length()).trim(), expected);
+    }
+
+    /**
+     * The admin the request acts for: api.adminId, if the request carries api.adminToken.
+     * Always empty when either is not configured, which keeps admin-only endpoints switched off.
+     */
+    protected static OptionalInt authenticatedAdmin(HttpExchange exchange) {
+        if (ADMIN_TOKEN == null || ADMIN_ID.isEmpty()) {
+            return OptionalInt.empty();
+        }
+        String presented = exchange.getRequestHeaders().getFirst(ADMIN_TOKEN_HEADER);
+        if (presented == null || !tokenEquals(presented.trim(), ADMIN_TOKEN)) {
+            return OptionalInt.empty();
+        }
+        return ADMIN_ID;
+    }
+
+    // Constant time, so a token cannot be guessed from response times
+    private static boolean tokenEquals(String presented, String expected) {
+        return MessageDigest.isEqual(presented.getBytes(StandardCharsets.UTF_8), expected.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static OptionalInt parseAdminId(String value) {
+        if (value == null) {
+            return OptionalInt.empty();
+        }
+        try {
+            return OptionalInt.of(Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            System.err.println("ApiHandler: api.adminId must be a number; admin endpoints are disabled.");
+            return OptionalInt.empty();
+        }
+    }
+
+    protected static ApiResponse ok(String json) {
+        return new ApiResponse(OK, json);
+    }
+
+    protected static ApiResponse error(int status, String message) {
+        return new ApiResponse(status, JsonUtil.error(message));
+    }
+
+    /**
+     * Returns the part of the request path after the context path, e.g. "/cancel".
+     */
+    protected static String subPath(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        String context = exchange.getHttpContext().getPath();
+        return path.length() > context.length() ? path.substring(context.length()) : "";
+    }
+
+    protected static Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    protected static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing required parameter: " + name);
+        }
+        return value.trim();
+    }
+
+    protected static int requiredInt(Map<String, String> params, String name) {
+        String value = required(params, name);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be an integer");
+        }
+    }
+
+    /**
+     * Reads an ISO-8601 local date-time (e.g. 2025-11-20T08:30), or returns the fallback if absent.
+     */
+    protected static LocalDateTime optionalDateTime(Map<String, String> params, String name, LocalDateTime fallback) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        try {
+            return LocalDateTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be an ISO date-time (yyyy-MM-ddTHH:mm)");
+        }
+    }
+
+    protected static LocalDateTime requiredDateTime(Map<String, String> params, String name) {
+        required(params, name);
+        return optionalDateTime(params, name, null);
+    }
+
+    protected static String toJson(Reservation reservation) {
+        return JsonUtil.object()
+                .put("reservationId", reservation.getReservationID())
+                .put("vehicleId", reservation.getVehicleID())
+                .put("spotId", reservation.getSpotID())
+                .put("expectedTimeIn", reservation.getExpectedTimeIn())
+                .put("checkInTime", reservation.getCheckInTime())
+                .put("timeOut", reservation.getTimeOut())
+                .put("dateReserved", reservation.getDateReserved())
+                .put("status", reservation.getStatus())
+                .toString();
+    }
+
+    protected static String toJson(Payment payment) {
+        return JsonUtil.object()
+                .put("paymentId", payment.getPayment_ID())
+                .put("reservationId", payment.getTransact_ID())
+                .put("amountToPay", payment.getAmount_To_Pay())
+                .put("amountPaid", payment.getAmount_paid())
+                .put("paymentDate", payment.getPayment_date())
+                .put("status", payment.getPayment_status())
+                .put("modeOfPayment", payment.getMode_of_payment())
+                .toString();
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange exchange, ApiResponse response) throws IOException {
+        byte[] bytes = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status(), bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package Server;
+
+import DAO.DBConnectionUtil;
+import Service.Journal.ExpiryScheduler;
+import Service.Journal.ReservationStateStore;
+import Service.PaymentSettlement;
+import Service.WaitlistService;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless HTTP/JSON entry point for gate kiosks, entry barriers and the mobile app.
+ * Exposes the same ReservationService, PaymentService and ParkingDAO logic the
+ * JavaFX controllers use, without starting a desktop UI.
+ *
+ * Every request is handled on its own virtual thread, so a request blocked on
+ * JDBC does not hold up any other barrier.
+ *
+ * The server listens on api.bindAddress (default loopback only). Binding to any other
+ * address requires api.token, which clients then send as a bearer token.
+ *
+ * Run with: java Server.ApiServer [port]
+ */
+public class ApiServer {
+
+    private static final int DEFAULT_PORT = 8080;
+    // Pending connections the OS may queue while all handlers are busy
+    private static final int BACKLOG = 256;
+    private static final String DEFAULT_BIND_ADDRESS = "127.0.0.1";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private ExpiryScheduler expiryScheduler;
+
+    public ApiServer(int port) throws IOException {
+        InetSocketAddress address = new InetSocketAddress(
+                DBConnectionUtil.getProperty("api.bindAddress", DEFAULT_BIND_ADDRESS), port);
+        if (address.isUnresolved()) {
+            throw new IOException("Cannot resolve api.bindAddress " + address.getHostString());
+        }
+        if (!address.getAddress().isLoopbackAddress() && !ApiHandler.isTokenRequired()) {
+            throw new IOException("api.token must be set to listen on " + address.getHostString());
+        }
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        server.createContext("/api/availability", new AvailabilityHandler());
+        server.createContext("/api/quote", new QuoteHandler());
+        server.createContext("/api/reservations", new ReservationHandler());
+        server.createContext("/api/gate", new GateHandler());
+        server.createContext("/api/payments", new PaymentHandler());
+        server.createContext("/api/forecast", new ForecastHandler());
+
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        // Recover slot/reservation state from the journal before taking traffic
+        ReservationStateStore.open().ifPresent(store -> {
+            expiryScheduler = new ExpiryScheduler(store);
+            expiryScheduler.start();
+        });
+        // Hand slots freed through the API to waitlisted customers
+        WaitlistService.getInstance();
+        // Settle payments accepted at kiosks, including any left PENDING by an earlier run
+        PaymentSettlement.getInstance();
+        server.start();
+        System.out.println("ApiServer: Listening on " + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    }
+
+    /**
+     * Stops accepting requests and waits up to the given delay for in-flight requests to finish.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        if (expiryScheduler != null) {
+            expiryScheduler.close();
+        }
+        ReservationStateStore.get().ifPresent(ReservationStateStore::close);
+        System.out.println("ApiServer: Stopped.");
+    }
+
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        if (args.length > 0) {
+            try {
+                port = Integer.parseInt(args[0]);
+            } catch (NumberFormatException e) {
+                System.err.println("ApiServer: Invalid port '" + args[0] + "', using " + DEFAULT_PORT);
+            }
+        }
+
+        try {
+            ApiServer apiServer = new ApiServer(port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> apiServer.stop(2)));
+            apiServer.start();
+        } catch (IOException e) {
+            System.err.println("ApiServer: Failed to start on port " + port + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package Server;
+
+import DAO.ParkingDAO;
+import Model.Entity.SlotType;
+import Service.Journal.ReservationStateStore;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET /api/availability?branchId=1[&amp;slotType=REGULAR]
+ * Returns the number of free slots per slot type for a branch, from the in-memory state store
+ * once it has reconciled with the database, and from the database before that.
+ */
+public class AvailabilityHandler extends ApiHandler {
+
+    private final ParkingDAO parkingDAO = new ParkingDAO();
+
+    @Override
+    protected ApiResponse handleGet(HttpExchange exchange) {
+        Map<String, String> params = queryParams(exchange);
+        int branchId = requiredInt(params, "branchId");
+
+        SlotType filter = null;
+        if (params.containsKey("slotType")) {
+            filter = SlotType.fromString(params.get("slotType"));
+            if (filter == null) {
+                throw new IllegalArgumentException("Unknown slot type: " + params.get("slotType"));
+            }
+        }
+
+        Map<SlotType, Integer> counts = ReservationStateStore.get()
+                .filter(ReservationStateStore::isReconciled)
+                .map(store -> store.countAvailableByType(branchId))
+                .orElseGet(() -> parkingDAO.countAvailableSlotsByType(branchId));
+        List<String> entries = new ArrayList<>();
+        for (Map.Entry<SlotType, Integer> entry : counts.entrySet()) {
+            if (filter == null || filter == entry.getKey()) {
+                entries.add(JsonUtil.object()
+                        .put("slotType", entry.getKey())
+                        .put("available", entry.getValue())
+                        .toString());
+            }
+        }
+
+        return ok(JsonUtil.object()
+                .put("branchId", branchId)
+                .putRaw("slots", JsonUtil.array(entries))
+                .toString());
+    }
+}
@@ -0,0 +1,49 @@
+package Server;
+
+import Model.DTO.DemandForecastDTO;
+import Model.Entity.SlotType;
+import Service.Analytics.DemandForecaster;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET /api/forecast?branchId=1[&amp;slotType=REGULAR]
+ * Returns the expected reservations per day and slot type for the next seven days.
+ */
+public class ForecastHandler extends ApiHandler {
+
+    @Override
+    protected ApiResponse handleGet(HttpExchange exchange) {
+        Map<String, String> params = queryParams(exchange);
+        int branchId = requiredInt(params, "branchId");
+
+        SlotType filter = null;
+        if (params.containsKey("slotType")) {
+            filter = SlotType.fromString(params.get("slotType"));
+            if (filter == null) {
+                throw new IllegalArgumentException("Unknown slot type: " + params.get("slotType"));
+            }
+        }
+
+        List<String> entries = new ArrayList<>();
+        for (DemandForecastDTO day : DemandForecaster.getInstance().dailyForecast(branchId)) {
+            if (filter == null || filter == day.getSlotType()) {
+                entries.add(JsonUtil.object()
+                        .put("date", day.getDate().toString())
+                        .put("slotType", day.getSlotType())
+                        .put("expectedReservations", day.getExpectedReservations())
+                        .put("peakHour", day.getPeakHour())
+                        .put("peakHourReservations", day.getPeakHourReservations())
+                        .toString());
+            }
+        }
+
+        return ok(JsonUtil.object()
+                .put("branchId", branchId)
+                .putRaw("forecast", JsonUtil.array(entries))
+                .toString());
+    }
+}
@@ -0,0 +1,72 @@
+package Server;
+
+import Model.Entity.Reservation;
+import Service.Gate.PlateIndex;
+import Service.Gate.PlateIndex.PlateMatch;
+import Service.ReservationService;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * GET  /api/gate/plate?plate=ABC123&branchId=1[&direction=OUT]
+ *      Resolves a camera read from memory (no database round trip) so the barrier can open at once.
+ * POST /api/gate/check-in   {reservationId, time?}
+ * POST /api/gate/check-out  {reservationId, time?}
+ * The time defaults to the server clock when the barrier does not send one.
+ */
+public class GateHandler extends ApiHandler {
+
+    private final ReservationService reservationService = new ReservationService();
+    private final PlateIndex plateIndex = PlateIndex.getInstance();
+
+    @Override
+    protected ApiResponse handleGet(HttpExchange exchange) {
+        if (!subPath(exchange).equals("/plate")) {
+            return error(NOT_FOUND, "Unknown endpoint");
+        }
+        Map<String, String> params = queryParams(exchange);
+        String plate = required(params, "plate");
+        int branchId = requiredInt(params, "branchId");
+        boolean exit = "OUT".equalsIgnoreCase(params.get("direction"));
+
+        Optional<PlateMatch> match = plateIndex.lookup(plate);
+        if (match.isEmpty()) {
+            return error(NOT_FOUND, "No registered vehicle matches plate " + plate);
+        }
+
+        Optional<Reservation> reservation = plateIndex.reservationFor(match.get(), branchId, LocalDateTime.now(), exit);
+        return ok(JsonUtil.object()
+                .put("plate", match.get().plate())
+                .put("matchType", match.get().matchType())
+                .put("vehicleId", match.get().vehicleID())
+                .put("userId", match.get().userID())
+                .put("open", reservation.isPresent())
+                .putRaw("reservation", reservation.map(ApiHandler::toJson).orElse("null"))
+                .toString());
+    }
+
+    @Override
+    protected ApiResponse handlePost(HttpExchange exchange, Map<String, String> body) {
+        int reservationId = requiredInt(body, "reservationId");
+        LocalDateTime time = optionalDateTime(body, "time", LocalDateTime.now());
+
+        boolean success;
+        switch (subPath(exchange)) {
+            case "/check-in" -> success = reservationService.checkIn(reservationId, time);
+            case "/check-out" -> success = reservationService.checkOut(reservationId, time);
+            default -> {
+                return error(NOT_FOUND, "Unknown endpoint");
+            }
+        }
+
+        if (!success) {
+            return error(CONFLICT, "Gate event rejected for reservation " + reservationId);
+        }
+        return reservationService.getReservation(reservationId)
+                .map(reservation -> ok(toJson(reservation)))
+                .orElseGet(() -> error(NOT_FOUND, "Reservation not found: " + reservationId));
+    }
+}
@@ -0,0 +1,223 @@
+package Server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Minimal JSON support for the gate API.
+ * The API only exchanges flat objects (no nesting besides arrays of objects
+ * built with the writer), so a full JSON library is not needed.
+ */
+public class JsonUtil {
+
+    /**
+     * Fluent builder for a single JSON object.
+     */
+    public static class JsonObject {
+        private final StringBuilder sb = new StringBuilder("{");
+        private boolean first = true;
+
+        public JsonObject put(String name, String value) {
+            key(name);
+            if (value == null) {
+                sb.append("null");
+            } else {
+                quote(sb, value);
+            }
+            return this;
+        }
+
+        public JsonObject put(String name, Number value) {
+            key(name);
+            sb.append(value == null ? "null" : value.toString());
+            return this;
+        }
+
+        public JsonObject put(String name, boolean value) {
+            key(name);
+            sb.append(value);
+            return this;
+        }
+
+        public JsonObject put(String name, Object value) {
+            return put(name, value == null ? null : value.toString());
+        }
+
+        /**
+         * Adds an already serialized JSON value (object or array) without quoting it.
+         */
+        public JsonObject putRaw(String name, String json) {
+            key(name);
+            sb.append(json);
+            return this;
+        }
+
+        private void key(String name) {
+            if (!first) sb.append(',');
+            first = false;
+            quote(sb, name);
+            sb.append(':');
+        }
+
+        @Override
+        public String toString() {
+            return sb + "}";
+        }
+    }
+
+    public static JsonObject object() {
+        return new JsonObject();
+    }
+
+    /**
+     * Joins already serialized JSON values into a JSON array.
+     */
+    public static String array(Iterable<?> values) {
+        StringBuilder sb = new StringBuilder("[");
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) sb.append(',');
+            first = false;
+            sb.append(value);
+        }
+        return sb.append(']').toString();
+    }
+
+    public static String error(String message) {
+        return object().put("error", message).toString();
+    }
+
+    /**
+     * Parses a flat JSON object into a map of field name to raw value.
+     * Strings are unescaped, numbers/booleans are kept as their literal text and null becomes null.
+     *
+     * @param json The request body
+     * @return The parsed fields in declaration order
+     * @throws IllegalArgumentException if the body is not a flat JSON object
+     */
+    public static Map<String, String> parseObject(String json) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        if (json == null || json.isBlank()) {
+            return fields;
+        }
+
+        int[] pos = {skipWhitespace(json, 0)};
+        expect(json, pos, '{');
+        pos[0] = skipWhitespace(json, pos[0]);
+        if (peek(json, pos) == '}') {
+            return fields;
+        }
+
+        while (true) {
+            pos[0] = skipWhitespace(json, pos[0]);
+            String name = readString(json, pos);
+            pos[0] = skipWhitespace(json, pos[0]);
+            expect(json, pos, ':');
+            pos[0] = skipWhitespace(json, pos[0]);
+            fields.put(name, readValue(json, pos));
+            pos[0] = skipWhitespace(json, pos[0]);
+
+            char next = peek(json, pos);
+            pos[0]++;
+            if (next == '}') break;
+            if (next != ',') {
+                throw new IllegalArgumentException("Malformed JSON near position " + (pos[0] - 1));
+            }
+        }
+        return fields;
+    }
+
+    private static String readValue(String json, int[] pos) {
+        char c = peek(json, pos);
+        if (c == '"') {
+            return readString(json, pos);
+        }
+        if (c == '{' || c == '[') {
+            throw new IllegalArgumentException("Nested JSON values are not supported");
+        }
+        int start = pos[0];
+        while (pos[0] < json.length() && ",}".indexOf(json.charAt(pos[0])) < 0
+                && !Character.isWhitespace(json.charAt(pos[0]))) {
+            pos[0]++;
+        }
+        String literal = json.substring(start, pos[0]);
+        if (literal.isEmpty()) {
+            throw new IllegalArgumentException("Missing JSON value near position " + start);
+        }
+        return literal.equals("null") ? null : literal;
+    }
+
+    private static String readString(String json, int[] pos) {
+        expect(json, pos, '"');
+        StringBuilder sb = new StringBuilder();
+        while (pos[0] < json.length()) {
+            char c = json.charAt(pos[0]++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c == '\\') {
+                if (pos[0] >= json.length()) break;
+                char esc = json.charAt(pos[0]++);
+                switch (esc) {
+                    case 'n' -> sb.append('\n');
+                    case 't' -> sb.append('\t');
+                    case 'r' -> sb.append('\r');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos[0] + 4 > json.length()) throw new IllegalArgumentException("Bad unicode escape");
+                        sb.append((char) Integer.parseInt(json.substring(pos[0], pos[0] + 4), 16));
+                        pos[0] += 4;
+                    }
+                    default -> sb.append(esc);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        throw new IllegalArgumentException("Unterminated JSON string");
+    }
+
+    private static void quote(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static char peek(String json, int[] pos) {
+        if (pos[0] >= json.length()) {
+            throw new IllegalArgumentException("Unexpected end of JSON");
+        }
+        return json.charAt(pos[0]);
+    }
+
+    private static void expect(String json, int[] pos, char expected) {
+        if (peek(json, pos) != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "' at position " + pos[0]);
+        }
+        pos[0]++;
+    }
+
+    private static int skipWhitespace(String json, int pos) {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+}
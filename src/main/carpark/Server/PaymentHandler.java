@@ -0,0 +1,135 @@
+package Server;
+
+import Model.DTO.BulkRefundProgressDTO;
+import Model.Entity.Payment;
+import Model.Entity.Payment.ModeOfPayment;
+import Service.PaymentService;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+/**
+ * POST /api/payments         {reservationId, modeOfPayment, adminId?}
+ * Settles a reservation through PaymentService.processPayment.
+ *
+ * POST /api/payments/accept  {reservationId, modeOfPayment, adminId?}
+ * Kiosk checkout: records the payment as PENDING and answers 202 with the receipt right away;
+ * it is settled in the background. Requires an Idempotency-Key.
+ *
+ * POST /api/payments/refunds {branchId, floor?, from, to}
+ * Refunds every paid stay at the branch (or one floor of it) overlapping [from, to), e.g. after
+ * a closure, and reports which payments were refunded, skipped or failed. Safe to repeat.
+ * Admin only: needs the X-Admin-Token header, and the refunds are recorded against api.adminId.
+ *
+ * GET  /api/payments?id=
+ * Looks up a payment, e.g. to see whether an accepted one has been settled.
+ *
+ * Clients should send an Idempotency-Key header (a UUID) and reuse it when retrying; a repeated
+ * key returns the original payment instead of charging again.
+ */
+public class PaymentHandler extends ApiHandler {
+
+    // Payments taken at an unattended kiosk are attributed to the default admin, like PaymentPageController does
+    private static final int KIOSK_ADMIN_ID = 1;
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final PaymentService paymentService = new PaymentService();
+
+    @Override
+    protected ApiResponse handleGet(HttpExchange exchange) {
+        int paymentId = requiredInt(queryParams(exchange), "id");
+        return paymentService.getPaymentById(paymentId)
+                .map(payment -> ok(toJson(payment)))
+                .orElseGet(() -> error(NOT_FOUND, "Payment not found: " + paymentId));
+    }
+
+    @Override
+    protected ApiResponse handlePost(HttpExchange exchange, Map<String, String> body) {
+        return switch (subPath(exchange)) {
+            case "", "/" -> pay(exchange, body);
+            case "/accept" -> accept(exchange, body);
+            case "/refunds" -> refund(exchange, body);
+            default -> error(NOT_FOUND, "Unknown endpoint");
+        };
+    }
+
+    private ApiResponse pay(HttpExchange exchange, Map<String, String> body) {
+        int reservationId = requiredInt(body, "reservationId");
+        int adminId = body.containsKey("adminId") ? requiredInt(body, "adminId") : KIOSK_ADMIN_ID;
+        ModeOfPayment mode = requiredMode(body);
+
+        Optional<UUID> requestKey = requestKey(exchange);
+        Optional<Payment> payment = requestKey.isPresent()
+                ? paymentService.processPayment(requestKey.get(), reservationId, mode, adminId)
+                : paymentService.processPayment(reservationId, mode, adminId);
+        if (payment.isEmpty()) {
+            return error(CONFLICT, "Payment failed for reservation " + reservationId);
+        }
+        return new ApiResponse(CREATED, toJson(payment.get()));
+    }
+
+    private ApiResponse accept(HttpExchange exchange, Map<String, String> body) {
+        int reservationId = requiredInt(body, "reservationId");
+        int adminId = body.containsKey("adminId") ? requiredInt(body, "adminId") : KIOSK_ADMIN_ID;
+        ModeOfPayment mode = requiredMode(body);
+
+        UUID requestKey = requestKey(exchange)
+                .orElseThrow(() -> new IllegalArgumentException("Missing " + IDEMPOTENCY_KEY_HEADER + " header"));
+        Optional<Payment> payment = paymentService.acceptPayment(requestKey, reservationId, mode, adminId);
+        if (payment.isEmpty()) {
+            return error(CONFLICT, "Payment failed for reservation " + reservationId);
+        }
+        return new ApiResponse(ACCEPTED, toJson(payment.get()));
+    }
+
+    private ApiResponse refund(HttpExchange exchange, Map<String, String> body) {
+        OptionalInt adminId = authenticatedAdmin(exchange);
+        if (adminId.isEmpty()) {
+            return error(UNAUTHORIZED, "Refunds require an admin token");
+        }
+        int branchId = requiredInt(body, "branchId");
+        Integer floor = body.get("floor") != null ? requiredInt(body, "floor") : null;
+        LocalDateTime from = requiredDateTime(body, "from");
+        LocalDateTime to = requiredDateTime(body, "to");
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("to must be after from");
+        }
+
+        BulkRefundProgressDTO result = paymentService.processBulkRefund(branchId, floor, from, to, adminId.getAsInt(), null);
+        JsonUtil.JsonObject failed = JsonUtil.object();
+        result.getFailedPaymentIDs().forEach((paymentId, reason) -> failed.put(String.valueOf(paymentId), reason));
+        return ok(JsonUtil.object()
+                .put("total", result.getTotal())
+                .put("refunded", result.getRefundedPaymentIDs().size())
+                .put("amountRefunded", result.getAmountRefunded())
+                .putRaw("refundedPaymentIds", JsonUtil.array(result.getRefundedPaymentIDs()))
+                .putRaw("skippedPaymentIds", JsonUtil.array(result.getSkippedPaymentIDs()))
+                .putRaw("failed", failed.toString())
+                .toString());
+    }
+
+    private static ModeOfPayment requiredMode(Map<String, String> body) {
+        String modeName = required(body, "modeOfPayment");
+        try {
+            return ModeOfPayment.valueOf(modeName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("modeOfPayment must be one of CASH, E_WALLET, CREDIT_CARD");
+        }
+    }
+
+    private static Optional<UUID> requestKey(HttpExchange exchange) {
+        String value = exchange.getRequestHeaders().getFirst(IDEMPOTENCY_KEY_HEADER);
+        if (value == null || value.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(UUID.fromString(value.trim()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(IDEMPOTENCY_KEY_HEADER + " must be a UUID");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package Server;
+
+import Model.Entity.SlotType;
+import Service.PaymentService;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * GET /api/quote?branchId=1&amp;slotType=REGULAR&amp;entry=2025-11-20T08:00&amp;exit=2025-11-20T12:30
+ * Quotes the parking fee for a prospective stay using the PaymentService fee logic.
+ */
+public class QuoteHandler extends ApiHandler {
+
+    private final PaymentService paymentService = new PaymentService();
+
+    @Override
+    protected ApiResponse handleGet(HttpExchange exchange) {
+        Map<String, String> params = queryParams(exchange);
+        int branchId = requiredInt(params, "branchId");
+        SlotType slotType = requiredSlotType(params);
+        LocalDateTime entry = requiredDateTime(params, "entry");
+        LocalDateTime exit = requiredDateTime(params, "exit");
+
+        if (!exit.isAfter(entry)) {
+            throw new IllegalArgumentException("Exit time must be after entry time");
+        }
+
+        Optional<BigDecimal> fee = paymentService.quoteFee(branchId, slotType, entry, exit);
+        if (fee.isEmpty()) {
+            return error(NOT_FOUND, "No pricing available for branch " + branchId + " and slot type " + slotType);
+        }
+
+        return ok(JsonUtil.object()
+                .put("branchId", branchId)
+                .put("slotType", slotType)
+                .put("entry", entry)
+                .put("exit", exit)
+                .put("fee", fee.get())
+                .toString());
+    }
+
+    static SlotType requiredSlotType(Map<String, String> params) {
+        SlotType slotType = SlotType.fromString(required(params, "slotType"));
+        if (slotType == null) {
+            throw new IllegalArgumentException("Unknown slot type: " + params.get("slotType"));
+        }
+        return slotType;
+    }
+}
@@ -0,0 +1,66 @@
+package Server;
+
+import Model.Entity.Reservation;
+import Model.Entity.SlotType;
+import Service.ReservationService;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * POST /api/reservations         {userId, vehicleId, branchId, slotType, entry, exit}
+ * POST /api/reservations/cancel  {reservationId, userId}
+ * GET  /api/reservations?id=42
+ */
+public class ReservationHandler extends ApiHandler {
+
+    private final ReservationService reservationService = new ReservationService();
+
+    @Override
+    protected ApiResponse handleGet(HttpExchange exchange) {
+        int reservationId = requiredInt(queryParams(exchange), "id");
+        return reservationService.getReservation(reservationId)
+                .map(reservation -> ok(toJson(reservation)))
+                .orElseGet(() -> error(NOT_FOUND, "Reservation not found: " + reservationId));
+    }
+
+    @Override
+    protected ApiResponse handlePost(HttpExchange exchange, Map<String, String> body) {
+        return switch (subPath(exchange)) {
+            case "", "/" -> reserve(body);
+            case "/cancel" -> cancel(body);
+            default -> error(NOT_FOUND, "Unknown endpoint");
+        };
+    }
+
+    private ApiResponse reserve(Map<String, String> body) {
+        int userId = requiredInt(body, "userId");
+        int vehicleId = requiredInt(body, "vehicleId");
+        int branchId = requiredInt(body, "branchId");
+        SlotType slotType = QuoteHandler.requiredSlotType(body);
+        LocalDateTime entry = requiredDateTime(body, "entry");
+        LocalDateTime exit = requiredDateTime(body, "exit");
+
+        if (!exit.isAfter(entry)) {
+            throw new IllegalArgumentException("Exit time must be after entry time");
+        }
+
+        Optional<Reservation> created = reservationService.createReservation(userId, vehicleId, branchId, slotType, entry, exit);
+        if (created.isEmpty()) {
+            return error(CONFLICT, "No available " + slotType + " slot at branch " + branchId);
+        }
+        return new ApiResponse(CREATED, toJson(created.get()));
+    }
+
+    private ApiResponse cancel(Map<String, String> body) {
+        int reservationId = requiredInt(body, "reservationId");
+        int userId = requiredInt(body, "userId");
+
+        if (!reservationService.cancelReservation(reservationId, userId)) {
+            return error(CONFLICT, "Reservation " + reservationId + " could not be cancelled");
+        }
+        return ok(JsonUtil.object().put("reservationId", reservationId).put("status", "CANCELLED").toString());
+    }
+}
@@ -0,0 +1,573 @@
+package Service.Admin;
+
+import DAO.ReservationDAO;
+import DAO.UserDAO;
+import DAO.UserDAO.UserSearchRow;
+import DAO.VehicleDAO;
+import Model.DTO.SearchResultDTO;
+import Model.DTO.SearchResultDTO.Kind;
+import Model.Entity.Customer;
+import Model.Entity.Reservation;
+import Model.Entity.User;
+import Model.Entity.Vehicle;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.Action;
+import Utilities.ChangeNotifier.ChangeEvent;
+import Utilities.ChangeNotifier.Topic;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory search over users, vehicles and reservations for the admin support desk, so a
+ * customer on the phone can be found from any part of their email, name, contact number or
+ * plate, or from a reservation number.
+ *
+ * Values are compacted to lower-case letters and digits ("AB-12 3" becomes "ab123"), so spacing
+ * and punctuation never matter. A query of GRAM or more characters intersects the posting sets of
+ * its trigrams and checks the few candidates left; shorter queries match word prefixes through a
+ * sorted term map. Reservation numbers are matched by prefix over the sorted reservation IDs.
+ * Results are ranked by how well the best field matched (exact, prefix, word prefix, anywhere),
+ * then by field, then by how close the value's length is to the query's.
+ *
+ * Searches read concurrent maps without locking. The index is loaded once, kept current by USER,
+ * VEHICLE and RESERVATION events from ChangeNotifier, and fully reloaded every REFRESH_INTERVAL
+ * to pick up writes made by other processes (e.g. the API server). Events are applied on the
+ * index's own worker thread, because applying one may need a database lookup.
+ */
+public class AdminSearchService implements ChangeNotifier.ChangeListener {
+
+    public static final int DEFAULT_LIMIT = 25;
+
+    private static final Duration REFRESH_INTERVAL = Duration.ofMinutes(10);
+    private static final int GRAM = 3;
+    // A one or two character query matches many terms; stop collecting candidates after this many
+    private static final int MAX_SHORT_CANDIDATES = 2_000;
+
+    private static final int EXACT = 400;
+    private static final int PREFIX = 300;
+    private static final int WORD_PREFIX = 200;
+    private static final int ANYWHERE = 100;
+
+    /**
+     * A searchable field. The weight ranks equally good matches in different fields.
+     */
+    private enum Field {
+        PLATE("Plate", 4),
+        RESERVATION("Reservation", 4),
+        EMAIL("Email", 3),
+        CONTACT("Contact number", 2),
+        NAME("Name", 1);
+
+        final String label;
+        final int weight;
+
+        Field(String label, int weight) {
+            this.label = label;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * An indexed user or vehicle.
+     *
+     * @param values The original value of each field it can be found by
+     * @param source The UserSearchRow or Vehicle it was built from
+     */
+    private record Doc(Kind kind, int id, int userID, Map<Field, String> values, Object source) {}
+
+    /**
+     * Everything the index holds. A full reload builds a new State and swaps it in.
+     */
+    private static class State {
+        final Map<Integer, Doc> users = new ConcurrentHashMap<>();
+        final Map<Integer, Doc> vehicles = new ConcurrentHashMap<>();
+        final Map<Integer, Set<Integer>> vehiclesByUser = new ConcurrentHashMap<>();
+        // Reservations are only found by number; entries whose vehicle is gone are skipped
+        final NavigableMap<Integer, Integer> vehicleByReservation = new ConcurrentSkipListMap<>();
+        final Map<String, Set<Doc>> grams = new ConcurrentHashMap<>();
+        final NavigableMap<String, Set<Doc>> terms = new ConcurrentSkipListMap<>();
+    }
+
+    private static volatile AdminSearchService instance;
+
+    private final UserDAO userDAO;
+    private final VehicleDAO vehicleDAO;
+    private final ReservationDAO reservationDAO;
+
+    private volatile State state = new State();
+
+    // Events that arrive while a reload is reading the database are replayed on the new state
+    private List<ChangeEvent> eventsDuringReload;
+    private final Object writeLock = new Object();
+
+    // Applies events and runs the periodic reloads
+    private final ScheduledExecutorService worker;
+
+    private AdminSearchService() {
+        this.userDAO = new UserDAO();
+        this.vehicleDAO = new VehicleDAO();
+        this.reservationDAO = new ReservationDAO();
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "admin-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the shared index, loading it and subscribing it to changes on first use.
+     */
+    public static AdminSearchService getInstance() {
+        if (instance == null) {
+            synchronized (AdminSearchService.class) {
+                if (instance == null) {
+                    AdminSearchService service = new AdminSearchService();
+                    ChangeNotifier.subscribe(service);
+                    service.reload();
+                    service.startRefresher();
+                    instance = service;
+                }
+            }
+        }
+        return instance;
+    }
+
+    // === SEARCH ===
+
+    public List<SearchResultDTO> search(String query) {
+        return search(query, DEFAULT_LIMIT);
+    }
+
+    /**
+     * Finds users, vehicles and reservations matching the query, best first.
+     *
+     * @param query Any part of an email, name, contact number or plate, or the start of a reservation number
+     * @param limit The most results to return
+     * @return The results; empty if nothing matches
+     */
+    public List<SearchResultDTO> search(String query, int limit) {
+        String compacted = compact(query);
+        if (compacted.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        State current = state;
+
+        Set<Doc> candidates = compacted.length() >= GRAM
+                ? gramCandidates(current, compacted)
+                : termCandidates(current, compacted);
+
+        List<SearchResultDTO> results = new ArrayList<>();
+        for (Doc doc : candidates) {
+            toResult(current, doc, compacted).ifPresent(results::add);
+        }
+        if (isDigits(compacted)) {
+            addReservations(current, compacted, limit, results);
+        }
+
+        results.sort(Comparator.comparingInt(SearchResultDTO::getScore).reversed()
+                .thenComparing(SearchResultDTO::getKind)
+                .thenComparingInt(SearchResultDTO::getId));
+        return results.size() > limit ? List.copyOf(results.subList(0, limit)) : results;
+    }
+
+    public int size() {
+        State current = state;
+        return current.users.size() + current.vehicles.size() + current.vehicleByReservation.size();
+    }
+
+    private static Set<Doc> gramCandidates(State current, String compacted) {
+        List<Set<Doc>> postings = new ArrayList<>();
+        for (int i = 0; i + GRAM <= compacted.length(); i++) {
+            Set<Doc> posting = current.grams.get(compacted.substring(i, i + GRAM));
+            if (posting == null) {
+                return Set.of();
+            }
+            postings.add(posting);
+        }
+        // Start from the rarest trigram so the working set is small from the first step
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<Doc> candidates = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(postings.get(i));
+        }
+        return candidates;
+    }
+
+    private static Set<Doc> termCandidates(State current, String compacted) {
+        Set<Doc> candidates = new HashSet<>();
+        for (Set<Doc> docs : current.terms.subMap(compacted, true, compacted + Character.MAX_VALUE, false).values()) {
+            candidates.addAll(docs);
+            if (candidates.size() >= MAX_SHORT_CANDIDATES) break;
+        }
+        return candidates;
+    }
+
+    /**
+     * Scores the doc by its best matching field, or empty if no field contains the query
+     * (trigram candidates can have the trigrams spread over several fields).
+     */
+    private static Optional<SearchResultDTO> toResult(State current, Doc doc, String compacted) {
+        int best = 0;
+        Field bestField = null;
+        for (Map.Entry<Field, String> entry : doc.values().entrySet()) {
+            int score = score(entry.getKey(), entry.getValue(), compacted);
+            if (score > best) {
+                best = score;
+                bestField = entry.getKey();
+            }
+        }
+        if (bestField == null) {
+            return Optional.empty();
+        }
+
+        if (doc.kind() == Kind.USER) {
+            UserSearchRow row = (UserSearchRow) doc.source();
+            String title = fullName(row) != null ? fullName(row) : row.email();
+            String detail = join(row.email(), row.contactNumber(), row.role() != null ? row.role().name() : null);
+            return Optional.of(new SearchResultDTO(Kind.USER, doc.id(), doc.userID(), title, detail, bestField.label, best));
+        }
+        Vehicle vehicle = (Vehicle) doc.source();
+        String detail = join(vehicle.getVehicle_brand(), vehicle.getVehicle_type(), ownerOf(current, doc.userID()));
+        return Optional.of(new SearchResultDTO(Kind.VEHICLE, doc.id(), doc.userID(), vehicle.getPlate_number(), detail, bestField.label, best));
+    }
+
+    private static int score(Field field, String value, String compacted) {
+        String valueCompacted = compact(value);
+        int match;
+        if (valueCompacted.equals(compacted)) {
+            match = EXACT;
+        } else if (valueCompacted.startsWith(compacted)) {
+            match = PREFIX;
+        } else if (words(value).stream().anyMatch(word -> word.startsWith(compacted))) {
+            match = WORD_PREFIX;
+        } else if (valueCompacted.contains(compacted)) {
+            match = ANYWHERE;
+        } else {
+            return 0;
+        }
+        return match + field.weight * 10 - Math.min(9, valueCompacted.length() - compacted.length());
+    }
+
+    /**
+     * Adds the reservations whose number starts with the digits, shortest numbers first.
+     */
+    private static void addReservations(State current, String digits, int limit, List<SearchResultDTO> results) {
+        if (digits.charAt(0) == '0' || digits.length() > 10) {
+            return;
+        }
+        long low = Long.parseLong(digits);
+        long high = low;
+        int added = 0;
+        // 12 matches 12, then 120-129, then 1200-1299, ...
+        while (low <= Integer.MAX_VALUE && added < limit) {
+            int to = (int) Math.min(high, Integer.MAX_VALUE);
+            for (Map.Entry<Integer, Integer> entry : current.vehicleByReservation.subMap((int) low, true, to, true).entrySet()) {
+                Doc vehicle = current.vehicles.get(entry.getValue());
+                if (vehicle == null) continue;
+
+                int reservationID = entry.getKey();
+                int score = (low == high ? EXACT : PREFIX) + Field.RESERVATION.weight * 10
+                        - Math.min(9, String.valueOf(reservationID).length() - digits.length());
+                results.add(new SearchResultDTO(Kind.RESERVATION, reservationID, vehicle.userID(),
+                        "Reservation #" + reservationID,
+                        join(((Vehicle) vehicle.source()).getPlate_number(), ownerOf(current, vehicle.userID())),
+                        Field.RESERVATION.label, score));
+                if (++added >= limit) break;
+            }
+            low *= 10;
+            high = high * 10 + 9;
+        }
+    }
+
+    // === MAINTENANCE ===
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        switch (event.topic()) {
+            case USER, VEHICLE, RESERVATION -> { }
+            default -> { return; }
+        }
+        // Bulk reservation changes and reservation updates only touch statuses, which are not indexed
+        if (event.topic() == Topic.RESERVATION
+                && (event.id() == ChangeNotifier.ALL || event.action() == Action.UPDATED)) {
+            return;
+        }
+        try {
+            worker.execute(() -> handle(event));
+        } catch (RuntimeException e) {
+            System.err.println("AdminSearchService: Could not queue " + event + ": " + e.getMessage());
+        }
+    }
+
+    // Worker thread
+    private void handle(ChangeEvent event) {
+        if (event.id() == ChangeNotifier.ALL) {
+            reload();
+            return;
+        }
+
+        State target;
+        synchronized (writeLock) {
+            if (eventsDuringReload != null) {
+                eventsDuringReload.add(event);
+            }
+            target = state;
+        }
+        apply(target, event);
+    }
+
+    /**
+     * Rebuilds the index from the database and swaps it in. Searches keep using the old state until the swap.
+     */
+    public void reload() {
+        synchronized (writeLock) {
+            if (eventsDuringReload != null) return;
+            eventsDuringReload = new ArrayList<>();
+        }
+
+        long start = System.nanoTime();
+        State fresh = new State();
+        for (UserSearchRow row : userDAO.findUserSearchRows(null)) {
+            putUser(fresh, row);
+        }
+        for (Vehicle vehicle : vehicleDAO.getAllVehicles()) {
+            putVehicle(fresh, vehicle);
+        }
+        fresh.vehicleByReservation.putAll(reservationDAO.getVehicleIDsByReservation());
+
+        List<ChangeEvent> missed;
+        synchronized (writeLock) {
+            missed = eventsDuringReload;
+            eventsDuringReload = null;
+            state = fresh;
+        }
+        for (ChangeEvent event : missed) {
+            apply(fresh, event);
+        }
+        System.out.println("AdminSearchService: Indexed " + fresh.users.size() + " users, " + fresh.vehicles.size()
+                + " vehicles and " + fresh.vehicleByReservation.size() + " reservations in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    private void apply(State target, ChangeEvent event) {
+        synchronized (writeLock) {
+            switch (event.topic()) {
+                case USER -> {
+                    Doc existing = target.users.get(event.id());
+                    if (event.action() == Action.DELETED) {
+                        removeUser(target, event.id());
+                    } else if (event.entity() instanceof User user) {
+                        putUser(target, new UserSearchRow(user.getUser_ID(), user.getEmail(), user.getRole(), null, null, null));
+                    } else if (event.entity() instanceof Customer customer && existing != null) {
+                        UserSearchRow row = (UserSearchRow) existing.source();
+                        putUser(target, new UserSearchRow(row.userID(), row.email(), row.role(),
+                                customer.getFirstname(), customer.getSurname(), customer.getContact_number()));
+                    } else {
+                        userDAO.findUserSearchRows(event.id()).forEach(row -> putUser(target, row));
+                    }
+                }
+                case VEHICLE -> {
+                    if (event.action() == Action.DELETED) {
+                        removeVehicle(target, event.id());
+                    } else if (event.entity() instanceof Vehicle vehicle) {
+                        putVehicle(target, vehicle);
+                    } else {
+                        vehicleDAO.findVehicleById(event.id()).ifPresent(vehicle -> putVehicle(target, vehicle));
+                    }
+                }
+                case RESERVATION -> {
+                    if (event.action() == Action.DELETED) {
+                        target.vehicleByReservation.remove(event.id());
+                    } else if (event.entity() instanceof Reservation reservation) {
+                        target.vehicleByReservation.put(reservation.getReservationID(), reservation.getVehicleID());
+                    } else {
+                        reservationDAO.getReservationByID(event.id())
+                                .ifPresent(r -> target.vehicleByReservation.put(r.getReservationID(), r.getVehicleID()));
+                    }
+                }
+                default -> { }
+            }
+        }
+    }
+
+    private static void putUser(State target, UserSearchRow row) {
+        Map<Field, String> values = new EnumMap<>(Field.class);
+        values.put(Field.EMAIL, row.email());
+        if (fullName(row) != null) values.put(Field.NAME, fullName(row));
+        if (row.contactNumber() != null) values.put(Field.CONTACT, row.contactNumber());
+
+        Doc doc = new Doc(Kind.USER, row.userID(), row.userID(), values, row);
+        Doc previous = target.users.put(row.userID(), doc);
+        if (previous != null) unindex(target, previous);
+        index(target, doc);
+    }
+
+    private static void removeUser(State target, int userID) {
+        Doc previous = target.users.remove(userID);
+        if (previous != null) unindex(target, previous);
+        // Vehicles (and with them reservations) cascade with the user
+        Set<Integer> vehicleIDs = target.vehiclesByUser.get(userID);
+        if (vehicleIDs != null) {
+            for (Integer vehicleID : List.copyOf(vehicleIDs)) {
+                removeVehicle(target, vehicleID);
+            }
+        }
+    }
+
+    private static void putVehicle(State target, Vehicle vehicle) {
+        if (vehicle.getPlate_number() == null) return;
+
+        removeVehicle(target, vehicle.getVehicle_id());
+        Map<Field, String> values = new EnumMap<>(Field.class);
+        values.put(Field.PLATE, vehicle.getPlate_number());
+        Doc doc = new Doc(Kind.VEHICLE, vehicle.getVehicle_id(), vehicle.getUser_id(), values, vehicle);
+        target.vehicles.put(doc.id(), doc);
+        target.vehiclesByUser.computeIfAbsent(doc.userID(), k -> ConcurrentHashMap.newKeySet()).add(doc.id());
+        index(target, doc);
+    }
+
+    private static void removeVehicle(State target, int vehicleID) {
+        Doc previous = target.vehicles.remove(vehicleID);
+        if (previous == null) return;
+
+        unindex(target, previous);
+        Set<Integer> owned = target.vehiclesByUser.get(previous.userID());
+        if (owned != null) {
+            owned.remove(vehicleID);
+            if (owned.isEmpty()) target.vehiclesByUser.remove(previous.userID());
+        }
+    }
+
+    // Caller holds writeLock
+    private static void index(State target, Doc doc) {
+        for (String value : doc.values().values()) {
+            for (String gram : grams(value)) {
+                target.grams.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(doc);
+            }
+            for (String term : terms(value)) {
+                target.terms.computeIfAbsent(term, k -> ConcurrentHashMap.newKeySet()).add(doc);
+            }
+        }
+    }
+
+    // Caller holds writeLock
+    private static void unindex(State target, Doc doc) {
+        for (String value : doc.values().values()) {
+            for (String gram : grams(value)) {
+                removePosting(target.grams, gram, doc);
+            }
+            for (String term : terms(value)) {
+                removePosting(target.terms, term, doc);
+            }
+        }
+    }
+
+    private static void removePosting(Map<String, Set<Doc>> postings, String key, Doc doc) {
+        Set<Doc> docs = postings.get(key);
+        if (docs != null) {
+            docs.remove(doc);
+            if (docs.isEmpty()) postings.remove(key);
+        }
+    }
+
+    private void startRefresher() {
+        long period = REFRESH_INTERVAL.toMillis();
+        worker.scheduleAtFixedRate(this::reload, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // === HELPER METHODS ===
+
+    /**
+     * Lower-case letters and digits only, e.g. "AB-12 3" becomes "ab123".
+     */
+    static String compact(String value) {
+        if (value == null) return "";
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                out.append(Character.toLowerCase(c));
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * The compacted words of a value, e.g. "john.doe@mail.com" gives john, doe, mail, com.
+     */
+    private static List<String> words(String value) {
+        List<String> words = new ArrayList<>();
+        for (String word : value.split("[^\\p{L}\\p{N}]+")) {
+            String compacted = compact(word);
+            if (!compacted.isEmpty()) words.add(compacted);
+        }
+        return words;
+    }
+
+    /**
+     * Prefix lookup keys: the whole compacted value and each of its words.
+     */
+    private static Set<String> terms(String value) {
+        Set<String> terms = new LinkedHashSet<>(words(value));
+        String compacted = compact(value);
+        if (!compacted.isEmpty()) terms.add(compacted);
+        return terms;
+    }
+
+    private static Set<String> grams(String value) {
+        String compacted = compact(value);
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= compacted.length(); i++) {
+            grams.add(compacted.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static boolean isDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static String fullName(UserSearchRow row) {
+        String name = joinWith(" ", row.firstname(), row.surname());
+        return name.isEmpty() ? null : name;
+    }
+
+    private static String ownerOf(State current, int userID) {
+        Doc owner = current.users.get(userID);
+        if (owner == null) return null;
+        UserSearchRow row = (UserSearchRow) owner.source();
+        return fullName(row) != null ? fullName(row) : row.email();
+    }
+
+    private static String join(String... parts) {
+        return joinWith(" · ", parts);
+    }
+
+    private static String joinWith(String separator, String... parts) {
+        StringBuilder out = new StringBuilder();
+        for (String part : parts) {
+            if (part == null || part.isBlank()) continue;
+            if (!out.isEmpty()) out.append(separator);
+            out.append(part.trim());
+        }
+        return out.toString();
+    }
+}
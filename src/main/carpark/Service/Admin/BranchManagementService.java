@@ -2,12 +2,20 @@ package Service.Admin;
 
 import DAO.DBConnectionUtil;
 import DAO.ParkingDAO;
+import Model.DTO.SlotConversionDTO;
 import Model.Entity.*;
+import Service.Analytics.SlotMixOptimizer;
+import Service.Journal.ReservationStateStore;
 import Service.UserService;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.Action;
+import Utilities.ChangeNotifier.Topic;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 
@@ -20,6 +28,7 @@ public class BranchManagementService {
 
     private final ParkingDAO parkingDAO;
     private final UserService userService;
+    private final SlotMixOptimizer slotMixOptimizer;
 
     // Constants for multi-level slot generation ---
     private static final int CAR_SLOTS_PER_FLOOR = 40;
@@ -43,6 +52,7 @@ public class BranchManagementService {
     public BranchManagementService() {
         this.parkingDAO = new ParkingDAO();
         this.userService = new UserService();
+        this.slotMixOptimizer = new SlotMixOptimizer();
     }
 
     private void authorizeAdmin(User user) throws SecurityException{
@@ -64,6 +74,7 @@ public class BranchManagementService {
 
             if (newBranchId > 0) {
                 int totalSlotsToCreate = newBranch.getMax_slots();
+                List<ParkingSlot> createdSlots = new ArrayList<>();
 
                 for (int i = 0; i < totalSlotsToCreate; i++) {
                     int currentFloor = (i / SLOTS_PER_FLOOR) + 1;
@@ -104,6 +115,7 @@ public class BranchManagementService {
                     if (!parkingDAO.insertSlot(newSlot, conn)) {
                         throw new SQLException("Failed to insert slot " + spotID + ". Rolling back transaction.");
                     }
+                    createdSlots.add(newSlot);
                 }
 
                 // Regular
@@ -116,6 +128,8 @@ public class BranchManagementService {
                 parkingDAO.insertOrUpdatePricing(new Pricing(newBranchId, SlotType.VIP, VIP_RATE, VIP_RATE.multiply(new BigDecimal("1.5"))));
 
                 conn.commit();
+                createdSlots.forEach(ReservationStateStore::recordSlotDefined);
+                ChangeNotifier.publish(Topic.BRANCH, Action.CREATED, newBranchId, newBranch);
                 System.out.println("Successfully created slot " + newBranchId + ".");
                 return newBranchId;
             }
@@ -146,7 +160,11 @@ public class BranchManagementService {
     public boolean setPricing(User admin, Pricing newPricing) {
         try {
             authorizeAdmin(admin);
-            return parkingDAO.insertOrUpdatePricing(newPricing);
+            boolean saved = parkingDAO.insertOrUpdatePricing(newPricing);
+            if (saved) {
+                ChangeNotifier.publish(Topic.BRANCH, Action.UPDATED, newPricing.getBranch_ID());
+            }
+            return saved;
         } catch (SecurityException e) {
             System.err.println(e.getMessage());
             return false;
@@ -162,7 +180,7 @@ public class BranchManagementService {
             authorizeAdmin(admin);
 
             Optional<ParkingSlot> slotOpt = parkingDAO.getSlotByID(spotId);
-            if (slotOpt.isPresent() && slotOpt.get().isAvailability()) {
+            if (slotOpt.isPresent() && !slotOpt.get().isAvailability()) {
                 System.err.println("Cannot change type: Slot " + spotId + " is currently occupied");
                 return false;
             }
@@ -177,6 +195,81 @@ public class BranchManagementService {
         }
     }
 
+    /**
+     * Recommends slot type conversions for a branch based on its recent occupancy by type and floor.
+     *
+     * @return The recommended conversions, or empty if the history could not be read
+     */
+    public Optional<List<SlotConversionDTO>> recommendSlotMix(User admin, int branchId) {
+        try {
+            authorizeAdmin(admin);
+            return slotMixOptimizer.recommend(branchId);
+        } catch (SecurityException e) {
+            System.err.println(e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Applies approved slot conversions in one transaction. If any slot has since become occupied
+     * or changed type, nothing is applied.
+     *
+     * @return true if every conversion was applied
+     */
+    public boolean applySlotConversions(User admin, List<SlotConversionDTO> conversions) {
+        try {
+            authorizeAdmin(admin);
+        } catch (SecurityException e) {
+            System.err.println(e.getMessage());
+            return false;
+        }
+        if (conversions.isEmpty()) {
+            return true;
+        }
+
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            int[] counts = parkingDAO.batchConvertSlotTypes(conversions, conn);
+            for (int i = 0; i < counts.length; i++) {
+                // SUCCESS_NO_INFO means the driver applied the row without reporting a count
+                if (counts[i] == 0) {
+                    throw new SQLException("Slot " + conversions.get(i).getSpotID()
+                            + " is occupied or no longer " + conversions.get(i).getFromType() + ". Rolling back transaction.");
+                }
+            }
+
+            conn.commit();
+            for (SlotConversionDTO conversion : conversions) {
+                ReservationStateStore.recordSlotDefined(new ParkingSlot(conversion.getSpotID(), conversion.getBranchID(),
+                        conversion.getFloorLevel(), conversion.getToType(), true));
+            }
+            ChangeNotifier.publish(Topic.SLOT, Action.UPDATED, ChangeNotifier.ALL);
+            System.out.println("Converted " + conversions.size() + " slots.");
+            return true;
+
+        } catch (SQLException e) {
+            try {
+                if (conn != null) conn.rollback();
+            } catch (SQLException rollbackEx) {
+                System.err.println("BranchManagementService Rollback failed: " + rollbackEx.getMessage());
+            }
+            System.err.println("BranchManagementService Transaction Error: " + e.getMessage());
+            return false;
+        } finally {
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    DBConnectionUtil.closeConnection(conn);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error restoring connection state: " + e.getMessage());
+            }
+        }
+    }
+
     private String codeFor(SlotType type) {
         return switch (type) {
             case REGULAR -> "R";
@@ -0,0 +1,330 @@
+package Service.Admin;
+
+import DAO.DBConnectionUtil;
+import DAO.ParkingDAO;
+import DAO.ReportDAO;
+import DAO.ReportDAO.PaymentCheckRow;
+import Model.DTO.ReconciliationSummaryDTO;
+import Model.Entity.Branch;
+import Model.Entity.Payment.PaymentStatus;
+import Model.Entity.Pricing;
+import Model.Entity.Reservation;
+import Model.Entity.ReservationStatus;
+import Service.PaymentService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Nightly check that every payment matches what its reservation should have cost.
+ *
+ * The date range is split into one partition per branch and month. Partitions run in parallel on
+ * a ForkJoinPool no wider than the connection pool, each streaming its reservations joined to
+ * their payments and the branch's pricing, recomputing the fee with
+ * {@link PaymentService#calculateTotalFee} and writing the discrepancies to its own part file.
+ *
+ * Part files are the checkpoint: a part is written under a temporary name and moved into place
+ * only once its partition has finished, so a rerun over the same range skips every partition
+ * that already has one and redoes only the rest. When all partitions are done the parts are
+ * merged into report.csv in the run's directory under reconciliation.dir.
+ *
+ * Fees are recomputed with today's pricing, so a discrepancy on an old reservation may be a rate
+ * change rather than a wrong charge.
+ */
+public class PaymentReconciler {
+
+    private static final String DIR_PROPERTY = "reconciliation.dir";
+    private static final String DEFAULT_DIR = "data/reconciliation";
+    private static final String REPORT_FILE = "report.csv";
+    private static final String HEADER = "branch_ID,reservation_ID,payment_ID,kind,reservation_status,payment_status,"
+            + "amount_to_pay,amount_paid,recomputed,difference";
+    // Last line of every part file, so a resumed run still knows how many rows the part covered
+    private static final String ROWS_TRAILER = "#rows=";
+    private static final BigDecimal TOLERANCE = new BigDecimal("0.01");
+
+    public enum Kind {
+        FEE_MISMATCH,       // amount_to_pay differs from the recomputed fee
+        AMOUNT_MISMATCH,    // a PAID payment whose amount_paid differs from amount_to_pay
+        UNPAID_COMPLETED,   // a completed stay with no payment
+        PAID_CANCELLED,     // a cancelled reservation that was paid and never refunded
+        NO_PRICING          // a paid reservation whose branch no longer prices its slot type
+    }
+
+    private record Partition(int branchID, YearMonth month, LocalDateTime from, LocalDateTime to) {
+        String fileName() {
+            return "branch-" + branchID + "-" + month + ".csv";
+        }
+    }
+
+    private final ReportDAO reportDAO;
+    private final ParkingDAO parkingDAO;
+    private final PaymentService paymentService;
+
+    public PaymentReconciler() {
+        this.reportDAO = new ReportDAO();
+        this.parkingDAO = new ParkingDAO();
+        this.paymentService = new PaymentService();
+    }
+
+    /**
+     * Reconciles reservations settled (paid, or ended if unpaid) from the start of the first day
+     * to the end of the last.
+     * Calling it again with the same days resumes the run.
+     */
+    public ReconciliationSummaryDTO reconcile(LocalDate firstDay, LocalDate lastDay) {
+        long start = System.nanoTime();
+        Path runDir = Path.of(DBConnectionUtil.getProperty(DIR_PROPERTY, DEFAULT_DIR), firstDay + "_" + lastDay);
+        try {
+            Files.createDirectories(runDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create " + runDir, e);
+        }
+
+        List<Partition> partitions = partition(firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay());
+        List<Partition> pending = new ArrayList<>();
+        for (Partition partition : partitions) {
+            if (!Files.exists(runDir.resolve(partition.fileName()))) {
+                pending.add(partition);
+            }
+        }
+        int resumed = partitions.size() - pending.size();
+
+        int poolSize = Integer.parseInt(DBConnectionUtil.getProperty("db.pool.size", "10"));
+        int parallelism = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), poolSize));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        int failed = 0;
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (Partition partition : pending) {
+                tasks.add(() -> reconcilePartition(partition, runDir));
+            }
+            for (Future<Boolean> result : pool.invokeAll(tasks)) {
+                if (!result.get()) failed++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed = pending.size();
+        } catch (ExecutionException e) {
+            System.err.println("PaymentReconciler Error in reconcile: " + e.getCause());
+            failed = pending.size();
+        } finally {
+            pool.shutdown();
+        }
+
+        return merge(partitions, runDir, pending.size() - failed, resumed, failed,
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * One partition per branch and calendar month, clipped to [from, to).
+     */
+    private List<Partition> partition(LocalDateTime from, LocalDateTime to) {
+        List<Partition> partitions = new ArrayList<>();
+        for (Branch branch : parkingDAO.getAllBranches()) {
+            for (YearMonth month = YearMonth.from(from); month.atDay(1).atStartOfDay().isBefore(to); month = month.plusMonths(1)) {
+                LocalDateTime monthStart = month.atDay(1).atStartOfDay();
+                LocalDateTime monthEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+                partitions.add(new Partition(branch.getBranch_ID(), month,
+                        monthStart.isBefore(from) ? from : monthStart,
+                        monthEnd.isAfter(to) ? to : monthEnd));
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Streams the partition's reservations into a temporary part file and moves it into place.
+     *
+     * @return false if the partition has to be run again
+     */
+    private boolean reconcilePartition(Partition partition, Path runDir) {
+        Path part = runDir.resolve(partition.fileName());
+        Path temp = runDir.resolve(partition.fileName() + ".tmp");
+        long[] rows = {0};
+        try {
+            boolean streamed;
+            try (BufferedWriter writer = Files.newBufferedWriter(temp)) {
+                streamed = reportDAO.streamPaymentChecks(partition.branchID(), partition.from(), partition.to(), row -> {
+                    rows[0]++;
+                    check(row, writer);
+                });
+                writer.write(ROWS_TRAILER + rows[0]);
+                writer.newLine();
+            }
+            if (!streamed) {
+                Files.deleteIfExists(temp);
+                return false;
+            }
+            Files.move(temp, part, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            System.err.println("PaymentReconciler Error in reconcilePartition " + partition.fileName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes one report line for each way the row disagrees with the recomputed fee.
+     */
+    private void check(PaymentCheckRow row, BufferedWriter writer) throws IOException {
+        BigDecimal recomputed = recompute(row);
+        boolean hasPayment = row.paymentID() != null;
+
+        if (!hasPayment) {
+            if (row.status() == ReservationStatus.COMPLETED && row.checkIn() != null) {
+                write(writer, row, Kind.UNPAID_COMPLETED, recomputed,
+                        recomputed == null ? BigDecimal.ZERO : recomputed);
+            }
+            return;
+        }
+        if (row.paymentStatus() == PaymentStatus.REFUNDED) {
+            return;
+        }
+        if (row.paymentStatus() == PaymentStatus.PAID && row.status() == ReservationStatus.CANCELLED) {
+            write(writer, row, Kind.PAID_CANCELLED, recomputed, row.amountPaid().negate());
+        }
+        if (row.paymentStatus() == PaymentStatus.PAID && differs(row.amountPaid(), row.amountToPay())) {
+            write(writer, row, Kind.AMOUNT_MISMATCH, recomputed, row.amountToPay().subtract(row.amountPaid()));
+        }
+        if (row.hourlyRate() == null) {
+            write(writer, row, Kind.NO_PRICING, null, BigDecimal.ZERO);
+        } else if (recomputed != null && differs(recomputed, row.amountToPay())) {
+            write(writer, row, Kind.FEE_MISMATCH, recomputed, recomputed.subtract(row.amountToPay()));
+        }
+    }
+
+    /**
+     * The fee PaymentService would charge for the stay, or null if there is no pricing or no
+     * finished stay to price.
+     */
+    private BigDecimal recompute(PaymentCheckRow row) {
+        if (row.hourlyRate() == null || row.checkIn() == null || row.timeOut() == null) {
+            return null;
+        }
+        Reservation reservation = new Reservation(row.reservationID(), 0, null, row.checkIn(), row.checkIn(),
+                row.timeOut(), row.dateReserved(), row.status());
+        Pricing pricing = new Pricing(row.branchID(), row.slotType(), row.hourlyRate(), row.overtimeRate());
+        float fee = paymentService.calculateTotalFee(reservation, pricing);
+        return BigDecimal.valueOf(fee).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static boolean differs(BigDecimal a, BigDecimal b) {
+        return a.subtract(b).abs().compareTo(TOLERANCE) > 0;
+    }
+
+    private static void write(BufferedWriter writer, PaymentCheckRow row, Kind kind, BigDecimal recomputed,
+                              BigDecimal difference) throws IOException {
+        writer.write(row.branchID() + "," + row.reservationID() + "," + orBlank(row.paymentID()) + "," + kind + ","
+                + row.status() + "," + orBlank(row.paymentStatus()) + "," + orBlank(row.amountToPay()) + ","
+                + orBlank(row.amountPaid()) + "," + orBlank(recomputed) + "," + difference.setScale(2, RoundingMode.HALF_UP));
+        writer.newLine();
+    }
+
+    private static String orBlank(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    /**
+     * Totals every finished part and, once no partition is missing, concatenates them into the report.
+     */
+    private ReconciliationSummaryDTO merge(List<Partition> partitions, Path runDir, int processed, int resumed,
+                                           int failed, Duration elapsed) {
+        Map<Kind, Integer> counts = new EnumMap<>(Kind.class);
+        BigDecimal difference = BigDecimal.ZERO;
+        long rows = 0;
+        Path report = runDir.resolve(REPORT_FILE);
+        Path temp = runDir.resolve(REPORT_FILE + ".tmp");
+
+        try (BufferedWriter writer = failed == 0 ? Files.newBufferedWriter(temp) : null) {
+            if (writer != null) {
+                writer.write(HEADER);
+                writer.newLine();
+            }
+            for (Partition partition : partitions) {
+                Path part = runDir.resolve(partition.fileName());
+                if (!Files.exists(part)) continue;
+                for (String line : Files.readAllLines(part)) {
+                    if (line.startsWith(ROWS_TRAILER)) {
+                        rows += Long.parseLong(line.substring(ROWS_TRAILER.length()));
+                        continue;
+                    }
+                    String[] fields = line.split(",", -1);
+                    counts.merge(Kind.valueOf(fields[3]), 1, Integer::sum);
+                    difference = difference.add(new BigDecimal(fields[9]));
+                    if (writer != null) {
+                        writer.write(line);
+                        writer.newLine();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("PaymentReconciler Error in merge: " + e.getMessage());
+            failed = Math.max(failed, 1);
+        }
+
+        if (failed == 0) {
+            try {
+                Files.move(temp, report, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                System.err.println("PaymentReconciler Error in merge: " + e.getMessage());
+                failed = 1;
+            }
+        }
+
+        Map<String, Integer> byKind = new LinkedHashMap<>();
+        counts.forEach((kind, count) -> byKind.put(kind.name(), count));
+        return new ReconciliationSummaryDTO(rows, byKind, difference, processed, resumed, failed, elapsed,
+                failed == 0 ? report : runDir);
+    }
+
+    /**
+     * Runs a reconciliation from the command line, by default over yesterday for a nightly job.
+     * Usage: java Service.Admin.PaymentReconciler [--from 2025-01-01] [--to 2025-12-31]
+     */
+    public static void main(String[] args) {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate from = yesterday;
+        LocalDate to = yesterday;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--from" -> from = LocalDate.parse(args[i + 1]);
+                case "--to" -> to = LocalDate.parse(args[i + 1]);
+                default -> {
+                    System.err.println("Usage: PaymentReconciler [--from yyyy-MM-dd] [--to yyyy-MM-dd]");
+                    return;
+                }
+            }
+        }
+        if (to.isBefore(from)) {
+            System.err.println("PaymentReconciler: --to is before --from");
+            return;
+        }
+
+        ReconciliationSummaryDTO summary = new PaymentReconciler().reconcile(from, to);
+        System.out.println("PaymentReconciler: " + summary);
+        if (!summary.isComplete()) {
+            System.err.println("PaymentReconciler: " + summary.getPartitionsFailed()
+                    + " partitions failed; run again with the same dates to resume.");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package Service.Admin;
+
+import DAO.DBConnectionUtil;
+import DAO.PaymentDAO;
+import DAO.ReportDAO;
+import DAO.ReportDAO.MonthVersion;
+import DAO.ReservationDAO;
+import Model.Entity.Payment;
+import Model.Entity.Reservation;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.ChangeEvent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches monthly report results keyed by (report type, month, year).
+ *
+ * Past months are kept (and written to reports.cacheDir when that is set in db.properties) together
+ * with the MonthVersion of the rows they were built from. Before a past month is served, its version
+ * is read again, which is one indexed COUNT/MAX, and the report is re-run if the version changed. That
+ * catches refunds and late settlements written by other processes, which never reach this process's
+ * ChangeNotifier. The current month is cached for CURRENT_MONTH_TTL. Either is also dropped as soon
+ * as a reservation or payment in that month is written here, using the events from ChangeNotifier.
+ */
+public class ReportCache implements ChangeNotifier.ChangeListener {
+
+    private static final Duration CURRENT_MONTH_TTL = Duration.ofSeconds(60);
+    private static final String CACHE_DIR_PROPERTY = "reports.cacheDir";
+
+    /**
+     * The cached reports and the table each one aggregates.
+     */
+    public enum ReportType {
+        OCCUPANCY(false),
+        REVENUE(true),
+        DURATION(false),
+        UTILIZATION(false);
+
+        private final boolean paymentBased;
+
+        ReportType(boolean paymentBased) {
+            this.paymentBased = paymentBased;
+        }
+    }
+
+    private record Key(ReportType type, YearMonth month) {}
+
+    /**
+     * @param version The version of a past month's rows; null for entries that only live for CURRENT_MONTH_TTL
+     */
+    private record Entry(List<?> rows, long loadedAtNanos, MonthVersion version) {
+        boolean isFresh() {
+            return version == null && System.nanoTime() - loadedAtNanos < CURRENT_MONTH_TTL.toNanos();
+        }
+
+        /**
+         * Whether a past month's entry still matches the database. If the version could not be read
+         * the database is most likely down, and re-running the report would fail as well.
+         */
+        boolean isCurrent(Optional<MonthVersion> current) {
+            if (version == null) return isFresh();
+            return current.isEmpty() || current.get().equals(version);
+        }
+    }
+
+    private static volatile ReportCache instance;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Path diskDirectory;
+    private final ReservationDAO reservationDAO;
+    private final PaymentDAO paymentDAO;
+    private final ReportDAO reportDAO;
+
+    private ReportCache() {
+        String dir = DBConnectionUtil.getProperty(CACHE_DIR_PROPERTY, null);
+        this.diskDirectory = dir == null ? null : Path.of(dir);
+        this.reservationDAO = new ReservationDAO();
+        this.paymentDAO = new PaymentDAO();
+        this.reportDAO = new ReportDAO();
+    }
+
+    public static ReportCache getInstance() {
+        if (instance == null) {
+            synchronized (ReportCache.class) {
+                if (instance == null) {
+                    ReportCache cache = new ReportCache();
+                    ChangeNotifier.subscribe(cache);
+                    instance = cache;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the cached rows for the report, running the loader on a miss.
+     *
+     * @param type The report
+     * @param month 1-12
+     * @param year The report year
+     * @param loader Runs the report query
+     * @return The report rows
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(ReportType type, int month, int year, Supplier<List<T>> loader) {
+        Key key = new Key(type, YearMonth.of(year, month));
+        Entry entry = entries.get(key);
+
+        if (!key.month().isBefore(YearMonth.now())) {
+            if (entry != null && entry.isFresh()) {
+                return (List<T>) entry.rows();
+            }
+            List<T> rows = loader.get();
+            entries.put(key, new Entry(List.copyOf(rows), System.nanoTime(), null));
+            return rows;
+        }
+
+        // Read before the report runs, so a write that lands in between only costs one extra reload
+        Optional<MonthVersion> version = reportDAO.getMonthVersion(type.paymentBased, month, year);
+        if (entry != null && entry.isCurrent(version)) {
+            return (List<T>) entry.rows();
+        }
+        if (entry == null) {
+            Optional<Entry> fromDisk = readFromDisk(key);
+            if (fromDisk.isPresent() && fromDisk.get().isCurrent(version)) {
+                entries.put(key, fromDisk.get());
+                return (List<T>) fromDisk.get().rows();
+            }
+        }
+
+        List<T> rows = loader.get();
+        // The DAOs return an empty list when the query fails, so only non-empty results are versioned and kept
+        if (rows.isEmpty() || version.isEmpty()) {
+            entries.put(key, new Entry(List.copyOf(rows), System.nanoTime(), null));
+        } else {
+            entries.put(key, new Entry(List.copyOf(rows), System.nanoTime(), version.get()));
+            writeToDisk(key, version.get(), rows);
+        }
+        return rows;
+    }
+
+    /**
+     * Drops every cached report.
+     */
+    public void clear() {
+        for (Key key : new ArrayList<>(entries.keySet())) {
+            invalidate(key);
+        }
+    }
+
+    // === INVALIDATION ===
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        switch (event.topic()) {
+            case RESERVATION -> invalidateMonths(false, reservationMonths(event));
+            case PAYMENT -> invalidateMonths(true, paymentMonths(event));
+            default -> { }
+        }
+    }
+
+    /**
+     * A reservation counts toward the month it was booked (occupancy, utilization)
+     * and the month it ended (duration).
+     */
+    private Set<YearMonth> reservationMonths(ChangeEvent event) {
+        Set<YearMonth> months = new HashSet<>();
+        months.add(YearMonth.now());
+        if (event.id() == ChangeNotifier.ALL) {
+            // Expiry sweep: reservations that just ran out were booked this month or last
+            months.add(YearMonth.now().minusMonths(1));
+            return months;
+        }
+        if (!holdsClosedMonths(false)) {
+            return months;
+        }
+
+        Optional<Reservation> reservation = event.entity() instanceof Reservation r
+                ? Optional.of(r)
+                : reservationDAO.getReservationByID(event.id());
+        reservation.ifPresent(r -> {
+            addMonth(months, r.getDateReserved());
+            addMonth(months, r.getTimeOut());
+        });
+        return months;
+    }
+
+    private Set<YearMonth> paymentMonths(ChangeEvent event) {
+        Set<YearMonth> months = new HashSet<>();
+        months.add(YearMonth.now());
+        if (!holdsClosedMonths(true)) {
+            return months;
+        }
+
+        Optional<Payment> payment = event.entity() instanceof Payment p
+                ? Optional.of(p)
+                : paymentDAO.getPaymentById(event.id());
+        payment.map(Payment::getPayment_date).map(YearMonth::from).ifPresent(months::add);
+        return months;
+    }
+
+    /**
+     * Whether any cached report of this kind belongs to a closed month. If not, only the
+     * current month can be affected and the row does not need to be looked up.
+     */
+    private boolean holdsClosedMonths(boolean paymentBased) {
+        YearMonth now = YearMonth.now();
+        for (Key key : entries.keySet()) {
+            if (key.type().paymentBased == paymentBased && key.month().isBefore(now)) {
+                return true;
+            }
+        }
+        return diskDirectory != null;
+    }
+
+    private void invalidateMonths(boolean paymentBased, Set<YearMonth> months) {
+        for (ReportType type : ReportType.values()) {
+            if (type.paymentBased != paymentBased) continue;
+            for (YearMonth month : months) {
+                invalidate(new Key(type, month));
+            }
+        }
+    }
+
+    private void invalidate(Key key) {
+        entries.remove(key);
+        if (diskDirectory != null) {
+            try {
+                Files.deleteIfExists(diskPath(key));
+            } catch (IOException e) {
+                System.err.println("ReportCache Error deleting " + diskPath(key) + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void addMonth(Set<YearMonth> months, LocalDateTime time) {
+        if (time != null) {
+            months.add(YearMonth.from(time));
+        }
+    }
+
+    // === DISK ===
+
+    private Path diskPath(Key key) {
+        return diskDirectory.resolve(key.type().name().toLowerCase() + "-" + key.month() + ".ser");
+    }
+
+    /**
+     * Reads a past month's file: the version its rows were built from, then the rows.
+     */
+    private Optional<Entry> readFromDisk(Key key) {
+        if (diskDirectory == null || !Files.exists(diskPath(key))) {
+            return Optional.empty();
+        }
+        try (InputStream file = Files.newInputStream(diskPath(key));
+             ObjectInputStream in = new ObjectInputStream(file)) {
+            long rowCount = in.readLong();
+            LocalDateTime lastUpdated = (LocalDateTime) in.readObject();
+            List<?> rows = (List<?>) in.readObject();
+            return Optional.of(new Entry(rows, System.nanoTime(), new MonthVersion(rowCount, lastUpdated)));
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            System.err.println("ReportCache Error reading " + diskPath(key) + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void writeToDisk(Key key, MonthVersion version, List<?> rows) {
+        if (diskDirectory == null) return;
+        try {
+            Files.createDirectories(diskDirectory);
+            Path temp = diskDirectory.resolve(diskPath(key).getFileName() + ".tmp");
+            try (OutputStream file = Files.newOutputStream(temp);
+                 ObjectOutputStream out = new ObjectOutputStream(file)) {
+                out.writeLong(version.rows());
+                out.writeObject(version.lastUpdated());
+                out.writeObject(new ArrayList<>(rows));
+            }
+            Files.move(temp, diskPath(key), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("ReportCache Error writing " + diskPath(key) + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,24 +1,45 @@
 package Service.Admin;
 
 import DAO.ReportDAO;
+import Model.DTO.DemandForecastDTO;
+import Model.DTO.DurationDistributionDTO;
 import Model.DTO.DurationReportDTO;
+import Model.DTO.OccupancyHeatmapDTO;
 import Model.DTO.OccupancyReportDTO;
+import Model.DTO.PaymentDistributionDTO;
 import Model.DTO.RevenueReportDTO;
 import Model.DTO.SlotUtilizationDTO;
+import Model.Entity.SlotType;
 import Model.Entity.User;
+import Service.Admin.ReportCache.ReportType;
+import Service.Analytics.ColumnarReports;
+import Service.Analytics.DemandForecaster;
+import Service.Analytics.DistributionService;
+import Service.Analytics.OccupancyHeatmapService;
 import Service.UserService;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 public class ReportService {
     private ReportDAO reportDAO;
     private UserService userService;
+    private ReportCache reportCache;
+    private DistributionService distributionService;
+    private OccupancyHeatmapService heatmapService;
+    // Null unless reports.columnar is set; the monthly reports then scan the in-memory column store
+    private ColumnarReports columnarReports;
 
     public ReportService() {
         this.reportDAO = new ReportDAO();
         this.userService = new UserService();
+        this.reportCache = ReportCache.getInstance();
+        this.distributionService = DistributionService.getInstance();
+        this.heatmapService = new OccupancyHeatmapService();
+        this.columnarReports = ColumnarReports.isEnabled() ? new ColumnarReports() : null;
     }
 
     private void authorizeAdmin(User user) {
@@ -31,7 +52,9 @@ public class ReportService {
         try{
             authorizeAdmin(adminUser);
             System.out.println("Generating Occupancy Report for " + month + "/" + year);
-            return reportDAO.getOccupancyReport(month, year);
+            return reportCache.get(ReportType.OCCUPANCY, month, year, () -> columnarReports != null
+                    ? columnarReports.getOccupancyReport(month, year)
+                    : reportDAO.getOccupancyReport(month, year));
         } catch (SecurityException e) {
             System.out.println("Security Exception: " + e.getMessage());
             return Collections.emptyList();
@@ -42,7 +65,9 @@ public class ReportService {
         try{
             authorizeAdmin(adminUser);
             System.out.println("Generating Revenue Report for " + month + "/" + year);
-            return reportDAO.getRevenueReport(month, year);
+            return reportCache.get(ReportType.REVENUE, month, year, () -> columnarReports != null
+                    ? columnarReports.getRevenueReport(month, year)
+                    : reportDAO.getRevenueReport(month, year));
         } catch (SecurityException e) {
             System.out.println("Security Exception: " + e.getMessage());
             return Collections.emptyList();
@@ -53,7 +78,9 @@ public class ReportService {
         try{
             authorizeAdmin(adminUser);
             System.out.println("Generating Duration Report for " + month + "/" + year);
-            return reportDAO.getDurationReport(month, year);
+            return reportCache.get(ReportType.DURATION, month, year, () -> columnarReports != null
+                    ? columnarReports.getDurationReport(month, year)
+                    : reportDAO.getDurationReport(month, year));
         } catch (SecurityException e) {
             System.out.println("Security Exception: " + e.getMessage());
             return Collections.emptyList();
@@ -64,7 +91,59 @@ public class ReportService {
         try{
             authorizeAdmin(adminUser);
             System.out.println("Generating Slot Utilization Report for " + month + "/" + year);
-            return reportDAO.getSlotUtilizationReport(month, year);
+            return reportCache.get(ReportType.UTILIZATION, month, year, () -> columnarReports != null
+                    ? columnarReports.getSlotUtilizationReport(month, year)
+                    : reportDAO.getSlotUtilizationReport(month, year));
+        } catch (SecurityException e) {
+            System.out.println("Security Exception: " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    public List<DurationDistributionDTO> generateDurationDistribution(User adminUser, int month, int year) {
+        try{
+            authorizeAdmin(adminUser);
+            System.out.println("Generating Duration Distribution for " + month + "/" + year);
+            return distributionService.getDurationDistribution(month, year);
+        } catch (SecurityException e) {
+            System.out.println("Security Exception: " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    public List<PaymentDistributionDTO> generatePaymentDistribution(User adminUser, int month, int year) {
+        try{
+            authorizeAdmin(adminUser);
+            System.out.println("Generating Payment Distribution for " + month + "/" + year);
+            return distributionService.getPaymentDistribution(month, year);
+        } catch (SecurityException e) {
+            System.out.println("Security Exception: " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * @param slotType The slot type, or null for the whole branch
+     */
+    public Optional<OccupancyHeatmapDTO> generateOccupancyHeatmap(User adminUser, int branchID, SlotType slotType, LocalDate from, LocalDate to) {
+        try{
+            authorizeAdmin(adminUser);
+            System.out.println("Generating Occupancy Heatmap for branch " + branchID + ", " + from + " to " + to);
+            return heatmapService.buildHeatmap(branchID, slotType, from, to);
+        } catch (SecurityException e) {
+            System.out.println("Security Exception: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Expected reservations per day and slot type for the next week at a branch.
+     */
+    public List<DemandForecastDTO> generateDemandForecast(User adminUser, int branchID) {
+        try{
+            authorizeAdmin(adminUser);
+            System.out.println("Generating Demand Forecast for branch " + branchID);
+            return DemandForecaster.getInstance().dailyForecast(branchID);
         } catch (SecurityException e) {
             System.out.println("Security Exception: " + e.getMessage());
             return Collections.emptyList();
@@ -0,0 +1,314 @@
+package Service.Analytics;
+
+import Service.Analytics.ReservationColumnStore.Column;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A scan over the ReservationColumnStore: filters narrow a selection vector of row numbers,
+ * then a terminal operation aggregates the selected rows.
+ *
+ * Every filter is one counted loop over one primitive array that writes the row number
+ * unconditionally and advances the output index by the comparison result, so there is no
+ * data-dependent branch for the JIT to mispredict and the loop body can be unrolled.
+ * Group keys that fit a small range are aggregated into plain arrays instead of a hash map.
+ *
+ * Filters are only recorded until a terminal operation runs, which holds the store's read lock.
+ */
+public class ColumnQuery {
+
+    private static final int MAX_DENSE_KEYS = 1 << 16;
+
+    private final ReservationColumnStore store;
+    private final List<Filter> filters = new ArrayList<>();
+
+    /**
+     * Count of non-null values and their sum, per group.
+     */
+    public record Aggregate(long count, long sum) {
+        public double average() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+    }
+
+    ColumnQuery(ReservationColumnStore store) {
+        this.store = store;
+    }
+
+    // === FILTERS ===
+
+    /**
+     * Keeps rows whose int column is in [fromInclusive, toExclusive). NULL never matches.
+     */
+    public ColumnQuery between(Column column, int fromInclusive, int toExclusive) {
+        requireInt(column);
+        // NULL is Integer.MIN_VALUE, so any range starting above it already excludes NULL
+        int from = Math.max(fromInclusive, ReservationColumnStore.NULL + 1);
+        filters.add(new RangeFilter(column, from, toExclusive));
+        return this;
+    }
+
+    /**
+     * Keeps rows whose time column falls in [from, to).
+     */
+    public ColumnQuery between(Column column, LocalDateTime from, LocalDateTime to) {
+        return between(column, ReservationColumnStore.toMinute(from), ReservationColumnStore.toMinute(to));
+    }
+
+    public ColumnQuery equalTo(Column column, int value) {
+        return column.isByte ? in(column, value) : between(column, value, value + 1);
+    }
+
+    /**
+     * Keeps rows whose byte column holds one of the given enum values.
+     */
+    public ColumnQuery in(Column column, Enum<?>... values) {
+        int[] codes = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            codes[i] = ReservationColumnStore.code(values[i]);
+        }
+        return in(column, codes);
+    }
+
+    private ColumnQuery in(Column column, int... codes) {
+        if (!column.isByte) {
+            throw new IllegalArgumentException(column + " is not a byte column");
+        }
+        boolean[] accepted = new boolean[256];
+        for (int code : codes) {
+            accepted[code & 0xFF] = true;
+        }
+        filters.add(new CodeFilter(column, accepted));
+        return this;
+    }
+
+    public ColumnQuery isNotNull(Column column) {
+        if (column.isByte) {
+            boolean[] accepted = new boolean[256];
+            Arrays.fill(accepted, true);
+            accepted[ReservationColumnStore.NULL_BYTE & 0xFF] = false;
+            filters.add(new CodeFilter(column, accepted));
+            return this;
+        }
+        return between(column, ReservationColumnStore.NULL + 1, Integer.MAX_VALUE);
+    }
+
+    // === TERMINAL OPERATIONS ===
+
+    public long count() {
+        return store.read(size -> select(size).length);
+    }
+
+    /**
+     * Sum and count of the non-null values of an int column over the selected rows.
+     */
+    public Aggregate aggregate(Column value) {
+        requireInt(value);
+        return store.read(size -> {
+            int[] values = store.intColumn(value);
+            long count = 0;
+            long sum = 0;
+            for (int row : select(size)) {
+                int v = values[row];
+                if (v != ReservationColumnStore.NULL) {
+                    count++;
+                    sum += v;
+                }
+            }
+            return new Aggregate(count, sum);
+        });
+    }
+
+    /**
+     * Selected rows per key. Byte keys are enum ordinals, with -1 for NULL.
+     */
+    public Map<Integer, Long> groupCount(Column key) {
+        Map<Integer, Long> counts = new TreeMap<>();
+        groupBy(key, null).forEach((k, aggregate) -> counts.put(k, aggregate.count()));
+        return counts;
+    }
+
+    /**
+     * Count and sum of the non-null values of an int column per key.
+     * With a null value column, counts every selected row instead.
+     */
+    public Map<Integer, Aggregate> groupBy(Column key, Column value) {
+        if (value != null) requireInt(value);
+        return store.read(size -> {
+            int[] rows = select(size);
+            int[] keys = keysOf(key, rows);
+            int[] values = value == null ? null : store.intColumn(value);
+
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int k : keys) {
+                min = Math.min(min, k);
+                max = Math.max(max, k);
+            }
+            if (rows.length > 0 && (long) max - min < MAX_DENSE_KEYS) {
+                return denseGroupBy(rows, keys, values, min, max - min + 1);
+            }
+            return hashGroupBy(rows, keys, values);
+        });
+    }
+
+    private static Map<Integer, Aggregate> denseGroupBy(int[] rows, int[] keys, int[] values, int offset, int range) {
+        long[] counts = new long[range];
+        long[] sums = new long[range];
+        for (int i = 0; i < rows.length; i++) {
+            int slot = keys[i] - offset;
+            if (values == null) {
+                counts[slot]++;
+            } else if (values[rows[i]] != ReservationColumnStore.NULL) {
+                counts[slot]++;
+                sums[slot] += values[rows[i]];
+            }
+        }
+        Map<Integer, Aggregate> groups = new TreeMap<>();
+        for (int slot = 0; slot < range; slot++) {
+            if (counts[slot] > 0) {
+                groups.put(slot + offset, new Aggregate(counts[slot], sums[slot]));
+            }
+        }
+        return groups;
+    }
+
+    private static Map<Integer, Aggregate> hashGroupBy(int[] rows, int[] keys, int[] values) {
+        Map<Integer, long[]> totals = new HashMap<>();
+        for (int i = 0; i < rows.length; i++) {
+            if (values != null && values[rows[i]] == ReservationColumnStore.NULL) continue;
+            long[] total = totals.computeIfAbsent(keys[i], k -> new long[2]);
+            total[0]++;
+            total[1] += values == null ? 0 : values[rows[i]];
+        }
+        Map<Integer, Aggregate> groups = new TreeMap<>();
+        totals.forEach((k, total) -> groups.put(k, new Aggregate(total[0], total[1])));
+        return groups;
+    }
+
+    // === EXECUTION ===
+
+    /**
+     * Applies the filters in order; the first scans the whole column, the rest only the surviving rows.
+     */
+    private int[] select(int size) {
+        int[] rows = null;
+        int count = size;
+        for (Filter filter : filters) {
+            if (rows == null) {
+                rows = new int[size];
+                count = filter.scan(size, rows);
+            } else {
+                count = filter.refine(rows, count);
+            }
+        }
+        if (rows == null) {
+            rows = new int[size];
+            for (int row = 0; row < size; row++) rows[row] = row;
+            return rows;
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    private int[] keysOf(Column key, int[] rows) {
+        int[] keys = new int[rows.length];
+        if (key.isByte) {
+            byte[] column = store.byteColumn(key);
+            for (int i = 0; i < rows.length; i++) keys[i] = column[rows[i]];
+        } else {
+            int[] column = store.intColumn(key);
+            for (int i = 0; i < rows.length; i++) keys[i] = column[rows[i]];
+        }
+        return keys;
+    }
+
+    private static void requireInt(Column column) {
+        if (column.isByte) {
+            throw new IllegalArgumentException(column + " is not an int column");
+        }
+    }
+
+    private interface Filter {
+        /** Writes matching row numbers of the first size rows into out and returns how many matched. */
+        int scan(int size, int[] out);
+
+        /** Compacts the first count entries of rows to those that match and returns how many remain. */
+        int refine(int[] rows, int count);
+    }
+
+    private class RangeFilter implements Filter {
+        private final Column column;
+        private final int from;
+        private final int to;
+
+        RangeFilter(Column column, int from, int to) {
+            this.column = column;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public int scan(int size, int[] out) {
+            int[] values = store.intColumn(column);
+            int n = 0;
+            for (int row = 0; row < size; row++) {
+                int v = values[row];
+                out[n] = row;
+                n += (v >= from & v < to) ? 1 : 0;
+            }
+            return n;
+        }
+
+        @Override
+        public int refine(int[] rows, int count) {
+            int[] values = store.intColumn(column);
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                int row = rows[i];
+                int v = values[row];
+                rows[n] = row;
+                n += (v >= from & v < to) ? 1 : 0;
+            }
+            return n;
+        }
+    }
+
+    private class CodeFilter implements Filter {
+        private final Column column;
+        private final boolean[] accepted;
+
+        CodeFilter(Column column, boolean[] accepted) {
+            this.column = column;
+            this.accepted = accepted;
+        }
+
+        @Override
+        public int scan(int size, int[] out) {
+            byte[] values = store.byteColumn(column);
+            int n = 0;
+            for (int row = 0; row < size; row++) {
+                out[n] = row;
+                n += accepted[values[row] & 0xFF] ? 1 : 0;
+            }
+            return n;
+        }
+
+        @Override
+        public int refine(int[] rows, int count) {
+            byte[] values = store.byteColumn(column);
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                int row = rows[i];
+                rows[n] = row;
+                n += accepted[values[row] & 0xFF] ? 1 : 0;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package Service.Analytics;
+
+import DAO.DBConnectionUtil;
+import DAO.ParkingDAO;
+import Model.DTO.DurationReportDTO;
+import Model.DTO.OccupancyReportDTO;
+import Model.DTO.RevenueReportDTO;
+import Model.DTO.SlotUtilizationDTO;
+import Model.Entity.Branch;
+import Model.Entity.Payment.PaymentStatus;
+import Model.Entity.ReservationStatus;
+import Model.Entity.SlotType;
+import Service.Analytics.ColumnQuery.Aggregate;
+import Service.Analytics.ReservationColumnStore.Column;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The four monthly admin reports answered from the ReservationColumnStore instead of ReportDAO's
+ * joins. Each returns the same rows as its ReportDAO counterpart.
+ *
+ * Off by default; enable with reports.columnar=true in db.properties.
+ */
+public class ColumnarReports {
+
+    private static final String ENABLED_PROPERTY = "reports.columnar";
+
+    private final ReservationColumnStore store;
+    private final ParkingDAO parkingDAO;
+
+    public ColumnarReports() {
+        this.store = ReservationColumnStore.getInstance();
+        this.parkingDAO = new ParkingDAO();
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(DBConnectionUtil.getProperty(ENABLED_PROPERTY, "false"));
+    }
+
+    public List<OccupancyReportDTO> getOccupancyReport(int month, int year) {
+        Map<Integer, Long> counts = store.query()
+                .between(Column.RESERVED_AT, monthStart(month, year), monthEnd(month, year))
+                .in(Column.STATUS, ReservationStatus.ACTIVE, ReservationStatus.COMPLETED)
+                .groupCount(Column.BRANCH);
+
+        List<OccupancyReportDTO> report = new ArrayList<>();
+        Map<Integer, Branch> branches = branchesByID();
+        counts.forEach((branchID, count) -> {
+            Branch branch = branches.get(branchID);
+            if (branch != null) {
+                report.add(new OccupancyReportDTO(branch.getName(), branch.getMax_slots(), count.intValue()));
+            }
+        });
+        return report;
+    }
+
+    public List<RevenueReportDTO> getRevenueReport(int month, int year) {
+        Map<Integer, Aggregate> revenue = store.query()
+                .between(Column.PAYMENT_AT, monthStart(month, year), monthEnd(month, year))
+                .in(Column.PAYMENT_STATUS, PaymentStatus.PAID)
+                .groupBy(Column.BRANCH, Column.PAID_CENTS);
+
+        List<RevenueReportDTO> report = new ArrayList<>();
+        Map<Integer, Branch> branches = branchesByID();
+        revenue.forEach((branchID, total) -> {
+            Branch branch = branches.get(branchID);
+            if (branch != null) {
+                report.add(new RevenueReportDTO(
+                        branch.getName(),
+                        BigDecimal.valueOf(total.sum(), 2),
+                        BigDecimal.valueOf(total.sum(), 2).divide(BigDecimal.valueOf(total.count()), 6, RoundingMode.HALF_UP)
+                ));
+            }
+        });
+        return report;
+    }
+
+    public List<DurationReportDTO> getDurationReport(int month, int year) {
+        Map<Integer, Aggregate> durations = store.query()
+                .between(Column.TIME_OUT_AT, monthStart(month, year), monthEnd(month, year))
+                .in(Column.STATUS, ReservationStatus.COMPLETED)
+                .groupBy(Column.BRANCH, Column.STAY_MINUTES);
+
+        List<DurationReportDTO> report = new ArrayList<>();
+        Map<Integer, Branch> branches = branchesByID();
+        durations.forEach((branchID, stays) -> {
+            Branch branch = branches.get(branchID);
+            if (branch != null) {
+                report.add(new DurationReportDTO(branch.getName(), stays.average()));
+            }
+        });
+        return report;
+    }
+
+    public List<SlotUtilizationDTO> getSlotUtilizationReport(int month, int year) {
+        Map<Integer, Long> counts = store.query()
+                .between(Column.RESERVED_AT, monthStart(month, year), monthEnd(month, year))
+                .groupCount(Column.SLOT_TYPE);
+
+        List<SlotUtilizationDTO> report = new ArrayList<>();
+        SlotType[] types = SlotType.values();
+        counts.forEach((code, count) -> report.add(new SlotUtilizationDTO(
+                code >= 0 && code < types.length ? types[code] : null,
+                count.intValue()
+        )));
+        return report;
+    }
+
+    private Map<Integer, Branch> branchesByID() {
+        Map<Integer, Branch> branches = new HashMap<>();
+        for (Branch branch : parkingDAO.getAllBranches()) {
+            branches.put(branch.getBranch_ID(), branch);
+        }
+        return branches;
+    }
+
+    private static LocalDateTime monthStart(int month, int year) {
+        return YearMonth.of(year, month).atDay(1).atStartOfDay();
+    }
+
+    private static LocalDateTime monthEnd(int month, int year) {
+        return YearMonth.of(year, month).plusMonths(1).atDay(1).atStartOfDay();
+    }
+}
@@ -0,0 +1,195 @@
+package Service.Analytics;
+
+import DAO.ReportDAO;
+import Model.DTO.DemandForecastDTO;
+import Model.Entity.SlotType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Forecasts hourly reservation demand per branch and slot type for the next HORIZON_DAYS days.
+ *
+ * Demand is the number of non-cancelled reservations intended to start in each hour. Each
+ * (branch, slot type) gets a Holt-Winters model with a one-week season, so hour-of-day and
+ * day-of-week patterns are both learned. Every series starts on a Monday 00:00, which keeps
+ * the position in the season equal to the hour of the week.
+ *
+ * Models are trained on up to HISTORY_YEARS of closed days the first time a forecast is asked
+ * for. After that, each call first feeds in the days that closed since the last one.
+ */
+public class DemandForecaster {
+
+    public static final int HORIZON_DAYS = 7;
+    private static final int HISTORY_YEARS = 3;
+    private static final int SEASON_HOURS = 7 * 24;
+    // 1970-01-01 was a Thursday, 72 hours after the Monday that starts its week
+    private static final int EPOCH_HOUR_OF_WEEK = 72;
+
+    private record SeriesKey(int branchID, SlotType slotType) {}
+
+    private static volatile DemandForecaster instance;
+
+    private final ReportDAO reportDAO;
+    private final Map<SeriesKey, HoltWinters> models = new HashMap<>();
+    // Models have seen every hour before this one (epoch hours; always a midnight)
+    private long trainedThroughHour = -1;
+
+    private DemandForecaster() {
+        this.reportDAO = new ReportDAO();
+    }
+
+    public static DemandForecaster getInstance() {
+        if (instance == null) {
+            synchronized (DemandForecaster.class) {
+                if (instance == null) {
+                    instance = new DemandForecaster();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Expected reservations for each hour of the next HORIZON_DAYS days, starting today at 00:00.
+     * All zeros if the branch has no history for the slot type.
+     */
+    public synchronized double[] hourlyForecast(int branchID, SlotType slotType) {
+        double[] hourly = new double[HORIZON_DAYS * 24];
+        if (!refresh()) return hourly;
+
+        HoltWinters model = models.get(new SeriesKey(branchID, slotType));
+        if (model != null) {
+            for (int h = 0; h < hourly.length; h++) {
+                hourly[h] = model.forecast(h + 1);
+            }
+        }
+        return hourly;
+    }
+
+    /**
+     * Per day and slot type: expected reservations and the busiest hour.
+     */
+    public List<DemandForecastDTO> dailyForecast(int branchID) {
+        List<DemandForecastDTO> forecast = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (SlotType slotType : SlotType.values()) {
+            double[] hourly = hourlyForecast(branchID, slotType);
+            for (int day = 0; day < HORIZON_DAYS; day++) {
+                double total = 0;
+                int peakHour = 0;
+                for (int hour = 0; hour < 24; hour++) {
+                    double value = hourly[day * 24 + hour];
+                    total += value;
+                    if (value > hourly[day * 24 + peakHour]) peakHour = hour;
+                }
+                forecast.add(new DemandForecastDTO(branchID, slotType, today.plusDays(day), total,
+                        peakHour, hourly[day * 24 + peakHour]));
+            }
+        }
+        return forecast;
+    }
+
+    // === TRAINING ===
+
+    /**
+     * Trains the models, or feeds them the days closed since they were last updated.
+     *
+     * @return false if the history could not be read
+     */
+    public synchronized boolean refresh() {
+        LocalDateTime midnight = LocalDate.now().atStartOfDay();
+        long closedHour = toHour(midnight);
+        if (trainedThroughHour == closedHour) {
+            return true;
+        }
+        if (trainedThroughHour < 0) {
+            return train(midnight.minusYears(HISTORY_YEARS), midnight);
+        }
+        return catchUp(closedHour);
+    }
+
+    private boolean train(LocalDateTime from, LocalDateTime to) {
+        long started = System.nanoTime();
+        Map<SeriesKey, HourList> samples = new HashMap<>();
+        boolean loaded = reportDAO.streamDemandSamples(from, to, (id, branchID, slotType, hour) ->
+                samples.computeIfAbsent(new SeriesKey(branchID, slotType), k -> new HourList()).add(hour));
+        if (!loaded) return false;
+
+        long endHour = toHour(to);
+        models.clear();
+        for (Map.Entry<SeriesKey, HourList> series : samples.entrySet()) {
+            long startHour = startOfWeek(series.getValue().min());
+            int[] counts = new int[(int) (endHour - startHour)];
+            series.getValue().forEach(hour -> counts[(int) (hour - startHour)]++);
+            models.put(series.getKey(), HoltWinters.fit(counts, SEASON_HOURS));
+        }
+        trainedThroughHour = endHour;
+        System.out.printf("DemandForecaster: trained %d series in %d ms%n",
+                models.size(), (System.nanoTime() - started) / 1_000_000);
+        return true;
+    }
+
+    /**
+     * Feeds every model the hours between its last update and closedHour, zero where nothing was booked.
+     * A branch or slot type seen for the first time needs its own start week, so that triggers a retrain.
+     */
+    private boolean catchUp(long closedHour) {
+        LocalDateTime from = LocalDateTime.ofEpochSecond(trainedThroughHour * 3600, 0, ZoneOffset.UTC);
+        LocalDateTime to = LocalDateTime.ofEpochSecond(closedHour * 3600, 0, ZoneOffset.UTC);
+        int hours = (int) (closedHour - trainedThroughHour);
+
+        Map<SeriesKey, int[]> counts = new HashMap<>();
+        boolean loaded = reportDAO.streamDemandSamples(from, to, (id, branchID, slotType, hour) ->
+                counts.computeIfAbsent(new SeriesKey(branchID, slotType), k -> new int[hours])[(int) (hour - trainedThroughHour)]++);
+        if (!loaded) return false;
+
+        if (!models.keySet().containsAll(counts.keySet())) {
+            LocalDateTime midnight = LocalDateTime.ofEpochSecond(closedHour * 3600, 0, ZoneOffset.UTC);
+            return train(midnight.minusYears(HISTORY_YEARS), midnight);
+        }
+        int[] none = new int[hours];
+        models.forEach((key, model) -> {
+            for (int value : counts.getOrDefault(key, none)) {
+                model.update(value);
+            }
+        });
+        trainedThroughHour = closedHour;
+        return true;
+    }
+
+    private static long toHour(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 3600;
+    }
+
+    private static long startOfWeek(long hour) {
+        return hour - Math.floorMod(hour + EPOCH_HOUR_OF_WEEK, SEASON_HOURS);
+    }
+
+    /**
+     * Growable array of epoch hours.
+     */
+    private static class HourList {
+        private long[] hours = new long[64];
+        private int size;
+        private long min = Long.MAX_VALUE;
+
+        void add(long hour) {
+            if (size == hours.length) hours = Arrays.copyOf(hours, size * 2);
+            hours[size++] = hour;
+            min = Math.min(min, hour);
+        }
+
+        long min() { return min; }
+
+        void forEach(java.util.function.LongConsumer action) {
+            for (int i = 0; i < size; i++) action.accept(hours[i]);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package Service.Analytics;
+
+import DAO.ParkingDAO;
+import DAO.PaymentDAO;
+import DAO.ReportDAO;
+import DAO.ReservationDAO;
+import Model.DTO.DurationDistributionDTO;
+import Model.DTO.PaymentDistributionDTO;
+import Model.Entity.Branch;
+import Model.Entity.ParkingSlot;
+import Model.Entity.Payment;
+import Model.Entity.Payment.PaymentStatus;
+import Model.Entity.Reservation;
+import Model.Entity.ReservationStatus;
+import Model.Entity.SlotType;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.ChangeEvent;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Parking duration and payment amount distributions per branch and slot type.
+ *
+ * Each month keeps one LogLinearHistogram per (branch, slot type) for stay lengths and one for
+ * paid amounts. A month is built from the database the first time it is asked for and is then
+ * kept up to date from ChangeNotifier events: completed stays and paid payments are recorded as
+ * they happen, so a report only walks the histogram buckets. Branch and all-branch rows are
+ * the slot type histograms merged together.
+ *
+ * Histograms cannot forget a value, so a refund or an expiry sweep marks the month stale and it
+ * is rebuilt on the next request.
+ */
+public class DistributionService implements ChangeNotifier.ChangeListener {
+
+    private static final String ALL = "All";
+    private static final int MAX_CACHED_MONTHS = 24;
+
+    // Payment histogram ranges in centavos: 0, 50, 100, 200, 500, 1000, 2000, 5000 pesos and up
+    private static final long[] PAYMENT_EDGES = {0, 5_000, 10_000, 20_000, 50_000, 100_000, 200_000, 500_000};
+
+    private record SketchKey(int branchID, SlotType slotType) {}
+
+    /**
+     * The sketches of one month. Guarded by its own monitor.
+     */
+    private static class MonthSketches {
+        final Map<SketchKey, LogLinearHistogram> durations = new HashMap<>();
+        final Map<SketchKey, LogLinearHistogram> payments = new HashMap<>();
+        // Rows already recorded, so an event for a row the initial load also read is not counted twice
+        final Set<Integer> countedReservations = new HashSet<>();
+        final Set<Integer> countedPayments = new HashSet<>();
+        volatile boolean stale;
+
+        void recordDuration(int reservationID, SketchKey key, long minutes) {
+            if (countedReservations.add(reservationID)) {
+                durations.computeIfAbsent(key, k -> new LogLinearHistogram()).record(minutes);
+            }
+        }
+
+        void recordPayment(int paymentID, SketchKey key, long centavos) {
+            if (countedPayments.add(paymentID)) {
+                payments.computeIfAbsent(key, k -> new LogLinearHistogram()).record(centavos);
+            }
+        }
+    }
+
+    private static volatile DistributionService instance;
+
+    private final Map<YearMonth, MonthSketches> months = new ConcurrentHashMap<>();
+    private final Map<String, SketchKey> slotKeys = new ConcurrentHashMap<>();
+    private final ReportDAO reportDAO;
+    private final ParkingDAO parkingDAO;
+    private final ReservationDAO reservationDAO;
+    private final PaymentDAO paymentDAO;
+
+    private DistributionService() {
+        this.reportDAO = new ReportDAO();
+        this.parkingDAO = new ParkingDAO();
+        this.reservationDAO = new ReservationDAO();
+        this.paymentDAO = new PaymentDAO();
+    }
+
+    public static DistributionService getInstance() {
+        if (instance == null) {
+            synchronized (DistributionService.class) {
+                if (instance == null) {
+                    DistributionService service = new DistributionService();
+                    ChangeNotifier.subscribe(service);
+                    instance = service;
+                }
+            }
+        }
+        return instance;
+    }
+
+    // === REPORTS ===
+
+    /**
+     * Median, 90th and 99th percentile stay per branch and slot type for stays that ended in the month,
+     * followed by a row per branch and one for all branches.
+     */
+    public List<DurationDistributionDTO> getDurationDistribution(int month, int year) {
+        Optional<MonthSketches> sketches = sketchesFor(YearMonth.of(year, month));
+        if (sketches.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<SketchKey, LogLinearHistogram> snapshot;
+        synchronized (sketches.get()) {
+            snapshot = copy(sketches.get().durations);
+        }
+        return rollUp(snapshot, (branch, slotType, h) -> new DurationDistributionDTO(
+                branch, slotType, h.getCount(),
+                h.valueAtPercentile(50), h.valueAtPercentile(90), h.valueAtPercentile(99), h.getMax()));
+    }
+
+    /**
+     * Payment amount percentiles and a histogram per branch and slot type for payments made in the month,
+     * followed by a row per branch and one for all branches.
+     */
+    public List<PaymentDistributionDTO> getPaymentDistribution(int month, int year) {
+        Optional<MonthSketches> sketches = sketchesFor(YearMonth.of(year, month));
+        if (sketches.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<SketchKey, LogLinearHistogram> snapshot;
+        synchronized (sketches.get()) {
+            snapshot = copy(sketches.get().payments);
+        }
+        return rollUp(snapshot, (branch, slotType, h) -> new PaymentDistributionDTO(
+                branch, slotType, h.getCount(),
+                pesos(h.valueAtPercentile(50)), pesos(h.valueAtPercentile(90)), pesos(h.valueAtPercentile(99)),
+                describeHistogram(h)));
+    }
+
+    private interface RowFactory<T> {
+        T create(String branchName, String slotType, LogLinearHistogram histogram);
+    }
+
+    /**
+     * One row per (branch, slot type), a merged row per branch, and a merged row for every branch.
+     */
+    private <T> List<T> rollUp(Map<SketchKey, LogLinearHistogram> sketches, RowFactory<T> rows) {
+        Map<Integer, String> branchNames = new HashMap<>();
+        for (Branch branch : parkingDAO.getAllBranches()) {
+            branchNames.put(branch.getBranch_ID(), branch.getName());
+        }
+        Function<Integer, String> nameOf = id -> branchNames.getOrDefault(id, "Branch #" + id);
+
+        Map<String, Map<SlotType, LogLinearHistogram>> byBranch = new TreeMap<>();
+        Map<String, LogLinearHistogram> branchTotals = new HashMap<>();
+        for (Map.Entry<SketchKey, LogLinearHistogram> entry : sketches.entrySet()) {
+            String branch = nameOf.apply(entry.getKey().branchID());
+            byBranch.computeIfAbsent(branch, b -> new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder())))
+                    .put(entry.getKey().slotType(), entry.getValue());
+            branchTotals.computeIfAbsent(branch, b -> new LogLinearHistogram()).merge(entry.getValue());
+        }
+
+        List<T> report = new ArrayList<>();
+        LogLinearHistogram everything = new LogLinearHistogram();
+        for (Map.Entry<String, Map<SlotType, LogLinearHistogram>> branch : byBranch.entrySet()) {
+            for (Map.Entry<SlotType, LogLinearHistogram> slot : branch.getValue().entrySet()) {
+                report.add(rows.create(branch.getKey(), String.valueOf(slot.getKey()), slot.getValue()));
+            }
+            LogLinearHistogram total = branchTotals.get(branch.getKey());
+            report.add(rows.create(branch.getKey(), ALL, total));
+            everything.merge(total);
+        }
+        if (byBranch.size() > 1) {
+            report.add(rows.create("All Branches", ALL, everything));
+        }
+        return report;
+    }
+
+    private static Map<SketchKey, LogLinearHistogram> copy(Map<SketchKey, LogLinearHistogram> sketches) {
+        Map<SketchKey, LogLinearHistogram> copy = new HashMap<>();
+        sketches.forEach((key, histogram) -> {
+            LogLinearHistogram clone = new LogLinearHistogram();
+            clone.merge(histogram);
+            copy.put(key, clone);
+        });
+        return copy;
+    }
+
+    private static BigDecimal pesos(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    private static String describeHistogram(LogLinearHistogram histogram) {
+        long[] counts = histogram.countsBetween(PAYMENT_EDGES);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            if (text.length() > 0) text.append(", ");
+            long from = PAYMENT_EDGES[i] / 100;
+            if (i + 1 < PAYMENT_EDGES.length) {
+                text.append(String.format("₱%,d-%,d: %d", from, PAYMENT_EDGES[i + 1] / 100, counts[i]));
+            } else {
+                text.append(String.format("₱%,d+: %d", from, counts[i]));
+            }
+        }
+        return text.toString();
+    }
+
+    // === LOADING ===
+
+    /**
+     * Returns the month's sketches, building them from the database if they are missing or stale.
+     * The month is registered before it is read, so events that arrive during the load wait on its
+     * monitor and are applied afterwards instead of being lost.
+     */
+    private Optional<MonthSketches> sketchesFor(YearMonth month) {
+        MonthSketches sketches = months.get(month);
+        if (sketches != null && !sketches.stale) {
+            return Optional.of(sketches);
+        }
+
+        // The duration and payment reports usually ask for the same month at once; load it only once
+        synchronized (this) {
+            sketches = months.get(month);
+            if (sketches != null && !sketches.stale) {
+                return Optional.of(sketches);
+            }
+
+            MonthSketches fresh = new MonthSketches();
+            synchronized (fresh) {
+                months.put(month, fresh);
+                boolean loaded = reportDAO.streamDurationSamples(month.getMonthValue(), month.getYear(),
+                                (id, branchID, slotType, minutes) -> fresh.recordDuration(id, new SketchKey(branchID, slotType), minutes))
+                        && reportDAO.streamPaymentSamples(month.getMonthValue(), month.getYear(),
+                                (id, branchID, slotType, centavos) -> fresh.recordPayment(id, new SketchKey(branchID, slotType), centavos));
+                if (!loaded) {
+                    months.remove(month, fresh);
+                    return Optional.empty();
+                }
+            }
+            evictOldMonths(month);
+            return Optional.of(fresh);
+        }
+    }
+
+    private void evictOldMonths(YearMonth keep) {
+        while (months.size() > MAX_CACHED_MONTHS) {
+            months.keySet().stream()
+                    .filter(month -> !month.equals(keep))
+                    .min(Comparator.naturalOrder())
+                    .ifPresent(months::remove);
+        }
+    }
+
+    // === INCREMENTAL UPDATES ===
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        if (months.isEmpty()) return;
+        try {
+            switch (event.topic()) {
+                case RESERVATION -> onReservationChange(event);
+                case PAYMENT -> onPaymentChange(event);
+                case SLOT -> slotKeys.clear();
+                default -> { }
+            }
+        } catch (SQLException e) {
+            System.err.println("DistributionService Error applying " + event + ": " + e.getMessage());
+        }
+    }
+
+    private void onReservationChange(ChangeEvent event) throws SQLException {
+        if (event.id() == ChangeNotifier.ALL) {
+            // Expiry sweep: completes reservations in bulk, rebuild the months it can touch
+            markStale(YearMonth.now());
+            markStale(YearMonth.now().minusMonths(1));
+            return;
+        }
+
+        Optional<Reservation> reservation = event.entity() instanceof Reservation r
+                ? Optional.of(r)
+                : reservationDAO.getReservationByID(event.id());
+        if (reservation.isEmpty() || reservation.get().getStatus() != ReservationStatus.COMPLETED
+                || reservation.get().getCheckInTime() == null || reservation.get().getTimeOut() == null) {
+            return;
+        }
+        Reservation r = reservation.get();
+        MonthSketches sketches = months.get(YearMonth.from(r.getTimeOut()));
+        if (sketches == null) return;
+
+        Optional<SketchKey> key = keyForSpot(r.getSpotID());
+        if (key.isEmpty()) return;
+        long minutes = Math.max(0, Duration.between(r.getCheckInTime(), r.getTimeOut()).toMinutes());
+        synchronized (sketches) {
+            sketches.recordDuration(r.getReservationID(), key.get(), minutes);
+        }
+    }
+
+    /**
+     * Records newly paid payments; a counted payment that is no longer paid (a refund) marks its month stale.
+     */
+    private void onPaymentChange(ChangeEvent event) throws SQLException {
+        Optional<Payment> payment = event.entity() instanceof Payment p
+                ? Optional.of(p)
+                : paymentDAO.getPaymentById(event.id());
+        if (payment.isEmpty() || payment.get().getPayment_date() == null) return;
+        Payment p = payment.get();
+        YearMonth month = YearMonth.from(p.getPayment_date());
+        MonthSketches sketches = months.get(month);
+        if (sketches == null) return;
+
+        if (p.getPayment_status() != PaymentStatus.PAID || p.getAmount_paid() == null) {
+            boolean counted;
+            synchronized (sketches) {
+                counted = sketches.countedPayments.contains(p.getPayment_ID());
+            }
+            if (counted) markStale(month);
+            return;
+        }
+
+        Optional<Reservation> reservation = reservationDAO.getReservationByID(p.getTransact_ID());
+        if (reservation.isEmpty()) return;
+        Optional<SketchKey> key = keyForSpot(reservation.get().getSpotID());
+        if (key.isEmpty()) return;
+        long centavos = p.getAmount_paid().movePointRight(2).longValue();
+        synchronized (sketches) {
+            sketches.recordPayment(p.getPayment_ID(), key.get(), Math.max(0, centavos));
+        }
+    }
+
+    private Optional<SketchKey> keyForSpot(String spotID) throws SQLException {
+        SketchKey key = slotKeys.get(spotID);
+        if (key == null) {
+            Optional<ParkingSlot> slot = parkingDAO.getSlotByID(spotID);
+            if (slot.isEmpty()) return Optional.empty();
+            key = new SketchKey(slot.get().getBranch_ID(), slot.get().getSlot_type());
+            slotKeys.put(spotID, key);
+        }
+        return Optional.of(key);
+    }
+
+    private void markStale(YearMonth month) {
+        MonthSketches sketches = months.get(month);
+        if (sketches != null) {
+            sketches.stale = true;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package Service.Analytics;
+
+/**
+ * Additive Holt-Winters (triple exponential smoothing) over a series with a fixed season length.
+ *
+ * The model keeps a level, a trend and one seasonal offset per position in the season, and is
+ * updated one observation at a time in O(1), so it can be trained once on the full history and
+ * then fed each new period as it closes. {@link #fit} picks the smoothing constants from a small
+ * grid by one-step-ahead squared error.
+ *
+ * Not thread safe; callers synchronize.
+ */
+public class HoltWinters {
+
+    private static final double[] ALPHAS = {0.05, 0.1, 0.2, 0.4};
+    private static final double[] BETAS = {0.0, 0.005, 0.02};
+    private static final double[] GAMMAS = {0.05, 0.1, 0.25};
+
+    private final int seasonLength;
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+
+    private double level;
+    private double trend;
+    private final double[] season;
+    private long observed;
+
+    public HoltWinters(int seasonLength, double alpha, double beta, double gamma) {
+        this.seasonLength = seasonLength;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+        this.season = new double[seasonLength];
+    }
+
+    /**
+     * Trains a model on the history, trying each combination of smoothing constants and keeping the one
+     * with the lowest one-step-ahead squared error. The returned model has consumed the whole history.
+     */
+    public static HoltWinters fit(int[] history, int seasonLength) {
+        double bestError = Double.MAX_VALUE;
+        double[] best = {0.2, 0.0, 0.1};
+        // Two seasons go to initialization; without a third there is nothing to score the constants on
+        if (history.length >= 3 * seasonLength) {
+            for (double alpha : ALPHAS) {
+                for (double beta : BETAS) {
+                    for (double gamma : GAMMAS) {
+                        double error = new HoltWinters(seasonLength, alpha, beta, gamma).train(history);
+                        if (error < bestError) {
+                            bestError = error;
+                            best = new double[]{alpha, beta, gamma};
+                        }
+                    }
+                }
+            }
+        }
+        HoltWinters model = new HoltWinters(seasonLength, best[0], best[1], best[2]);
+        model.train(history);
+        return model;
+    }
+
+    /**
+     * Initializes from the first two seasons, then updates with the rest.
+     *
+     * @return The sum of squared one-step-ahead errors after initialization
+     */
+    private double train(int[] history) {
+        initialize(history);
+        double error = 0;
+        for (int t = (int) observed; t < history.length; t++) {
+            double residual = history[t] - forecast(1);
+            error += residual * residual;
+            update(history[t]);
+        }
+        return error;
+    }
+
+    private void initialize(int[] history) {
+        int m = seasonLength;
+        if (history.length >= 2 * m) {
+            double first = mean(history, 0, m);
+            double second = mean(history, m, 2 * m);
+            trend = (second - first) / m;
+            for (int i = 0; i < m; i++) {
+                season[i] = (history[i] - first + history[i + m] - second) / 2.0;
+            }
+            level = second + trend * (m - 1) / 2.0;
+            observed = 2L * m;
+        } else {
+            // Short history: flat seasonality around the mean, learned as data arrives
+            level = history.length == 0 ? 0 : mean(history, 0, history.length);
+            trend = 0;
+            observed = 0;
+            for (int t = 0; t < history.length; t++) {
+                update(history[t]);
+            }
+        }
+    }
+
+    /**
+     * Adds the next observation of the series.
+     */
+    public void update(double value) {
+        int s = (int) (observed % seasonLength);
+        double previousLevel = level;
+        level = alpha * (value - season[s]) + (1 - alpha) * (level + trend);
+        trend = beta * (level - previousLevel) + (1 - beta) * trend;
+        season[s] = gamma * (value - level) + (1 - gamma) * season[s];
+        observed++;
+    }
+
+    /**
+     * Expected value stepsAhead observations after the last one (1 is the next), never below zero.
+     */
+    public double forecast(int stepsAhead) {
+        int s = (int) ((observed + stepsAhead - 1) % seasonLength);
+        return Math.max(0, level + stepsAhead * trend + season[s]);
+    }
+
+    public long getObserved() { return observed; }
+
+    private static double mean(int[] values, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) sum += values[i];
+        return (double) sum / (to - from);
+    }
+}
@@ -0,0 +1,131 @@
+package Service.Analytics;
+
+import java.util.Arrays;
+
+/**
+ * A small HDR-style histogram of non-negative long values.
+ *
+ * Values below SUB_BUCKETS are counted exactly. Above that, every power of two is split into
+ * SUB_BUCKETS equal buckets, so any recorded value is known to within 1/SUB_BUCKETS (about 3%)
+ * no matter how large it is. Recording is O(1), percentiles cost one pass over the buckets,
+ * and two histograms merge by adding their bucket counts, which makes per-branch sketches
+ * cheap to combine into per-branch totals or an all-branch figure.
+ *
+ * Not thread safe; callers synchronize.
+ */
+public class LogLinearHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private long[] counts = new long[SUB_BUCKETS * 4];
+    private long totalCount;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Histogram values cannot be negative: " + value);
+        }
+        int index = bucketIndex(value);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+        }
+        counts[index]++;
+        totalCount++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds every value recorded in the other histogram to this one.
+     */
+    public void merge(LogLinearHistogram other) {
+        if (other.totalCount == 0) return;
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() { return totalCount; }
+    public long getMin() { return totalCount == 0 ? 0 : min; }
+    public long getMax() { return max; }
+    public double getMean() { return totalCount == 0 ? 0 : (double) sum / totalCount; }
+
+    /**
+     * Returns the value at the given percentile (0-100), accurate to the bucket width.
+     */
+    public long valueAtPercentile(double percentile) {
+        if (totalCount == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        if (rank >= totalCount) return max;
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // Middle of the bucket, but never outside what was actually recorded
+                long middle = lowerBound(i) + (upperBound(i) - lowerBound(i)) / 2;
+                return Math.max(getMin(), Math.min(max, middle));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Counts the values falling into each range [edges[i], edges[i + 1]); the last range is open ended.
+     * A bucket straddling an edge is counted in the range holding its lower bound.
+     */
+    public long[] countsBetween(long[] edges) {
+        long[] result = new long[edges.length];
+        int range = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            long lower = lowerBound(i);
+            while (range + 1 < edges.length && lower >= edges[range + 1]) {
+                range++;
+            }
+            if (lower >= edges[0]) {
+                result[range] += counts[i];
+            }
+        }
+        return result;
+    }
+
+    // === BUCKET LAYOUT ===
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << shift;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        return lowerBound(index) + (1L << shift) - 1;
+    }
+}
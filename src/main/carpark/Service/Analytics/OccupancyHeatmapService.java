@@ -0,0 +1,182 @@
+package Service.Analytics;
+
+import DAO.ParkingDAO;
+import DAO.ReportDAO;
+import Model.DTO.OccupancyHeatmapDTO;
+import Model.Entity.Branch;
+import Model.Entity.SlotType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static Model.DTO.OccupancyHeatmapDTO.BUCKETS_PER_DAY;
+import static Model.DTO.OccupancyHeatmapDTO.BUCKET_MINUTES;
+
+/**
+ * Builds hour-of-day by day-of-week occupancy heatmaps from check-in/check-out times.
+ *
+ * Each stay is an interval; the check-ins and check-outs are sorted separately and swept once in
+ * time order, keeping a running count of parked vehicles. The highest count reached inside each
+ * 15-minute bucket is that bucket's occupancy, so a car parked from 9:05 to 9:10 still shows up,
+ * and a bucket with no arrivals or departures carries the count from before it. The buckets are
+ * then folded onto the week (Monday 00:00 to Sunday 23:45) as average and peak.
+ */
+public class OccupancyHeatmapService {
+
+    private static final long BUCKET_SECONDS = BUCKET_MINUTES * 60L;
+
+    private final ReportDAO reportDAO;
+    private final ParkingDAO parkingDAO;
+
+    public OccupancyHeatmapService() {
+        this.reportDAO = new ReportDAO();
+        this.parkingDAO = new ParkingDAO();
+    }
+
+    /**
+     * Builds the heatmap for the branch over the days from..to (inclusive).
+     *
+     * @param slotType The slot type, or null for the whole branch
+     * @return The heatmap, or empty if the branch does not exist or the stays could not be read
+     */
+    public Optional<OccupancyHeatmapDTO> buildHeatmap(int branchID, SlotType slotType, LocalDate from, LocalDate to) {
+        Optional<Branch> branch = parkingDAO.getAllBranches().stream()
+                .filter(b -> b.getBranch_ID() == branchID)
+                .findFirst();
+        if (branch.isEmpty() || to.isBefore(from)) {
+            return Optional.empty();
+        }
+
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        // Nothing after now has happened yet; leave those buckets out of the averages
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime sweepEnd = end.isAfter(now) ? now : end;
+        long startSecond = toSecond(start);
+        long endSecond = toSecond(sweepEnd);
+
+        Intervals intervals = new Intervals();
+        boolean loaded = reportDAO.streamOccupancyIntervals(branchID, slotType, start, end, (checkIn, checkOut) -> {
+            long in = Math.max(startSecond, toSecond(checkIn));
+            long out = Math.min(endSecond, checkOut == null ? endSecond : toSecond(checkOut));
+            if (out > in) {
+                intervals.add(in, out);
+            }
+        });
+        if (!loaded) {
+            return Optional.empty();
+        }
+
+        int buckets = (int) Math.max(0, (endSecond - startSecond + BUCKET_SECONDS - 1) / BUCKET_SECONDS);
+        int[] occupancy = peakPerBucket(intervals.starts(), intervals.ends(), startSecond, buckets);
+
+        int capacity = (int) parkingDAO.getAllSlots().stream()
+                .filter(slot -> slot.getBranch_ID() == branchID)
+                .filter(slot -> slotType == null || slot.getSlot_type() == slotType)
+                .count();
+
+        return Optional.of(foldOntoWeek(branch.get().getName(), slotType, from, to, capacity, start, occupancy));
+    }
+
+    /**
+     * Sweeps sorted check-in and check-out times and returns the most vehicles present at once in each bucket.
+     * At equal times a departure is applied before an arrival, so back-to-back stays in one slot count once.
+     * Everything up to a bucket's start, including departures at exactly that second, is applied before
+     * the bucket's peak starts counting, so a vehicle that left as the bucket opened is not in it.
+     */
+    static int[] peakPerBucket(long[] starts, long[] ends, long firstSecond, int buckets) {
+        Arrays.sort(starts);
+        Arrays.sort(ends);
+
+        int[] peak = new int[buckets];
+        int present = 0;
+        int i = 0;
+        int j = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            long bucketStart = firstSecond + bucket * BUCKET_SECONDS;
+            long bucketEnd = bucketStart + BUCKET_SECONDS;
+            while (i < starts.length || j < ends.length) {
+                boolean departure = j < ends.length && (i >= starts.length || ends[j] <= starts[i]);
+                long time = departure ? ends[j] : starts[i];
+                if (time > bucketStart || (time == bucketStart && !departure)) break;
+                if (departure) {
+                    present--;
+                    j++;
+                } else {
+                    present++;
+                    i++;
+                }
+            }
+
+            int highest = present;
+            while (i < starts.length || j < ends.length) {
+                boolean departure = j < ends.length && (i >= starts.length || ends[j] <= starts[i]);
+                long time = departure ? ends[j] : starts[i];
+                if (time >= bucketEnd) break;
+                if (departure) {
+                    present--;
+                    j++;
+                } else {
+                    present++;
+                    i++;
+                    highest = Math.max(highest, present);
+                }
+            }
+            peak[bucket] = highest;
+        }
+        return peak;
+    }
+
+    private static OccupancyHeatmapDTO foldOntoWeek(String branchName, SlotType slotType, LocalDate from, LocalDate to,
+                                                    int capacity, LocalDateTime start, int[] occupancy) {
+        int cells = 7 * BUCKETS_PER_DAY;
+        long[] totals = new long[cells];
+        int[] samples = new int[cells];
+        int[] peak = new int[cells];
+
+        // Offset of the first bucket within its week, so the loop only needs a modulo
+        int firstCell = (start.getDayOfWeek().getValue() - 1) * BUCKETS_PER_DAY
+                + (start.getHour() * 60 + start.getMinute()) / BUCKET_MINUTES;
+        for (int bucket = 0; bucket < occupancy.length; bucket++) {
+            int cell = (firstCell + bucket) % cells;
+            totals[cell] += occupancy[bucket];
+            samples[cell]++;
+            peak[cell] = Math.max(peak[cell], occupancy[bucket]);
+        }
+
+        float[] average = new float[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            average[cell] = samples[cell] == 0 ? 0 : (float) totals[cell] / samples[cell];
+        }
+        return new OccupancyHeatmapDTO(branchName, slotType, from, to, capacity, average, peak);
+    }
+
+    private static long toSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Growable pair of primitive arrays for interval bounds.
+     */
+    static class Intervals {
+        private long[] starts = new long[1024];
+        private long[] ends = new long[1024];
+        private int size;
+
+        void add(long start, long end) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        long[] starts() { return Arrays.copyOf(starts, size); }
+        long[] ends() { return Arrays.copyOf(ends, size); }
+    }
+}
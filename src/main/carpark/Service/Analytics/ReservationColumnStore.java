@@ -0,0 +1,372 @@
+package Service.Analytics;
+
+import DAO.PaymentDAO;
+import DAO.ReportDAO;
+import DAO.ReportDAO.PaymentChanges;
+import DAO.ReportDAO.ReservationFact;
+import Model.Entity.Payment;
+import Model.Entity.ReservationStatus;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.ChangeEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+
+/**
+ * In-process column store of every reservation joined with its slot, branch and payment,
+ * for analytics that would otherwise be GROUP BY queries against the live tables.
+ *
+ * Each attribute is one primitive array indexed by row: branch and amounts as int, slot type,
+ * status and payment status as byte (enum ordinal), times as int minutes since the epoch.
+ * Rows are kept in reservation ID order, so a reservation is found by binary search.
+ *
+ * The store loads new reservations by ID in chunks. ChangeNotifier events only note which rows
+ * changed; the next query re-reads them, so writers never wait on the store. Changes made by
+ * other processes are picked up when a query finds the store older than SYNC_INTERVAL: new IDs
+ * are appended, rows still ACTIVE are re-read, and so are rows whose payment was written since
+ * the last sync (payments.updated_at), which catches refunds and settlements of completed rows.
+ * Queries go through {@link #query()}.
+ */
+public class ReservationColumnStore implements ChangeNotifier.ChangeListener {
+
+    /** Value of an int column that is NULL in the database. */
+    public static final int NULL = Integer.MIN_VALUE;
+    /** Value of a byte column that is NULL in the database. */
+    public static final byte NULL_BYTE = -1;
+
+    private static final int LOAD_CHUNK = 50_000;
+    private static final int RELOAD_CHUNK = 500;
+    // IDs are handed out before commit, so a lower ID can become visible after a higher one
+    private static final int ID_LOOKBACK = 1_000;
+    private static final Duration SYNC_INTERVAL = Duration.ofSeconds(30);
+    // updated_at is taken when the row is written, not at commit, so a slow transaction can land behind the watermark
+    private static final Duration PAYMENT_LOOKBACK = Duration.ofMinutes(1);
+
+    /**
+     * The columns of the store.
+     */
+    public enum Column {
+        BRANCH(false),
+        SLOT_TYPE(true),
+        STATUS(true),
+        RESERVED_AT(false),
+        CHECK_IN_AT(false),
+        TIME_OUT_AT(false),
+        /** Whole minutes from check-in to time out, NULL unless both are set */
+        STAY_MINUTES(false),
+        PAID_CENTS(false),
+        PAYMENT_AT(false),
+        PAYMENT_STATUS(true);
+
+        final boolean isByte;
+
+        Column(boolean isByte) {
+            this.isByte = isByte;
+        }
+    }
+
+    private static volatile ReservationColumnStore instance;
+
+    private final ReportDAO reportDAO;
+    private final PaymentDAO paymentDAO;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int size;
+    private int[] ids = new int[0];
+    private final int[][] ints = new int[Column.values().length][];
+    private final byte[][] bytes = new byte[Column.values().length][];
+
+    private final Set<Integer> pendingReloads = ConcurrentHashMap.newKeySet();
+    // Payment events that only carry the payment ID; resolved to their reservation at query time
+    private final Set<Integer> pendingPayments = ConcurrentHashMap.newKeySet();
+    private volatile long lastSyncNanos;
+    // Latest payments.updated_at the store has caught up with; null until the first sync. Guarded by this.
+    private LocalDateTime paymentWatermark;
+    private volatile boolean loaded;
+
+    private ReservationColumnStore() {
+        this.reportDAO = new ReportDAO();
+        this.paymentDAO = new PaymentDAO();
+        for (Column column : Column.values()) {
+            if (column.isByte) bytes[column.ordinal()] = new byte[0];
+            else ints[column.ordinal()] = new int[0];
+        }
+    }
+
+    public static ReservationColumnStore getInstance() {
+        if (instance == null) {
+            synchronized (ReservationColumnStore.class) {
+                if (instance == null) {
+                    ReservationColumnStore store = new ReservationColumnStore();
+                    ChangeNotifier.subscribe(store);
+                    instance = store;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Starts a query over the current rows, first syncing with the database if the store is stale
+     * and re-reading rows that changed since the last query.
+     */
+    public ColumnQuery query() {
+        if (!loaded || System.nanoTime() - lastSyncNanos > SYNC_INTERVAL.toNanos()) {
+            sync();
+        }
+        if (!pendingReloads.isEmpty() || !pendingPayments.isEmpty()) {
+            applyPendingReloads();
+        }
+        return new ColumnQuery(this);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // === LOADING ===
+
+    /**
+     * Appends reservations newer than the last loaded ID and re-reads rows that are still ACTIVE
+     * or whose payment changed since the last sync.
+     *
+     * @return false if the database could not be read
+     */
+    public synchronized boolean sync() {
+        long started = System.nanoTime();
+        // Read first: a payment written while the rows load is then re-read by the next sync
+        LocalDateTime watermark;
+        Set<Integer> toReload = new TreeSet<>();
+        if (paymentWatermark == null) {
+            Optional<LocalDateTime> last = reportDAO.getLastPaymentUpdate();
+            if (last.isEmpty()) return false;
+            watermark = last.get();
+        } else {
+            Optional<PaymentChanges> changes = reportDAO.getPaymentChangesSince(paymentWatermark.minus(PAYMENT_LOOKBACK));
+            if (changes.isEmpty()) return false;
+            watermark = changes.get().lastUpdated();
+            toReload.addAll(changes.get().reservationIDs());
+        }
+
+        if (!appendNewRows(Math.max(0, lastID() - ID_LOOKBACK))) return false;
+        toReload.addAll(activeReservationIDs());
+        if (!reloadRows(new ArrayList<>(toReload))) return false;
+
+        paymentWatermark = paymentWatermark == null || watermark.isAfter(paymentWatermark) ? watermark : paymentWatermark;
+        loaded = true;
+        lastSyncNanos = started;
+        return true;
+    }
+
+    private synchronized void applyPendingReloads() {
+        for (Integer paymentID : new ArrayList<>(pendingPayments)) {
+            pendingPayments.remove(paymentID);
+            paymentDAO.getPaymentById(paymentID).ifPresent(payment -> pendingReloads.add(payment.getTransact_ID()));
+        }
+        List<Integer> changed = new ArrayList<>(pendingReloads);
+        pendingReloads.removeAll(changed);
+        changed.sort(null);
+        // Reservations newer than the last row are appended rather than reloaded
+        if (!changed.isEmpty() && changed.get(changed.size() - 1) > lastID() && !appendNewRows(lastID())) {
+            pendingReloads.addAll(changed);
+            return;
+        }
+        if (!reloadRows(changed)) {
+            pendingReloads.addAll(changed);
+        }
+    }
+
+    /**
+     * Reads every reservation with an ID above afterID, in chunks.
+     */
+    private boolean appendNewRows(int afterID) {
+        while (true) {
+            List<ReservationFact> chunk = new ArrayList<>();
+            int read = reportDAO.streamReservationFacts(afterID, LOAD_CHUNK, chunk::add);
+            if (read < 0) return false;
+
+            lock.writeLock().lock();
+            try {
+                for (ReservationFact fact : chunk) {
+                    upsert(fact);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (read < LOAD_CHUNK) return true;
+            afterID = chunk.get(chunk.size() - 1).reservationID();
+        }
+    }
+
+    /**
+     * Re-reads the given rows from the database and overwrites them in place.
+     */
+    private boolean reloadRows(List<Integer> reservationIDs) {
+        for (int from = 0; from < reservationIDs.size(); from += RELOAD_CHUNK) {
+            List<Integer> chunk = reservationIDs.subList(from, Math.min(reservationIDs.size(), from + RELOAD_CHUNK));
+            List<ReservationFact> facts = new ArrayList<>();
+            if (reportDAO.streamReservationFacts(chunk, facts::add) < 0) return false;
+
+            lock.writeLock().lock();
+            try {
+                for (ReservationFact fact : facts) {
+                    upsert(fact);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return true;
+    }
+
+    private int lastID() {
+        lock.readLock().lock();
+        try {
+            return size == 0 ? 0 : ids[size - 1];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Integer> activeReservationIDs() {
+        List<Integer> active = new ArrayList<>();
+        byte activeStatus = (byte) ReservationStatus.ACTIVE.ordinal();
+        lock.readLock().lock();
+        try {
+            byte[] status = bytes[Column.STATUS.ordinal()];
+            for (int row = 0; row < size; row++) {
+                if (status[row] == activeStatus) active.add(ids[row]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return active;
+    }
+
+    /**
+     * Overwrites the reservation's row, or inserts it in ID order. Caller holds the write lock.
+     */
+    private void upsert(ReservationFact fact) {
+        int row = Arrays.binarySearch(ids, 0, size, fact.reservationID());
+        if (row < 0) {
+            row = -row - 1;
+            ensureCapacity(size + 1);
+            if (row < size) {
+                // Late commit of a lower ID: shift the rows after it (rare)
+                System.arraycopy(ids, row, ids, row + 1, size - row);
+                for (Column column : Column.values()) {
+                    Object array = column.isByte ? bytes[column.ordinal()] : ints[column.ordinal()];
+                    System.arraycopy(array, row, array, row + 1, size - row);
+                }
+            }
+            ids[row] = fact.reservationID();
+            size++;
+        }
+        write(row, fact);
+    }
+
+    private void write(int row, ReservationFact fact) {
+        setInt(Column.BRANCH, row, fact.branchID());
+        setByte(Column.SLOT_TYPE, row, code(fact.slotType()));
+        setByte(Column.STATUS, row, code(fact.status()));
+        setInt(Column.RESERVED_AT, row, toMinute(fact.dateReserved()));
+        setInt(Column.CHECK_IN_AT, row, toMinute(fact.checkIn()));
+        setInt(Column.TIME_OUT_AT, row, toMinute(fact.timeOut()));
+        setInt(Column.STAY_MINUTES, row, fact.checkIn() == null || fact.timeOut() == null
+                ? NULL : (int) Duration.between(fact.checkIn(), fact.timeOut()).toMinutes());
+        setInt(Column.PAID_CENTS, row, fact.amountPaid() == null ? NULL : fact.amountPaid().movePointRight(2).intValue());
+        setInt(Column.PAYMENT_AT, row, toMinute(fact.paymentDate()));
+        setByte(Column.PAYMENT_STATUS, row, code(fact.paymentStatus()));
+    }
+
+    private void setInt(Column column, int row, int value) {
+        ints[column.ordinal()][row] = value;
+    }
+
+    private void setByte(Column column, int row, byte value) {
+        bytes[column.ordinal()][row] = value;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= ids.length) return;
+        int capacity = Math.max(needed, Math.max(1024, ids.length * 2));
+        ids = Arrays.copyOf(ids, capacity);
+        for (Column column : Column.values()) {
+            int c = column.ordinal();
+            if (column.isByte) bytes[c] = Arrays.copyOf(bytes[c], capacity);
+            else ints[c] = Arrays.copyOf(ints[c], capacity);
+        }
+    }
+
+    // === CHANGE EVENTS ===
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        if (!loaded) return;
+        switch (event.topic()) {
+            case RESERVATION -> {
+                if (event.id() == ChangeNotifier.ALL) {
+                    // Expiry sweep: re-read everything still active on the next query
+                    lastSyncNanos = 0;
+                } else {
+                    pendingReloads.add(event.id());
+                }
+            }
+            case PAYMENT -> {
+                if (event.entity() instanceof Payment payment) {
+                    pendingReloads.add(payment.getTransact_ID());
+                } else {
+                    pendingPayments.add(event.id());
+                }
+            }
+            default -> { }
+        }
+    }
+
+    // === ACCESS FOR ColumnQuery ===
+
+    /** Runs the action under the read lock with the current row count. */
+    <T> T read(IntFunction<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.apply(size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int[] intColumn(Column column) {
+        return ints[column.ordinal()];
+    }
+
+    byte[] byteColumn(Column column) {
+        return bytes[column.ordinal()];
+    }
+
+    // === ENCODING ===
+
+    public static int toMinute(LocalDateTime time) {
+        return time == null ? NULL : (int) (time.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    /** The byte stored for an enum value: its ordinal, or NULL_BYTE for null. */
+    public static byte code(Enum<?> value) {
+        return value == null ? NULL_BYTE : (byte) value.ordinal();
+    }
+}
@@ -0,0 +1,207 @@
+package Service.Analytics;
+
+import DAO.ParkingDAO;
+import DAO.ReportDAO;
+import Model.DTO.SlotConversionDTO;
+import Model.Entity.ParkingSlot;
+import Model.Entity.SlotType;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static Model.DTO.OccupancyHeatmapDTO.BUCKET_MINUTES;
+
+/**
+ * Recommends slot type conversions for a branch from its recent occupancy.
+ *
+ * For each slot type the stays of the last LOOKBACK_WEEKS are swept into 15-minute buckets of
+ * vehicles parked at once (see OccupancyHeatmapService). A bucket where a type is full is demand
+ * that type may have turned away, so one more slot of it would have served that bucket; a bucket
+ * where a type is at its capacity minus k would have lost a car had k + 1 slots been taken from
+ * it. The optimiser greedily moves one slot at a time from the type that loses the fewest
+ * buckets to the type that gains the most, while the gain clearly exceeds the loss.
+ *
+ * Full buckets only show that demand reached capacity, not by how much, so each type may grow
+ * by at most MAX_GROWTH of its slots per run. PWD slots are never converted away.
+ *
+ * Within the donor type, slots are taken from the floor where that type is least used, and on
+ * that floor the least-used slot first. Only slots free right now are proposed.
+ */
+public class SlotMixOptimizer {
+
+    private static final int LOOKBACK_WEEKS = 8;
+    private static final double MAX_GROWTH = 0.25;
+    // A move has to win at least an hour a week over the lookback to be worth disrupting the floor
+    private static final int MIN_NET_BUCKETS = LOOKBACK_WEEKS * 60 / BUCKET_MINUTES;
+    private static final long BUCKET_SECONDS = BUCKET_MINUTES * 60L;
+
+    private final ReportDAO reportDAO;
+    private final ParkingDAO parkingDAO;
+
+    public SlotMixOptimizer() {
+        this.reportDAO = new ReportDAO();
+        this.parkingDAO = new ParkingDAO();
+    }
+
+    /**
+     * @return The recommended conversions, best first; empty list if the mix already fits,
+     *         or empty Optional if the history could not be read
+     */
+    public Optional<List<SlotConversionDTO>> recommend(int branchID) {
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minusWeeks(LOOKBACK_WEEKS);
+
+        Map<SlotType, List<ParkingSlot>> slotsByType = new EnumMap<>(SlotType.class);
+        for (ParkingSlot slot : parkingDAO.getAllSlots()) {
+            if (slot.getBranch_ID() == branchID && slot.getSlot_type() != null) {
+                slotsByType.computeIfAbsent(slot.getSlot_type(), t -> new ArrayList<>()).add(slot);
+            }
+        }
+        if (slotsByType.isEmpty()) {
+            return Optional.of(new ArrayList<>());
+        }
+
+        // Occupied-bucket histogram per type: atLeast[n] = buckets with n or more vehicles parked
+        Map<SlotType, long[]> atLeast = new EnumMap<>(SlotType.class);
+        for (Map.Entry<SlotType, List<ParkingSlot>> entry : slotsByType.entrySet()) {
+            Optional<long[]> histogram = occupancyHistogram(branchID, entry.getKey(), entry.getValue().size(), from, to);
+            if (histogram.isEmpty()) return Optional.empty();
+            atLeast.put(entry.getKey(), histogram.get());
+        }
+
+        Optional<Map<String, Long>> usage = reportDAO.getSlotUsageMinutes(branchID, from, to);
+        if (usage.isEmpty()) return Optional.empty();
+
+        return Optional.of(plan(slotsByType, atLeast, usage.get()));
+    }
+
+    private List<SlotConversionDTO> plan(Map<SlotType, List<ParkingSlot>> slotsByType, Map<SlotType, long[]> atLeast,
+                                         Map<String, Long> usage) {
+        Map<SlotType, Integer> original = new EnumMap<>(SlotType.class);
+        Map<SlotType, Integer> capacity = new EnumMap<>(SlotType.class);
+        Map<SlotType, Donor> donors = new EnumMap<>(SlotType.class);
+        for (Map.Entry<SlotType, List<ParkingSlot>> entry : slotsByType.entrySet()) {
+            original.put(entry.getKey(), entry.getValue().size());
+            capacity.put(entry.getKey(), entry.getValue().size());
+            donors.put(entry.getKey(), new Donor(entry.getValue(), usage));
+        }
+
+        List<SlotConversionDTO> conversions = new ArrayList<>();
+        while (true) {
+            SlotType gainer = null;
+            long bestGain = -1;
+            for (SlotType type : capacity.keySet()) {
+                int start = original.get(type);
+                int now = capacity.get(type);
+                // A type only ever grows or only ever shrinks within one plan
+                if (now >= start && now < start + Math.max(1, (int) (start * MAX_GROWTH))
+                        && atLeast.get(type)[start] > bestGain) {
+                    bestGain = atLeast.get(type)[start];
+                    gainer = type;
+                }
+            }
+            SlotType loser = null;
+            long bestLoss = Long.MAX_VALUE;
+            for (SlotType type : capacity.keySet()) {
+                int now = capacity.get(type);
+                if (type != gainer && type != SlotType.PWD && now <= original.get(type)
+                        && donors.get(type).hasFreeSlot() && atLeast.get(type)[now] < bestLoss) {
+                    bestLoss = atLeast.get(type)[now];
+                    loser = type;
+                }
+            }
+            if (gainer == null || loser == null || bestGain - bestLoss < MIN_NET_BUCKETS) {
+                break;
+            }
+
+            ParkingSlot slot = donors.get(loser).take();
+            capacity.merge(gainer, 1, Integer::sum);
+            capacity.merge(loser, -1, Integer::sum);
+            double weeklyHours = (bestGain - bestLoss) * (double) BUCKET_MINUTES / 60 / LOOKBACK_WEEKS;
+            conversions.add(new SlotConversionDTO(slot.getSpot_ID(), slot.getBranch_ID(), slot.getFloor_level(),
+                    loser, gainer, weeklyHours));
+        }
+        return conversions;
+    }
+
+    /**
+     * Counts the lookback's buckets by how many vehicles of the type were parked at once.
+     *
+     * @return atLeast[n] = buckets with at least n vehicles, for n = 0..capacity
+     */
+    private Optional<long[]> occupancyHistogram(int branchID, SlotType slotType, int capacity,
+                                                LocalDateTime from, LocalDateTime to) {
+        long startSecond = from.toEpochSecond(ZoneOffset.UTC);
+        long endSecond = to.toEpochSecond(ZoneOffset.UTC);
+        OccupancyHeatmapService.Intervals intervals = new OccupancyHeatmapService.Intervals();
+        boolean loaded = reportDAO.streamOccupancyIntervals(branchID, slotType, from, to, (checkIn, checkOut) -> {
+            long in = Math.max(startSecond, checkIn.toEpochSecond(ZoneOffset.UTC));
+            long out = checkOut == null ? endSecond : Math.min(endSecond, checkOut.toEpochSecond(ZoneOffset.UTC));
+            if (out > in) intervals.add(in, out);
+        });
+        if (!loaded) return Optional.empty();
+
+        int buckets = (int) ((endSecond - startSecond) / BUCKET_SECONDS);
+        int[] occupancy = OccupancyHeatmapService.peakPerBucket(intervals.starts(), intervals.ends(), startSecond, buckets);
+
+        long[] atLeast = new long[capacity + 2];
+        for (int occupied : occupancy) {
+            atLeast[Math.min(occupied, capacity)]++;
+        }
+        for (int n = capacity; n >= 0; n--) {
+            atLeast[n] += atLeast[n + 1];
+        }
+        return Optional.of(atLeast);
+    }
+
+    /**
+     * The free slots of one type, handed out least-used floor first, then least-used slot on that floor.
+     */
+    private static class Donor {
+        private final Map<Integer, List<ParkingSlot>> freeByFloor = new HashMap<>();
+        private final Map<Integer, long[]> floorUsage = new HashMap<>();
+        private final Map<String, Long> usage;
+
+        Donor(List<ParkingSlot> slots, Map<String, Long> usage) {
+            this.usage = usage;
+            for (ParkingSlot slot : slots) {
+                // Floor utilisation counts every slot of the type, free or not: {minutes, slots}
+                long[] floor = floorUsage.computeIfAbsent(slot.getFloor_level(), f -> new long[2]);
+                floor[0] += usage.getOrDefault(slot.getSpot_ID(), 0L);
+                floor[1]++;
+                if (slot.isAvailability()) {
+                    freeByFloor.computeIfAbsent(slot.getFloor_level(), f -> new ArrayList<>()).add(slot);
+                }
+            }
+            Comparator<ParkingSlot> leastUsedLast = Comparator.comparingLong(s -> -usage.getOrDefault(s.getSpot_ID(), 0L));
+            freeByFloor.values().forEach(list -> list.sort(leastUsedLast));
+        }
+
+        boolean hasFreeSlot() {
+            return !freeByFloor.isEmpty();
+        }
+
+        ParkingSlot take() {
+            int floor = freeByFloor.keySet().stream()
+                    .min(Comparator.comparingDouble((Integer f) -> (double) floorUsage.get(f)[0] / floorUsage.get(f)[1])
+                            .thenComparing(Comparator.naturalOrder()))
+                    .orElseThrow();
+            List<ParkingSlot> free = freeByFloor.get(floor);
+            ParkingSlot slot = free.remove(free.size() - 1);
+            if (free.isEmpty()) freeByFloor.remove(floor);
+
+            // The slot no longer belongs to this type's floor
+            long[] stats = floorUsage.get(floor);
+            stats[0] -= usage.getOrDefault(slot.getSpot_ID(), 0L);
+            stats[1]--;
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package Service;
+
+import Model.Entity.Branch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Static k-d tree over branch locations for nearest-neighbour lookups.
+ *
+ * Each branch is stored as a point on the unit sphere (x, y, z), so straight-line distance between
+ * points orders branches exactly as great-circle distance does and there is no trouble at the
+ * antimeridian. The tree is built once from a snapshot and never modified; rebuild it when
+ * branches change. Immutable, so safe to share between threads.
+ */
+class BranchKdTree {
+
+    static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final Branch[] branches;
+    // Point i is coords[3i .. 3i+2]; branches and coords are in tree order (median of each range at its middle)
+    private final double[] coords;
+
+    /**
+     * A branch and its great-circle distance from the query point.
+     */
+    record Neighbour(Branch branch, double distanceKm) {}
+
+    /**
+     * @param branches Branches to index; those without coordinates are left out
+     */
+    BranchKdTree(List<Branch> branches) {
+        List<Branch> located = new ArrayList<>();
+        for (Branch branch : branches) {
+            if (branch.hasCoordinates()) located.add(branch);
+        }
+        this.branches = located.toArray(new Branch[0]);
+        this.coords = new double[this.branches.length * 3];
+        for (int i = 0; i < this.branches.length; i++) {
+            toPoint(this.branches[i].getLatitude(), this.branches[i].getLongitude(), coords, i * 3);
+        }
+        build(0, this.branches.length, 0);
+    }
+
+    int size() {
+        return branches.length;
+    }
+
+    /**
+     * The up to k branches nearest the location that pass the filter and lie within maxDistanceKm,
+     * nearest first.
+     */
+    List<Neighbour> nearest(double latitude, double longitude, int k, double maxDistanceKm, Predicate<Branch> filter) {
+        double[] query = new double[3];
+        toPoint(latitude, longitude, query, 0);
+        // Chord length on the unit sphere for the radius; compare squared to skip the sqrt
+        double maxChord = 2 * Math.sin(Math.min(Math.PI, maxDistanceKm / EARTH_RADIUS_KM) / 2);
+
+        // Max-heap of the best k so far, keyed by squared chord
+        PriorityQueue<double[]> best = new PriorityQueue<>(Comparator.comparingDouble((double[] e) -> -e[0]));
+        if (k > 0) {
+            search(0, branches.length, 0, query, k, maxChord * maxChord, filter, best);
+        }
+
+        List<Neighbour> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            double[] entry = best.poll();
+            double chord = Math.sqrt(entry[0]);
+            result.add(new Neighbour(branches[(int) entry[1]], 2 * Math.asin(Math.min(1, chord / 2)) * EARTH_RADIUS_KM));
+        }
+        result.sort(Comparator.comparingDouble(Neighbour::distanceKm));
+        return result;
+    }
+
+    private void search(int from, int to, int axis, double[] query, int k, double maxSquared,
+                        Predicate<Branch> filter, PriorityQueue<double[]> best) {
+        if (from >= to) return;
+        int mid = (from + to) >>> 1;
+
+        double squared = 0;
+        for (int d = 0; d < 3; d++) {
+            double diff = coords[mid * 3 + d] - query[d];
+            squared += diff * diff;
+        }
+        if (squared <= maxSquared && filter.test(branches[mid])) {
+            if (best.size() < k) {
+                best.add(new double[]{squared, mid});
+            } else if (squared < best.peek()[0]) {
+                best.poll();
+                best.add(new double[]{squared, mid});
+            }
+        }
+
+        double split = query[axis] - coords[mid * 3 + axis];
+        int next = (axis + 1) % 3;
+        boolean leftFirst = split < 0;
+        if (leftFirst) search(from, mid, next, query, k, maxSquared, filter, best);
+        else search(mid + 1, to, next, query, k, maxSquared, filter, best);
+
+        // The far side can only help if the splitting plane is closer than the current bound
+        double bound = best.size() < k ? maxSquared : Math.min(maxSquared, best.peek()[0]);
+        if (split * split <= bound) {
+            if (leftFirst) search(mid + 1, to, next, query, k, maxSquared, filter, best);
+            else search(from, mid, next, query, k, maxSquared, filter, best);
+        }
+    }
+
+    /**
+     * Orders [from, to) so the median on the axis sits at the middle, smaller values before it,
+     * then recurses on both halves with the next axis.
+     */
+    private void build(int from, int to, int axis) {
+        if (to - from <= 1) return;
+        int mid = (from + to) >>> 1;
+        select(from, to - 1, mid, axis);
+        build(from, mid, (axis + 1) % 3);
+        build(mid + 1, to, (axis + 1) % 3);
+    }
+
+    // Quickselect on one coordinate
+    private void select(int left, int right, int target, int axis) {
+        while (left < right) {
+            double pivot = coords[((left + right) >>> 1) * 3 + axis];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (coords[i * 3 + axis] < pivot) i++;
+                while (coords[j * 3 + axis] > pivot) j--;
+                if (i <= j) swap(i++, j--);
+            }
+            if (target <= j) right = j;
+            else if (target >= i) left = i;
+            else return;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Branch branch = branches[a];
+        branches[a] = branches[b];
+        branches[b] = branch;
+        for (int d = 0; d < 3; d++) {
+            double value = coords[a * 3 + d];
+            coords[a * 3 + d] = coords[b * 3 + d];
+            coords[b * 3 + d] = value;
+        }
+    }
+
+    private static void toPoint(double latitude, double longitude, double[] out, int offset) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        out[offset] = Math.cos(lat) * Math.cos(lon);
+        out[offset + 1] = Math.cos(lat) * Math.sin(lon);
+        out[offset + 2] = Math.sin(lat);
+    }
+}
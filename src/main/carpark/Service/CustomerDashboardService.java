@@ -0,0 +1,236 @@
+package Service;
+
+import DAO.CustomerDAO;
+import DAO.ReservationDAO;
+import DAO.VehicleDAO;
+import Model.DTO.CustomerDashboardDTO;
+import Model.DTO.ReservationSummaryDTO;
+import Model.Entity.Customer;
+import Model.Entity.Payment;
+import Model.Entity.Reservation;
+import Model.Entity.ReservationStatus;
+import Model.Entity.Vehicle;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.ChangeEvent;
+import Utilities.ChangeNotifier.Topic;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user aggregate behind the customer home and profile pages: profile, vehicles, reservations,
+ * the active reservation, the latest stays and the total spent.
+ *
+ * Aggregates are kept for the MAX_CACHED_USERS most recently seen users, so a customer who logs in
+ * again or moves between pages is served from memory. A cached user is dropped when one of their
+ * reservations, payments or vehicles, or their profile, changes; the owner of a reservation or
+ * vehicle is found through indexes built from the cached aggregates, so events for users who are
+ * not cached cost a map lookup. Events that cannot be traced to a user clear the whole cache.
+ * Writes by other processes (the API server, the gates, their expiry sweep) publish no events
+ * here, so an aggregate is also reloaded once it is older than MAX_AGE.
+ */
+public class CustomerDashboardService implements ChangeNotifier.ChangeListener {
+
+    private static final int MAX_CACHED_USERS = 1_000;
+    private static final int RECENT_STAYS = 5;
+    private static final Duration MAX_AGE = Duration.ofSeconds(30);
+
+    private static volatile CustomerDashboardService instance;
+
+    private final CustomerDAO customerDAO;
+    private final VehicleDAO vehicleDAO;
+    private final ReservationDAO reservationDAO;
+
+    private record Cached(CustomerDashboardDTO dashboard, long loadedAtNanos) {
+        boolean isFresh() {
+            return System.nanoTime() - loadedAtNanos < MAX_AGE.toNanos();
+        }
+    }
+
+    // Least recently used user dropped first; guarded by itself
+    private final Map<Integer, Cached> dashboards = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Cached> eldest) {
+            if (size() > MAX_CACHED_USERS) {
+                unindex(eldest.getValue().dashboard());
+                return true;
+            }
+            return false;
+        }
+    };
+    private final Map<Integer, Integer> reservationOwners = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> vehicleOwners = new ConcurrentHashMap<>();
+
+    // Bumped by every invalidation, so a load that overlapped one is not cached
+    private long generation;
+
+    private CustomerDashboardService() {
+        this.customerDAO = new CustomerDAO();
+        this.vehicleDAO = new VehicleDAO();
+        this.reservationDAO = new ReservationDAO();
+    }
+
+    public static CustomerDashboardService getInstance() {
+        if (instance == null) {
+            synchronized (CustomerDashboardService.class) {
+                if (instance == null) {
+                    CustomerDashboardService service = new CustomerDashboardService();
+                    ChangeNotifier.subscribe(service);
+                    instance = service;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * The user's dashboard, from memory when it was loaded less than MAX_AGE ago.
+     */
+    public CustomerDashboardDTO getDashboard(int userID) {
+        long loadGeneration;
+        synchronized (dashboards) {
+            Cached cached = dashboards.get(userID);
+            if (cached != null && cached.isFresh()) {
+                return cached.dashboard();
+            }
+            loadGeneration = generation;
+        }
+
+        long loadedAt = System.nanoTime();
+        CustomerDashboardDTO dashboard = load(userID);
+        synchronized (dashboards) {
+            if (generation == loadGeneration) {
+                Cached previous = dashboards.put(userID, new Cached(dashboard, loadedAt));
+                if (previous != null) unindex(previous.dashboard());
+                for (ReservationSummaryDTO summary : dashboard.getReservations()) {
+                    reservationOwners.put(summary.getTransactNo(), userID);
+                }
+                for (Vehicle vehicle : dashboard.getVehicles()) {
+                    vehicleOwners.put(vehicle.getVehicle_id(), userID);
+                }
+            }
+        }
+        return dashboard;
+    }
+
+    /**
+     * Drops the user's dashboard, e.g. after a write that does not publish a change.
+     */
+    public void invalidate(int userID) {
+        synchronized (dashboards) {
+            generation++;
+            Cached removed = dashboards.remove(userID);
+            if (removed != null) unindex(removed.dashboard());
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (dashboards) {
+            generation++;
+            dashboards.clear();
+            reservationOwners.clear();
+            vehicleOwners.clear();
+        }
+    }
+
+    private CustomerDashboardDTO load(int userID) {
+        Customer profile = customerDAO.findCustomerByUserID(userID).orElse(null);
+        List<Vehicle> vehicles = vehicleDAO.getVehicleByUserID(userID);
+        List<ReservationSummaryDTO> reservations = reservationDAO.findReservationSummariesByUserId(userID);
+
+        // The next one to start, or the one in progress
+        ReservationSummaryDTO active = reservations.stream()
+                .filter(summary -> summary.getReservation().getStatus() == ReservationStatus.ACTIVE)
+                .min(Comparator.comparing(summary -> startOf(summary.getReservation())))
+                .orElse(null);
+
+        List<ReservationSummaryDTO> recent = reservations.stream()
+                .filter(summary -> summary.getReservation().getStatus() == ReservationStatus.COMPLETED)
+                .sorted(Comparator.comparing((ReservationSummaryDTO summary) -> endOf(summary.getReservation())).reversed())
+                .limit(RECENT_STAYS)
+                .toList();
+
+        BigDecimal totalSpent = BigDecimal.ZERO;
+        for (ReservationSummaryDTO summary : reservations) {
+            if (summary.getTotalPaid() != null) {
+                totalSpent = totalSpent.add(summary.getTotalPaid());
+            }
+        }
+        return new CustomerDashboardDTO(userID, profile, vehicles, reservations, active, recent, totalSpent);
+    }
+
+    private static LocalDateTime startOf(Reservation reservation) {
+        return reservation.getCheckInTime() != null ? reservation.getCheckInTime() : LocalDateTime.MAX;
+    }
+
+    private static LocalDateTime endOf(Reservation reservation) {
+        return reservation.getTimeOut() != null ? reservation.getTimeOut() : LocalDateTime.MIN;
+    }
+
+    // Caller holds the dashboards lock
+    private void unindex(CustomerDashboardDTO dashboard) {
+        for (ReservationSummaryDTO summary : dashboard.getReservations()) {
+            reservationOwners.remove(summary.getTransactNo(), dashboard.getUserID());
+        }
+        for (Vehicle vehicle : dashboard.getVehicles()) {
+            vehicleOwners.remove(vehicle.getVehicle_id(), dashboard.getUserID());
+        }
+    }
+
+    // === INVALIDATION ===
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        if (event.topic() == Topic.SLOT || event.topic() == Topic.BRANCH) {
+            return;
+        }
+        if (event.id() == ChangeNotifier.ALL) {
+            invalidateAll();
+            return;
+        }
+        switch (event.topic()) {
+            case RESERVATION -> {
+                // A new reservation is only known by its vehicle
+                Integer owner = event.entity() instanceof Reservation reservation
+                        ? vehicleOwners.get(reservation.getVehicleID())
+                        : reservationOwners.get(event.id());
+                invalidateOwner(owner);
+            }
+            case PAYMENT -> {
+                if (event.entity() instanceof Payment payment) {
+                    invalidateOwner(reservationOwners.get(payment.getTransact_ID()));
+                } else {
+                    invalidateAll();
+                }
+            }
+            case VEHICLE -> {
+                Integer owner = event.entity() instanceof Vehicle vehicle
+                        ? Integer.valueOf(vehicle.getUser_id())
+                        : vehicleOwners.get(event.id());
+                invalidateOwner(owner);
+            }
+            case USER -> invalidate(event.id());
+            default -> {}
+        }
+    }
+
+    /**
+     * Drops the owner's dashboard. An owner that is not cached may be loading right now, so the
+     * generation is bumped either way.
+     */
+    private void invalidateOwner(Integer owner) {
+        if (owner != null) {
+            invalidate(owner);
+            return;
+        }
+        synchronized (dashboards) {
+            generation++;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package Service.Gate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single plate read reported by an entry or exit barrier.
+ * Feed lines have the form: plate,branchID,lane,IN|OUT,timestamp
+ * where timestamp is either an ISO date-time (2025-11-20T08:00:05) or epoch milliseconds.
+ */
+public class GateEvent {
+
+    public enum Direction { IN, OUT }
+
+    // Arrival order, used to keep sorting stable when two events share a timestamp
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final String plate;
+    private final int branchID;
+    private final String lane;
+    private final Direction direction;
+    private final LocalDateTime timestamp;
+    private final long sequence;
+    private final long receivedAtNanos;
+
+    public GateEvent(String plate, int branchID, String lane, Direction direction, LocalDateTime timestamp) {
+        this.plate = normalisePlate(plate);
+        this.branchID = branchID;
+        this.lane = lane;
+        this.direction = direction;
+        this.timestamp = timestamp;
+        this.sequence = SEQUENCE.incrementAndGet();
+        this.receivedAtNanos = System.nanoTime();
+    }
+
+    /**
+     * Parses one line of a gate feed.
+     *
+     * @param line The raw feed line
+     * @return The parsed event
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    public static GateEvent parse(String line) {
+        String[] parts = line.trim().split("\\s*,\\s*");
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Expected 5 fields but got " + parts.length + ": " + line);
+        }
+        try {
+            String plate = parts[0];
+            int branchID = Integer.parseInt(parts[1]);
+            String lane = parts[2];
+            Direction direction = Direction.valueOf(parts[3].toUpperCase());
+            LocalDateTime timestamp = parseTimestamp(parts[4]);
+
+            if (normalisePlate(plate).isEmpty()) {
+                throw new IllegalArgumentException("Empty plate: " + line);
+            }
+            return new GateEvent(plate, branchID, lane, direction, timestamp);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed gate event: " + line, e);
+        }
+    }
+
+    /**
+     * Reduces a plate to uppercase letters and digits so that "abc-123", "ABC 123" and "ABC123" compare equal.
+     */
+    public static String normalisePlate(String plate) {
+        if (plate == null) return "";
+        StringBuilder sb = new StringBuilder(plate.length());
+        for (int i = 0; i < plate.length(); i++) {
+            char c = Character.toUpperCase(plate.charAt(i));
+            if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static LocalDateTime parseTimestamp(String value) {
+        if (value.chars().allMatch(Character::isDigit)) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(value)), ZoneId.systemDefault());
+        }
+        return LocalDateTime.parse(value);
+    }
+
+    public String getPlate() {return plate;}
+    public int getBranchID() {return branchID;}
+    public String getLane() {return lane;}
+    public Direction getDirection() {return direction;}
+    public LocalDateTime getTimestamp() {return timestamp;}
+    public long getSequence() {return sequence;}
+    public long getReceivedAtNanos() {return receivedAtNanos;}
+
+    @Override
+    public String toString() {
+        return "GateEvent{" +
+                "Plate: " + plate +
+                ", Branch ID: " + branchID +
+                ", Lane: " + lane +
+                ", Direction: " + direction +
+                ", Timestamp: " + timestamp + '}';
+    }
+}
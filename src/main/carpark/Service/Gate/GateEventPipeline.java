@@ -0,0 +1,455 @@
+package Service.Gate;
+
+import DAO.DBConnectionUtil;
+import DAO.ParkingDAO;
+import DAO.ReservationDAO;
+import DAO.VehicleDAO;
+import Model.Entity.Reservation;
+import Model.Entity.ReservationStatus;
+import Model.Entity.Vehicle;
+import Service.Journal.ReservationStateStore;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.Action;
+import Utilities.ChangeNotifier.Topic;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns raw gate events into real check-in / check-out times on reservations.
+ *
+ * Events from any number of sources are queued and handled by a single worker thread:
+ *  1. Out-of-order: events are held for REORDER_WINDOW and released in timestamp order.
+ *  2. Duplicates: a sensor re-reading the same plate in the same direction within
+ *     DUPLICATE_WINDOW is ignored.
+ *  3. Matching: the plate is resolved through the in-memory PlateIndex (tolerating one misread
+ *     character) to its active reservation at that branch, with a database fallback.
+ *  4. Batching: resolved updates are collected and written in one transaction of JDBC
+ *     batches when MAX_BATCH_SIZE is reached or FLUSH_INTERVAL has passed. If the batch
+ *     fails, each update is retried in its own transaction; updates that still fail stay
+ *     pending and are retried after RETRY_INTERVAL, up to MAX_ATTEMPTS times.
+ */
+public class GateEventPipeline {
+
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final int MAX_BATCH_SIZE = 200;
+    private static final Duration FLUSH_INTERVAL = Duration.ofMillis(500);
+    private static final Duration REORDER_WINDOW = Duration.ofSeconds(2);
+    private static final Duration DUPLICATE_WINDOW = Duration.ofSeconds(60);
+    private static final Duration RETRY_INTERVAL = Duration.ofSeconds(5);
+    private static final int MAX_ATTEMPTS = 12;
+
+    private final VehicleDAO vehicleDAO;
+    private final ReservationDAO reservationDAO;
+    private final ParkingDAO parkingDAO;
+    private final PlateIndex plateIndex;
+
+    private final BlockingQueue<GateEvent> inbox = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    // === Worker-thread state (only touched by the worker) ===
+    private final PriorityQueue<GateEvent> reorderBuffer = new PriorityQueue<>(
+            Comparator.comparing(GateEvent::getTimestamp).thenComparingLong(GateEvent::getSequence));
+    private final Map<String, LocalDateTime> lastAccepted = new HashMap<>();
+    private final Map<Integer, PendingUpdate> pending = new LinkedHashMap<>();
+    private long oldestPendingNanos = -1;
+    // After a failed flush, nothing is written again before this (System.nanoTime), or -1
+    private long retryAtNanos = -1;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    // === Counters ===
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong unmatched = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * The check-in and/or check-out waiting to be written for one reservation.
+     */
+    private static class PendingUpdate {
+        final Reservation reservation;
+        LocalDateTime checkIn;
+        LocalDateTime checkOut;
+        // Failed writes of this update while the database was reachable
+        int attempts;
+
+        PendingUpdate(Reservation reservation) {
+            this.reservation = reservation;
+        }
+    }
+
+    public GateEventPipeline() {
+        this.vehicleDAO = new VehicleDAO();
+        this.reservationDAO = new ReservationDAO();
+        this.parkingDAO = new ParkingDAO();
+        this.plateIndex = PlateIndex.getInstance();
+    }
+
+    /**
+     * Starts the worker thread. Events submitted before start() are kept in the queue.
+     */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        worker = new Thread(this::runWorker, "gate-event-pipeline");
+        worker.setDaemon(true);
+        worker.start();
+        System.out.println("GateEventPipeline: Started.");
+    }
+
+    /**
+     * Stops the worker after releasing everything still buffered and flushing the last batch.
+     */
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("GateEventPipeline: Stopped. " + getStats());
+    }
+
+    /**
+     * Queues an event, blocking while the queue is full so that a bursting source
+     * is slowed down instead of losing reads.
+     */
+    public void submit(GateEvent event) throws InterruptedException {
+        inbox.put(event);
+        received.incrementAndGet();
+    }
+
+    public String getStats() {
+        return "received=" + received.get() +
+                ", applied=" + applied.get() +
+                ", duplicates=" + duplicates.get() +
+                ", unmatched=" + unmatched.get() +
+                ", stale=" + stale.get() +
+                ", failed=" + failed.get();
+    }
+
+    // === WORKER ===
+
+    private void runWorker() {
+        List<GateEvent> drained = new ArrayList<>();
+        while (running || !inbox.isEmpty()) {
+            try {
+                GateEvent first = inbox.poll(FLUSH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    reorderBuffer.add(first);
+                    inbox.drainTo(drained, MAX_BATCH_SIZE);
+                    reorderBuffer.addAll(drained);
+                    drained.clear();
+                }
+            } catch (InterruptedException e) {
+                // stop() interrupts a blocking poll; the loop condition decides whether to exit
+            }
+
+            releaseReadyEvents(!running);
+            if (shouldFlush() || !running) {
+                flush();
+            }
+        }
+        releaseReadyEvents(true);
+        flush();
+    }
+
+    /**
+     * Hands events to the matcher in timestamp order once they have waited out the reorder window.
+     */
+    private void releaseReadyEvents(boolean releaseAll) {
+        long cutoff = System.nanoTime() - REORDER_WINDOW.toNanos();
+        while (!reorderBuffer.isEmpty()) {
+            GateEvent head = reorderBuffer.peek();
+            if (!releaseAll && head.getReceivedAtNanos() > cutoff) {
+                break;
+            }
+            reorderBuffer.poll();
+            process(head);
+        }
+    }
+
+    private void process(GateEvent event) {
+        if (isDuplicate(event)) {
+            duplicates.incrementAndGet();
+            return;
+        }
+
+        Optional<Reservation> reservationOpt = matchReservation(event);
+        if (reservationOpt.isEmpty()) {
+            unmatched.incrementAndGet();
+            System.err.println("GateEventPipeline: No open reservation for " + event);
+            return;
+        }
+
+        Reservation reservation = reservationOpt.get();
+        PendingUpdate update = pending.computeIfAbsent(reservation.getReservationID(), id -> new PendingUpdate(reservation));
+
+        if (event.getDirection() == GateEvent.Direction.IN) {
+            if (update.checkOut != null && !event.getTimestamp().isBefore(update.checkOut)) {
+                // An entry after the exit already recorded for this stay belongs to a later visit
+                stale.incrementAndGet();
+                return;
+            }
+            // The earliest entry read wins if a late event arrives after a re-read
+            if (update.checkIn == null || event.getTimestamp().isBefore(update.checkIn)) {
+                update.checkIn = event.getTimestamp();
+            }
+        } else {
+            LocalDateTime enteredAt = update.checkIn != null ? update.checkIn : reservation.getCheckInTime();
+            if (enteredAt != null && event.getTimestamp().isBefore(enteredAt)) {
+                stale.incrementAndGet();
+                return;
+            }
+            // The latest exit read wins
+            if (update.checkOut == null || event.getTimestamp().isAfter(update.checkOut)) {
+                update.checkOut = event.getTimestamp();
+            }
+        }
+
+        if (oldestPendingNanos < 0) {
+            oldestPendingNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * A plate seen again in the same direction at the same branch within the duplicate window is a re-read.
+     */
+    private boolean isDuplicate(GateEvent event) {
+        String key = event.getPlate() + "|" + event.getBranchID() + "|" + event.getDirection();
+        LocalDateTime previous = lastAccepted.get(key);
+        if (previous != null && Duration.between(previous, event.getTimestamp()).abs().compareTo(DUPLICATE_WINDOW) < 0) {
+            return true;
+        }
+        lastAccepted.put(key, event.getTimestamp());
+
+        // Keep the map from growing without bound during a long shift
+        if (lastAccepted.size() > QUEUE_CAPACITY) {
+            LocalDateTime horizon = event.getTimestamp().minus(DUPLICATE_WINDOW);
+            lastAccepted.values().removeIf(seen -> seen.isBefore(horizon));
+        }
+        return false;
+    }
+
+    /**
+     * Resolves the event through the plate index. Only when the index has no answer
+     * (unknown plate, or an exit for a stay that was paid before leaving) does it fall back to the database.
+     */
+    private Optional<Reservation> matchReservation(GateEvent event) {
+        boolean exit = event.getDirection() == GateEvent.Direction.OUT;
+
+        Optional<PlateIndex.PlateMatch> match = plateIndex.lookup(event.getPlate());
+        if (match.isPresent()) {
+            Optional<Reservation> indexed = plateIndex.reservationFor(match.get(), event.getBranchID(), event.getTimestamp(), exit);
+            if (indexed.isPresent() || !exit) {
+                return indexed;
+            }
+            return reservationDAO.findReservationForGateEvent(match.get().vehicleID(), event.getBranchID(), event.getTimestamp(), true);
+        }
+
+        Optional<Vehicle> vehicleOpt = vehicleDAO.findVehicleByPlate(event.getPlate());
+        if (vehicleOpt.isEmpty()) {
+            return Optional.empty();
+        }
+        return reservationDAO.findReservationForGateEvent(
+                vehicleOpt.get().getVehicle_id(),
+                event.getBranchID(),
+                event.getTimestamp(),
+                exit
+        );
+    }
+
+    private boolean shouldFlush() {
+        if (pending.isEmpty()) return false;
+        if (retryAtNanos >= 0 && System.nanoTime() < retryAtNanos) return false;
+        return pending.size() >= MAX_BATCH_SIZE
+                || System.nanoTime() - oldestPendingNanos >= FLUSH_INTERVAL.toNanos();
+    }
+
+    /**
+     * Writes every pending check-in/check-out in a single transaction. If that fails, retries
+     * each one on its own so one bad update cannot hold back the others; whatever still fails
+     * stays pending for the next attempt.
+     */
+    private void flush() {
+        if (pending.isEmpty()) return;
+
+        List<PendingUpdate> batch = new ArrayList<>(pending.values());
+        try {
+            write(batch);
+            pending.clear();
+        } catch (SQLException e) {
+            System.err.println("GateEventPipeline Error in flush: " + e.getMessage());
+            if (!isConnectionError(e)) {
+                retryOneByOne(batch);
+            }
+        }
+
+        if (pending.isEmpty()) {
+            oldestPendingNanos = -1;
+            retryAtNanos = -1;
+        } else {
+            retryAtNanos = System.nanoTime() + RETRY_INTERVAL.toNanos();
+            if (!running) {
+                failed.addAndGet(pending.size());
+                System.err.println("GateEventPipeline: Stopping with " + pending.size() + " unwritten updates for reservations " + pending.keySet());
+                pending.clear();
+            }
+        }
+    }
+
+    private void retryOneByOne(List<PendingUpdate> batch) {
+        for (PendingUpdate update : batch) {
+            int reservationID = update.reservation.getReservationID();
+            try {
+                write(List.of(update));
+                pending.remove(reservationID);
+            } catch (SQLException e) {
+                if (isConnectionError(e)) {
+                    // The database is gone; keep the rest for the next attempt
+                    return;
+                }
+                if (++update.attempts >= MAX_ATTEMPTS) {
+                    failed.incrementAndGet();
+                    pending.remove(reservationID);
+                    System.err.println("GateEventPipeline: Giving up on reservation " + reservationID + " (check-in "
+                            + update.checkIn + ", check-out " + update.checkOut + "): " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the updates in one transaction, then journals and publishes them.
+     */
+    private void write(List<PendingUpdate> updates) throws SQLException {
+        List<Reservation> checkIns = new ArrayList<>();
+        List<Reservation> checkOuts = new ArrayList<>();
+        List<String> releasedSpots = new ArrayList<>();
+
+        for (PendingUpdate update : updates) {
+            Reservation reservation = update.reservation;
+            if (update.checkIn != null) {
+                reservation.setCheckInTime(update.checkIn);
+                checkIns.add(reservation);
+            }
+            if (update.checkOut != null) {
+                reservation.setCheckOutTime(update.checkOut);
+                checkOuts.add(reservation);
+            }
+        }
+
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            if (!checkIns.isEmpty()) reservationDAO.batchUpdateCheckIns(checkIns, conn);
+            if (!checkOuts.isEmpty()) {
+                reservationDAO.batchUpdateCheckOuts(checkOuts, conn);
+                // A slot already re-booked (the sweep freed it during an overstay) stays with its new booking
+                int[] released = parkingDAO.batchReleaseSlotsAfterStay(checkOuts, conn);
+                for (int i = 0; i < released.length; i++) {
+                    if (released[i] > 0) releasedSpots.add(checkOuts.get(i).getSpotID());
+                }
+            }
+
+            conn.commit();
+        } catch (SQLException e) {
+            if (conn != null) {
+                try { conn.rollback(); } catch (SQLException ex) { System.err.println("Rollback failed: " + ex.getMessage()); }
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    System.err.println("Error restoring connection state: " + e.getMessage());
+                }
+                DBConnectionUtil.closeConnection(conn);
+            }
+        }
+
+        applied.addAndGet(checkIns.size() + checkOuts.size());
+        for (Reservation reservation : checkIns) {
+            // A stay that also left in this batch is recorded once, with its check-out below
+            if (!checkOuts.contains(reservation)) {
+                ReservationStateStore.recordReservation(reservation);
+            }
+        }
+        for (Reservation reservation : checkOuts) {
+            ReservationStateStore.recordStatus(reservation, ReservationStatus.COMPLETED);
+        }
+        for (String spotID : releasedSpots) {
+            ReservationStateStore.recordSlotAvailability(spotID, true);
+        }
+        for (PendingUpdate update : updates) {
+            ChangeNotifier.publish(Topic.RESERVATION, Action.UPDATED, update.reservation.getReservationID());
+        }
+    }
+
+    /**
+     * SQLState class 08: the connection failed, so retrying row by row now would fail the same way.
+     */
+    private static boolean isConnectionError(SQLException e) {
+        return e.getSQLState() != null && e.getSQLState().startsWith("08");
+    }
+
+    /**
+     * Runs the pipeline stand-alone.
+     * Usage: java Service.Gate.GateEventPipeline --socket 9090
+     *        java Service.Gate.GateEventPipeline --file /var/log/gates.csv [--follow]
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: GateEventPipeline --socket <port> | --file <path> [--follow]");
+            return;
+        }
+
+        ReservationStateStore.open();
+        GateEventPipeline pipeline = new GateEventPipeline();
+        pipeline.start();
+        GateEventSource source = new GateEventSource(pipeline);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            source.close();
+            pipeline.stop();
+            ReservationStateStore.get().ifPresent(ReservationStateStore::close);
+        }));
+
+        try {
+            switch (args[0]) {
+                case "--socket" -> source.listen(Integer.parseInt(args[1]));
+                case "--file" -> {
+                    boolean follow = args.length > 2 && args[2].equals("--follow");
+                    source.readFile(java.nio.file.Path.of(args[1]), follow);
+                    if (!follow) {
+                        pipeline.stop();
+                    }
+                }
+                default -> System.err.println("Unknown option: " + args[0]);
+            }
+        } catch (Exception e) {
+            System.err.println("GateEventPipeline: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package Service.Gate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Feeds gate readings into a GateEventPipeline.
+ * Barrier controllers can either stream lines over TCP (one virtual thread per connected gate)
+ * or have their log file read / followed.
+ */
+public class GateEventSource implements AutoCloseable {
+
+    private static final long FOLLOW_POLL_MILLIS = 250;
+
+    private final GateEventPipeline pipeline;
+    private volatile ServerSocket serverSocket;
+    private volatile boolean closed;
+
+    public GateEventSource(GateEventPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Accepts gate connections on the given port until close() is called.
+     * Each connection is read on its own virtual thread, so a slow gate never holds up the others.
+     */
+    public void listen(int port) throws IOException {
+        serverSocket = new ServerSocket(port);
+        System.out.println("GateEventSource: Listening for gate feeds on port " + port);
+
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (closed) break;
+                System.err.println("GateEventSource Error in listen: " + e.getMessage());
+                continue;
+            }
+            Thread.ofVirtual().name("gate-feed-" + socket.getRemoteSocketAddress()).start(() -> readSocket(socket));
+        }
+    }
+
+    /**
+     * Reads a gate log file. With follow set, keeps reading lines appended to the file until close().
+     */
+    public void readFile(Path path, boolean follow) throws IOException, InterruptedException {
+        if (!follow) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null && !closed) {
+                    accept(line);
+                }
+            }
+            return;
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
+            StringBuilder partial = new StringBuilder();
+            while (!closed) {
+                int b = file.read();
+                if (b < 0) {
+                    Thread.sleep(FOLLOW_POLL_MILLIS);
+                    continue;
+                }
+                if (b == '\n') {
+                    accept(partial.toString());
+                    partial.setLength(0);
+                } else if (b != '\r') {
+                    partial.append((char) b);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                System.err.println("GateEventSource Error in close: " + e.getMessage());
+            }
+        }
+    }
+
+    // === HELPER METHODS ===
+
+    private void readSocket(Socket socket) {
+        try (socket; BufferedReader reader = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null && !closed) {
+                accept(line);
+            }
+        } catch (IOException e) {
+            System.err.println("GateEventSource Error reading " + socket.getRemoteSocketAddress() + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void accept(String line) throws InterruptedException {
+        if (line.isBlank() || line.startsWith("#")) {
+            return;
+        }
+        try {
+            pipeline.submit(GateEvent.parse(line));
+        } catch (IllegalArgumentException e) {
+            System.err.println("GateEventSource: Skipping bad line - " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package Service.Gate;
+
+import DAO.ParkingDAO;
+import DAO.ReservationDAO;
+import DAO.VehicleDAO;
+import Model.Entity.ParkingSlot;
+import Model.Entity.Reservation;
+import Model.Entity.ReservationStatus;
+import Model.Entity.Vehicle;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.Action;
+import Utilities.ChangeNotifier.ChangeEvent;
+import Utilities.ChangeNotifier.Topic;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory index from plate number to vehicle, owner and active reservations,
+ * so a plate read at the barrier can be resolved without touching the database.
+ *
+ * Lookups are lock-free reads of concurrent maps. The index is loaded once, then kept
+ * current by VEHICLE and RESERVATION events from ChangeNotifier, and fully reloaded
+ * every REFRESH_INTERVAL to pick up writes made by other processes (e.g. the desktop app).
+ * Events are applied on the index's own worker thread, since applying one may need a
+ * database lookup and publishers often still hold a connection.
+ *
+ * Fuzzy matching tolerates one OCR error (a wrong, missing or extra character) using
+ * one-character-deletion keys: two plates within one edit always share such a key.
+ */
+public class PlateIndex implements ChangeNotifier.ChangeListener {
+
+    private static final Duration REFRESH_INTERVAL = Duration.ofMinutes(10);
+
+    /**
+     * How a plate read was resolved.
+     */
+    public enum MatchType { EXACT, FUZZY }
+
+    /**
+     * A resolved plate read.
+     *
+     * @param plate              The registered plate (normalised) the read was matched to
+     * @param vehicleID          The matched vehicle
+     * @param userID             The vehicle's owner
+     * @param matchType          EXACT, or FUZZY when the read was off by one character
+     * @param activeReservations The vehicle's active reservations across all branches
+     */
+    public record PlateMatch(String plate, int vehicleID, int userID, MatchType matchType, List<Reservation> activeReservations) {}
+
+    private record VehicleEntry(String plate, int vehicleID, int userID) {}
+
+    /**
+     * Everything the index holds. A full reload builds a new State and swaps it in.
+     */
+    private static class State {
+        final Map<String, VehicleEntry> byPlate = new ConcurrentHashMap<>();
+        final Map<Integer, String> plateByVehicle = new ConcurrentHashMap<>();
+        final Map<String, Set<String>> deletionKeys = new ConcurrentHashMap<>();
+        final Map<Integer, List<Reservation>> activeByVehicle = new ConcurrentHashMap<>();
+        final Map<Integer, Integer> vehicleByReservation = new ConcurrentHashMap<>();
+        final Map<String, Integer> branchBySpot = new ConcurrentHashMap<>();
+    }
+
+    private static volatile PlateIndex instance;
+
+    private final VehicleDAO vehicleDAO;
+    private final ReservationDAO reservationDAO;
+    private final ParkingDAO parkingDAO;
+
+    private volatile State state = new State();
+
+    // Events that arrive while a reload is reading the database are replayed on the new state
+    private List<ChangeEvent> eventsDuringReload;
+    private final Object writeLock = new Object();
+
+    // Applies events and runs the periodic reloads
+    private final ScheduledExecutorService worker;
+
+    private PlateIndex() {
+        this.vehicleDAO = new VehicleDAO();
+        this.reservationDAO = new ReservationDAO();
+        this.parkingDAO = new ParkingDAO();
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "plate-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the shared index, loading it and subscribing it to changes on first use.
+     */
+    public static PlateIndex getInstance() {
+        if (instance == null) {
+            synchronized (PlateIndex.class) {
+                if (instance == null) {
+                    PlateIndex index = new PlateIndex();
+                    index.reload();
+                    ChangeNotifier.subscribe(index);
+                    index.startRefresher();
+                    instance = index;
+                }
+            }
+        }
+        return instance;
+    }
+
+    // === LOOKUPS ===
+
+    /**
+     * Resolves a plate read, first exactly and then allowing one wrong, missing or extra character.
+     * A fuzzy read that fits more than one registered plate is treated as unmatched.
+     *
+     * @param plateRead The plate as read by the camera (any case/spacing)
+     * @return The match, or empty if the plate is unknown or ambiguous
+     */
+    public Optional<PlateMatch> lookup(String plateRead) {
+        String plate = GateEvent.normalisePlate(plateRead);
+        if (plate.isEmpty()) {
+            return Optional.empty();
+        }
+        State current = state;
+
+        VehicleEntry exact = current.byPlate.get(plate);
+        if (exact != null) {
+            return Optional.of(toMatch(current, exact, MatchType.EXACT));
+        }
+
+        Set<String> candidates = new HashSet<>();
+        addCandidates(current, plate, plate, candidates);
+        for (int i = 0; i < plate.length(); i++) {
+            addCandidates(current, deleteAt(plate, i), plate, candidates);
+        }
+
+        if (candidates.size() != 1) {
+            if (candidates.size() > 1) {
+                System.err.println("PlateIndex: Ambiguous read " + plate + " matches " + candidates);
+            }
+            return Optional.empty();
+        }
+
+        VehicleEntry entry = current.byPlate.get(candidates.iterator().next());
+        return entry == null ? Optional.empty() : Optional.of(toMatch(current, entry, MatchType.FUZZY));
+    }
+
+    /**
+     * Picks the active reservation a gate event at a branch belongs to:
+     * on entry the one whose expected arrival is closest to the event, on exit the latest stay
+     * already checked in. Exits for stays that were paid before leaving (no longer Active)
+     * are not held in the index.
+     *
+     * @param match     A result of lookup()
+     * @param branchID  The branch the gate belongs to
+     * @param eventTime When the vehicle passed the gate
+     * @param exit      true for an exit gate
+     * @return The reservation, or empty if none of the vehicle's active reservations fit
+     */
+    public Optional<Reservation> reservationFor(PlateMatch match, int branchID, LocalDateTime eventTime, boolean exit) {
+        State current = state;
+        List<Reservation> atBranch = new ArrayList<>();
+        for (Reservation reservation : match.activeReservations()) {
+            Integer branch = current.branchBySpot.get(reservation.getSpotID());
+            if (branch != null && branch == branchID) {
+                atBranch.add(reservation);
+            }
+        }
+
+        if (exit) {
+            return atBranch.stream()
+                    .filter(r -> r.getCheckInTime() != null && !r.getCheckInTime().isAfter(eventTime))
+                    .max(Comparator.comparing(Reservation::getCheckInTime));
+        }
+        return atBranch.stream()
+                .filter(r -> r.getExpectedTimeIn() != null)
+                .min(Comparator.comparing(r -> Duration.between(r.getExpectedTimeIn(), eventTime).abs()));
+    }
+
+    public int size() {
+        return state.byPlate.size();
+    }
+
+    // === MAINTENANCE ===
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        if (event.topic() != Topic.VEHICLE && event.topic() != Topic.RESERVATION) {
+            return;
+        }
+        try {
+            worker.execute(() -> handle(event));
+        } catch (RuntimeException e) {
+            System.err.println("PlateIndex: Could not queue " + event + ": " + e.getMessage());
+        }
+    }
+
+    // Worker thread
+    private void handle(ChangeEvent event) {
+        if (event.topic() == Topic.RESERVATION && event.id() == ChangeNotifier.ALL) {
+            // Bulk status change (expiry sweep): cheaper to reload than to work out what changed
+            reload();
+            return;
+        }
+        State target;
+        synchronized (writeLock) {
+            if (eventsDuringReload != null) {
+                eventsDuringReload.add(event);
+            }
+            target = state;
+        }
+        apply(target, event);
+    }
+
+    /**
+     * Rebuilds the index from the database and swaps it in. Lookups keep using the old state until the swap.
+     */
+    public void reload() {
+        synchronized (writeLock) {
+            if (eventsDuringReload != null) return;
+            eventsDuringReload = new ArrayList<>();
+        }
+
+        long start = System.nanoTime();
+        State fresh = new State();
+        for (ParkingSlot slot : parkingDAO.getAllSlots()) {
+            fresh.branchBySpot.put(slot.getSpot_ID(), slot.getBranch_ID());
+        }
+        for (Vehicle vehicle : vehicleDAO.getAllVehicles()) {
+            putVehicle(fresh, vehicle);
+        }
+        for (Reservation reservation : reservationDAO.getActiveReservations()) {
+            putReservation(fresh, reservation);
+        }
+
+        List<ChangeEvent> missed;
+        synchronized (writeLock) {
+            missed = eventsDuringReload;
+            eventsDuringReload = null;
+            state = fresh;
+        }
+        for (ChangeEvent event : missed) {
+            apply(fresh, event);
+        }
+        System.out.println("PlateIndex: Loaded " + fresh.byPlate.size() + " plates in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    private void apply(State target, ChangeEvent event) {
+        synchronized (writeLock) {
+            switch (event.topic()) {
+                case VEHICLE -> {
+                    if (event.action() == Action.DELETED) {
+                        removeVehicle(target, event.id());
+                    } else if (event.entity() instanceof Vehicle vehicle) {
+                        putVehicle(target, vehicle);
+                    } else {
+                        vehicleDAO.findVehicleById(event.id()).ifPresent(vehicle -> putVehicle(target, vehicle));
+                    }
+                }
+                case RESERVATION -> {
+                    if (event.id() == ChangeNotifier.ALL) return;
+                    removeReservation(target, event.id());
+                    Optional<Reservation> reservation = event.entity() instanceof Reservation r
+                            ? Optional.of(r)
+                            : reservationDAO.getReservationByID(event.id());
+                    reservation.filter(r -> r.getStatus() == ReservationStatus.ACTIVE)
+                            .ifPresent(r -> putReservation(target, r));
+                }
+                default -> { }
+            }
+        }
+    }
+
+    private void putVehicle(State target, Vehicle vehicle) {
+        String plate = GateEvent.normalisePlate(vehicle.getPlate_number());
+        if (plate.isEmpty()) return;
+
+        removeVehicle(target, vehicle.getVehicle_id());
+        target.byPlate.put(plate, new VehicleEntry(plate, vehicle.getVehicle_id(), vehicle.getUser_id()));
+        target.plateByVehicle.put(vehicle.getVehicle_id(), plate);
+        for (int i = 0; i < plate.length(); i++) {
+            target.deletionKeys.computeIfAbsent(deleteAt(plate, i), k -> ConcurrentHashMap.newKeySet()).add(plate);
+        }
+    }
+
+    private void removeVehicle(State target, int vehicleID) {
+        String plate = target.plateByVehicle.remove(vehicleID);
+        if (plate == null) return;
+
+        target.byPlate.remove(plate);
+        for (int i = 0; i < plate.length(); i++) {
+            String key = deleteAt(plate, i);
+            Set<String> plates = target.deletionKeys.get(key);
+            if (plates != null) {
+                plates.remove(plate);
+                if (plates.isEmpty()) target.deletionKeys.remove(key);
+            }
+        }
+        // Reservations cascade with the vehicle
+        List<Reservation> reservations = target.activeByVehicle.remove(vehicleID);
+        if (reservations != null) {
+            reservations.forEach(r -> target.vehicleByReservation.remove(r.getReservationID()));
+        }
+    }
+
+    private void putReservation(State target, Reservation reservation) {
+        if (!target.branchBySpot.containsKey(reservation.getSpotID())) {
+            try {
+                parkingDAO.getSlotByID(reservation.getSpotID())
+                        .ifPresent(slot -> target.branchBySpot.put(slot.getSpot_ID(), slot.getBranch_ID()));
+            } catch (java.sql.SQLException e) {
+                System.err.println("PlateIndex Error loading slot " + reservation.getSpotID() + ": " + e.getMessage());
+            }
+        }
+        // Lists are replaced rather than mutated so readers never see a half-updated list
+        target.activeByVehicle.merge(reservation.getVehicleID(), List.of(reservation), (old, added) -> {
+            List<Reservation> merged = new ArrayList<>(old);
+            merged.addAll(added);
+            return Collections.unmodifiableList(merged);
+        });
+        target.vehicleByReservation.put(reservation.getReservationID(), reservation.getVehicleID());
+    }
+
+    private void removeReservation(State target, int reservationID) {
+        Integer vehicleID = target.vehicleByReservation.remove(reservationID);
+        if (vehicleID == null) return;
+
+        target.activeByVehicle.computeIfPresent(vehicleID, (id, old) -> {
+            List<Reservation> kept = new ArrayList<>(old);
+            kept.removeIf(r -> r.getReservationID() == reservationID);
+            return kept.isEmpty() ? null : Collections.unmodifiableList(kept);
+        });
+    }
+
+    private void startRefresher() {
+        long period = REFRESH_INTERVAL.toMillis();
+        worker.scheduleAtFixedRate(this::reload, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // === HELPER METHODS ===
+
+    private static PlateMatch toMatch(State current, VehicleEntry entry, MatchType type) {
+        List<Reservation> active = current.activeByVehicle.getOrDefault(entry.vehicleID(), List.of());
+        return new PlateMatch(entry.plate(), entry.vehicleID(), entry.userID(), type, active);
+    }
+
+    private static void addCandidates(State current, String key, String read, Set<String> candidates) {
+        Set<String> plates = current.deletionKeys.get(key);
+        if (plates == null) return;
+        for (String plate : plates) {
+            if (withinOneEdit(plate, read)) {
+                candidates.add(plate);
+            }
+        }
+        // A read with one extra character: deleting it gives the registered plate itself
+        if (current.byPlate.containsKey(key) && withinOneEdit(key, read)) {
+            candidates.add(key);
+        }
+    }
+
+    private static String deleteAt(String s, int index) {
+        return s.substring(0, index) + s.substring(index + 1);
+    }
+
+    /**
+     * True if b can be turned into a by one substitution, insertion or deletion.
+     */
+    static boolean withinOneEdit(String a, String b) {
+        int lenA = a.length();
+        int lenB = b.length();
+        if (Math.abs(lenA - lenB) > 1) return false;
+
+        int i = 0;
+        int j = 0;
+        boolean edited = false;
+        while (i < lenA && j < lenB) {
+            if (a.charAt(i) == b.charAt(j)) {
+                i++;
+                j++;
+                continue;
+            }
+            if (edited) return false;
+            edited = true;
+            if (lenA > lenB) {
+                i++;
+            } else if (lenB > lenA) {
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return !edited || (i == lenA && j == lenB);
+    }
+}
@@ -0,0 +1,80 @@
+package Service.Journal;
+
+import Service.ReservationService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the reservation expiry sweep as soon as the state store says a reservation has run
+ * past its time out plus the overstay grace, and otherwise at least every MAX_WAIT. The store only knows about
+ * reservations recorded in this process's journal (plus whatever the last reconcile read),
+ * so the fixed sweep is what expires reservations made by the desktop app.
+ */
+public class ExpiryScheduler implements AutoCloseable {
+
+    // Upper bound between sweeps, so reservations created by other processes still expire on time
+    private static final Duration MAX_WAIT = Duration.ofMinutes(1);
+
+    private final ReservationStateStore store;
+    private final ReservationService reservationService;
+    private final ScheduledExecutorService scheduler;
+
+    // Only touched on the scheduler thread
+    private LocalDateTime lastSweep = LocalDateTime.MIN;
+
+    public ExpiryScheduler(ReservationStateStore store) {
+        this.store = store;
+        this.reservationService = new ReservationService();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "expiry-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        scheduler.execute(this::runOnce);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void runOnce() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            boolean sweepDue = !now.isBefore(lastSweep.plus(MAX_WAIT));
+            if (sweepDue || !store.expiredBefore(now.minus(ReservationService.OVERSTAY_GRACE)).isEmpty()) {
+                lastSweep = now;
+                reservationService.refreshSystemStatuses();
+            }
+        } catch (RuntimeException e) {
+            System.err.println("ExpiryScheduler Error: " + e.getMessage());
+        } finally {
+            if (!scheduler.isShutdown()) {
+                scheduler.schedule(this::runOnce, nextDelay().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Sleeps until the next time out the store knows about has passed its grace, but never longer than MAX_WAIT.
+     */
+    private Duration nextDelay() {
+        Optional<LocalDateTime> next = store.nextExpiry();
+        if (next.isEmpty()) {
+            return MAX_WAIT;
+        }
+        Duration untilNext = Duration.between(LocalDateTime.now(), next.get().plus(ReservationService.OVERSTAY_GRACE)).plusSeconds(1);
+        if (untilNext.isNegative()) {
+            return Duration.ofSeconds(1);
+        }
+        return untilNext.compareTo(MAX_WAIT) < 0 ? untilNext : MAX_WAIT;
+    }
+}
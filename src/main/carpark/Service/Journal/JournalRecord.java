@@ -0,0 +1,164 @@
+package Service.Journal;
+
+import Model.Entity.Reservation;
+import Model.Entity.ReservationStatus;
+import Model.Entity.SlotType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * One state transition in the reservation journal.
+ * Each record carries the full new state of the thing that changed, so replay
+ * never has to look at earlier records or the database.
+ */
+public class JournalRecord {
+
+    public enum Type {
+        /** A slot was created (or first seen), with its branch, type and availability. */
+        SLOT_DEFINED,
+        /** A slot was taken or released. */
+        SLOT_AVAILABILITY,
+        /** A reservation was created or changed; carries the whole reservation. */
+        RESERVATION,
+        /** The expiry sweep completed every active reservation whose time out is before the record's time. */
+        EXPIRY_SWEEP
+    }
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final Type type;
+    private final String spotID;
+    private final int branchID;
+    private final SlotType slotType;
+    private final boolean available;
+    private final Reservation reservation;
+    private final LocalDateTime time;
+
+    private JournalRecord(Type type, String spotID, int branchID, SlotType slotType, boolean available,
+                          Reservation reservation, LocalDateTime time) {
+        this.type = type;
+        this.spotID = spotID;
+        this.branchID = branchID;
+        this.slotType = slotType;
+        this.available = available;
+        this.reservation = reservation;
+        this.time = time;
+    }
+
+    public static JournalRecord slotDefined(String spotID, int branchID, SlotType slotType, boolean available) {
+        return new JournalRecord(Type.SLOT_DEFINED, spotID, branchID, slotType, available, null, null);
+    }
+
+    public static JournalRecord slotAvailability(String spotID, boolean available) {
+        return new JournalRecord(Type.SLOT_AVAILABILITY, spotID, 0, null, available, null, null);
+    }
+
+    public static JournalRecord reservation(Reservation reservation) {
+        return new JournalRecord(Type.RESERVATION, null, 0, null, false, reservation, null);
+    }
+
+    public static JournalRecord expirySweep(LocalDateTime time) {
+        return new JournalRecord(Type.EXPIRY_SWEEP, null, 0, null, false, null, time);
+    }
+
+    public Type getType() {return type;}
+    public String getSpotID() {return spotID;}
+    public int getBranchID() {return branchID;}
+    public SlotType getSlotType() {return slotType;}
+    public boolean isAvailable() {return available;}
+    public Reservation getReservation() {return reservation;}
+    public LocalDateTime getTime() {return time;}
+
+    // === ENCODING ===
+
+    /**
+     * Writes the record body (everything except the journal's framing).
+     */
+    void writeTo(ByteBuffer buffer) {
+        buffer.put((byte) type.ordinal());
+        switch (type) {
+            case SLOT_DEFINED -> {
+                putString(buffer, spotID);
+                buffer.putInt(branchID);
+                buffer.put((byte) slotType.ordinal());
+                buffer.put((byte) (available ? 1 : 0));
+            }
+            case SLOT_AVAILABILITY -> {
+                putString(buffer, spotID);
+                buffer.put((byte) (available ? 1 : 0));
+            }
+            case RESERVATION -> {
+                buffer.putInt(reservation.getReservationID());
+                buffer.putInt(reservation.getVehicleID());
+                putString(buffer, reservation.getSpotID());
+                buffer.put((byte) reservation.getStatus().ordinal());
+                putTime(buffer, reservation.getExpectedTimeIn());
+                putTime(buffer, reservation.getCheckInTime());
+                putTime(buffer, reservation.getTimeOut());
+                putTime(buffer, reservation.getDateReserved());
+            }
+            case EXPIRY_SWEEP -> putTime(buffer, time);
+        }
+    }
+
+    static JournalRecord readFrom(ByteBuffer buffer) {
+        Type type = Type.values()[buffer.get()];
+        return switch (type) {
+            case SLOT_DEFINED -> slotDefined(getString(buffer), buffer.getInt(),
+                    SlotType.values()[buffer.get()], buffer.get() == 1);
+            case SLOT_AVAILABILITY -> slotAvailability(getString(buffer), buffer.get() == 1);
+            case RESERVATION -> {
+                int id = buffer.getInt();
+                int vehicleID = buffer.getInt();
+                String spot = getString(buffer);
+                ReservationStatus status = ReservationStatus.values()[buffer.get()];
+                LocalDateTime expected = getTime(buffer);
+                LocalDateTime checkIn = getTime(buffer);
+                LocalDateTime timeOut = getTime(buffer);
+                LocalDateTime reserved = getTime(buffer);
+                yield reservation(new Reservation(id, vehicleID, spot, expected, checkIn, timeOut, reserved, status));
+            }
+            case EXPIRY_SWEEP -> expirySweep(getTime(buffer));
+        };
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void putTime(ByteBuffer buffer, LocalDateTime time) {
+        buffer.putLong(time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    static LocalDateTime getTime(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        return seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    @Override
+    public String toString() {
+        return "JournalRecord{" +
+                "type=" + type +
+                (spotID != null ? ", spotID='" + spotID + '\'' : "") +
+                (reservation != null ? ", reservationID=" + reservation.getReservationID() + ", status=" + reservation.getStatus() : "") +
+                (time != null ? ", time=" + time : "") +
+                '}';
+    }
+}
@@ -0,0 +1,227 @@
+package Service.Journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of reservation and slot transitions, stored in memory-mapped segment files.
+ *
+ * Each segment is a fixed-size file named after the sequence number of its first record.
+ * A record is framed as: [int bodyLength][long sequence][body][int crc32 of sequence+body].
+ * Segments are zero-filled when created, so a zero length marks the end of the written data;
+ * a bad checksum (a write torn by a crash) is treated the same way.
+ *
+ * Appends only copy bytes into the mapping; the OS writes them back, and force() is called
+ * periodically and on close. The database stays the source of truth, so losing the last
+ * few records in a power cut only means the next startup replays slightly less.
+ */
+public class ReservationJournal implements AutoCloseable {
+
+    private static final long SEGMENT_SIZE = 64L * 1024 * 1024;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    // length + sequence + crc
+    private static final int FRAME_OVERHEAD = 4 + 8 + 4;
+
+    private final Path directory;
+    private final ByteBuffer scratch = ByteBuffer.allocate(64 * 1024);
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long lastSequence;
+
+    public ReservationJournal(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Replays every record with a sequence number above afterSequence, in order,
+     * then leaves the journal positioned to append after the last valid record.
+     *
+     * @param afterSequence The sequence covered by the snapshot already loaded (0 for none)
+     * @param consumer      Receives each record with its sequence number
+     * @return The number of records replayed
+     */
+    public synchronized long replay(long afterSequence, BiConsumer<Long, JournalRecord> consumer) throws IOException {
+        List<Path> segments = listSegments();
+        long replayed = 0;
+        lastSequence = afterSequence;
+
+        for (int i = 0; i < segments.size(); i++) {
+            // Skip whole segments that the snapshot already covers
+            if (i + 1 < segments.size() && firstSequenceOf(segments.get(i + 1)) <= afterSequence + 1) {
+                continue;
+            }
+            boolean lastSegment = i == segments.size() - 1;
+            try (FileChannel ch = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                while (true) {
+                    int position = buffer.position();
+                    JournalRecord record = readNext(buffer);
+                    if (record == null) {
+                        buffer.position(position);
+                        break;
+                    }
+                    long sequence = buffer.getLong(position + 4);
+                    lastSequence = Math.max(lastSequence, sequence);
+                    if (sequence > afterSequence) {
+                        consumer.accept(sequence, record);
+                        replayed++;
+                    }
+                }
+                if (lastSegment) {
+                    openForAppend(segments.get(i), buffer.position());
+                }
+            }
+        }
+
+        if (segment == null) {
+            openForAppend(segmentPath(lastSequence + 1), 0);
+        }
+        return replayed;
+    }
+
+    /**
+     * Appends a record and returns its sequence number.
+     */
+    public synchronized long append(JournalRecord record) throws IOException {
+        if (segment == null) {
+            throw new IllegalStateException("Journal must be replayed before appending");
+        }
+
+        scratch.clear();
+        scratch.position(FRAME_OVERHEAD - 4);
+        record.writeTo(scratch);
+        int bodyLength = scratch.position() - (FRAME_OVERHEAD - 4);
+
+        if (segment.remaining() < bodyLength + FRAME_OVERHEAD + 4) {
+            roll();
+        }
+
+        long sequence = lastSequence + 1;
+        scratch.putLong(4, sequence);
+        CRC32 crc = new CRC32();
+        crc.update(scratch.array(), 4, 8 + bodyLength);
+        scratch.putInt(0, bodyLength);
+        scratch.putInt((int) crc.getValue());
+
+        segment.put(scratch.array(), 0, scratch.position());
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Flushes written records from the page cache to disk.
+     */
+    public synchronized void force() {
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Deletes segments whose records are all covered by a snapshot at the given sequence.
+     */
+    public synchronized void truncateBefore(long snapshotSequence) throws IOException {
+        List<Path> segments = listSegments();
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            // A segment is fully covered when the next one starts at or before snapshotSequence + 1
+            if (firstSequenceOf(segments.get(i + 1)) <= snapshotSequence + 1) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // === HELPER METHODS ===
+
+    private void roll() throws IOException {
+        segment.force();
+        channel.close();
+        openForAppend(segmentPath(lastSequence + 1), 0);
+    }
+
+    private void openForAppend(Path path, int position) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+        segment.position(position);
+    }
+
+    /**
+     * Reads the record at the buffer's position, or returns null at the end of the written data.
+     */
+    private static JournalRecord readNext(ByteBuffer buffer) {
+        if (buffer.remaining() < FRAME_OVERHEAD) return null;
+
+        int start = buffer.position();
+        int bodyLength = buffer.getInt();
+        if (bodyLength <= 0 || bodyLength > buffer.remaining() - 12) return null;
+
+        long sequence = buffer.getLong();
+        ByteBuffer body = buffer.slice(buffer.position(), bodyLength);
+        buffer.position(buffer.position() + bodyLength);
+        int storedCrc = buffer.getInt();
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(start + 4, 8 + bodyLength));
+        if ((int) crc.getValue() != storedCrc || sequence <= 0) {
+            System.err.println("ReservationJournal: Stopping at torn record near offset " + start);
+            return null;
+        }
+
+        try {
+            return JournalRecord.readFrom(body);
+        } catch (RuntimeException e) {
+            System.err.println("ReservationJournal: Unreadable record " + sequence + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        // Names are zero-padded so lexical order is sequence order
+        segments.sort(null);
+        return segments;
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    private static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,503 @@
+package Service.Journal;
+
+import DAO.DBConnectionUtil;
+import DAO.ParkingDAO;
+import DAO.ReservationDAO;
+import Model.Entity.ParkingSlot;
+import Model.Entity.Reservation;
+import Model.Entity.ReservationStatus;
+import Model.Entity.SlotType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory view of slot availability and active reservations, backed by the ReservationJournal.
+ *
+ * On startup the store loads the latest snapshot and replays only the journal records written
+ * after it, so a node with years of reservation history starts in the time it takes to read
+ * the active set. Only the very first start (no snapshot, no journal) waits on the database at
+ * startup. Writes made by processes without a store (the desktop app) never reach the journal,
+ * so the state is also reconciled with the database in the background right after opening and
+ * then every RECONCILE_INTERVAL, and snapshotted. Queries should only be served once {@link #isReconciled()}.
+ *
+ * The services record every transition they commit through the static record* methods,
+ * which do nothing unless a store has been opened in this process (the API server and the
+ * gate pipeline open one; the desktop app does not). A directory lock stops two processes
+ * from writing the same journal.
+ */
+public class ReservationStateStore {
+
+    private static final String JOURNAL_DIR_PROPERTY = "journal.dir";
+    private static final String DEFAULT_JOURNAL_DIR = "data/journal";
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String LOCK_FILE = "journal.lock";
+    private static final int SNAPSHOT_MAGIC = 0x52534E50; // "RSNP"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    // Take a new snapshot after this many records so replay stays short
+    private static final long SNAPSHOT_EVERY = 100_000;
+    private static final long FORCE_INTERVAL_MILLIS = 200;
+    private static final Duration RECONCILE_INTERVAL = Duration.ofMinutes(15);
+
+    private static volatile ReservationStateStore instance;
+
+    /**
+     * Slot metadata and availability.
+     */
+    private record SlotState(int branchID, SlotType slotType, boolean available) {}
+
+    private final Path directory;
+    private final ReservationJournal journal;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final ScheduledExecutorService background;
+
+    // === State, guarded by this ===
+    private final Map<String, SlotState> slots = new HashMap<>();
+    private final Map<Integer, Reservation> active = new HashMap<>();
+    private final TreeSet<Reservation> byTimeOut = new TreeSet<>(
+            Comparator.comparing(Reservation::getTimeOut).thenComparingInt(Reservation::getReservationID));
+    private long appliedSequence;
+    private long snapshotSequence;
+    private boolean snapshotRunning;
+    // Set once the state has been read from the database in this process
+    private boolean reconciled;
+    // Records appended while a reconcile is reading the database are re-applied on top of what it read
+    private List<Map.Entry<Long, JournalRecord>> appendedDuringReconcile;
+
+    private ReservationStateStore(Path directory, FileChannel lockChannel, FileLock lock) throws IOException {
+        this.directory = directory;
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+        this.journal = new ReservationJournal(directory);
+        this.background = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "reservation-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the store in the directory configured by journal.dir in db.properties and recovers its state.
+     *
+     * @return The opened store, or empty if the journal is locked by another process or cannot be read
+     */
+    public static synchronized Optional<ReservationStateStore> open() {
+        if (instance != null) {
+            return Optional.of(instance);
+        }
+        Path directory = Path.of(DBConnectionUtil.getProperty(JOURNAL_DIR_PROPERTY, DEFAULT_JOURNAL_DIR));
+        FileChannel lockChannel = null;
+        try {
+            Files.createDirectories(directory);
+            lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock = lockChannel.tryLock();
+            if (lock == null) {
+                System.err.println("ReservationStateStore: " + directory + " is in use by another process; running without a journal.");
+                lockChannel.close();
+                return Optional.empty();
+            }
+
+            ReservationStateStore store = new ReservationStateStore(directory, lockChannel, lock);
+            store.recover();
+            store.background.scheduleAtFixedRate(store.journal::force, FORCE_INTERVAL_MILLIS, FORCE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            long reconcileMillis = RECONCILE_INTERVAL.toMillis();
+            store.background.scheduleWithFixedDelay(store::reconcile, 0, reconcileMillis, TimeUnit.MILLISECONDS);
+            instance = store;
+            return Optional.of(store);
+        } catch (IOException e) {
+            System.err.println("ReservationStateStore Error in open: " + e.getMessage());
+            if (lockChannel != null) {
+                try { lockChannel.close(); } catch (IOException ignored) { }
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the store opened in this process, if any.
+     */
+    public static Optional<ReservationStateStore> get() {
+        return Optional.ofNullable(instance);
+    }
+
+    // === RECORDING (called by the services after commit) ===
+
+    public static void recordReservation(Reservation reservation) {
+        record(JournalRecord.reservation(reservation));
+    }
+
+    /**
+     * Records a reservation that moved to a new status without any other field changing.
+     */
+    public static void recordStatus(Reservation reservation, ReservationStatus newStatus) {
+        record(JournalRecord.reservation(new Reservation(
+                reservation.getReservationID(), reservation.getVehicleID(), reservation.getSpotID(),
+                reservation.getExpectedTimeIn(), reservation.getCheckInTime(), reservation.getTimeOut(),
+                reservation.getDateReserved(), newStatus)));
+    }
+
+    public static void recordSlotDefined(ParkingSlot slot) {
+        record(JournalRecord.slotDefined(slot.getSpot_ID(), slot.getBranch_ID(), slot.getSlot_type(), slot.isAvailability()));
+    }
+
+    public static void recordSlotAvailability(String spotID, boolean available) {
+        record(JournalRecord.slotAvailability(spotID, available));
+    }
+
+    public static void recordExpirySweep(LocalDateTime time) {
+        record(JournalRecord.expirySweep(time));
+    }
+
+    private static void record(JournalRecord record) {
+        ReservationStateStore store = instance;
+        if (store != null) {
+            store.append(record);
+        }
+    }
+
+    // === QUERIES ===
+
+    /**
+     * Whether the state has been checked against the database since the store opened. Until then
+     * it may miss writes made while no store was running, and callers should read the database.
+     */
+    public synchronized boolean isReconciled() {
+        return reconciled;
+    }
+
+    /**
+     * Counts the free slots of each type at a branch.
+     */
+    public synchronized Map<SlotType, Integer> countAvailableByType(int branchID) {
+        Map<SlotType, Integer> counts = new EnumMap<>(SlotType.class);
+        for (SlotType type : SlotType.values()) {
+            counts.put(type, 0);
+        }
+        for (SlotState slot : slots.values()) {
+            if (slot.branchID() == branchID && slot.available() && slot.slotType() != null) {
+                counts.merge(slot.slotType(), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * The earliest time out among active reservations, for scheduling the next expiry sweep.
+     */
+    public synchronized Optional<LocalDateTime> nextExpiry() {
+        return byTimeOut.isEmpty() ? Optional.empty() : Optional.of(byTimeOut.first().getTimeOut());
+    }
+
+    /**
+     * Active reservations whose time out is before the given time.
+     */
+    public synchronized List<Reservation> expiredBefore(LocalDateTime time) {
+        List<Reservation> expired = new ArrayList<>();
+        for (Reservation reservation : byTimeOut) {
+            if (!reservation.getTimeOut().isBefore(time)) break;
+            expired.add(reservation);
+        }
+        return expired;
+    }
+
+    /**
+     * Takes a snapshot now and drops the journal segments it covers.
+     */
+    public void snapshot() {
+        Snapshot copy;
+        synchronized (this) {
+            if (snapshotRunning) return;
+            snapshotRunning = true;
+            copy = new Snapshot(appliedSequence, new HashMap<>(slots), new ArrayList<>(active.values()));
+        }
+        try {
+            writeSnapshot(copy);
+            journal.force();
+            journal.truncateBefore(copy.sequence);
+            synchronized (this) {
+                snapshotSequence = copy.sequence;
+            }
+        } catch (IOException e) {
+            System.err.println("ReservationStateStore Error in snapshot: " + e.getMessage());
+        } finally {
+            synchronized (this) {
+                snapshotRunning = false;
+            }
+        }
+    }
+
+    /**
+     * Replaces the slots and active reservations with what the database holds now, keeping any
+     * transitions recorded while it was being read, then takes a snapshot of the result.
+     */
+    public void reconcile() {
+        synchronized (this) {
+            if (appendedDuringReconcile != null) return;
+            appendedDuringReconcile = new ArrayList<>();
+        }
+        List<Map.Entry<Long, JournalRecord>> missed;
+        try {
+            List<ParkingSlot> dbSlots = new ParkingDAO().getAllSlots();
+            List<Reservation> dbActive = new ReservationDAO().getActiveReservations();
+            synchronized (this) {
+                missed = appendedDuringReconcile;
+                if (dbSlots.isEmpty() && !slots.isEmpty()) {
+                    // The DAO returns an empty list on error; keep the journal's view rather than wipe it
+                    System.err.println("ReservationStateStore: Reconcile read no slots; keeping the current state.");
+                    return;
+                }
+                slots.clear();
+                active.clear();
+                byTimeOut.clear();
+                for (ParkingSlot slot : dbSlots) {
+                    slots.put(slot.getSpot_ID(), new SlotState(slot.getBranch_ID(), slot.getSlot_type(), slot.isAvailability()));
+                }
+                for (Reservation reservation : dbActive) {
+                    putActive(reservation);
+                }
+                for (Map.Entry<Long, JournalRecord> entry : missed) {
+                    apply(entry.getKey(), entry.getValue());
+                }
+                reconciled = true;
+            }
+        } catch (RuntimeException e) {
+            System.err.println("ReservationStateStore Error in reconcile: " + e.getMessage());
+            return;
+        } finally {
+            synchronized (this) {
+                appendedDuringReconcile = null;
+            }
+        }
+        snapshot();
+    }
+
+    public void close() {
+        // Let a snapshot that is being written finish before the journal goes away
+        background.shutdown();
+        try {
+            background.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            journal.close();
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            System.err.println("ReservationStateStore Error in close: " + e.getMessage());
+        }
+        instance = null;
+    }
+
+    // === RECOVERY ===
+
+    private void recover() throws IOException {
+        long start = System.nanoTime();
+        Path snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        boolean fromSnapshot = Files.exists(snapshotPath);
+
+        if (fromSnapshot) {
+            loadSnapshot(snapshotPath);
+        }
+        long replayed = journal.replay(appliedSequence, this::apply);
+
+        if (!fromSnapshot && replayed == 0) {
+            bootstrapFromDatabase();
+            reconciled = true;
+            snapshot();
+        }
+
+        System.out.println("ReservationStateStore: Recovered " + slots.size() + " slots and " + active.size()
+                + " active reservations (" + replayed + " journal records replayed) in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    /**
+     * First start only: seeds the state from the database.
+     */
+    private void bootstrapFromDatabase() {
+        for (ParkingSlot slot : new ParkingDAO().getAllSlots()) {
+            slots.put(slot.getSpot_ID(), new SlotState(slot.getBranch_ID(), slot.getSlot_type(), slot.isAvailability()));
+        }
+        for (Reservation reservation : new ReservationDAO().getActiveReservations()) {
+            putActive(reservation);
+        }
+    }
+
+    /**
+     * Appends and applies under the store's lock so the in-memory state always
+     * reflects the journal in sequence order.
+     */
+    private void append(JournalRecord record) {
+        boolean snapshotDue;
+        synchronized (this) {
+            long sequence;
+            try {
+                sequence = journal.append(record);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("ReservationStateStore Error appending " + record + ": " + e.getMessage());
+                return;
+            }
+            apply(sequence, record);
+            if (appendedDuringReconcile != null) {
+                appendedDuringReconcile.add(Map.entry(sequence, record));
+            }
+            snapshotDue = !snapshotRunning && appliedSequence - snapshotSequence >= SNAPSHOT_EVERY;
+        }
+        if (snapshotDue) {
+            background.execute(this::snapshot);
+        }
+    }
+
+    private synchronized void apply(long sequence, JournalRecord record) {
+        switch (record.getType()) {
+            case SLOT_DEFINED -> slots.put(record.getSpotID(),
+                    new SlotState(record.getBranchID(), record.getSlotType(), record.isAvailable()));
+            case SLOT_AVAILABILITY -> {
+                SlotState slot = slots.get(record.getSpotID());
+                if (slot != null) {
+                    slots.put(record.getSpotID(), new SlotState(slot.branchID(), slot.slotType(), record.isAvailable()));
+                }
+            }
+            case RESERVATION -> {
+                Reservation reservation = record.getReservation();
+                removeActive(reservation.getReservationID());
+                if (reservation.getStatus() == ReservationStatus.ACTIVE) {
+                    putActive(reservation);
+                }
+            }
+            case EXPIRY_SWEEP -> {
+                for (Reservation expired : expiredBefore(record.getTime())) {
+                    removeActive(expired.getReservationID());
+                    slots.computeIfPresent(expired.getSpotID(),
+                            (spotID, slot) -> new SlotState(slot.branchID(), slot.slotType(), true));
+                }
+            }
+        }
+        appliedSequence = Math.max(appliedSequence, sequence);
+    }
+
+    private void putActive(Reservation reservation) {
+        active.put(reservation.getReservationID(), reservation);
+        if (reservation.getTimeOut() != null) {
+            byTimeOut.add(reservation);
+        }
+    }
+
+    private void removeActive(int reservationID) {
+        Reservation previous = active.remove(reservationID);
+        if (previous != null && previous.getTimeOut() != null) {
+            byTimeOut.remove(previous);
+        }
+    }
+
+    // === SNAPSHOTS ===
+
+    private record Snapshot(long sequence, Map<String, SlotState> slots, List<Reservation> active) {}
+
+    /**
+     * Writes the snapshot to a temporary file and renames it over the old one, so a crash
+     * mid-write leaves the previous snapshot intact.
+     */
+    private void writeSnapshot(Snapshot snapshot) throws IOException {
+        Path target = directory.resolve(SNAPSHOT_FILE);
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(snapshot.sequence());
+
+            out.writeInt(snapshot.slots().size());
+            for (Map.Entry<String, SlotState> entry : snapshot.slots().entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().branchID());
+                out.writeByte(entry.getValue().slotType() == null ? -1 : entry.getValue().slotType().ordinal());
+                out.writeBoolean(entry.getValue().available());
+            }
+
+            out.writeInt(snapshot.active().size());
+            for (Reservation reservation : snapshot.active()) {
+                out.writeInt(reservation.getReservationID());
+                out.writeInt(reservation.getVehicleID());
+                out.writeUTF(reservation.getSpotID());
+                writeTime(out, reservation.getExpectedTimeIn());
+                writeTime(out, reservation.getCheckInTime());
+                writeTime(out, reservation.getTimeOut());
+                writeTime(out, reservation.getDateReserved());
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void loadSnapshot(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Unrecognised snapshot format: " + path);
+            }
+            long sequence = in.readLong();
+
+            int slotCount = in.readInt();
+            for (int i = 0; i < slotCount; i++) {
+                String spotID = in.readUTF();
+                int branchID = in.readInt();
+                byte type = in.readByte();
+                boolean available = in.readBoolean();
+                slots.put(spotID, new SlotState(branchID, type < 0 ? null : SlotType.values()[type], available));
+            }
+
+            int activeCount = in.readInt();
+            for (int i = 0; i < activeCount; i++) {
+                int id = in.readInt();
+                int vehicleID = in.readInt();
+                String spotID = in.readUTF();
+                LocalDateTime expected = readTime(in);
+                LocalDateTime checkIn = readTime(in);
+                LocalDateTime timeOut = readTime(in);
+                LocalDateTime reserved = readTime(in);
+                putActive(new Reservation(id, vehicleID, spotID, expected, checkIn, timeOut, reserved, ReservationStatus.ACTIVE));
+            }
+
+            appliedSequence = sequence;
+            snapshotSequence = sequence;
+        }
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time == null ? Long.MIN_VALUE : time.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        return seconds == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
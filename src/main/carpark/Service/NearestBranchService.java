@@ -0,0 +1,164 @@
+package Service;
+
+import DAO.ParkingDAO;
+import Model.DTO.BranchOptionDTO;
+import Model.Entity.Branch;
+import Model.Entity.Pricing;
+import Model.Entity.SlotType;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.ChangeEvent;
+import Utilities.ChangeNotifier.Topic;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds nearby branches with room when the branch a customer picked is full.
+ *
+ * Branch locations and pricing are held in an in-memory snapshot with a k-d tree over the
+ * branches' coordinates, so a lookup is one free-slot count query plus a tree search. The
+ * snapshot is rebuilt in the background when a branch or its pricing changes, and every
+ * REBUILD_INTERVAL in case another process made the change.
+ *
+ * The CANDIDATES nearest branches within MAX_DISTANCE_KM that are open at entry, price the
+ * slot type and have a free slot of it are ranked by the stay's price plus TRAVEL_COST_PER_KM
+ * for every kilometre from the original branch.
+ */
+public class NearestBranchService implements ChangeNotifier.ChangeListener {
+
+    private static final Duration REBUILD_INTERVAL = Duration.ofMinutes(10);
+    private static final double MAX_DISTANCE_KM = 25.0;
+    private static final int CANDIDATES = 10;
+    // Roughly what a kilometre of city driving costs, so a cheaper branch across town does not win outright
+    private static final BigDecimal TRAVEL_COST_PER_KM = new BigDecimal("15");
+
+    private static volatile NearestBranchService instance;
+
+    /**
+     * Everything a lookup needs besides live availability. Never modified once built.
+     */
+    private record Snapshot(BranchKdTree tree, Map<Integer, Branch> branches, Map<SlotType, Map<Integer, Pricing>> pricing) {}
+
+    private final ParkingDAO parkingDAO;
+    private final ScheduledExecutorService worker;
+    private volatile Snapshot snapshot;
+
+    private NearestBranchService() {
+        this.parkingDAO = new ParkingDAO();
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "nearest-branch-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the service, building the index and subscribing it to branch changes on first use.
+     */
+    public static NearestBranchService getInstance() {
+        if (instance == null) {
+            synchronized (NearestBranchService.class) {
+                if (instance == null) {
+                    NearestBranchService service = new NearestBranchService();
+                    service.rebuild();
+                    ChangeNotifier.subscribe(service);
+                    service.worker.scheduleWithFixedDelay(service::rebuild, REBUILD_INTERVAL.toMillis(),
+                            REBUILD_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+                    instance = service;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Branches near the given one with a free slot of the type, best first.
+     *
+     * @return Up to limit options; empty if the branch has no coordinates or nothing nearby has room
+     */
+    public List<BranchOptionDTO> findAlternatives(int fromBranchID, SlotType slotType, LocalDateTime entry,
+                                                  LocalDateTime exit, int limit) {
+        List<BranchOptionDTO> options = new ArrayList<>();
+        Snapshot current = snapshot;
+        Branch origin = current.branches().get(fromBranchID);
+        if (origin == null || !origin.hasCoordinates() || slotType == null || limit <= 0) {
+            return options;
+        }
+
+        Map<Integer, Integer> freeSlots = parkingDAO.countAvailableSlotsByBranch(slotType);
+        Map<Integer, Pricing> pricing = current.pricing().getOrDefault(slotType, Map.of());
+
+        List<BranchKdTree.Neighbour> nearby = current.tree().nearest(origin.getLatitude(), origin.getLongitude(),
+                CANDIDATES, MAX_DISTANCE_KM, branch -> branch.getBranch_ID() != fromBranchID
+                        && freeSlots.getOrDefault(branch.getBranch_ID(), 0) > 0
+                        && pricing.containsKey(branch.getBranch_ID())
+                        && branch.isOpen(entry.toLocalTime()));
+
+        Map<BranchOptionDTO, BigDecimal> cost = new HashMap<>();
+        for (BranchKdTree.Neighbour neighbour : nearby) {
+            int branchID = neighbour.branch().getBranch_ID();
+            BigDecimal price = estimatePrice(pricing.get(branchID), entry, exit);
+            BranchOptionDTO option = new BranchOptionDTO(neighbour.branch(), neighbour.distanceKm(),
+                    freeSlots.get(branchID), price);
+            options.add(option);
+            cost.put(option, price.add(TRAVEL_COST_PER_KM.multiply(BigDecimal.valueOf(neighbour.distanceKm()))));
+        }
+        options.sort(Comparator.comparing((BranchOptionDTO option) -> cost.get(option))
+                .thenComparingDouble(BranchOptionDTO::getDistanceKm));
+        return options.size() > limit ? new ArrayList<>(options.subList(0, limit)) : options;
+    }
+
+    /**
+     * Hourly rate times the stay rounded up to whole hours, minimum one hour, as on the reservation page.
+     */
+    private static BigDecimal estimatePrice(Pricing rule, LocalDateTime entry, LocalDateTime exit) {
+        long minutes = Math.max(0, ChronoUnit.MINUTES.between(entry, exit));
+        long hours = Math.max(1, (minutes + 59) / 60);
+        return rule.getHourly_rate().multiply(BigDecimal.valueOf(hours));
+    }
+
+    // === INDEX ===
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        if (event.topic() != Topic.BRANCH) {
+            return;
+        }
+        try {
+            worker.execute(this::rebuild);
+        } catch (RuntimeException e) {
+            System.err.println("NearestBranchService: Could not schedule index rebuild: " + e.getMessage());
+        }
+    }
+
+    private void rebuild() {
+        try {
+            List<Branch> branches = parkingDAO.getAllBranches();
+            Map<Integer, Branch> byID = new HashMap<>();
+            for (Branch branch : branches) {
+                byID.put(branch.getBranch_ID(), branch);
+            }
+            Map<SlotType, Map<Integer, Pricing>> pricing = new EnumMap<>(SlotType.class);
+            for (SlotType type : SlotType.values()) {
+                pricing.put(type, parkingDAO.getPricingRulesByType(type));
+            }
+            snapshot = new Snapshot(new BranchKdTree(branches), byID, pricing);
+        } catch (RuntimeException e) {
+            System.err.println("NearestBranchService Error in rebuild: " + e.getMessage());
+            if (snapshot == null) {
+                snapshot = new Snapshot(new BranchKdTree(List.of()), Map.of(), Map.of());
+            }
+        }
+    }
+}
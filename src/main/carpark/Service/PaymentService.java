@@ -5,18 +5,30 @@ import DAO.ParkingDAO;
 import DAO.PaymentDAO;
 import DAO.DBConnectionUtil;
 
+import Model.DTO.BulkRefundProgressDTO;
 import Model.Entity.*;
 import Model.Entity.Payment.PaymentStatus;
 import Model.Entity.Payment.ModeOfPayment;
+import Service.Journal.ReservationStateStore;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.Action;
+import Utilities.ChangeNotifier.Topic;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Service layer for payment processing and fee calculation.
@@ -24,6 +36,21 @@ import java.util.Optional;
  */
 public class PaymentService {
 
+    private static final int MAX_REMEMBERED_REQUESTS = 10_000;
+    private static final int REFUND_CHUNK_SIZE = 100;
+
+    // Payment IDs of recently completed request keys, least recently used dropped first. Only the IDs
+    // are kept: the row is re-read on a repeat, since settlement and refunds change it afterwards.
+    private record RequestPayment(int paymentID, int reservationID) {}
+
+    private static final Map<UUID, RequestPayment> completedRequests = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<UUID, RequestPayment> eldest) {
+                    return size() > MAX_REMEMBERED_REQUESTS;
+                }
+            });
+
     private ReservationDAO reservationDAO;
     private PaymentDAO paymentDAO;
     private ParkingDAO parkingDAO;
@@ -61,40 +88,12 @@ public class PaymentService {
 
             Reservation reservation = reservationOpt.get();
 
-            // Get pricing rules
-            Optional<ParkingSlot> slotOpt = parkingDAO.getSlotByID(reservation.getSpotID());
-            if (slotOpt.isEmpty()) {
-                System.err.println("PaymentService: Slot ID not found: " + reservation.getSpotID());
-                conn.rollback();
-                return Optional.empty();
-            }
-            ParkingSlot slot = slotOpt.get();
-
-            Optional<Pricing> pricingOpt = parkingDAO.getPricingRule(
-                    slot.getBranch_ID(),
-                    slot.getSlot_type()
-            );
-
-            if (pricingOpt.isEmpty()) {
-                System.err.println("PaymentService: Pricing rule not found");
+            Optional<Payment> paymentOpt = buildPayment(reservation, modeOfPayment);
+            if (paymentOpt.isEmpty()) {
                 rollbackTransaction(conn);
                 return Optional.empty();
             }
-
-            Pricing pricing = pricingOpt.get();
-
-            // Calculate total fee
-            float totalAmount = calculateTotalFee(reservation, pricing);
-
-            // Create payment record
-            Payment payment = new Payment(
-                    reservation.getReservationID(),
-                    new BigDecimal(totalAmount),
-                    new BigDecimal(totalAmount),
-                    LocalDate.now(),
-                    PaymentStatus.PAID,
-                    modeOfPayment
-            );
+            Payment payment = paymentOpt.get();
 
             boolean paymentInserted = paymentDAO.insertPayment(payment);
             if (!paymentInserted) {
@@ -114,6 +113,109 @@ public class PaymentService {
 
             // Commit transaction
             conn.commit();
+            ReservationStateStore.recordStatus(reservation, ReservationStatus.COMPLETED);
+            ChangeNotifier.publish(Topic.PAYMENT, Action.CREATED, payment.getPayment_ID(), payment);
+            ChangeNotifier.publish(Topic.RESERVATION, Action.UPDATED, reservationID);
+            return Optional.of(payment);
+
+        } catch (SQLException e) {
+            System.err.println("PaymentService Error: " + e.getMessage());
+            rollbackTransaction(conn);
+            return Optional.empty();
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
+    /**
+     * Idempotent variant of processPayment for clients that may send the same payment twice,
+     * e.g. a double-tapped confirm button or a retry after a timeout.
+     *
+     * The first request with a key runs the payment; the key is recorded in the same transaction
+     * as the payment, so it only sticks if the payment does. Later requests with the key get the
+     * original Payment back without running anything, from memory for recent keys and from the
+     * payment_requests table otherwise. A repeat that arrives while the first is still running
+     * waits for it on the key's row lock.
+     *
+     * @param requestKey Client-chosen key, the same for every retry of one payment
+     * @return The payment made for this key, or empty if it failed (the same key may then be retried)
+     */
+    public Optional<Payment> processPayment(UUID requestKey, int reservationID, ModeOfPayment modeOfPayment, int adminID) {
+        return recordPayment(requestKey, reservationID, modeOfPayment, true);
+    }
+
+    /**
+     * Fast half of a payment for kiosks: saves the payment as PENDING and returns it as the receipt,
+     * leaving PaymentSettlement to mark it PAID and complete the reservation in the background.
+     * Request keys work as in {@link #processPayment(UUID, int, ModeOfPayment, int)}; a repeat
+     * returns the payment in whatever state it has reached.
+     *
+     * @return The PENDING payment, or empty if it could not be saved
+     */
+    public Optional<Payment> acceptPayment(UUID requestKey, int reservationID, ModeOfPayment modeOfPayment, int adminID) {
+        return recordPayment(requestKey, reservationID, modeOfPayment, false);
+    }
+
+    /**
+     * Saves a keyed payment. When settleNow is set it is saved PAID and the reservation completed in
+     * the same transaction; otherwise it is saved PENDING and queued for settlement after commit.
+     */
+    private Optional<Payment> recordPayment(UUID requestKey, int reservationID, ModeOfPayment modeOfPayment, boolean settleNow) {
+        Optional<Payment> earlier = findRequestPayment(requestKey, reservationID);
+        if (earlier.isPresent()) {
+            System.out.println("PaymentService: Repeated payment request " + requestKey + ", returning payment "
+                    + earlier.get().getPayment_ID());
+            return earlier;
+        }
+
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            if (!paymentDAO.claimRequestKey(requestKey, reservationID, conn)) {
+                // The first request with this key committed while we waited
+                rollbackTransaction(conn);
+                return findRequestPayment(requestKey, reservationID);
+            }
+
+            Optional<Reservation> reservationOpt = reservationDAO.getReservationByID(reservationID);
+            if (reservationOpt.isEmpty()) {
+                System.err.println("PaymentService: Reservation not found - " + reservationID);
+                rollbackTransaction(conn);
+                return Optional.empty();
+            }
+            Reservation reservation = reservationOpt.get();
+
+            Optional<Payment> paymentOpt = buildPayment(reservation, modeOfPayment);
+            if (paymentOpt.isEmpty()) {
+                rollbackTransaction(conn);
+                return Optional.empty();
+            }
+            Payment payment = paymentOpt.get();
+            if (!settleNow) {
+                payment.setAmount_paid(BigDecimal.ZERO);
+                payment.setPayment_status(PaymentStatus.PENDING);
+            }
+
+            paymentDAO.insertPayment(payment, conn);
+            paymentDAO.setRequestPayment(requestKey, payment.getPayment_ID(), conn);
+
+            if (settleNow && !reservationDAO.updateReservationStatus(reservationID, ReservationStatus.COMPLETED, conn)) {
+                System.err.println("PaymentService: Failed to update reservation status");
+                rollbackTransaction(conn);
+                return Optional.empty();
+            }
+
+            conn.commit();
+            completedRequests.put(requestKey, new RequestPayment(payment.getPayment_ID(), reservationID));
+            ChangeNotifier.publish(Topic.PAYMENT, Action.CREATED, payment.getPayment_ID(), payment);
+            if (settleNow) {
+                ReservationStateStore.recordStatus(reservation, ReservationStatus.COMPLETED);
+                ChangeNotifier.publish(Topic.RESERVATION, Action.UPDATED, reservationID);
+            } else {
+                PaymentSettlement.getInstance().submit(payment, reservation);
+            }
             return Optional.of(payment);
 
         } catch (SQLException e) {
@@ -125,6 +227,41 @@ public class PaymentService {
         }
     }
 
+    private Optional<Payment> findRequestPayment(UUID requestKey, int reservationID) {
+        RequestPayment cached = completedRequests.get(requestKey);
+        if (cached != null) {
+            if (cached.reservationID() != reservationID) return Optional.empty();
+            Optional<Payment> current = paymentDAO.getPaymentById(cached.paymentID());
+            if (current.isPresent()) return current;
+        }
+        Optional<Payment> stored = paymentDAO.getPaymentByRequestKey(requestKey, reservationID);
+        stored.ifPresent(payment -> completedRequests.put(requestKey, new RequestPayment(payment.getPayment_ID(), reservationID)));
+        return stored;
+    }
+
+    /**
+     * Prices the reservation's stay and builds its PAID payment record, not yet saved.
+     */
+    private Optional<Payment> buildPayment(Reservation reservation, ModeOfPayment modeOfPayment) {
+        Optional<Pricing> pricingOpt = parkingDAO.getPricingRuleForSlot(reservation.getSpotID());
+        if (pricingOpt.isEmpty()) {
+            System.err.println("PaymentService: Pricing rule not found for slot " + reservation.getSpotID());
+            return Optional.empty();
+        }
+
+        // Calculate total fee
+        float totalAmount = calculateTotalFee(reservation, pricingOpt.get());
+
+        return Optional.of(new Payment(
+                reservation.getReservationID(),
+                new BigDecimal(totalAmount),
+                new BigDecimal(totalAmount),
+                LocalDate.now(),
+                PaymentStatus.PAID,
+                modeOfPayment
+        ));
+    }
+
     /**
      * Calculates the total parking fee based on duration.
      * Uses hourly rate for reserved time and overtime rate if customer exceeds reservation.
@@ -173,6 +310,27 @@ public class PaymentService {
         return Math.round(total * 100) / 100.0f;
     }
 
+    /**
+     * Quotes the fee for a prospective stay without creating a reservation.
+     * Uses the same fee logic as processPayment so quotes match the final charge.
+     *
+     * @param branchID The branch the customer wants to park in
+     * @param slotType The requested slot type
+     * @param entryTime The planned entry time
+     * @param exitTime The planned exit time
+     * @return The quoted fee, or empty if the branch has no pricing for the slot type
+     */
+    public Optional<BigDecimal> quoteFee(int branchID, SlotType slotType, LocalDateTime entryTime, LocalDateTime exitTime) {
+        Optional<Pricing> pricingOpt = parkingDAO.getPricingRule(branchID, slotType);
+        if (pricingOpt.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Reservation prospective = new Reservation(0, 0, null, entryTime, entryTime, exitTime, LocalDateTime.now(), ReservationStatus.ACTIVE);
+        float fee = calculateTotalFee(prospective, pricingOpt.get());
+        return Optional.of(BigDecimal.valueOf(fee).setScale(2, RoundingMode.HALF_UP));
+    }
+
     /**
      * Processes a refund for a cancelled or disputed payment.
      * Updates payment status to REFUNDED.
@@ -222,6 +380,8 @@ public class PaymentService {
 
             conn.commit();
             System.out.println("PaymentService: Refund processed for payment " + paymentID);
+            payment.setPayment_status(PaymentStatus.REFUNDED);
+            ChangeNotifier.publish(Topic.PAYMENT, Action.UPDATED, paymentID, payment);
             return true;
 
         } catch (SQLException e) {
@@ -233,6 +393,96 @@ public class PaymentService {
         }
     }
 
+    /**
+     * Refunds every PAID payment for stays at a branch that overlap a window, e.g. when a floor
+     * or the whole garage had to close.
+     *
+     * Payments are refunded REFUND_CHUNK_SIZE at a time, one transaction per chunk. If a chunk
+     * fails it is rolled back and retried one payment per transaction, so one bad row costs only
+     * itself. Payments refunded by someone else in the meantime are skipped, which also makes
+     * running the same refund again safe.
+     *
+     * @param floorLevel Only stays on this floor, or null for the whole branch
+     * @param adminID The admin processing the refund
+     * @param progress Told after every chunk; may be null
+     * @return The final tally, including the payments that failed
+     */
+    public BulkRefundProgressDTO processBulkRefund(int branchID, Integer floorLevel, LocalDateTime from, LocalDateTime to,
+                                                   int adminID, Consumer<BulkRefundProgressDTO> progress) {
+        List<Payment> payments = paymentDAO.getRefundablePayments(branchID, floorLevel, from, to);
+        System.out.println("PaymentService: Admin " + adminID + " refunding " + payments.size() + " payments at branch "
+                + branchID + (floorLevel == null ? "" : " floor " + floorLevel) + " for " + from + " - " + to);
+
+        List<Integer> refunded = new ArrayList<>();
+        List<Integer> skipped = new ArrayList<>();
+        Map<Integer, String> failed = new LinkedHashMap<>();
+        BigDecimal amount = BigDecimal.ZERO;
+
+        for (int start = 0; start < payments.size(); start += REFUND_CHUNK_SIZE) {
+            List<Payment> chunk = payments.subList(start, Math.min(start + REFUND_CHUNK_SIZE, payments.size()));
+            try {
+                amount = amount.add(refundChunk(chunk, refunded, skipped));
+            } catch (SQLException e) {
+                System.err.println("PaymentService Error in processBulkRefund: Chunk failed, retrying one by one: " + e.getMessage());
+                for (Payment payment : chunk) {
+                    try {
+                        amount = amount.add(refundChunk(List.of(payment), refunded, skipped));
+                    } catch (SQLException single) {
+                        failed.put(payment.getPayment_ID(), single.getMessage());
+                    }
+                }
+            }
+            if (progress != null) {
+                progress.accept(new BulkRefundProgressDTO(payments.size(), start + chunk.size(), List.copyOf(refunded),
+                        List.copyOf(skipped), Map.copyOf(failed), amount, false));
+            }
+        }
+
+        System.out.println("PaymentService: Bulk refund done - " + refunded.size() + " refunded, " + skipped.size()
+                + " skipped, " + failed.size() + " failed");
+        return new BulkRefundProgressDTO(payments.size(), payments.size(), refunded, skipped, failed, amount, true);
+    }
+
+    /**
+     * Refunds the payments in one transaction, adding their IDs to refunded or skipped once it has committed.
+     *
+     * @return The amount refunded
+     */
+    private BigDecimal refundChunk(List<Payment> chunk, List<Integer> refunded, List<Integer> skipped) throws SQLException {
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            List<Integer> paymentIDs = new ArrayList<>(chunk.size());
+            for (Payment payment : chunk) {
+                paymentIDs.add(payment.getPayment_ID());
+            }
+            int[] counts = paymentDAO.batchRefundPayments(paymentIDs, conn);
+            conn.commit();
+
+            BigDecimal amount = BigDecimal.ZERO;
+            for (int i = 0; i < chunk.size(); i++) {
+                Payment payment = chunk.get(i);
+                // SUCCESS_NO_INFO (-2) when the driver rewrites the batch; the status guard still applied
+                if (counts[i] == 0) {
+                    skipped.add(payment.getPayment_ID());
+                    continue;
+                }
+                refunded.add(payment.getPayment_ID());
+                amount = amount.add(payment.getAmount_paid());
+                payment.setPayment_status(PaymentStatus.REFUNDED);
+                ChangeNotifier.publish(Topic.PAYMENT, Action.UPDATED, payment.getPayment_ID(), payment);
+            }
+            return amount;
+        } catch (SQLException e) {
+            rollbackTransaction(conn);
+            throw e;
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
     /**
      * Gets a payment by the paymentID.
      */
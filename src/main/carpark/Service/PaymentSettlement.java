@@ -0,0 +1,182 @@
+package Service;
+
+import DAO.GroupCommitter;
+import DAO.PaymentDAO;
+import DAO.ReservationDAO;
+import Model.Entity.Payment;
+import Model.Entity.Payment.PaymentStatus;
+import Model.Entity.Reservation;
+import Model.Entity.ReservationStatus;
+import Service.Journal.ReservationStateStore;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.Action;
+import Utilities.ChangeNotifier.Topic;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background settlement of accepted payments: moves PENDING payments to PAID and completes their
+ * reservations, many per transaction.
+ *
+ * {@link PaymentService#acceptPayment} saves the PENDING payment and hands it here, so the
+ * customer gets a receipt after one insert. Settlements go through a GroupCommitter with a
+ * bounded queue. When the queue stays full for OFFER_TIMEOUT the payment is simply left PENDING;
+ * the sweep every SWEEP_INTERVAL (and on startup) queues every PENDING payment not already in
+ * flight, so nothing accepted is lost to a full queue, a failed batch or a restart.
+ */
+public class PaymentSettlement {
+
+    private static final int QUEUE_CAPACITY = 1_000;
+    private static final Duration OFFER_TIMEOUT = Duration.ofMillis(50);
+    private static final Duration SWEEP_INTERVAL = Duration.ofMinutes(1);
+
+    private static volatile PaymentSettlement instance;
+
+    /**
+     * A payment waiting to be settled. settled is set by the batch writer for rows it moved to
+     * PAID, and only trusted once the batch has committed.
+     */
+    private static class Settlement {
+        final Payment payment;
+        final Reservation reservation;
+        volatile boolean settled;
+
+        Settlement(Payment payment, Reservation reservation) {
+            this.payment = payment;
+            this.reservation = reservation;
+        }
+    }
+
+    private final PaymentDAO paymentDAO;
+    private final ReservationDAO reservationDAO;
+    private final GroupCommitter<Settlement> committer;
+    private final ScheduledExecutorService sweeper;
+    private final Set<Integer> inFlight = ConcurrentHashMap.newKeySet();
+
+    private PaymentSettlement() {
+        this.paymentDAO = new PaymentDAO();
+        this.reservationDAO = new ReservationDAO();
+        this.committer = new GroupCommitter<>("settlement", this::settleBatch, QUEUE_CAPACITY);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "payment-settlement-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the settlement stage, starting the sweep on first use.
+     */
+    public static PaymentSettlement getInstance() {
+        if (instance == null) {
+            synchronized (PaymentSettlement.class) {
+                if (instance == null) {
+                    PaymentSettlement settlement = new PaymentSettlement();
+                    settlement.sweeper.scheduleWithFixedDelay(settlement::sweep, 0, SWEEP_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+                    instance = settlement;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Queues an accepted payment for settlement.
+     *
+     * @return false if the queue was full; the payment stays PENDING until the next sweep
+     */
+    public boolean submit(Payment payment, Reservation reservation) {
+        if (!inFlight.add(payment.getPayment_ID())) {
+            return true;
+        }
+        try {
+            Optional<CompletableFuture<Settlement>> queued = committer.offer(new Settlement(payment, reservation),
+                    OFFER_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            if (queued.isEmpty()) {
+                inFlight.remove(payment.getPayment_ID());
+                System.err.println("PaymentSettlement: Queue full, payment " + payment.getPayment_ID() + " left for the sweep");
+                return false;
+            }
+            queued.get().whenComplete((settlement, error) -> finish(payment, reservation, settlement, error));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            inFlight.remove(payment.getPayment_ID());
+            return false;
+        }
+    }
+
+    /**
+     * Runs in the committer's transaction: settles the payments that are still PENDING and
+     * completes their reservations.
+     */
+    private void settleBatch(List<Settlement> batch, Connection conn) throws SQLException {
+        List<Integer> paymentIDs = new ArrayList<>(batch.size());
+        for (Settlement settlement : batch) {
+            paymentIDs.add(settlement.payment.getPayment_ID());
+        }
+        int[] counts = paymentDAO.batchSettlePayments(paymentIDs, conn);
+
+        List<Integer> reservationIDs = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            // SUCCESS_NO_INFO (-2) when the driver rewrites the batch; the status guard still applied
+            batch.get(i).settled = counts[i] != 0;
+            if (batch.get(i).settled) {
+                reservationIDs.add(batch.get(i).reservation.getReservationID());
+            }
+        }
+        if (!reservationIDs.isEmpty()) {
+            reservationDAO.batchUpdateStatus(reservationIDs, ReservationStatus.COMPLETED, conn);
+        }
+    }
+
+    private void finish(Payment payment, Reservation reservation, Settlement settlement, Throwable error) {
+        inFlight.remove(payment.getPayment_ID());
+        if (error != null) {
+            System.err.println("PaymentSettlement: Payment " + payment.getPayment_ID() + " not settled, will retry: "
+                    + error.getMessage());
+            return;
+        }
+        if (!settlement.settled) {
+            return;
+        }
+        payment.setAmount_paid(payment.getAmount_To_Pay());
+        payment.setPayment_status(PaymentStatus.PAID);
+        ReservationStateStore.recordStatus(reservation, ReservationStatus.COMPLETED);
+        ChangeNotifier.publish(Topic.PAYMENT, Action.UPDATED, payment.getPayment_ID(), payment);
+        ChangeNotifier.publish(Topic.RESERVATION, Action.UPDATED, reservation.getReservationID());
+    }
+
+    /**
+     * Queues every PENDING payment that is not already on its way, stopping when the queue is full.
+     */
+    private void sweep() {
+        try {
+            for (Payment payment : paymentDAO.getPaymentsByStatus(PaymentStatus.PENDING)) {
+                if (inFlight.contains(payment.getPayment_ID())) {
+                    continue;
+                }
+                Optional<Reservation> reservation = reservationDAO.getReservationByID(payment.getTransact_ID());
+                if (reservation.isEmpty()) {
+                    continue;
+                }
+                if (!submit(payment, reservation.get())) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("PaymentSettlement Error in sweep: " + e.getMessage());
+        }
+    }
+}
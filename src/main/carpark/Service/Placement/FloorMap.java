@@ -0,0 +1,68 @@
+package Service.Placement;
+
+import Model.Entity.ParkingSlot;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The free slots of one type at a branch, grouped by floor, with each floor's total slot count
+ * of that type. Policies read it to judge how busy each floor is.
+ */
+public class FloorMap {
+
+    private final TreeMap<Integer, Integer> freeByFloor = new TreeMap<>();
+    private final Map<Integer, Integer> totalByFloor;
+
+    /**
+     * @param freeSlots    The type's free slots at the branch
+     * @param totalByFloor Every slot of the type per floor, free or not
+     */
+    public FloorMap(List<ParkingSlot> freeSlots, Map<Integer, Integer> totalByFloor) {
+        this.totalByFloor = totalByFloor;
+        for (ParkingSlot slot : freeSlots) {
+            freeByFloor.merge(slot.getFloor_level(), 1, Integer::sum);
+        }
+    }
+
+    public int free(int floor) {
+        return freeByFloor.getOrDefault(floor, 0);
+    }
+
+    /**
+     * The floor's total slots of the type; never less than its free slots, in case the totals are stale.
+     */
+    public int total(int floor) {
+        return Math.max(free(floor), totalByFloor.getOrDefault(floor, 0));
+    }
+
+    /**
+     * Share of the floor's slots of the type that are taken, 0 for a floor with none.
+     */
+    public double occupancy(int floor) {
+        int total = total(floor);
+        return total == 0 ? 0 : (double) (total - free(floor)) / total;
+    }
+
+    /**
+     * The lowest floor with a free slot, or 0 if there is none.
+     */
+    public int lowestFloor() {
+        return freeByFloor.isEmpty() ? 0 : freeByFloor.firstKey();
+    }
+
+    /**
+     * A slot's place along its floor, counted from the ramp and elevator core where numbering
+     * starts: the trailing number of IDs like 1-R-2-014. IDs without one sort last.
+     */
+    public static int position(ParkingSlot slot) {
+        String id = slot.getSpot_ID();
+        int dash = id.lastIndexOf('-');
+        try {
+            return Integer.parseInt(id.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+}
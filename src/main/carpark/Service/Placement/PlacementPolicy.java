@@ -0,0 +1,20 @@
+package Service.Placement;
+
+import Model.Entity.ParkingSlot;
+
+import java.util.Comparator;
+
+/**
+ * Decides which free slot a new reservation gets. A policy orders the free slots of the
+ * requested type from most to least preferred; the booking takes the first one it can claim.
+ *
+ * Register custom policies with {@link SlotPlacer#register(String, PlacementPolicy)}.
+ */
+public interface PlacementPolicy {
+
+    /**
+     * @param floors The free slots of the requested type, by floor
+     * @return Ordering of the free slots, most preferred first
+     */
+    Comparator<ParkingSlot> preference(FloorMap floors);
+}
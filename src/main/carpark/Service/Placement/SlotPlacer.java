@@ -0,0 +1,133 @@
+package Service.Placement;
+
+import DAO.DBConnectionUtil;
+import DAO.ParkingDAO;
+import Model.Entity.Branch;
+import Model.Entity.ParkingSlot;
+import Model.Entity.SlotType;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.ChangeEvent;
+import Utilities.ChangeNotifier.Topic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chooses which free slot a reservation gets, using the placement policy configured for its branch.
+ *
+ * The policy is read from db.properties: placement.policy.&lt;branch ID&gt; for one branch, or
+ * placement.policy for every branch without its own setting, naming a StandardPlacement or a
+ * registered policy. Branches with neither use SPREAD_ACROSS_FLOORS.
+ *
+ * Free slots come from the caller, straight from the database, so placement never hands out a
+ * slot that is already taken. Each floor's slot totals change only when slots are added or
+ * converted, so they are cached per branch and slot type and dropped on SLOT and BRANCH changes.
+ */
+public class SlotPlacer implements ChangeNotifier.ChangeListener {
+
+    private static final String POLICY_PROPERTY = "placement.policy";
+    private static final PlacementPolicy DEFAULT_POLICY = StandardPlacement.SPREAD_ACROSS_FLOORS;
+
+    private record LayoutKey(int branchID, SlotType slotType) {}
+
+    private static volatile SlotPlacer instance;
+
+    private final ParkingDAO parkingDAO;
+    private final Map<String, PlacementPolicy> policies = new ConcurrentHashMap<>();
+    private final Map<LayoutKey, Map<Integer, Integer>> floorTotals = new ConcurrentHashMap<>();
+
+    private SlotPlacer() {
+        this.parkingDAO = new ParkingDAO();
+        for (StandardPlacement policy : StandardPlacement.values()) {
+            policies.put(policy.name(), policy);
+        }
+    }
+
+    public static SlotPlacer getInstance() {
+        if (instance == null) {
+            synchronized (SlotPlacer.class) {
+                if (instance == null) {
+                    SlotPlacer placer = new SlotPlacer();
+                    ChangeNotifier.subscribe(placer);
+                    instance = placer;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Makes a custom policy selectable by name in db.properties.
+     */
+    public void register(String name, PlacementPolicy policy) {
+        policies.put(name.toUpperCase(), policy);
+    }
+
+    /**
+     * The policy for the branch: its own setting, then the default setting, then SPREAD_ACROSS_FLOORS.
+     */
+    public PlacementPolicy policyFor(int branchID) {
+        String name = DBConnectionUtil.getProperty(POLICY_PROPERTY + "." + branchID,
+                DBConnectionUtil.getProperty(POLICY_PROPERTY, null));
+        if (name == null) {
+            return DEFAULT_POLICY;
+        }
+        PlacementPolicy policy = policies.get(name.toUpperCase());
+        if (policy == null) {
+            System.err.println("SlotPlacer: Unknown placement policy '" + name + "' for branch " + branchID
+                    + ", using " + DEFAULT_POLICY);
+            return DEFAULT_POLICY;
+        }
+        return policy;
+    }
+
+    /**
+     * Orders the branch's free slots of one type by the branch's policy, best first.
+     *
+     * @param freeSlots Free slots of the type at the branch
+     * @return A new list; the input is left as it was
+     */
+    public List<ParkingSlot> rank(int branchID, SlotType slotType, List<ParkingSlot> freeSlots) {
+        List<ParkingSlot> ranked = new ArrayList<>(freeSlots);
+        if (ranked.size() < 2) {
+            return ranked;
+        }
+        LayoutKey key = new LayoutKey(branchID, slotType);
+        Map<Integer, Integer> totals = floorTotals.get(key);
+        if (totals == null) {
+            totals = parkingDAO.countSlotsByFloor(branchID, slotType);
+            // An empty result may be a failed query; ask again next time
+            if (!totals.isEmpty()) floorTotals.put(key, totals);
+        }
+        ranked.sort(policyFor(branchID).preference(new FloorMap(freeSlots, totals)));
+        return ranked;
+    }
+
+    /**
+     * Loads the floor totals of every branch and slot type ahead of the first booking.
+     *
+     * @return The number of layouts loaded
+     */
+    public int warmUp() {
+        int loaded = 0;
+        for (Branch branch : parkingDAO.getAllBranches()) {
+            for (SlotType slotType : SlotType.values()) {
+                Map<Integer, Integer> totals = parkingDAO.countSlotsByFloor(branch.getBranch_ID(), slotType);
+                if (!totals.isEmpty()) {
+                    floorTotals.put(new LayoutKey(branch.getBranch_ID(), slotType), totals);
+                    loaded++;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        if (event.topic() == Topic.SLOT || event.topic() == Topic.BRANCH) {
+            floorTotals.clear();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package Service.Placement;
+
+import Model.Entity.ParkingSlot;
+import Model.Entity.SlotType;
+
+import java.util.Comparator;
+
+/**
+ * The built-in placement policies. Every one breaks ties by floor and then by position along
+ * the floor, so the same free slots always give the same choice.
+ */
+public enum StandardPlacement implements PlacementPolicy {
+
+    /**
+     * Packs the lowest floor first, nearest the ramp first. Keeps upper floors closed off when quiet.
+     */
+    FILL_LOWEST_FLOOR {
+        @Override
+        public Comparator<ParkingSlot> preference(FloorMap floors) {
+            return BY_FLOOR_THEN_POSITION;
+        }
+    },
+
+    /**
+     * Takes the floor with the smallest share of its slots in use, so cars and ramp traffic are
+     * spread over every floor.
+     */
+    SPREAD_ACROSS_FLOORS {
+        @Override
+        public Comparator<ParkingSlot> preference(FloorMap floors) {
+            return Comparator.comparingDouble((ParkingSlot slot) -> floors.occupancy(slot.getFloor_level()))
+                    .thenComparing(BY_FLOOR_THEN_POSITION);
+        }
+    },
+
+    /**
+     * Shortest drive out: each floor above the lowest free one costs as much as RAMP_COST_SLOTS
+     * slots along a floor, so a near slot one floor up can beat a far one downstairs.
+     */
+    NEAREST_TO_EXIT {
+        @Override
+        public Comparator<ParkingSlot> preference(FloorMap floors) {
+            int exitFloor = floors.lowestFloor();
+            return Comparator.comparingLong((ParkingSlot slot) ->
+                            (long) (slot.getFloor_level() - exitFloor) * RAMP_COST_SLOTS + FloorMap.position(slot))
+                    .thenComparing(BY_FLOOR_THEN_POSITION);
+        }
+    },
+
+    /**
+     * PWD slots as close to the elevator core as possible on any floor, since the elevator serves
+     * them all; other slot types are spread across floors.
+     */
+    PWD_NEAR_ELEVATOR {
+        @Override
+        public Comparator<ParkingSlot> preference(FloorMap floors) {
+            Comparator<ParkingSlot> spread = SPREAD_ACROSS_FLOORS.preference(floors);
+            return (a, b) -> a.getSlot_type() == SlotType.PWD && b.getSlot_type() == SlotType.PWD
+                    ? Comparator.comparingInt(FloorMap::position).thenComparing(BY_FLOOR_THEN_POSITION).compare(a, b)
+                    : spread.compare(a, b);
+        }
+    };
+
+    // About the length of one ramp between floors, measured in slot widths
+    private static final int RAMP_COST_SLOTS = 20;
+
+    private static final Comparator<ParkingSlot> BY_FLOOR_THEN_POSITION = Comparator
+            .comparingInt(ParkingSlot::getFloor_level)
+            .thenComparingInt(FloorMap::position)
+            .thenComparing(ParkingSlot::getSpot_ID);
+}
@@ -3,23 +3,80 @@ package Service;
 import DAO.ParkingDAO;
 import DAO.ReservationDAO;
 import DAO.DBConnectionUtil;
+import DAO.GroupCommitter;
+import DAO.VehicleDAO;
 import Model.Entity.Reservation;
 import Model.Entity.ParkingSlot;
 import Model.Entity.ReservationStatus;
 import Model.Entity.SlotType;
+import Service.Journal.ReservationStateStore;
+import Service.Placement.SlotPlacer;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.Action;
+import Utilities.ChangeNotifier.Topic;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public class ReservationService {
     
     private ReservationDAO reservationDAO;
     private ParkingDAO parkingDAO;
+    private VehicleDAO vehicleDAO;
+
+    /**
+     * How long past its time out a reservation stays Active and keeps its slot, because the car may
+     * still be parked. The gate checks out overstays itself; the sweep only completes reservations
+     * older than this, so their slots are not handed to the waitlist while the car is there.
+     */
+    public static final Duration OVERSTAY_GRACE =
+            Duration.ofMinutes(Long.parseLong(DBConnectionUtil.getProperty("reservations.overstayGraceMinutes", "60")));
+
+    // Slots picked by reservations still waiting in a commit group, so two callers in the same group never get the same slot
+    private static final Set<String> spotsPendingCommit = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Lazily started so the writer thread only exists when group commit is switched on.
+     * Each group takes its slots and inserts its reservations in one transaction. A slot that
+     * another process took first fails the group; the committer then retries item by item, so
+     * only the booking that lost the slot fails, with a SlotTakenException.
+     */
+    private static class ReservationCommitter {
+        static final GroupCommitter<Reservation> INSTANCE = new GroupCommitter<>("reservations", (reservations, conn) -> {
+            List<String> spotIds = new ArrayList<>();
+            for (Reservation reservation : reservations) {
+                spotIds.add(reservation.getSpotID());
+            }
+            int[] counts = new ParkingDAO().batchUpdateSlotAvailability(spotIds, false, conn);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    throw new SlotTakenException(spotIds.get(i));
+                }
+            }
+            new ReservationDAO().batchInsertReservations(reservations, conn);
+        });
+    }
+
+    /**
+     * The slot a grouped booking picked was no longer free when its group was written.
+     */
+    private static class SlotTakenException extends SQLException {
+        private static final long serialVersionUID = 1L;
+
+        SlotTakenException(String spotId) {
+            super("Slot " + spotId + " was already taken");
+        }
+    }
 
     /**
      * Constructor that sets up the DAOs we need to talk to the database.
@@ -28,10 +85,18 @@ public class ReservationService {
     public ReservationService() {
         this.reservationDAO = new ReservationDAO();
         this.parkingDAO = new ParkingDAO();
+        this.vehicleDAO = new VehicleDAO();
     }
 
    
     public Optional<Reservation> createReservation(int userId, int vehicleID, int branchID, SlotType slotType, LocalDateTime expectedTimeIn, LocalDateTime expectedExitTime) {
+        if (!ownsVehicle(userId, vehicleID)) {
+            System.err.println("ReservationService: Vehicle " + vehicleID + " does not belong to user " + userId);
+            return Optional.empty();
+        }
+        if (GroupCommitter.isEnabled()) {
+            return createReservationGrouped(vehicleID, branchID, slotType, expectedTimeIn, expectedExitTime);
+        }
         Connection conn = null;
         
         try {
@@ -48,10 +113,23 @@ public class ReservationService {
                 return Optional.empty();
             }
 
-            ParkingSlot selectedSlot = availableSlots.get(0);
-            String spotId = selectedSlot.getSpot_ID();
+            // Step 3: Take the best slot so no one else can book it. Concurrent bookings rank the
+            // same slot first; the guarded update lets only one of them have it, the others move on.
+            String spotId = null;
+            for (ParkingSlot slot : SlotPlacer.getInstance().rank(branchID, slotType, availableSlots)) {
+                if (parkingDAO.updateSlotAvailability(slot.getSpot_ID(), false, conn)) {
+                    spotId = slot.getSpot_ID();
+                    break;
+                }
+            }
 
-            // Step 3: Create the reservation record in the database
+            if (spotId == null) {
+                System.err.println("ReservationService: Every free slot for branch " + branchID + " and type " + slotType + " was just taken");
+                rollbackTransaction(conn);
+                return Optional.empty();
+            }
+
+            // Step 4: Create the reservation record in the database
             Reservation newReservation = new Reservation(
                     vehicleID,
                     spotId,
@@ -78,17 +156,11 @@ public class ReservationService {
                 return Optional.empty();
             }
 
-            // Step 4: Mark the slot as taken so no one else can book it
-            boolean slotUpdated = parkingDAO.updateSlotAvailability(spotId, false, conn);
-            
-            if (!slotUpdated) {
-                System.err.println("ReservationService: Failed to update slot availability");
-                conn.rollback();
-                return Optional.empty();
-            }
-
             conn.commit();
             System.out.println("ReservationService: Reservation created successfully - ID: " + createdReservation.get().getReservationID());
+            ReservationStateStore.recordReservation(createdReservation.get());
+            ReservationStateStore.recordSlotAvailability(spotId, false);
+            ChangeNotifier.publish(Topic.RESERVATION, Action.CREATED, createdReservation.get().getReservationID(), createdReservation.get());
             
             return createdReservation;
 
@@ -110,6 +182,45 @@ public class ReservationService {
         }
     }
 
+    /**
+     * Group-commit variant of createReservation: the slot update and the insert are written
+     * together with other concurrent bookings in a single batch transaction. If the picked slot
+     * was taken by another process in the meantime, the next ranked slot is tried.
+     */
+    private Optional<Reservation> createReservationGrouped(int vehicleID, int branchID, SlotType slotType, LocalDateTime expectedTimeIn, LocalDateTime expectedExitTime) {
+        List<ParkingSlot> ranked = SlotPlacer.getInstance().rank(branchID, slotType, parkingDAO.getAvailableSlots(branchID, slotType));
+        for (ParkingSlot slot : ranked) {
+            String spotId = slot.getSpot_ID();
+            if (!spotsPendingCommit.add(spotId)) {
+                continue;
+            }
+            try {
+                Reservation newReservation = new Reservation(vehicleID, spotId, expectedTimeIn, LocalDateTime.now(), ReservationStatus.ACTIVE);
+                newReservation.setCheckInTime(expectedTimeIn);
+                newReservation.setCheckOutTime(expectedExitTime);
+
+                Reservation created = ReservationCommitter.INSTANCE.submit(newReservation).join();
+                System.out.println("ReservationService: Reservation created successfully - ID: " + created.getReservationID());
+
+                ReservationStateStore.recordReservation(created);
+                ReservationStateStore.recordSlotAvailability(spotId, false);
+                ChangeNotifier.publish(Topic.RESERVATION, Action.CREATED, created.getReservationID(), created);
+                return Optional.of(created);
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof SlotTakenException) {
+                    System.err.println("ReservationService: " + e.getCause().getMessage() + "; trying the next slot");
+                    continue;
+                }
+                System.err.println("ReservationService Error in createReservation: " + e.getCause().getMessage());
+                return Optional.empty();
+            } finally {
+                spotsPendingCommit.remove(spotId);
+            }
+        }
+        System.err.println("ReservationService: No available slots for branch " + branchID + " and type " + slotType);
+        return Optional.empty();
+    }
+
     /**
      * Cancels an existing parking reservation.
      * This is Transaction 4.4 from our project specs - handles the process
@@ -136,6 +247,12 @@ public class ReservationService {
                 return false;
             }
 
+            if (!ownsVehicle(userID, reservationOpt.get().getVehicleID())) {
+                System.err.println("ReservationService: Reservation " + reservationID + " does not belong to user " + userID);
+                rollbackTransaction(conn);
+                return false;
+            }
+
             if (reservationOpt.get().getStatus() != ReservationStatus.ACTIVE) {
                 System.err.println("ReservationService: Cannot cancel. Status is " + reservationOpt.get().getStatus());
                 conn.rollback();
@@ -143,11 +260,15 @@ public class ReservationService {
             }
 
             boolean statusUpdated = reservationDAO.updateReservationStatus(reservationID, ReservationStatus.CANCELLED, conn);
-            boolean slotReleased = parkingDAO.updateSlotAvailability(reservationOpt.get().getSpotID(), true, conn);
+            // false only if the slot is already free, e.g. released by an admin
+            parkingDAO.updateSlotAvailability(reservationOpt.get().getSpotID(), true, conn);
 
-            if (statusUpdated && slotReleased) {
+            if (statusUpdated) {
                 conn.commit();
                 System.out.println("ReservationService: Reservation " + reservationID + " cancelled successfully.");
+                ReservationStateStore.recordStatus(reservationOpt.get(), ReservationStatus.CANCELLED);
+                ReservationStateStore.recordSlotAvailability(reservationOpt.get().getSpotID(), true);
+                ChangeNotifier.publish(Topic.RESERVATION, Action.UPDATED, reservationID);
                 return true;
             } else {
                 conn.rollback();
@@ -163,6 +284,117 @@ public class ReservationService {
         }
     }
 
+    /**
+     * Records a vehicle's actual arrival at the entry gate.
+     * Only active reservations can be checked in; the booked check-in time
+     * is replaced by the real arrival time.
+     *
+     * @param reservationID The ID of the reservation being checked in
+     * @param arrivalTime The time the vehicle passed the entry gate
+     * @return true if the check-in was recorded, false if failed
+     */
+    public boolean checkIn(int reservationID, LocalDateTime arrivalTime) {
+        Connection conn = null;
+
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            Optional<Reservation> reservationOpt = reservationDAO.getReservationByID(reservationID);
+
+            if (reservationOpt.isEmpty()) {
+                System.err.println("ReservationService: Reservation not found - " + reservationID);
+                rollbackTransaction(conn);
+                return false;
+            }
+
+            if (reservationOpt.get().getStatus() != ReservationStatus.ACTIVE) {
+                System.err.println("ReservationService: Cannot check in. Status is " + reservationOpt.get().getStatus());
+                rollbackTransaction(conn);
+                return false;
+            }
+
+            if (reservationDAO.updateCheckInTime(reservationID, arrivalTime, conn)) {
+                conn.commit();
+                System.out.println("ReservationService: Reservation " + reservationID + " checked in at " + arrivalTime);
+                reservationOpt.get().setCheckInTime(arrivalTime);
+                ReservationStateStore.recordReservation(reservationOpt.get());
+                ChangeNotifier.publish(Topic.RESERVATION, Action.UPDATED, reservationID);
+                return true;
+            }
+
+            conn.rollback();
+            return false;
+
+        } catch (SQLException e) {
+            System.err.println("ReservationService Error in checkIn: " + e.getMessage());
+            rollbackTransaction(conn);
+            return false;
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
+    /**
+     * Records a vehicle's actual departure at the exit gate.
+     * Stores the real exit time, completes the reservation and frees the slot.
+     * Reservations that were already paid for (COMPLETED) can still be checked out; the slot
+     * is left alone if another Active reservation has claimed it since.
+     *
+     * @param reservationID The ID of the reservation being checked out
+     * @param departureTime The time the vehicle passed the exit gate
+     * @return true if the check-out was recorded, false if failed
+     */
+    public boolean checkOut(int reservationID, LocalDateTime departureTime) {
+        Connection conn = null;
+
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            Optional<Reservation> reservationOpt = reservationDAO.getReservationByID(reservationID);
+
+            if (reservationOpt.isEmpty()) {
+                System.err.println("ReservationService: Reservation not found - " + reservationID);
+                rollbackTransaction(conn);
+                return false;
+            }
+
+            ReservationStatus status = reservationOpt.get().getStatus();
+            if (status != ReservationStatus.ACTIVE && status != ReservationStatus.COMPLETED) {
+                System.err.println("ReservationService: Cannot check out. Status is " + status);
+                rollbackTransaction(conn);
+                return false;
+            }
+
+            boolean statusUpdated = reservationDAO.updateCheckOut(reservationID, departureTime, ReservationStatus.COMPLETED, conn);
+            // false if the slot is already free or was re-booked after the expiry sweep completed the stay
+            boolean released = parkingDAO.releaseSlotAfterStay(reservationOpt.get().getSpotID(), reservationID, conn);
+
+            if (statusUpdated) {
+                conn.commit();
+                System.out.println("ReservationService: Reservation " + reservationID + " checked out at " + departureTime);
+                reservationOpt.get().setCheckOutTime(departureTime);
+                ReservationStateStore.recordStatus(reservationOpt.get(), ReservationStatus.COMPLETED);
+                if (released) {
+                    ReservationStateStore.recordSlotAvailability(reservationOpt.get().getSpotID(), true);
+                }
+                ChangeNotifier.publish(Topic.RESERVATION, Action.UPDATED, reservationID);
+                return true;
+            }
+
+            conn.rollback();
+            return false;
+
+        } catch (SQLException e) {
+            System.err.println("ReservationService Error in checkOut: " + e.getMessage());
+            rollbackTransaction(conn);
+            return false;
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
     /**
      * Gets a reservation by its ID - useful for displaying reservation details
      * 
@@ -175,6 +407,12 @@ public class ReservationService {
 
     // === HELPER METHODS ===
 
+    private boolean ownsVehicle(int userID, int vehicleID) {
+        return vehicleDAO.findVehicleById(vehicleID)
+                .map(vehicle -> vehicle.getUser_id() == userID)
+                .orElse(false);
+    }
+
     /**
      * If something goes wrong during the reservation process, this method
      * undoes all the database changes we made so we don't leave things half-done.
@@ -209,10 +447,15 @@ public class ReservationService {
     }
 
     /**
-     * NEW: Updates all reservations that have passed their time_Out to 'COMPLETED'.
-     * Should be called on application startup or dashboard load.
+     * NEW: Updates all reservations that are more than OVERSTAY_GRACE past their time_Out to 'COMPLETED'
+     * and frees their slots. Should be called on application startup or dashboard load.
      */
     public void refreshSystemStatuses() {
-        reservationDAO.updateExpiredReservations();
+        LocalDateTime cutoff = LocalDateTime.now().minus(OVERSTAY_GRACE);
+        List<Integer> completed = reservationDAO.updateExpiredReservations(cutoff);
+        ReservationStateStore.recordExpirySweep(cutoff);
+        for (int reservationID : completed) {
+            ChangeNotifier.publish(Topic.RESERVATION, Action.UPDATED, reservationID);
+        }
     }
 }
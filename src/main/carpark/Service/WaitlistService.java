@@ -0,0 +1,251 @@
+package Service;
+
+import DAO.ParkingDAO;
+import DAO.ReservationDAO;
+import DAO.WaitlistDAO;
+import DAO.WaitlistDAO.WaitlistKey;
+import Model.Entity.ParkingSlot;
+import Model.Entity.Reservation;
+import Model.Entity.SlotType;
+import Model.Entity.WaitlistEntry;
+import Model.Entity.WaitlistEntry.WaitlistStatus;
+import Utilities.ChangeNotifier;
+import Utilities.ChangeNotifier.Action;
+import Utilities.ChangeNotifier.ChangeEvent;
+import Utilities.ChangeNotifier.Topic;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waitlist for branches that are full: customers queue for a branch and slot type with the time
+ * window they wanted, and get a reservation automatically when a slot of that type frees up.
+ *
+ * Entries live in the 'waitlist' table so every process sees them. Each process keeps one
+ * priority queue per (branch, slot type), ordered by window start and then by request time, and
+ * serves it when a reservation is cancelled, checked out, expired or otherwise leaves ACTIVE.
+ * Claiming an entry is a guarded status update, so a slot freed in two processes at once still
+ * gives each entry only one reservation. A sweep every SWEEP_INTERVAL reloads the queues, expires
+ * entries whose window has ended and serves anything a missed event left behind.
+ *
+ * All queue work happens on one worker thread; callers and event publishers never wait on it.
+ * Customers learn of the outcome from {@link #takeNotifications(int)}.
+ */
+public class WaitlistService implements ChangeNotifier.ChangeListener {
+
+    private static final Duration SWEEP_INTERVAL = Duration.ofMinutes(1);
+
+    private static final Comparator<WaitlistEntry> SERVE_ORDER = Comparator
+            .comparing(WaitlistEntry::getWindowStart)
+            .thenComparing(WaitlistEntry::getDateRequested)
+            .thenComparingInt(WaitlistEntry::getWaitlistID);
+
+    private static volatile WaitlistService instance;
+
+    private final WaitlistDAO waitlistDAO;
+    private final ReservationDAO reservationDAO;
+    private final ParkingDAO parkingDAO;
+    private final ReservationService reservationService;
+    private final ScheduledExecutorService worker;
+
+    // Only touched on the worker thread
+    private final Map<WaitlistKey, WaitQueue> queues = new HashMap<>();
+
+    /**
+     * One branch and slot type's waiting entries, plus the highest ID loaded from the table.
+     */
+    private static class WaitQueue {
+        final PriorityQueue<WaitlistEntry> entries = new PriorityQueue<>(SERVE_ORDER);
+        int lastLoadedID;
+    }
+
+    private WaitlistService() {
+        this.waitlistDAO = new WaitlistDAO();
+        this.reservationDAO = new ReservationDAO();
+        this.parkingDAO = new ParkingDAO();
+        this.reservationService = new ReservationService();
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "waitlist-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the service, subscribing it to reservation changes and starting the sweep on first use.
+     */
+    public static WaitlistService getInstance() {
+        if (instance == null) {
+            synchronized (WaitlistService.class) {
+                if (instance == null) {
+                    WaitlistService service = new WaitlistService();
+                    ChangeNotifier.subscribe(service);
+                    service.worker.scheduleWithFixedDelay(service::sweep, 0, SWEEP_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+                    instance = service;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Puts the customer on the waitlist for the branch and slot type. If a slot is already free
+     * again, the entry is served straight away.
+     *
+     * @return The new entry, or empty if the window is invalid or the entry could not be saved
+     */
+    public Optional<WaitlistEntry> joinWaitlist(int userID, int vehicleID, int branchID, SlotType slotType,
+                                                LocalDateTime windowStart, LocalDateTime windowEnd) {
+        if (windowEnd == null || windowStart == null || !windowEnd.isAfter(windowStart)
+                || !windowEnd.isAfter(LocalDateTime.now())) {
+            System.err.println("WaitlistService: Invalid window " + windowStart + " - " + windowEnd);
+            return Optional.empty();
+        }
+
+        Optional<WaitlistEntry> entry = waitlistDAO.insertEntry(
+                new WaitlistEntry(userID, vehicleID, branchID, slotType, windowStart, windowEnd));
+        entry.ifPresent(e -> {
+            System.out.println("WaitlistService: User " + userID + " waitlisted for branch " + branchID + " " + slotType
+                    + " (entry " + e.getWaitlistID() + ")");
+            submit(() -> serve(new WaitlistKey(branchID, slotType)));
+        });
+        return entry;
+    }
+
+    public boolean leaveWaitlist(int waitlistID, int userID) {
+        return waitlistDAO.cancelEntry(waitlistID, userID);
+    }
+
+    /**
+     * The customer's waitlist entries that were assigned a reservation or expired since they were
+     * last told, marked as told.
+     */
+    public List<WaitlistEntry> takeNotifications(int userID) {
+        List<WaitlistEntry> entries = waitlistDAO.getUnnotifiedEntries(userID);
+        entries.removeIf(entry -> !waitlistDAO.markNotified(entry.getWaitlistID()));
+        return entries;
+    }
+
+    // === SERVING ===
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        // Creations take slots rather than free them
+        if (event.topic() != Topic.RESERVATION || event.action() != Action.UPDATED) {
+            return;
+        }
+        if (event.id() == ChangeNotifier.ALL) {
+            submit(this::serveAll);
+        } else {
+            submit(() -> serveFreedBy(event.id()));
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            worker.execute(task);
+        } catch (RuntimeException e) {
+            System.err.println("WaitlistService: Could not schedule waitlist work: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Serves the queue of the slot a reservation used, in case the change released it.
+     */
+    private void serveFreedBy(int reservationID) {
+        try {
+            Optional<Reservation> reservation = reservationDAO.getReservationByID(reservationID);
+            if (reservation.isEmpty()) return;
+            Optional<ParkingSlot> slot = parkingDAO.getSlotByID(reservation.get().getSpotID());
+            if (slot.isPresent()) {
+                serve(new WaitlistKey(slot.get().getBranch_ID(), slot.get().getSlot_type()));
+            }
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("WaitlistService Error in serveFreedBy: " + e.getMessage());
+        }
+    }
+
+    private void serveAll() {
+        try {
+            for (WaitlistKey key : waitlistDAO.getWaitingKeys()) {
+                serve(key);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("WaitlistService Error in serveAll: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the queues from the table, so entries other processes served or cancelled are
+     * dropped, then expires ended windows and serves every queue.
+     */
+    private void sweep() {
+        queues.clear();
+        int expired = waitlistDAO.expireEnded(LocalDateTime.now());
+        if (expired > 0) {
+            System.out.println("WaitlistService: Expired " + expired + " waitlist entries.");
+        }
+        serveAll();
+    }
+
+    /**
+     * Hands free slots of the key's type to the queue's entries in priority order, until the
+     * queue or the free slots run out.
+     */
+    private void serve(WaitlistKey key) {
+        WaitQueue queue = queues.computeIfAbsent(key, k -> new WaitQueue());
+        for (WaitlistEntry entry : waitlistDAO.getWaitingEntries(key.branchID(), key.slotType(), queue.lastLoadedID)) {
+            queue.entries.add(entry);
+            queue.lastLoadedID = Math.max(queue.lastLoadedID, entry.getWaitlistID());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        while (!queue.entries.isEmpty()) {
+            WaitlistEntry next = queue.entries.peek();
+            if (!next.getWindowEnd().isAfter(now)) {
+                queue.entries.poll();
+                waitlistDAO.updateStatusIf(next.getWaitlistID(), WaitlistStatus.WAITING, WaitlistStatus.EXPIRED);
+                continue;
+            }
+            if (parkingDAO.countAvailableSlotsByType(key.branchID()).getOrDefault(key.slotType(), 0) == 0) {
+                return;
+            }
+            // Lost the claim: another process served it or the customer cancelled
+            if (!waitlistDAO.updateStatusIf(next.getWaitlistID(), WaitlistStatus.WAITING, WaitlistStatus.ASSIGNED)) {
+                queue.entries.poll();
+                continue;
+            }
+            queue.entries.poll();
+
+            Optional<Reservation> reservation = reservationService.createReservation(next.getUserID(), next.getVehicleID(),
+                    key.branchID(), key.slotType(), next.getWindowStart(), next.getWindowEnd());
+            if (reservation.isEmpty()) {
+                if (parkingDAO.countAvailableSlotsByType(key.branchID()).getOrDefault(key.slotType(), 0) == 0) {
+                    // The slot was taken between the count and the booking; keep the entry's place
+                    waitlistDAO.updateStatusIf(next.getWaitlistID(), WaitlistStatus.ASSIGNED, WaitlistStatus.WAITING);
+                    queue.entries.add(next);
+                    return;
+                }
+                // Slots are still free, so this entry cannot be booked (e.g. the vehicle changed owner);
+                // expire it so the customer is told and the entries behind it are not held up
+                waitlistDAO.updateStatusIf(next.getWaitlistID(), WaitlistStatus.ASSIGNED, WaitlistStatus.EXPIRED);
+                System.err.println("WaitlistService: Entry " + next.getWaitlistID() + " could not be booked and was expired");
+                continue;
+            }
+            waitlistDAO.setReservation(next.getWaitlistID(), reservation.get().getReservationID());
+            System.out.println("WaitlistService: Entry " + next.getWaitlistID() + " assigned reservation "
+                    + reservation.get().getReservationID());
+        }
+        queues.remove(key);
+    }
+}
@@ -0,0 +1,199 @@
+import DAO.DBConnectionUtil;
+import DAO.ParkingDAO;
+import Model.Entity.Branch;
+import Model.Entity.SlotType;
+import Service.CustomerDashboardService;
+import Service.NearestBranchService;
+import Service.Placement.SlotPlacer;
+import Service.WaitlistService;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.geometry.Pos;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts the desktop app behind a splash screen, doing up front what would otherwise happen on
+ * the first clicks after boot.
+ *
+ * The phases run at the same time and each is timed:
+ *   connection pool      opens WARM_CONNECTIONS pooled connections
+ *   branches and pricing builds the nearest-branch index and the placement floor totals
+ *   availability         runs the slot availability queries once, so their statements are
+ *                        prepared and the rows are in the database's cache
+ *   services             subscribes the waitlist and customer dashboard services
+ *   screens              loads the login scene and the dashboard controllers' classes
+ *
+ * The login scene is shown when every phase has finished, or after READY_TIMEOUT at the latest;
+ * a failed or unfinished phase only means that work happens lazily as before.
+ */
+class StartupOrchestrator {
+
+    private static final Duration READY_TIMEOUT = Duration.ofSeconds(10);
+    private static final int WARM_CONNECTIONS = 4;
+    private static final String LOGIN_SCENE = "fxml/login_scene.fxml";
+    private static final List<String> CONTROLLER_CLASSES = List.of(
+            "Controller.CustomerDashboardController", "Controller.HomePageController",
+            "Controller.ReservationPageController", "Controller.PaymentPageController",
+            "Controller.ProfilePageController", "Controller.Admin.AdminDashboardController",
+            "Controller.Admin.ReportController");
+
+    private interface Work {
+        void run() throws Exception;
+    }
+
+    /**
+     * A phase and its running time, completed exceptionally if the phase failed.
+     */
+    private record Phase(String name, CompletableFuture<Duration> elapsed) {}
+
+    private final ExecutorService workers = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "startup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ParkingDAO parkingDAO = new ParkingDAO();
+    private final List<Phase> phases = new ArrayList<>();
+    private final AtomicInteger finished = new AtomicInteger();
+    private volatile Parent loginRoot;
+
+    private Label statusLabel;
+    private ProgressBar progressBar;
+
+    /**
+     * Shows the splash screen on the stage, runs the phases and then switches to the login scene.
+     * Called on the JavaFX thread.
+     */
+    void start(Stage stage) {
+        long startNanos = System.nanoTime();
+        stage.setTitle("Car Park Reservation System");
+        stage.setScene(new Scene(splash(), 1200, 800));
+        stage.setResizable(false);
+        stage.show();
+
+        phase("connection pool", () -> DBConnectionUtil.warmUp(WARM_CONNECTIONS));
+        phase("branches and pricing", () -> {
+            NearestBranchService.getInstance();
+            SlotPlacer.getInstance().warmUp();
+        });
+        phase("availability", () -> {
+            for (SlotType slotType : SlotType.values()) {
+                parkingDAO.countAvailableSlotsByBranch(slotType);
+            }
+            for (Branch branch : parkingDAO.getAllBranches()) {
+                parkingDAO.countAvailableSlotsByType(branch.getBranch_ID());
+            }
+        });
+        phase("services", () -> {
+            // Hand slots freed from this app to waitlisted customers
+            WaitlistService.getInstance();
+            CustomerDashboardService.getInstance();
+        });
+        phase("screens", () -> {
+            loginRoot = loadLoginScene();
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            for (String className : CONTROLLER_CLASSES) {
+                Class.forName(className, true, loader);
+            }
+        });
+
+        CompletableFuture.allOf(phases.stream().map(Phase::elapsed).toArray(CompletableFuture[]::new))
+                .completeOnTimeout(null, READY_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, error) -> Platform.runLater(() -> {
+                    report(Duration.ofNanos(System.nanoTime() - startNanos));
+                    showLogin(stage);
+                    workers.shutdown();
+                }));
+    }
+
+    private void phase(String name, Work work) {
+        CompletableFuture<Duration> elapsed = new CompletableFuture<>();
+        phases.add(new Phase(name, elapsed));
+        workers.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                work.run();
+                elapsed.complete(Duration.ofNanos(System.nanoTime() - start));
+            } catch (Exception | LinkageError e) {
+                System.err.println("StartupOrchestrator: " + name + " failed, continuing lazily: " + e.getMessage());
+                elapsed.completeExceptionally(e);
+            }
+            int done = finished.incrementAndGet();
+            Platform.runLater(() -> {
+                progressBar.setProgress((double) done / phases.size());
+                statusLabel.setText("Loaded " + name + " (" + done + "/" + phases.size() + ")");
+            });
+        });
+    }
+
+    private Parent splash() {
+        Label title = new Label("Car Park Reservation System");
+        title.setFont(Font.font("Times New Roman", 36));
+        statusLabel = new Label("Starting...");
+        progressBar = new ProgressBar(0);
+        progressBar.setPrefWidth(400);
+
+        VBox box = new VBox(20, title, progressBar, statusLabel);
+        box.setAlignment(Pos.CENTER);
+        return box;
+    }
+
+    /**
+     * Logs the total and each phase's time, e.g. "Ready in 850 ms: connection pool 610 ms, ...".
+     */
+    private void report(Duration total) {
+        StringBuilder line = new StringBuilder("StartupOrchestrator: Ready in " + total.toMillis() + " ms:");
+        String separator = " ";
+        for (Phase phase : phases) {
+            line.append(separator).append(phase.name()).append(' ');
+            CompletableFuture<Duration> elapsed = phase.elapsed();
+            if (!elapsed.isDone()) {
+                line.append("still running");
+            } else if (elapsed.isCompletedExceptionally()) {
+                line.append("failed");
+            } else {
+                line.append(elapsed.join().toMillis()).append(" ms");
+            }
+            separator = ", ";
+        }
+        System.out.println(line);
+    }
+
+    private void showLogin(Stage stage) {
+        Parent root = loginRoot;
+        try {
+            if (root == null) {
+                // The screens phase failed or has not finished
+                root = loadLoginScene();
+            }
+            stage.setScene(new Scene(root, 1200, 800));
+        } catch (IOException e) {
+            System.err.println("Failed to load the login scene (login_scene.fxml)");
+            e.printStackTrace();
+        }
+    }
+
+    private static Parent loadLoginScene() throws IOException {
+        URL fxmlUrl = Thread.currentThread().getContextClassLoader().getResource(LOGIN_SCENE);
+        if (fxmlUrl == null) {
+            throw new IOException("FXML resource not found. Ensure 'resources' folder is marked as 'Resources Root'. Path checked: " + LOGIN_SCENE);
+        }
+        return new FXMLLoader(fxmlUrl).load();
+    }
+}
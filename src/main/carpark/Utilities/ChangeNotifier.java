@@ -0,0 +1,69 @@
+package Utilities;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * ChangeNotifier is a static utility class that lets in-memory caches and indexes
+ * follow writes made through the DAO and Service layers.
+ * Writers publish an event after their change is committed; subscribers are
+ * called synchronously on the writer's thread, so they should only do cheap work
+ * (or hand the event off to their own thread).
+ */
+public class ChangeNotifier {
+
+    /**
+     * The kind of record that changed.
+     */
+    public enum Topic { VEHICLE, RESERVATION, PAYMENT, USER, SLOT, BRANCH }
+
+    public enum Action { CREATED, UPDATED, DELETED }
+
+    /**
+     * Id used when a single write touched many records (e.g. the expiry sweep),
+     * telling subscribers to reload rather than patch one entry.
+     */
+    public static final int ALL = 0;
+
+    /**
+     * A committed change.
+     *
+     * @param topic  The kind of record that changed
+     * @param action What happened to it
+     * @param id     The record's primary key, or ALL
+     * @param entity The record after the change when the writer has it at hand, otherwise null
+     */
+    public record ChangeEvent(Topic topic, Action action, int id, Object entity) {}
+
+    public interface ChangeListener {
+        void onChange(ChangeEvent event);
+    }
+
+    private static final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public static void subscribe(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void unsubscribe(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public static void publish(Topic topic, Action action, int id) {
+        publish(topic, action, id, null);
+    }
+
+    /**
+     * Notifies every subscriber. A failing subscriber is logged and does not affect the writer or other subscribers.
+     */
+    public static void publish(Topic topic, Action action, int id, Object entity) {
+        ChangeEvent event = new ChangeEvent(topic, action, id, entity);
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.onChange(event);
+            } catch (RuntimeException e) {
+                System.err.println("ChangeNotifier: Listener failed for " + event + ": " + e.getMessage());
+            }
+        }
+    }
+}
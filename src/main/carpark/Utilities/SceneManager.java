@@ -0,0 +1,146 @@
+package Utilities;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * SceneManager is a static utility class that keeps loaded FXML pages (root and controller) so
+ * navigating back to a page does not parse its FXML and rebuild its scene graph again.
+ *
+ * A page is reused only if its controller implements {@link Resettable}; reset() is called
+ * every time the page is shown again and must bring it up to date. Other pages are loaded
+ * fresh on every visit after the first.
+ *
+ * Pages hold the logged-in user's data, so the cache belongs to the session: the dashboards
+ * preload their pages on a background thread at login, and logging out clears everything.
+ */
+public class SceneManager {
+
+    /**
+     * Implemented by controllers whose page can be shown again instead of being reloaded.
+     */
+    public interface Resettable {
+        /**
+         * Called on the JavaFX thread before a cached page is shown again.
+         */
+        void reset();
+    }
+
+    /**
+     * A loaded page.
+     */
+    public static class Page {
+        private final Parent root;
+        private final Object controller;
+        // Only read and written on the JavaFX thread
+        private boolean shown;
+
+        private Page(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+
+        public Parent getRoot() {return root;}
+
+        @SuppressWarnings("unchecked")
+        public <T> T getController() {return (T) controller;}
+    }
+
+    private static final ExecutorService preloader = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "scene-preloader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static volatile Map<String, CompletableFuture<Page>> pages = new ConcurrentHashMap<>();
+
+    /**
+     * Loads the pages one after another on a background thread. A page that is asked for
+     * before its turn is loaded by the caller instead.
+     */
+    public static void preload(List<String> fxmlPaths) {
+        Map<String, CompletableFuture<Page>> session = pages;
+        for (String fxmlPath : fxmlPaths) {
+            preloader.execute(() -> {
+                CompletableFuture<Page> page = new CompletableFuture<>();
+                if (session.putIfAbsent(fxmlPath, page) != null) {
+                    return;
+                }
+                try {
+                    page.complete(load(fxmlPath));
+                } catch (IOException | RuntimeException e) {
+                    session.remove(fxmlPath, page);
+                    page.completeExceptionally(e);
+                    System.err.println("SceneManager: Could not preload " + fxmlPath + ": " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the page, reset if it was shown before, loading it if it is not cached.
+     * Must be called on the JavaFX thread.
+     *
+     * @throws IOException if the FXML is missing or fails to load
+     */
+    public static Page show(String fxmlPath) throws IOException {
+        Map<String, CompletableFuture<Page>> session = pages;
+        CompletableFuture<Page> cached = session.get(fxmlPath);
+        Page page = null;
+        if (cached != null) {
+            try {
+                // Waits if the preloader is loading it right now
+                page = cached.join();
+            } catch (CompletionException e) {
+                session.remove(fxmlPath, cached);
+            }
+        }
+
+        if (page == null || (page.shown && !(page.controller instanceof Resettable))) {
+            page = load(fxmlPath);
+            if (page.controller instanceof Resettable) {
+                session.put(fxmlPath, CompletableFuture.completedFuture(page));
+            } else {
+                session.remove(fxmlPath);
+            }
+        } else if (page.shown) {
+            ((Resettable) page.controller).reset();
+        }
+        page.shown = true;
+        return page;
+    }
+
+    /**
+     * Drops one page, e.g. when it holds state a reset cannot undo.
+     */
+    public static void evict(String fxmlPath) {
+        pages.remove(fxmlPath);
+    }
+
+    /**
+     * Drops every page, including ones still being preloaded. Called when the session ends.
+     */
+    public static void clear() {
+        pages = new ConcurrentHashMap<>();
+    }
+
+    private static Page load(String fxmlPath) throws IOException {
+        URL fxmlUrl = SceneManager.class.getResource(fxmlPath);
+        if (fxmlUrl == null) {
+            throw new IOException("Cannot find FXML file: " + fxmlPath);
+        }
+        FXMLLoader loader = new FXMLLoader(fxmlUrl);
+        Parent root = loader.load();
+        return new Page(root, loader.getController());
+    }
+}
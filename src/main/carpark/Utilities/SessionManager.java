@@ -31,6 +31,8 @@ public class SessionManager {
         if (currentUser != null) {
             System.out.println("SessionManager: User logged out. ID: " + currentUser.getUser_ID());
         }
+        // Cached pages show this user's data
+        SceneManager.clear();
     }
 
     /**
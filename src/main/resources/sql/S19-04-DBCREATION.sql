@@ -13,7 +13,10 @@ CREATE TABLE `users` (
     `role` ENUM('Admin', 'Customer') NOT NULL,
     `join_date` DATE NOT NULL,
 
-    PRIMARY KEY(`user_ID`)
+    PRIMARY KEY(`user_ID`),
+    -- Admin user list: role filter with email prefix search, and join date order
+    KEY `idx_users_role_email` (`role`, `email`),
+    KEY `idx_users_join_date` (`join_date`)
 ) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
 
 -- Customer Record: Stores customer-specific details (1:1 with users WHERE role=`Customer`)
@@ -42,6 +45,8 @@ CREATE TABLE `branches` (
     `location` VARCHAR(100),
     `opening_time` TIME,
     `closing_time` TIME,
+    `latitude` DECIMAL(9, 6),
+    `longitude` DECIMAL(9, 6),
 
     PRIMARY KEY (`branch_ID`)
 ) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -105,8 +110,14 @@ CREATE TABLE `reservations` (
     time_Out DATETIME,
     dateReserved DATETIME NOT NULL,
     status ENUM ('Active', 'Completed', 'Cancelled', 'No-Show') NOT NULL,
+    -- Set when the vehicle passes the exit gate; a stay with one is never matched to another exit
+    gate_exit_time DATETIME,
+    updated_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
 
     PRIMARY KEY(transact_ID),
+    -- Month version checks of the report cache
+    KEY `idx_reservations_reserved` (`dateReserved`, `updated_at`),
+    KEY `idx_reservations_time_out` (`time_Out`, `updated_at`),
     FOREIGN KEY(vehicle_ID) REFERENCES `vehicles`(`vehicle_ID`)
         ON DELETE CASCADE ON UPDATE CASCADE,
     FOREIGN KEY(spot_ID) REFERENCES `parking_slots`(`spot_ID`)
@@ -123,12 +134,31 @@ CREATE TABLE `payments` (
     payment_date DATETIME,
     payment_status ENUM('Pending', 'Paid', 'Refunded') NOT NULL,
     mode_of_payment ENUM('Cash', 'E-wallet', 'Credit Card'),
+    updated_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
 
     PRIMARY KEY(payment_ID),
+    KEY `idx_payments_date` (`payment_date`, `updated_at`),
+    -- Payments changed since the analytics column store last synced
+    KEY `idx_payments_updated` (`updated_at`),
     FOREIGN KEY(transact_ID) REFERENCES `reservations`(`transact_ID`)
         ON DELETE CASCADE ON UPDATE CASCADE
 ) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
 
+-- Payment Request Record: One row per client idempotency key, so a retried payment returns the first result
+DROP TABLE IF EXISTS `payment_requests`;
+CREATE TABLE `payment_requests` (
+    request_key BINARY(16) NOT NULL,
+    transact_ID INT(11) NOT NULL,
+    payment_ID INT(11),
+    created_at DATETIME NOT NULL,
+
+    PRIMARY KEY(request_key),
+    FOREIGN KEY(transact_ID) REFERENCES `reservations`(`transact_ID`)
+        ON DELETE CASCADE ON UPDATE CASCADE,
+    FOREIGN KEY(payment_ID) REFERENCES `payments`(`payment_ID`)
+        ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
 -- Pricing Record: Stores the hourly rates
 -- Idea pa lng still looking how this can be integrated
 DROP TABLE IF EXISTS `pricing`;
@@ -145,10 +175,40 @@ CREATE TABLE `pricing` (
         ON DELETE CASCADE ON UPDATE CASCADE
 ) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
 
+-- Waitlist Record: Customers waiting for a slot at a full branch, served in window order
+DROP TABLE IF EXISTS `waitlist`;
+CREATE TABLE `waitlist` (
+    waitlist_ID INT(11) NOT NULL AUTO_INCREMENT,
+    user_ID INT(11) NOT NULL,
+    vehicle_ID INT(11) NOT NULL,
+    branch_ID INT(11) NOT NULL,
+    slot_type ENUM('Regular', 'PWD', 'Motorcycle', 'VIP') NOT NULL,
+    window_start DATETIME NOT NULL,
+    window_end DATETIME NOT NULL,
+    date_requested DATETIME NOT NULL,
+    status ENUM('Waiting', 'Assigned', 'Expired', 'Cancelled') NOT NULL,
+    transact_ID INT(11),
+    notified BOOLEAN NOT NULL DEFAULT FALSE,
+
+    PRIMARY KEY(waitlist_ID),
+    KEY `idx_waitlist_queue` (`status`, `branch_ID`, `slot_type`, `window_start`),
+    KEY `idx_waitlist_user` (`user_ID`, `notified`),
+    FOREIGN KEY(user_ID) REFERENCES `users`(`user_ID`)
+        ON DELETE CASCADE ON UPDATE CASCADE,
+    FOREIGN KEY(vehicle_ID) REFERENCES `vehicles`(`vehicle_ID`)
+        ON DELETE CASCADE ON UPDATE CASCADE,
+    FOREIGN KEY(branch_ID) REFERENCES `branches`(`branch_ID`)
+        ON DELETE CASCADE ON UPDATE CASCADE,
+    FOREIGN KEY(transact_ID) REFERENCES `reservations`(`transact_ID`)
+        ON DELETE SET NULL ON UPDATE CASCADE
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
 -- ===== DATABASE POPULATE =====
 
 SET FOREIGN_KEY_CHECKS=0;
 
+TRUNCATE TABLE waitlist;
+TRUNCATE TABLE payment_requests;
 TRUNCATE TABLE payments;
 TRUNCATE TABLE reservations;
 TRUNCATE TABLE pricing;
@@ -171,11 +231,11 @@ ALTER TABLE pricing AUTO_INCREMENT = 1;
 SET FOREIGN_KEY_CHECKS=1;
 
 -- ===== INSERT BRANCHES=====
-INSERT INTO branches (`name`, contact_number, email, max_slots, `location`, opening_time, closing_time)
+INSERT INTO branches (`name`, contact_number, email, max_slots, `location`, opening_time, closing_time, latitude, longitude)
 VALUES
-    ('DLSU-M Garage', '09171234567', 'DLSU.taft@park.com', 60, '2401 Taft Avenue, Manila 1004, Philippines', '06:00:00', '22:00:00'),
-    ('Makati Central', '09178889999', 'makati@park.com', 60, 'Ayala Triangle, Makati City', '05:00:00', '23:00:00'),
-    ('BGC High Street', '09177776666', 'bgc@park.com', 60, '9th Avenue, Taguig City', '00:00:00', '23:59:59');
+    ('DLSU-M Garage', '09171234567', 'DLSU.taft@park.com', 60, '2401 Taft Avenue, Manila 1004, Philippines', '06:00:00', '22:00:00', 14.564800, 120.993200),
+    ('Makati Central', '09178889999', 'makati@park.com', 60, 'Ayala Triangle, Makati City', '05:00:00', '23:00:00', 14.557300, 121.024400),
+    ('BGC High Street', '09177776666', 'bgc@park.com', 60, '9th Avenue, Taguig City', '00:00:00', '23:59:59', 14.550900, 121.050900);
 -- Parking Slots (for branch_ID 1)
 INSERT INTO parking_slots (spot_ID, branch_ID, floor_level, slot_type, availability)
 VALUES